@@ -0,0 +1,33 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.ext.gfm.strikethrough.StrikethroughExtension;
+import com.vladsch.flexmark.ext.gfm.tasklist.TaskListExtension;
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.Arrays;
+
+/** Parser, renderer and formatter options shared by the document benchmarks */
+public final class BenchmarkOptions {
+  private BenchmarkOptions() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * @param extensions true to include tables, strikethrough and task list extensions
+   * @return options
+   */
+  public static DataHolder options(boolean extensions) {
+    MutableDataSet options = new MutableDataSet();
+    if (extensions) {
+      options.set(
+          Parser.EXTENSIONS,
+          Arrays.asList(
+              TablesExtension.create(),
+              StrikethroughExtension.create(),
+              TaskListExtension.create()));
+    }
+    return options.toImmutable();
+  }
+}
@@ -0,0 +1,82 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.html.BlockRenderCache;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rendering many documents built from the same boilerplate blocks and a few unique paragraphs,
+ * with and without a {@link BlockRenderCache} shared between the renders
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BlockRenderCacheBenchmark {
+  private static final String[] FRAGMENTS = {
+    "> **Note:** this page is provided *as is*, without warranty of any kind. See the"
+        + " [license](https://example.com/license) for details.\n",
+    "| Version | Date |\n| --- | --- |\n| 1.0 | 2020-01-01 |\n",
+    "- Install the package with `npm install example`\n"
+        + "- Import the module in your code\n"
+        + "- Call `example.run()` with your *options*\n",
+    "```java\npublic class Example {\n  public static void main(String[] args) {\n"
+        + "    System.out.println(\"example\");\n  }\n}\n```\n",
+    "Copyright &copy; Example Corp. All rights reserved. Contact"
+        + " <support@example.com> or visit https://example.com for __help__.\n",
+  };
+
+  @Param({"true", "false"})
+  public boolean blockRenderCache;
+
+  private HtmlRenderer renderer;
+  private List<Document> documents;
+
+  @Setup
+  public void setup() {
+    MutableDataSet options = new MutableDataSet();
+    if (blockRenderCache) {
+      options.set(HtmlRenderer.BLOCK_RENDER_CACHE, new BlockRenderCache(10_000));
+    }
+    renderer = HtmlRenderer.builder(options).build();
+
+    Parser parser = Parser.builder().build();
+    documents = new ArrayList<>();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      sb.setLength(0);
+      sb.append("Page ").append(i).append(" describes *item ").append(i).append("*.\n\n");
+      for (int j = 0; j < FRAGMENTS.length; j++) {
+        sb.append(FRAGMENTS[(i + j) % FRAGMENTS.length]).append('\n');
+      }
+      sb.append("Last updated by user ").append(i % 17).append(".\n");
+      documents.add(parser.parse(sb.toString()));
+    }
+  }
+
+  @Benchmark
+  public void render(Blackhole blackhole) {
+    for (Document document : documents) {
+      blackhole.consume(renderer.render(document));
+    }
+  }
+}
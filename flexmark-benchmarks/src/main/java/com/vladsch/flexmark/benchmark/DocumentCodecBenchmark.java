@@ -0,0 +1,61 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.DocumentCodec;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding a document with {@link DocumentCodec} compared to parsing its text again, for core nodes
+ * only as extension nodes have no frozen node types
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DocumentCodecBenchmark {
+  @Param({"spec", "synthetic-100k"})
+  public String corpus;
+
+  private String source;
+  private Parser parser;
+  private Document document;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() {
+    source = SpecCorpus.document(corpus);
+    parser = Parser.builder(BenchmarkOptions.options(false)).build();
+    document = parser.parse(source);
+    encoded = DocumentCodec.encode(document);
+  }
+
+  @Benchmark
+  public Document parse() {
+    return parser.parse(source);
+  }
+
+  @Benchmark
+  public Document decode() throws IOException {
+    return DocumentCodec.decode(encoded, source, parser.getOptions());
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return DocumentCodec.encode(document);
+  }
+}
@@ -0,0 +1,69 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.Escaping;
+import com.vladsch.flexmark.util.sequence.ReplacedTextMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** {@link Escaping} functions applied to every line of the spec text */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EscapingBenchmark {
+  private List<BasedSequence> lines;
+
+  @Setup
+  public void setup() {
+    lines = BasedSequence.of(SpecCorpus.specText()).splitListEOL(false);
+  }
+
+  @Benchmark
+  public void escapeHtml(Blackhole blackhole) {
+    for (BasedSequence line : lines) {
+      blackhole.consume(Escaping.escapeHtml(line, false));
+    }
+  }
+
+  @Benchmark
+  public void escapeHtmlPreserveEntities(Blackhole blackhole) {
+    for (BasedSequence line : lines) {
+      blackhole.consume(Escaping.escapeHtml(line, true));
+    }
+  }
+
+  @Benchmark
+  public void unescape(Blackhole blackhole) {
+    for (BasedSequence line : lines) {
+      blackhole.consume(Escaping.unescape(line, new ReplacedTextMapper(line)));
+    }
+  }
+
+  @Benchmark
+  public void percentEncodeUrl(Blackhole blackhole) {
+    for (BasedSequence line : lines) {
+      blackhole.consume(Escaping.percentEncodeUrl(line));
+    }
+  }
+
+  @Benchmark
+  public void normalizeReference(Blackhole blackhole) {
+    for (BasedSequence line : lines) {
+      blackhole.consume(Escaping.normalizeReference(line, true));
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Parser#parseFile(Path)} of a memory mapped file compared to reading the file into a string
+ * and parsing that
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FileParseBenchmark {
+  @Param({"synthetic-1024k"})
+  public String corpus;
+
+  private Parser parser;
+  private Path path;
+
+  @Setup
+  public void setup() throws IOException {
+    parser = Parser.builder().build();
+    path = Files.createTempFile("FileParseBenchmark", ".md");
+    Files.write(path, SpecCorpus.document(corpus).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(path);
+  }
+
+  @Benchmark
+  public Document parseFile() throws IOException {
+    return parser.parseFile(path);
+  }
+
+  @Benchmark
+  public Document parseString() throws IOException {
+    return parser.parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,128 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.FrozenDocument;
+import com.vladsch.flexmark.util.ast.NodeVisitor;
+import com.vladsch.flexmark.util.ast.VisitHandler;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Getting a document back from a {@link FrozenDocument} compared to parsing it again, and visiting
+ * the links of a frozen document compared to visiting them in the document.
+ *
+ * <p>{@link #main(String[])} prints heap retained by a cached document and its frozen form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrozenDocumentBenchmark {
+  @Param({"spec", "synthetic-100k"})
+  public String corpus;
+
+  private String source;
+  private Parser parser;
+  private Document document;
+  private FrozenDocument frozen;
+  private NodeVisitor linkVisitor;
+  private int linkCount;
+
+  @Setup
+  public void setup() {
+    source = SpecCorpus.document(corpus);
+    parser = Parser.builder(BenchmarkOptions.options(false)).build();
+    document = parser.parse(source);
+    frozen = FrozenDocument.of(document);
+    linkVisitor = new NodeVisitor(new VisitHandler<>(Link.class, link -> linkCount++));
+  }
+
+  @Benchmark
+  public Document parse() {
+    return parser.parse(source);
+  }
+
+  @Benchmark
+  public FrozenDocument freeze() {
+    return FrozenDocument.of(document);
+  }
+
+  @Benchmark
+  public Document thaw() {
+    return frozen.toDocument();
+  }
+
+  @Benchmark
+  public int visitDocument() {
+    linkCount = 0;
+    linkVisitor.visit(document);
+    return linkCount;
+  }
+
+  @Benchmark
+  public int visitFrozen() {
+    linkCount = 0;
+    linkVisitor.visit(frozen);
+    return linkCount;
+  }
+
+  private static long usedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Print bytes retained per cached document, excluding the document text, for the document and
+   * its frozen form
+   *
+   * @param args corpus names, defaults to the spec
+   * @throws InterruptedException if interrupted while waiting for garbage collection
+   */
+  public static void main(String[] args) throws InterruptedException {
+    Parser parser = Parser.builder(BenchmarkOptions.options(false)).build();
+    int count = 50;
+
+    for (String corpus : args.length == 0 ? new String[] {"spec"} : args) {
+      String[] sources = new String[count];
+      for (int i = 0; i < count; i++) {
+        sources[i] = new String(SpecCorpus.document(corpus).toCharArray());
+      }
+
+      Object[] cached = new Object[count];
+      long text = usedHeap();
+      for (int i = 0; i < count; i++) {
+        cached[i] = parser.parse(sources[i]);
+      }
+      long documents = usedHeap();
+      for (int i = 0; i < count; i++) {
+        cached[i] = FrozenDocument.of((Document) cached[i]);
+      }
+      long frozen = usedHeap();
+
+      System.out.printf(
+          "%s: %d nodes, document %d bytes, frozen %d bytes%n",
+          corpus,
+          ((FrozenDocument) cached[0]).getNodeCount(),
+          (documents - text) / count,
+          (frozen - text) / count);
+    }
+  }
+}
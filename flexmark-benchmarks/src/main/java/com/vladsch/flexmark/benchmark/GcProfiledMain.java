@@ -0,0 +1,51 @@
+package com.vladsch.flexmark.benchmark;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of {@code target/benchmarks.jar}, takes the same arguments as the JMH runner but adds
+ * the {@code gc} profiler when no profiler is given, so allocation rate and bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported next to the timing of every benchmark.
+ *
+ * <p>{@code java -jar target/benchmarks.jar ParseBenchmark -rf json} for example, or {@code -prof
+ * stack} to replace the gc profiler.
+ */
+public final class GcProfiledMain {
+  private GcProfiledMain() {
+    throw new IllegalStateException();
+  }
+
+  public static void main(String[] args) throws RunnerException, IOException {
+    CommandLineOptions commandLineOptions;
+    try {
+      commandLineOptions = new CommandLineOptions(args);
+    } catch (CommandLineOptionException e) {
+      System.err.println("Error parsing command line:");
+      System.err.println(" " + e.getMessage());
+      System.exit(1);
+      return;
+    }
+
+    if (commandLineOptions.shouldHelp()
+        || commandLineOptions.shouldList()
+        || commandLineOptions.shouldListWithParams()
+        || commandLineOptions.shouldListProfilers()
+        || commandLineOptions.shouldListResultFormats()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    OptionsBuilder options = new OptionsBuilder();
+    options.parent(commandLineOptions);
+    if (commandLineOptions.getProfilers().isEmpty()) {
+      options.addProfiler(GCProfiler.class);
+    }
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,45 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.DataHolder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** {@link HtmlRenderer#render(com.vladsch.flexmark.util.ast.Node)} of an already parsed document */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HtmlRenderBenchmark {
+  @Param({"spec", "synthetic-100k", "synthetic-1024k"})
+  public String corpus;
+
+  private HtmlRenderer renderer;
+  private Document document;
+
+  @Setup
+  public void setup() {
+    DataHolder options = BenchmarkOptions.options(true);
+    renderer = HtmlRenderer.builder(options).build();
+    document = Parser.builder(options).build().parse(SpecCorpus.document(corpus));
+  }
+
+  @Benchmark
+  public String render() {
+    return renderer.render(document);
+  }
+}
@@ -0,0 +1,117 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.html.LinkResolver;
+import com.vladsch.flexmark.html.LinkResolverCache;
+import com.vladsch.flexmark.html.LinkResolverFactory;
+import com.vladsch.flexmark.html.renderer.LinkResolverBasicContext;
+import com.vladsch.flexmark.html.renderer.LinkStatus;
+import com.vladsch.flexmark.html.renderer.ResolvedLink;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rendering many small documents linking to the same pages, with and without a {@link
+ * LinkResolverCache} shared between the renders
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LinkResolverCacheBenchmark {
+  @Param({"true", "false"})
+  public boolean linkResolverCache;
+
+  private HtmlRenderer renderer;
+  private List<Document> documents;
+
+  private static class PageLinkResolver implements LinkResolver {
+    @Override
+    public ResolvedLink resolveLink(
+        Node node, LinkResolverBasicContext context, ResolvedLink link) {
+      String url = link.getUrl();
+      if (url.startsWith("page-")) {
+        return link.withUrl("/wiki/Pages/" + url.replace('-', '_') + ".html?lang=en")
+            .withStatus(LinkStatus.VALID);
+      }
+      return link;
+    }
+
+    @Override
+    public boolean isDocumentIndependent() {
+      return true;
+    }
+  }
+
+  private static class PageLinkResolverFactory implements LinkResolverFactory {
+    @Override
+    public Set<Class<?>> getAfterDependents() {
+      return null;
+    }
+
+    @Override
+    public Set<Class<?>> getBeforeDependents() {
+      return null;
+    }
+
+    @Override
+    public boolean affectsGlobalScope() {
+      return false;
+    }
+
+    @Override
+    public LinkResolver apply(LinkResolverBasicContext context) {
+      return new PageLinkResolver();
+    }
+  }
+
+  @Setup
+  public void setup() {
+    MutableDataSet options = new MutableDataSet();
+    if (linkResolverCache) {
+      options.set(HtmlRenderer.LINK_RESOLVER_CACHE, new LinkResolverCache(10_000));
+    }
+    renderer =
+        HtmlRenderer.builder(options).linkResolverFactory(new PageLinkResolverFactory()).build();
+
+    Parser parser = Parser.builder().build();
+    documents = new ArrayList<>();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.setLength(0);
+      for (int j = 0; j < 20; j++) {
+        int page = (i * 7 + j * 13) % 2000;
+        sb.append("See [page ").append(page).append("](page-").append(page).append(") and ");
+      }
+      sb.append("more.\n");
+      documents.add(parser.parse(sb.toString()));
+    }
+  }
+
+  @Benchmark
+  public void render(Blackhole blackhole) {
+    for (Document document : documents) {
+      blackhole.consume(renderer.render(document));
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.html.MarkdownBatch;
+import com.vladsch.flexmark.parser.Parser;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of {@link MarkdownBatch} with the number of workers, for the spec examples as separate
+ * documents and for copies of the full spec.
+ *
+ * <p>{@link #main(String[])} prints the batch report for 1 to the number of available processors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarkdownBatchBenchmark {
+  private static final int SPEC_COPIES = 32;
+
+  @Param({"examples", "spec"})
+  public String corpus;
+
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  @Param({"false", "true"})
+  public boolean ordered;
+
+  private List<MarkdownBatch.Source> sources;
+  private MarkdownBatch batch;
+  private long htmlLength;
+
+  static List<MarkdownBatch.Source> sources(String corpus) {
+    List<String> texts =
+        corpus.equals("examples")
+            ? SpecCorpus.examples()
+            : Collections.nCopies(SPEC_COPIES, SpecCorpus.document(corpus));
+
+    List<MarkdownBatch.Source> sources = new ArrayList<>();
+    for (String text : texts) {
+      sources.add(MarkdownBatch.Source.of(corpus + sources.size(), text));
+    }
+    return sources;
+  }
+
+  static MarkdownBatch batch(int threads) {
+    return new MarkdownBatch(
+        Parser.builder(BenchmarkOptions.options(false)).build(),
+        HtmlRenderer.builder(BenchmarkOptions.options(false)).build(),
+        threads);
+  }
+
+  @Setup
+  public void setup() {
+    sources = sources(corpus);
+    batch = batch(threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    batch.close();
+  }
+
+  @Benchmark
+  public long process() throws IOException, InterruptedException {
+    htmlLength = 0;
+    batch.process(sources.stream(), (source, html) -> htmlLength += html.length(), ordered);
+    return htmlLength;
+  }
+
+  /**
+   * Print batch reports for each number of workers
+   *
+   * @param args corpus names, defaults to the spec examples
+   * @throws IOException never, the sink does not throw
+   * @throws InterruptedException if interrupted while processing
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int processors = Runtime.getRuntime().availableProcessors();
+
+    for (String corpus : args.length == 0 ? new String[] {"examples"} : args) {
+      List<MarkdownBatch.Source> sources = sources(corpus);
+      for (int threads = 1; threads <= processors; threads *= 2) {
+        try (MarkdownBatch batch = batch(threads)) {
+          for (int i = 0; i < 20; i++) {
+            batch.process(sources.stream(), (source, html) -> {});
+          }
+
+          MarkdownBatch.Report report = batch.process(sources.stream(), (source, html) -> {});
+          System.out.printf(
+              "%s: %d threads, %.0f documents/s, %.1f MB/s%n",
+              corpus,
+              threads,
+              report.getDocumentsPerSecond(),
+              report.getCharsPerSecond() / 1e6);
+        }
+      }
+    }
+  }
+}
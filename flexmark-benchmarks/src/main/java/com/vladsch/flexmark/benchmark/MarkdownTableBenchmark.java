@@ -0,0 +1,92 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.formatter.MarkdownWriter;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.format.MarkdownTable;
+import com.vladsch.flexmark.util.format.TableCell;
+import com.vladsch.flexmark.util.format.TableFormatOptions;
+import com.vladsch.flexmark.util.html.CellAlignment;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.LineAppendable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building and formatting a {@link MarkdownTable} the way the tables extension formatter does, from
+ * cells which are sub-sequences of the table source.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarkdownTableBenchmark {
+  @Param({"4"})
+  public int columns;
+
+  @Param({"10", "1000"})
+  public int rows;
+
+  private TableFormatOptions options;
+  private BasedSequence source;
+  private List<List<TableCell>> tableRows;
+
+  @Setup
+  public void setup() {
+    options =
+        new TableFormatOptions(
+            new MutableDataSet().set(TableFormatOptions.FORMAT_TABLE_ADJUST_COLUMN_WIDTH, true));
+    source = BasedSequence.of(SyntheticCorpus.table(columns, rows));
+    tableRows = new ArrayList<>();
+
+    for (BasedSequence line : source.splitListEOL(false)) {
+      if (line.isBlank()) continue;
+
+      List<TableCell> cells = new ArrayList<>();
+      BasedSequence content = line.trim().removePrefix("|").removeSuffix("|");
+      for (BasedSequence text : content.splitList("|")) {
+        cells.add(
+            new TableCell(
+                null,
+                BasedSequence.NULL,
+                text.trim(),
+                BasedSequence.NULL,
+                1,
+                1,
+                CellAlignment.NONE));
+      }
+      tableRows.add(cells);
+    }
+  }
+
+  @Benchmark
+  public String format() {
+    MarkdownTable table = new MarkdownTable(source, options);
+
+    for (int r = 0; r < tableRows.size(); r++) {
+      table.setHeader(r == 0);
+      table.setSeparator(r == 1);
+      for (TableCell cell : tableRows.get(r)) {
+        table.addCell(cell);
+      }
+      if (r != 1) table.nextRow();
+    }
+
+    MarkdownWriter out = new MarkdownWriter(LineAppendable.F_FORMAT_ALL);
+    table.appendTable(out);
+    return out.toString(0, 0);
+  }
+}
@@ -0,0 +1,68 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing and rendering with and without {@link Parser#PARSE_LISTENER} and {@link
+ * HtmlRenderer#RENDER_LISTENER} metrics listeners
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+  @Param({"spec", "synthetic-100k"})
+  public String corpus;
+
+  @Param({"false", "true"})
+  public boolean metrics;
+
+  private Parser parser;
+  private HtmlRenderer renderer;
+  private String document;
+  private Blackhole blackhole;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    this.blackhole = blackhole;
+    MutableDataSet options = new MutableDataSet(BenchmarkOptions.options(true));
+    if (metrics) {
+      options.set(
+          Parser.PARSE_LISTENER, (parsed, parseMetrics) -> this.blackhole.consume(parseMetrics));
+      options.set(
+          HtmlRenderer.RENDER_LISTENER,
+          (rendered, renderMetrics) -> this.blackhole.consume(renderMetrics));
+    }
+    parser = Parser.builder(options).build();
+    renderer = HtmlRenderer.builder(options).build();
+    document = SpecCorpus.document(corpus);
+  }
+
+  @Benchmark
+  public Document parse() {
+    return parser.parse(document);
+  }
+
+  @Benchmark
+  public String parseAndRender() {
+    return renderer.render(parser.parse(document));
+  }
+}
@@ -0,0 +1,86 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.ast.Code;
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.StrongEmphasis;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.NodeVisitor;
+import com.vladsch.flexmark.util.ast.VisitHandler;
+import com.vladsch.flexmark.util.data.DataHolder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per node type dispatch cost of visitor and render passes over large already parsed documents,
+ * {@code synthetic-1024k} has over 100k nodes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NodeDispatchBenchmark {
+  @Param({"synthetic-1024k"})
+  public String corpus;
+
+  private Document document;
+  private HtmlRenderer renderer;
+  private NodeVisitor visitor;
+  private int count;
+
+  @Setup
+  public void setup() {
+    DataHolder options = BenchmarkOptions.options(false);
+    document = Parser.builder(options).build().parse(SpecCorpus.document(corpus));
+    renderer = HtmlRenderer.builder(options).build();
+    visitor =
+        new NodeVisitor(
+            new VisitHandler<>(Text.class, node -> count++),
+            new VisitHandler<>(Code.class, node -> count++),
+            new VisitHandler<>(
+                Emphasis.class,
+                node -> {
+                  count++;
+                  visitor.visitChildren(node);
+                }),
+            new VisitHandler<>(
+                StrongEmphasis.class,
+                node -> {
+                  count++;
+                  visitor.visitChildren(node);
+                }),
+            new VisitHandler<>(
+                Link.class,
+                node -> {
+                  count++;
+                  visitor.visitChildren(node);
+                }));
+  }
+
+  @Benchmark
+  public int visit() {
+    count = 0;
+    visitor.visit(document);
+    return count;
+  }
+
+  @Benchmark
+  public String render() {
+    return renderer.render(document);
+  }
+}
@@ -0,0 +1,62 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.FrozenDataSet;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Option reads from a {@link FrozenDataSet} compared to the map backed data sets */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OptionsReadBenchmark {
+  @Param({"frozen", "immutable", "mutable"})
+  public String dataSet;
+
+  private DataHolder options;
+
+  @Setup
+  public void setup() {
+    MutableDataSet source =
+        new MutableDataSet().set(Parser.BLANK_LINES_IN_AST, true).set(HtmlRenderer.SOFT_BREAK, " ");
+    switch (dataSet) {
+      case "frozen":
+        options = FrozenDataSet.of(source);
+        break;
+      case "immutable":
+        options = source.toImmutable();
+        break;
+      default:
+        options = source;
+        break;
+    }
+  }
+
+  @Benchmark
+  public int read() {
+    int result = 0;
+    if (Parser.BLANK_LINES_IN_AST.get(options)) result++;
+    if (Parser.HEADING_NO_ATX_SPACE.get(options)) result++;
+    if (HtmlRenderer.ESCAPE_HTML.get(options)) result++;
+    result += HtmlRenderer.SOFT_BREAK.get(options).length();
+    result += HtmlRenderer.INDENT_SIZE.get(options);
+    result += Parser.CODE_BLOCK_INDENT.get(options);
+    return result;
+  }
+}
@@ -0,0 +1,52 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parse time of a large document with and without {@link Parser#PARALLEL_INLINE_PARSING}, inline
+ * tasks run on the common fork join pool so results depend on the number of available cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelInlineBenchmark {
+  @Param({"synthetic-1024k"})
+  public String corpus;
+
+  @Param({"true", "false"})
+  public boolean parallelInlineParsing;
+
+  private Parser parser;
+  private String source;
+
+  @Setup
+  public void setup() {
+    parser =
+        Parser.builder(
+                new MutableDataSet().set(Parser.PARALLEL_INLINE_PARSING, parallelInlineParsing))
+            .build();
+    source = SpecCorpus.document(corpus);
+  }
+
+  @Benchmark
+  public Document parse() {
+    return parser.parse(source);
+  }
+}
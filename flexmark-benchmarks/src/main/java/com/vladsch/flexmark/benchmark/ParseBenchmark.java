@@ -0,0 +1,45 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** {@link Parser#parse(String)} of whole documents, see {@link SpecCorpus#document(String)} */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+  @Param({"spec", "synthetic-100k", "synthetic-1024k"})
+  public String corpus;
+
+  @Param({"false", "true"})
+  public boolean extensions;
+
+  private Parser parser;
+  private String document;
+
+  @Setup
+  public void setup() {
+    parser = Parser.builder(BenchmarkOptions.options(extensions)).build();
+    document = SpecCorpus.document(corpus);
+  }
+
+  @Benchmark
+  public Document parse() {
+    return parser.parse(document);
+  }
+}
@@ -0,0 +1,69 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of one {@link Parser} instance shared by all benchmark threads.
+ *
+ * <p>Run with increasing thread counts to check scaling, for example {@code java -jar
+ * target/benchmarks.jar ParseContentionBenchmark -t 1} then {@code -t 4}, {@code -t 16} and {@code
+ * -t max}. With {@code reuseParserState=false} every parse builds its inline parser and {@code
+ * Parsing} instance, which is where a shared lock would show up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseContentionBenchmark {
+  @State(Scope.Benchmark)
+  public static class SharedParser {
+    @Param({"true", "false"})
+    public boolean reuseParserState;
+
+    Parser parser;
+    List<String> documents;
+
+    @Setup
+    public void setup() {
+      parser =
+          Parser.builder(new MutableDataSet().set(Parser.REUSE_PARSER_STATE, reuseParserState))
+              .build();
+      documents = SpecCorpus.smallDocuments(200);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadPosition {
+    int next;
+
+    @Setup
+    public void setup() {
+      // spread threads over the corpus
+      next = (int) (Thread.currentThread().getId() % 64);
+    }
+  }
+
+  @Benchmark
+  public Document parse(SharedParser shared, ThreadPosition position) {
+    List<String> documents = shared.documents;
+    int index = position.next % documents.size();
+    position.next = index + 1;
+    return shared.parser.parse(documents.get(index));
+  }
+}
@@ -0,0 +1,50 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** {@link Parser#parseReader(java.io.Reader)} with and without streaming of the reader input */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReaderParseBenchmark {
+  @Param({"synthetic-1024k"})
+  public String corpus;
+
+  @Param({"true", "false"})
+  public boolean streamReaderInput;
+
+  private Parser parser;
+  private String source;
+
+  @Setup
+  public void setup() {
+    parser =
+        Parser.builder(new MutableDataSet().set(Parser.STREAM_READER_INPUT, streamReaderInput))
+            .build();
+    source = SpecCorpus.document(corpus);
+  }
+
+  @Benchmark
+  public Document parseReader() throws IOException {
+    return parser.parseReader(new StringReader(source));
+  }
+}
@@ -0,0 +1,116 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.SegmentedSequence;
+import com.vladsch.flexmark.util.sequence.SequenceCursor;
+import com.vladsch.flexmark.util.sequence.builder.SequenceBuilder;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Random access and sequential scans of a segmented sequence built from every other line of a
+ * document with inserted text, and short lived segmented sequences read a few times each like
+ * those built by the formatter and {@code Escaping.unescape()}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SegmentedSequenceAccessBenchmark {
+  @Param({"synthetic-100k"})
+  public String corpus;
+
+  private List<BasedSequence> lines;
+  private BasedSequence segmented;
+  private int[] randomIndices;
+
+  @Setup
+  public void setup() {
+    BasedSequence sequence = BasedSequence.of(SpecCorpus.document(corpus));
+    lines = sequence.splitListEOL();
+
+    SequenceBuilder builder = sequence.getBuilder();
+    for (int i = 0; i < lines.size(); i += 2) {
+      builder.append("> ").append(lines.get(i));
+    }
+    segmented = SegmentedSequence.create(builder);
+
+    Random random = new Random(1);
+    randomIndices = new int[10_000];
+    for (int i = 0; i < randomIndices.length; i++) {
+      randomIndices[i] = random.nextInt(segmented.length());
+    }
+  }
+
+  @Benchmark
+  public int randomCharAt() {
+    BasedSequence chars = segmented;
+    int hash = 0;
+    for (int index : randomIndices) {
+      hash = hash * 31 + chars.charAt(index);
+    }
+    return hash;
+  }
+
+  @Benchmark
+  public int sequentialCharAt() {
+    BasedSequence chars = segmented;
+    int hash = 0;
+    int length = chars.length();
+    for (int i = 0; i < length; i++) {
+      hash = hash * 31 + chars.charAt(i);
+    }
+    return hash;
+  }
+
+  @Benchmark
+  public int sequentialCursor() {
+    SequenceCursor cursor = SequenceCursor.of(segmented);
+    int hash = 0;
+    while (cursor.hasNext()) {
+      hash = hash * 31 + cursor.next();
+    }
+    return hash;
+  }
+
+  @Benchmark
+  public int indexOfLoop() {
+    int count = 0;
+    int index = segmented.indexOf('>');
+    while (index >= 0) {
+      count++;
+      index = segmented.indexOf('>', index + 1);
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int shortLivedSequences() {
+    int hash = 0;
+    for (int i = 0; i < lines.size(); i++) {
+      BasedSequence line = lines.get(i);
+      if (line.length() < 4) continue;
+
+      SequenceBuilder builder = line.getBuilder();
+      builder.append(line.subSequence(0, 2)).append("*").append(line.subSequence(2));
+      BasedSequence chars = SegmentedSequence.create(builder);
+      hash = hash * 31 + chars.charAt(0) + chars.charAt(chars.length() - 1);
+      hash = hash * 31 + chars.indexOf(' ');
+    }
+    return hash;
+  }
+}
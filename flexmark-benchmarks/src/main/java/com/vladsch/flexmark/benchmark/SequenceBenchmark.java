@@ -0,0 +1,102 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.ast.util.Parsing;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.SegmentedSequence;
+import com.vladsch.flexmark.util.sequence.builder.SequenceBuilder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link BasedSequence} and {@link SegmentedSequence} operations used by the parser and renderers:
+ * line splitting and trimming, finding line breaks the way the parser does, building a segmented
+ * sequence from every other line and sequential access to its characters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SequenceBenchmark {
+  @Param({"synthetic-100k"})
+  public String corpus;
+
+  private BasedSequence sequence;
+  private List<BasedSequence> lines;
+  private BasedSequence segmented;
+
+  @Setup
+  public void setup() {
+    sequence = BasedSequence.of(SpecCorpus.document(corpus));
+    lines = sequence.splitListEOL();
+    segmented = segmented();
+  }
+
+  @Benchmark
+  public int splitLinesAndTrim() {
+    int length = 0;
+    for (BasedSequence line : sequence.splitListEOL()) {
+      length += line.trim().length();
+    }
+    return length;
+  }
+
+  @Benchmark
+  public int indexOfLoop() {
+    int count = 0;
+    int index = sequence.indexOf('\n');
+    while (index >= 0) {
+      count++;
+      index = sequence.indexOf('\n', index + 1);
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int findLineBreaks() {
+    int count = 0;
+    int index = Parsing.findLineBreak(sequence, 0);
+    while (index >= 0) {
+      count++;
+      index = Parsing.findLineBreak(sequence, index + 1);
+    }
+    return count;
+  }
+
+  @Benchmark
+  public BasedSequence segmented() {
+    SequenceBuilder builder = sequence.getBuilder();
+    for (int i = 0; i < lines.size(); i += 2) {
+      builder.append(lines.get(i));
+    }
+    return SegmentedSequence.create(builder);
+  }
+
+  @Benchmark
+  public int segmentedCharAt() {
+    BasedSequence chars = segmented;
+    int hash = 0;
+    int length = chars.length();
+    for (int i = 0; i < length; i++) {
+      hash = hash * 31 + chars.charAt(i);
+    }
+    return hash;
+  }
+
+  @Benchmark
+  public String segmentedToString() {
+    return segmented.toString();
+  }
+}
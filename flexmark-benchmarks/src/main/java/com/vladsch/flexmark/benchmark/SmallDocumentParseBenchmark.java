@@ -0,0 +1,56 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per document overhead of {@link Parser#parse(String)} on ~200 byte inputs, with and without reuse
+ * of per thread parser state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SmallDocumentParseBenchmark {
+  @Param({"true", "false"})
+  public boolean reuseParserState;
+
+  @Param({"200"})
+  public int documentLength;
+
+  private Parser parser;
+  private List<String> documents;
+  private int next;
+
+  @Setup
+  public void setup() {
+    parser =
+        Parser.builder(new MutableDataSet().set(Parser.REUSE_PARSER_STATE, reuseParserState))
+            .build();
+    documents = SpecCorpus.smallDocuments(documentLength);
+    next = 0;
+  }
+
+  @Benchmark
+  public Document parse() {
+    String document = documents.get(next);
+    next = next + 1 == documents.size() ? 0 : next + 1;
+    return parser.parse(document);
+  }
+}
@@ -0,0 +1,58 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.DataHolder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Per document overhead of {@link HtmlRenderer#render} on already parsed ~200 byte documents. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SmallDocumentRenderBenchmark {
+  @Param({"false", "true"})
+  public boolean extensions;
+
+  @Param({"200"})
+  public int documentLength;
+
+  private HtmlRenderer renderer;
+  private List<Document> documents;
+  private int next;
+
+  @Setup
+  public void setup() {
+    DataHolder options = BenchmarkOptions.options(extensions);
+    Parser parser = Parser.builder(options).build();
+    renderer = HtmlRenderer.builder(options).build();
+    documents = new ArrayList<>();
+    for (String source : SpecCorpus.smallDocuments(documentLength)) {
+      documents.add(parser.parse(source));
+    }
+    next = 0;
+  }
+
+  @Benchmark
+  public String render() {
+    Document document = documents.get(next);
+    next = next + 1 == documents.size() ? 0 : next + 1;
+    return renderer.render(document);
+  }
+}
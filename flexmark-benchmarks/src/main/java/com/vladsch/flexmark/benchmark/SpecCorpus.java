@@ -0,0 +1,77 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.test.specs.TestSpecLocator;
+import com.vladsch.flexmark.test.util.spec.ResourceLocation;
+import com.vladsch.flexmark.test.util.spec.SpecExample;
+import com.vladsch.flexmark.test.util.spec.SpecReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Benchmark input documents built from the CommonMark spec examples */
+public final class SpecCorpus {
+  private SpecCorpus() {
+    throw new IllegalStateException();
+  }
+
+  public static List<String> examples(ResourceLocation location) {
+    List<String> sources = new ArrayList<>();
+    for (SpecExample example : SpecReader.createAndReadExamples(location, false).getExamples()) {
+      sources.add(example.getSource());
+    }
+    return sources;
+  }
+
+  public static List<String> examples() {
+    return examples(TestSpecLocator.DEFAULT_RESOURCE_LOCATION);
+  }
+
+  /**
+   * @return full text of the CommonMark spec, prose and examples
+   */
+  public static String specText() {
+    return TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText();
+  }
+
+  /**
+   * Named benchmark input documents, used as the {@code corpus} benchmark parameter
+   *
+   * @param name {@code spec} for the full spec text or {@code synthetic-<n>k} for a generated
+   *     document of at least n kilobytes
+   * @return document text
+   */
+  public static String document(String name) {
+    if (name.equals("spec")) {
+      return specText();
+    } else if (name.startsWith("synthetic-") && name.endsWith("k")) {
+      int kilobytes = Integer.parseInt(name.substring("synthetic-".length(), name.length() - 1));
+      return SyntheticCorpus.document(kilobytes * 1024);
+    }
+    throw new IllegalArgumentException("Unknown corpus: " + name);
+  }
+
+  /**
+   * Combine consecutive spec examples into documents of at least the given length, blank line
+   * separated, to simulate many short comments
+   *
+   * @param minLength minimum length of each document
+   * @return documents
+   */
+  public static List<String> smallDocuments(int minLength) {
+    List<String> documents = new ArrayList<>();
+    StringBuilder sb = new StringBuilder();
+    for (String source : examples()) {
+      sb.append(source);
+      if (sb.length() >= minLength) {
+        documents.add(sb.toString());
+        sb.setLength(0);
+      } else {
+        sb.append('\n');
+      }
+    }
+
+    if (sb.length() > 0) {
+      documents.add(sb.toString());
+    }
+    return documents;
+  }
+}
@@ -0,0 +1,56 @@
+package com.vladsch.flexmark.benchmark;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link HtmlRenderer#render(com.vladsch.flexmark.util.ast.Node, Appendable)} to a writer with and
+ * without {@link HtmlRenderer#STREAM_OUTPUT}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamingRenderBenchmark {
+  @Param({"synthetic-1024k"})
+  public String corpus;
+
+  @Param({"true", "false"})
+  public boolean streamOutput;
+
+  private HtmlRenderer renderer;
+  private Document document;
+
+  @Setup
+  public void setup() {
+    DataHolder options = BenchmarkOptions.options(false);
+    renderer =
+        HtmlRenderer.builder(
+                new MutableDataSet(options).set(HtmlRenderer.STREAM_OUTPUT, streamOutput))
+            .build();
+    document = Parser.builder(options).build().parse(SpecCorpus.document(corpus));
+  }
+
+  @Benchmark
+  public void render() {
+    renderer.render(document, Writer.nullWriter());
+  }
+}
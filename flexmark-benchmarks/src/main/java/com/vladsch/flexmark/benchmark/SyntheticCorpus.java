@@ -0,0 +1,156 @@
+package com.vladsch.flexmark.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generated benchmark documents of a given size, mixing the block and inline constructs typical of
+ * real world markdown, including pipe tables. Output is deterministic for a given size.
+ */
+public final class SyntheticCorpus {
+  private static final String[] WORDS =
+      ("parser render markdown sequence block inline node document table format list item heading"
+              + " quote code link emphasis strong the a of and to with for is on this that value")
+          .split(" ");
+
+  private SyntheticCorpus() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * @param minLength minimum length of the document in characters
+   * @return generated document
+   */
+  public static String document(int minLength) {
+    Random random = new Random(minLength);
+    StringBuilder sb = new StringBuilder(minLength + 1024);
+    int section = 0;
+
+    while (sb.length() < minLength) {
+      section++;
+      sb.append("## Section ").append(section).append(' ');
+      words(sb, random, 3);
+      sb.append("\n\n");
+
+      for (int i = 0; i < 3; i++) {
+        paragraph(sb, random);
+      }
+
+      switch (section % 5) {
+        case 0:
+          list(sb, random);
+          break;
+        case 1:
+          sb.append("> ");
+          words(sb, random, 12);
+          sb.append("\n> ");
+          words(sb, random, 12);
+          sb.append("\n\n");
+          break;
+        case 2:
+          sb.append("```java\n");
+          for (int i = 0; i < 5; i++) {
+            sb.append("int ").append(WORDS[i]).append(" = ").append(random.nextInt(1000));
+            sb.append("; // <").append(WORDS[random.nextInt(WORDS.length)]).append(">\n");
+          }
+          sb.append("```\n\n");
+          break;
+        case 3:
+          table(sb, random, 4, 6);
+          break;
+        default:
+          sb.append("[ref-").append(section).append("]: https://example.com/");
+          sb.append(section).append(" \"Title ").append(section).append("\"\n\n");
+          break;
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @param columns number of columns
+   * @param rows number of body rows
+   * @return pipe table with a header row
+   */
+  public static String table(int columns, int rows) {
+    StringBuilder sb = new StringBuilder();
+    table(sb, new Random(columns * 31 + rows), columns, rows);
+    return sb.toString();
+  }
+
+  private static void words(StringBuilder sb, Random random, int count) {
+    for (int i = 0; i < count; i++) {
+      if (i > 0) sb.append(' ');
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+  }
+
+  private static void paragraph(StringBuilder sb, Random random) {
+    int lines = 2 + random.nextInt(3);
+    for (int line = 0; line < lines; line++) {
+      for (int i = 0; i < 10; i++) {
+        if (i > 0) sb.append(' ');
+        String word = WORDS[random.nextInt(WORDS.length)];
+        switch (random.nextInt(12)) {
+          case 0:
+            sb.append('*').append(word).append('*');
+            break;
+          case 1:
+            sb.append("**").append(word).append("**");
+            break;
+          case 2:
+            sb.append('`').append(word).append("()`");
+            break;
+          case 3:
+            sb.append('[').append(word).append("](https://example.com/").append(word).append(')');
+            break;
+          case 4:
+            sb.append("&amp; _").append(word).append('_');
+            break;
+          default:
+            sb.append(word);
+            break;
+        }
+      }
+      sb.append('\n');
+    }
+    sb.append('\n');
+  }
+
+  private static void list(StringBuilder sb, Random random) {
+    for (int i = 0; i < 5; i++) {
+      sb.append(i % 2 == 0 ? "- " : "- [x] ");
+      words(sb, random, 8);
+      sb.append('\n');
+      if (i == 2) {
+        sb.append("    1. ");
+        words(sb, random, 5);
+        sb.append("\n    2. ");
+        words(sb, random, 5);
+        sb.append('\n');
+      }
+    }
+    sb.append('\n');
+  }
+
+  private static void table(StringBuilder sb, Random random, int columns, int rows) {
+    sb.append('|');
+    for (int c = 0; c < columns; c++) {
+      sb.append(" Header ").append(c).append(" |");
+    }
+    sb.append("\n|");
+    for (int c = 0; c < columns; c++) {
+      sb.append(c % 3 == 0 ? ":---|" : c % 3 == 1 ? "---:|" : ":---:|");
+    }
+    sb.append('\n');
+    for (int r = 0; r < rows; r++) {
+      sb.append('|');
+      for (int c = 0; c < columns; c++) {
+        sb.append(' ');
+        words(sb, random, 1 + random.nextInt(3));
+        sb.append(" |");
+      }
+      sb.append('\n');
+    }
+    sb.append('\n');
+  }
+}
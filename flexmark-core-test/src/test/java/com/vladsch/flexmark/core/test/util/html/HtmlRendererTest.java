@@ -1,30 +1,44 @@
 package com.vladsch.flexmark.core.test.util.html;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import com.vladsch.flexmark.ast.FencedCodeBlock;
 import com.vladsch.flexmark.ast.Image;
 import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.ThematicBreak;
 import com.vladsch.flexmark.html.AttributeProvider;
 import com.vladsch.flexmark.html.AttributeProviderFactory;
+import com.vladsch.flexmark.html.BlockRenderCache;
 import com.vladsch.flexmark.html.HtmlRenderer;
 import com.vladsch.flexmark.html.IndependentAttributeProviderFactory;
 import com.vladsch.flexmark.html.LinkResolver;
+import com.vladsch.flexmark.html.LinkResolverCache;
+import com.vladsch.flexmark.html.LinkResolverFactory;
+import com.vladsch.flexmark.html.RenderMetrics;
 import com.vladsch.flexmark.html.renderer.CoreNodeRenderer;
 import com.vladsch.flexmark.html.renderer.DelegatingNodeRendererFactory;
 import com.vladsch.flexmark.html.renderer.LinkResolverBasicContext;
 import com.vladsch.flexmark.html.renderer.LinkResolverContext;
+import com.vladsch.flexmark.html.renderer.LinkStatus;
 import com.vladsch.flexmark.html.renderer.NodeRenderer;
 import com.vladsch.flexmark.html.renderer.NodeRendererContext;
 import com.vladsch.flexmark.html.renderer.NodeRendererFactory;
 import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
+import com.vladsch.flexmark.html.renderer.RenderingPhase;
 import com.vladsch.flexmark.html.renderer.ResolvedLink;
+import com.vladsch.flexmark.html.renderer.SharedNodeRenderer;
 import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.test.specs.TestSpecLocator;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.data.DataKey;
 import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.data.SharedDataKeys;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
@@ -394,6 +408,396 @@ public class HtmlRendererTest {
         "<ol start=\"0\">\n<li>Test</li>\n</ol>\n", defaultRenderer().render(parse("0. Test\n")));
   }
 
+  @Test
+  public void sharedRendererUsesDocumentParserOptions() {
+    HtmlRenderer renderer = defaultRenderer();
+    Node manualStart = parse("2. Test\n");
+    Node noManualStart =
+        Parser.builder(new MutableDataSet().set(Parser.LISTS_ORDERED_LIST_MANUAL_START, false))
+            .build()
+            .parse("2. Test\n");
+
+    assertEquals("<ol start=\"2\">\n<li>Test</li>\n</ol>\n", renderer.render(manualStart));
+    assertEquals("<ol>\n<li>Test</li>\n</ol>\n", renderer.render(noManualStart));
+    assertEquals("<ol start=\"2\">\n<li>Test</li>\n</ol>\n", renderer.render(manualStart));
+  }
+
+  @Test
+  public void sharedRendererUsesDocumentRendererOptions() {
+    DataHolder obfuscate =
+        new MutableDataSet()
+            .set(HtmlRenderer.OBFUSCATE_EMAIL, true)
+            .set(HtmlRenderer.OBFUSCATE_EMAIL_RANDOM, false);
+    String expected = HtmlRenderer.builder(obfuscate).build().render(parse("<foo@example.com>\n"));
+    HtmlRenderer renderer = defaultRenderer();
+
+    assertEquals(
+        "<p><a href=\"mailto:foo@example.com\">foo@example.com</a></p>\n",
+        renderer.render(parse("<foo@example.com>\n")));
+    assertEquals(
+        expected,
+        renderer.render(Parser.builder(obfuscate).build().parse("<foo@example.com>\n")));
+    assertFalse(expected.contains("mailto"));
+  }
+
+  @Test
+  public void sharedNodeRendererCreatedOnce() {
+    int[] created = {0};
+    NodeRendererFactory nodeRendererFactory =
+        options -> {
+          created[0]++;
+          return (SharedNodeRenderer)
+              () -> {
+                Set<NodeRenderingHandler<?>> set = new HashSet<>();
+                set.add(
+                    new NodeRenderingHandler<>(
+                        Link.class, (node, context, html) -> html.text("test")));
+                return set;
+              };
+        };
+
+    HtmlRenderer renderer = HtmlRenderer.builder().nodeRendererFactory(nodeRendererFactory).build();
+    assertEquals("<p>foo test</p>\n", renderer.render(parse("foo [bar](/url)")));
+    assertEquals("<p>bar test</p>\n", renderer.render(parse("bar [foo](/url)")));
+    assertEquals(1, created[0]);
+
+    created[0] = 0;
+    HtmlRenderer unshared =
+        HtmlRenderer.builder(new MutableDataSet().set(HtmlRenderer.SHARE_NODE_RENDERERS, false))
+            .nodeRendererFactory(nodeRendererFactory)
+            .build();
+    assertEquals("<p>foo test</p>\n", unshared.render(parse("foo [bar](/url)")));
+    assertEquals("<p>bar test</p>\n", unshared.render(parse("bar [foo](/url)")));
+    assertEquals(2, created[0]);
+  }
+
+  @Test
+  public void streamOutputSameAsBuffered() {
+    String spec = TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText();
+    String[] sources = {spec, "\n\na\n\n\n\nb\n\n<div>\n\n\n</div>\n\n\n", "a", ""};
+    int[][] blankLines = {{1, 1}, {2, 0}, {0, -1}, {5, 5}};
+
+    for (String source : sources) {
+      Node document = parse(source);
+      for (int[] blankLine : blankLines) {
+        MutableDataSet options =
+            new MutableDataSet()
+                .set(SharedDataKeys.RENDERER_MAX_BLANK_LINES, blankLine[0])
+                .set(SharedDataKeys.RENDERER_MAX_TRAILING_BLANK_LINES, blankLine[1])
+                .set(HtmlRenderer.HTML_BLOCK_OPEN_TAG_EOL, false);
+        String expected = HtmlRenderer.builder(options).build().render(document);
+        String streamed =
+            HtmlRenderer.builder(options.set(HtmlRenderer.STREAM_OUTPUT, true))
+                .build()
+                .render(document);
+        assertEquals(expected, streamed);
+      }
+    }
+  }
+
+  @Test
+  public void streamOutputWritesCompletedBlocks() {
+    StringBuilder out = new StringBuilder();
+    int[] writtenBeforeLastBlock = {-1};
+    NodeRendererFactory nodeRendererFactory =
+        options ->
+            () -> {
+              Set<NodeRenderingHandler<?>> set = new HashSet<>();
+              set.add(
+                  new NodeRenderingHandler<>(
+                      ThematicBreak.class,
+                      (node, context, html) -> {
+                        writtenBeforeLastBlock[0] = out.length();
+                        html.tagVoidLine("hr");
+                      }));
+              return set;
+            };
+
+    Node document = parse("a\n\nb\n\n---\n");
+    HtmlRenderer.builder(new MutableDataSet().set(HtmlRenderer.STREAM_OUTPUT, true))
+        .nodeRendererFactory(nodeRendererFactory)
+        .build()
+        .render(document, out);
+    assertEquals("<p>a</p>\n<p>b</p>\n<hr />\n", out.toString());
+    assertEquals("<p>a</p>\n".length(), writtenBeforeLastBlock[0]);
+
+    out.setLength(0);
+    HtmlRenderer.builder().nodeRendererFactory(nodeRendererFactory).build().render(document, out);
+    assertEquals(0, writtenBeforeLastBlock[0]);
+  }
+
+  static class CountingLinkResolver implements LinkResolver {
+    private final int[] resolveCount;
+    private final boolean documentIndependent;
+
+    CountingLinkResolver(int[] resolveCount, boolean documentIndependent) {
+      this.resolveCount = resolveCount;
+      this.documentIndependent = documentIndependent;
+    }
+
+    @Override
+    public ResolvedLink resolveLink(
+        Node node, LinkResolverBasicContext context, ResolvedLink link) {
+      resolveCount[0]++;
+      return link.withUrl("/wiki" + link.getUrl()).withStatus(LinkStatus.VALID);
+    }
+
+    @Override
+    public boolean isDocumentIndependent() {
+      return documentIndependent;
+    }
+  }
+
+  private static HtmlRenderer countingRenderer(
+      LinkResolverCache cache, int[] resolveCount, boolean documentIndependent) {
+    return countingRenderer(
+        cache,
+        new IndependentLinkResolverFactory() {
+          @Override
+          public LinkResolver apply(LinkResolverBasicContext context) {
+            return new CountingLinkResolver(resolveCount, documentIndependent);
+          }
+        });
+  }
+
+  private static HtmlRenderer countingRenderer(
+      LinkResolverCache cache, LinkResolverFactory linkResolverFactory) {
+    return HtmlRenderer.builder(new MutableDataSet().set(HtmlRenderer.LINK_RESOLVER_CACHE, cache))
+        .linkResolverFactory(linkResolverFactory)
+        .build();
+  }
+
+  @Test
+  public void linkResolverCacheSharedBetweenDocuments() {
+    LinkResolverCache cache = new LinkResolverCache(100);
+    int[] resolveCount = {0};
+    HtmlRenderer renderer = countingRenderer(cache, resolveCount, true);
+
+    Node document = parse("[a](/page) [b](/page) ![c](/page)\n");
+    String expected =
+        "<p><a href=\"/wiki/page\">a</a> <a href=\"/wiki/page\">b</a> <img"
+            + " src=\"/wiki/page\" alt=\"c\" /></p>\n";
+    assertEquals(expected, renderer.render(document));
+    assertEquals(expected, renderer.render(parse("[a](/page) [b](/page) ![c](/page)\n")));
+
+    // link and image of the first document resolved once each, second document only hits
+    assertEquals(2, resolveCount[0]);
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(2, cache.size());
+
+    // renderer with other link resolvers does not share entries
+    int[] otherResolveCount = {0};
+    countingRenderer(cache, otherResolveCount, true).render(document);
+    assertEquals(2, otherResolveCount[0]);
+    assertEquals(4, cache.size());
+  }
+
+  @Test
+  public void linkResolverCacheSharedBetweenRenderers() {
+    LinkResolverCache cache = new LinkResolverCache(100);
+    int[] resolveCount = {0};
+    LinkResolverFactory linkResolverFactory =
+        new IndependentLinkResolverFactory() {
+          @Override
+          public LinkResolver apply(LinkResolverBasicContext context) {
+            return new CountingLinkResolver(resolveCount, true);
+          }
+        };
+
+    // renderers with the same link resolver factory and options use the same entries
+    countingRenderer(cache, linkResolverFactory).render(parse("[a](/page)\n"));
+    assertEquals(
+        "<p><a href=\"/wiki/page\">a</a></p>\n",
+        countingRenderer(cache, linkResolverFactory).render(parse("[a](/page)\n")));
+    assertEquals(1, resolveCount[0]);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void linkResolverCacheEviction() {
+    LinkResolverCache cache = new LinkResolverCache(1);
+    int[] resolveCount = {0};
+    HtmlRenderer renderer = countingRenderer(cache, resolveCount, true);
+
+    renderer.render(parse("[a](/a) [b](/b)\n"));
+    renderer.render(parse("[a](/a)\n"));
+
+    assertEquals(3, resolveCount[0]);
+    assertEquals(2, cache.getEvictionCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void linkResolverCacheNotUsedForDocumentDependentResolver() {
+    LinkResolverCache cache = new LinkResolverCache(100);
+    int[] resolveCount = {0};
+    HtmlRenderer renderer = countingRenderer(cache, resolveCount, false);
+
+    renderer.render(parse("[a](/page)\n"));
+    renderer.render(parse("[a](/page)\n"));
+
+    assertEquals(2, resolveCount[0]);
+    assertEquals(0, cache.getMissCount());
+    assertEquals(0, cache.size());
+  }
+
+  private static HtmlRenderer blockCachingRenderer(BlockRenderCache cache) {
+    return HtmlRenderer.builder(
+            new MutableDataSet()
+                .set(HtmlRenderer.BLOCK_RENDER_CACHE, cache)
+                .set(HtmlRenderer.RENDER_HEADER_ID, true))
+        .build();
+  }
+
+  @Test
+  public void blockRenderCacheSameAsUncached() {
+    String spec = TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText();
+    BlockRenderCache cache = new BlockRenderCache(10_000);
+    HtmlRenderer renderer = blockCachingRenderer(cache);
+
+    String expected =
+        HtmlRenderer.builder(new MutableDataSet().set(HtmlRenderer.RENDER_HEADER_ID, true))
+            .build()
+            .render(parse(spec));
+    assertEquals(expected, renderer.render(parse(spec)));
+    long misses = cache.getMissCount();
+
+    // all blocks of the second document are taken from the cache
+    assertEquals(expected, renderer.render(parse(spec)));
+    assertEquals(misses, cache.getMissCount());
+    assertEquals(misses, cache.size());
+  }
+
+  @Test
+  public void blockRenderCacheKeyedOnReferences() {
+    BlockRenderCache cache = new BlockRenderCache(100);
+    HtmlRenderer renderer = blockCachingRenderer(cache);
+
+    assertEquals(
+        "<p><a href=\"/one\">a</a></p>\n", renderer.render(parse("[a]\n\n[a]: /one\n")));
+    assertEquals(
+        "<p><a href=\"/two\">a</a></p>\n", renderer.render(parse("[a]\n\n[a]: /two\n")));
+    assertEquals(
+        "<p><a href=\"/one\">a</a></p>\n", renderer.render(parse("[a]\n\n[a]: /one\n")));
+    // paragraph and reference definition of the first document
+    assertEquals(2, cache.getHitCount());
+  }
+
+  @Test
+  public void blockRenderCacheKeyedOnHeaderIds() {
+    BlockRenderCache cache = new BlockRenderCache(100);
+    HtmlRenderer renderer = blockCachingRenderer(cache);
+
+    assertEquals("<h1 id=\"a\">A</h1>\n", renderer.render(parse("# A\n")));
+    assertEquals(
+        "<h1 id=\"a\">A</h1>\n<h1 id=\"a-1\">A</h1>\n", renderer.render(parse("# A\n\n# A\n")));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void blockRenderCacheNotUsedForOtherNodeRenderers() {
+    BlockRenderCache cache = new BlockRenderCache(100);
+    int[] rendered = {0};
+    HtmlRenderer renderer =
+        HtmlRenderer.builder(new MutableDataSet().set(HtmlRenderer.BLOCK_RENDER_CACHE, cache))
+            .nodeRendererFactory(
+                options ->
+                    (SharedNodeRenderer)
+                        () -> {
+                          Set<NodeRenderingHandler<?>> set = new HashSet<>();
+                          set.add(
+                              new NodeRenderingHandler<>(
+                                  ThematicBreak.class,
+                                  (node, context, html) -> {
+                                    rendered[0]++;
+                                    html.tagVoidLine("hr");
+                                  }));
+                          return set;
+                        })
+            .build();
+
+    renderer.render(parse("a\n\n---\n"));
+    assertEquals("<p>a</p>\n<hr />\n", renderer.render(parse("a\n\n---\n")));
+
+    assertEquals(2, rendered[0]);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void blockRenderCacheSharedBetweenRenderers() {
+    BlockRenderCache cache = new BlockRenderCache(100);
+
+    blockCachingRenderer(cache).render(parse("# A\n\ntext\n"));
+    assertEquals(
+        "<h1 id=\"a\">A</h1>\n<p>text</p>\n",
+        blockCachingRenderer(cache).render(parse("# A\n\ntext\n")));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void blockRenderCacheNotUsedForObfuscatedEmail() {
+    BlockRenderCache cache = new BlockRenderCache(100);
+    HtmlRenderer renderer = blockCachingRenderer(cache);
+    Parser obfuscatingParser =
+        Parser.builder(new MutableDataSet().set(HtmlRenderer.OBFUSCATE_EMAIL, true)).build();
+
+    renderer.render(obfuscatingParser.parse("<foo@example.com>\n"));
+    renderer.render(obfuscatingParser.parse("<foo@example.com>\n"));
+    assertEquals(0, cache.getMissCount());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void blockRenderCacheEviction() {
+    BlockRenderCache cache = new BlockRenderCache(1);
+    HtmlRenderer renderer = blockCachingRenderer(cache);
+
+    assertEquals("<p>a</p>\n<p>b</p>\n", renderer.render(parse("a\n\nb\n")));
+    assertEquals("<p>a</p>\n", renderer.render(parse("a\n")));
+
+    assertEquals(3, cache.getMissCount());
+    assertEquals(2, cache.getEvictionCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void renderListenerReceivesMetrics() {
+    List<RenderMetrics> reported = new ArrayList<>();
+    NodeRenderer hrRenderer =
+        (SharedNodeRenderer)
+            () -> {
+              Set<NodeRenderingHandler<?>> set = new HashSet<>();
+              set.add(
+                  new NodeRenderingHandler<>(
+                      ThematicBreak.class, (node, context, html) -> html.tagVoidLine("hr")));
+              return set;
+            };
+    HtmlRenderer renderer =
+        HtmlRenderer.builder(
+                new MutableDataSet()
+                    .set(HtmlRenderer.RENDER_LISTENER, (document, metrics) -> reported.add(metrics)))
+            .nodeRendererFactory(options -> hrRenderer)
+            .build();
+
+    Node document = parse("a *b*\n\n---\n");
+    assertEquals("<p>a <em>b</em></p>\n<hr />\n", renderer.render(document));
+    assertEquals(1, reported.size());
+
+    RenderMetrics metrics = reported.get(0);
+    assertEquals(EnumSet.of(RenderingPhase.BODY), metrics.getPhases().keySet());
+    assertEquals(1, metrics.getTotal().getCount());
+    assertEquals(2, metrics.getNodeRenderers().size());
+    assertEquals(1, metrics.getNodeRenderers().get(hrRenderer.getClass()).getCount());
+
+    // only documents are reported
+    renderer.render(document.getFirstChild());
+    assertEquals(1, reported.size());
+  }
+
   @Test
   public void imageAltTextWithSoftLineBreak() {
     assertEquals(
@@ -0,0 +1,132 @@
+package com.vladsch.flexmark.core.test.util.html;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.html.MarkdownBatch;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.test.specs.TestSpecLocator;
+import com.vladsch.flexmark.test.util.spec.SpecExample;
+import com.vladsch.flexmark.test.util.spec.SpecReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class MarkdownBatchTest {
+  private static final Parser PARSER = Parser.builder().build();
+  private static final HtmlRenderer RENDERER = HtmlRenderer.builder().build();
+
+  private static List<MarkdownBatch.Source> specSources() {
+    List<MarkdownBatch.Source> sources = new ArrayList<>();
+    for (SpecExample example :
+        SpecReader.createAndReadExamples(TestSpecLocator.DEFAULT_RESOURCE_LOCATION, false)
+            .getExamples()) {
+      // example numbers restart in each section, use the list index as a unique name
+      sources.add(MarkdownBatch.Source.of(String.valueOf(sources.size()), example.getSource()));
+    }
+    return sources;
+  }
+
+  @Test
+  public void orderedSameAsSequential() throws IOException, InterruptedException {
+    List<MarkdownBatch.Source> sources = specSources();
+    List<String> expected = new ArrayList<>();
+    for (MarkdownBatch.Source source : sources) {
+      expected.add(RENDERER.render(PARSER.parse(source.getText().toString())));
+    }
+
+    List<String> actual = new ArrayList<>();
+    MarkdownBatch.Report report;
+    try (MarkdownBatch batch = new MarkdownBatch(PARSER, RENDERER, 4, 8)) {
+      report = batch.process(sources.stream(), (source, html) -> actual.add(html), true);
+    }
+
+    assertEquals(expected, actual);
+    assertEquals(sources.size(), report.getDocumentCount());
+    assertEquals(0, report.getFailedCount());
+    assertEquals(4, report.getParallelism());
+  }
+
+  @Test
+  public void unorderedDeliversAll() throws IOException, InterruptedException {
+    List<MarkdownBatch.Source> sources = specSources();
+    Map<String, String> actual = new HashMap<>();
+    try (MarkdownBatch batch = new MarkdownBatch(PARSER, RENDERER, 3)) {
+      batch.process(sources.stream(), (source, html) -> actual.put(source.getName(), html));
+    }
+
+    assertEquals(sources.size(), actual.size());
+    for (MarkdownBatch.Source source : sources) {
+      assertEquals(
+          RENDERER.render(PARSER.parse(source.getText().toString())),
+          actual.get(source.getName()));
+    }
+  }
+
+  @Test
+  public void inFlightBounded() throws IOException, InterruptedException {
+    AtomicInteger read = new AtomicInteger();
+    int[] delivered = {0};
+    try (MarkdownBatch batch = new MarkdownBatch(PARSER, RENDERER, 2, 5)) {
+      batch.process(
+          IntStream.range(0, 200)
+              .peek(i -> read.incrementAndGet())
+              .mapToObj(i -> MarkdownBatch.Source.of("s" + i, "*" + i + "*\n")),
+          (source, html) -> {
+            assertTrue(read.get() - delivered[0] <= 5);
+            delivered[0]++;
+          },
+          true);
+    }
+    assertEquals(200, delivered[0]);
+  }
+
+  @Test
+  public void failedSourcePassedToSink() throws IOException, InterruptedException {
+    MarkdownBatch.Source failing =
+        new MarkdownBatch.Source() {
+          @Override
+          public String getName() {
+            return "failing";
+          }
+
+          @Override
+          public CharSequence getText() throws IOException {
+            throw new IOException("unreadable");
+          }
+        };
+
+    List<String> failed = new ArrayList<>();
+    MarkdownBatch.Report report;
+    try (MarkdownBatch batch = new MarkdownBatch(PARSER, RENDERER, 2)) {
+      report =
+          batch.process(
+              List.of(MarkdownBatch.Source.of("text", "text\n"), failing).stream(),
+              new MarkdownBatch.Sink() {
+                @Override
+                public void accept(MarkdownBatch.Source source, String html) {}
+
+                @Override
+                public void failed(MarkdownBatch.Source source, Exception error) {
+                  failed.add(source.getName() + ": " + error.getMessage());
+                }
+              });
+
+      assertThrows(
+          IOException.class,
+          () -> batch.process(List.of(failing).stream(), (source, html) -> {}));
+    }
+
+    assertEquals(List.of("failing: unreadable"), failed);
+    assertEquals(1, report.getDocumentCount());
+    assertEquals(1, report.getFailedCount());
+    assertEquals(5, report.getSourceLength());
+  }
+}
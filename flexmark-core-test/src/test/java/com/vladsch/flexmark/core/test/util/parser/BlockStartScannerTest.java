@@ -0,0 +1,152 @@
+package com.vladsch.flexmark.core.test.util.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import com.vladsch.flexmark.parser.core.BlockStartScanner;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class BlockStartScannerTest {
+  private static final String ALPHABET = "#`~*-_= \ta\u2028\r\n";
+  private static final String PREFIX = "\r";
+
+  private static final Pattern THEMATIC_BREAK =
+      Pattern.compile("^(?:(?:\\*[ \t]*){3,}|(?:_[ \t]*){3,}|(?:-[ \t]*){3,})[ \t]*$");
+  private static final Pattern OPENING_FENCE = Pattern.compile("^`{3,}(?!.*`)|^~{3,}(?!.*~)");
+  private static final Pattern CLOSING_FENCE = Pattern.compile("^(?:`{3,}|~{3,})(?=[ \t]*$)");
+  private static final Pattern ATX_HEADING_NO_SPACE = Pattern.compile("^#{1,6}(?:[ \t]*|$)");
+  private static final Pattern ATX_HEADING_NO_EMPTY_WITHOUT_SPACE =
+      Pattern.compile("^#{1,6}(?:[ \t]*(?=[^ \t#])|[ \t]+$)");
+  private static final Pattern ATX_HEADING = Pattern.compile("^#{1,6}(?:[ \t]+|$)");
+  private static final Pattern ATX_TRAILING_NO_SPACE = Pattern.compile("[ \t]*#+[ \t]*$");
+  private static final Pattern ATX_TRAILING = Pattern.compile("(^| |\t)[ \t]*#+[ \t]*$");
+  private static final Pattern SETEXT_HEADING = Pattern.compile("^(?:=+|-+)[ \t]*$");
+  private static final Pattern SETEXT_HEADING_3 = Pattern.compile("^(?:={3,}|-{3,})[ \t]*$");
+
+  private static int findLength(Pattern pattern, String text) {
+    Matcher matcher = pattern.matcher(text);
+    return matcher.find() ? matcher.group(0).length() : 0;
+  }
+
+  private static int findEnd(Pattern pattern, String text) {
+    Matcher matcher = pattern.matcher(text);
+    return matcher.find() ? matcher.end() : -1;
+  }
+
+  private static int findStart(Pattern pattern, String text) {
+    Matcher matcher = pattern.matcher(text);
+    return matcher.find() ? matcher.start() : -1;
+  }
+
+  private static int setextLevel(Pattern pattern, String text) {
+    Matcher matcher = pattern.matcher(text);
+    return matcher.find() ? matcher.group(0).charAt(0) == '=' ? 1 : 2 : 0;
+  }
+
+  private static int offset(int index) {
+    return index == -1 ? -1 : index - PREFIX.length();
+  }
+
+  private static void assertSameAsPatterns(String text) {
+    // scanners work on line offsets, prefix checks the offsets are relative to the start index
+    String line = PREFIX + text;
+    int start = PREFIX.length();
+    String message = "text: " + text.replace("\u2028", "\\u2028").replace("\n", "\\n");
+
+    assertEquals(
+        message,
+        THEMATIC_BREAK.matcher(text).matches(),
+        BlockStartScanner.isThematicBreak(line, start));
+    assertEquals(
+        message,
+        findLength(OPENING_FENCE, text),
+        BlockStartScanner.openingFenceLength(line, start));
+    assertEquals(
+        message,
+        findLength(CLOSING_FENCE, text),
+        BlockStartScanner.closingFenceLength(line, start));
+    assertEquals(
+        message,
+        findEnd(ATX_HEADING_NO_SPACE, text),
+        offset(BlockStartScanner.atxHeadingEnd(line, start, true, false)));
+    assertEquals(
+        message,
+        findEnd(ATX_HEADING_NO_SPACE, text),
+        offset(BlockStartScanner.atxHeadingEnd(line, start, true, true)));
+    assertEquals(
+        message,
+        findEnd(ATX_HEADING_NO_EMPTY_WITHOUT_SPACE, text),
+        offset(BlockStartScanner.atxHeadingEnd(line, start, false, true)));
+    assertEquals(
+        message,
+        findEnd(ATX_HEADING, text),
+        offset(BlockStartScanner.atxHeadingEnd(line, start, false, false)));
+    assertEquals(
+        message,
+        findStart(ATX_TRAILING_NO_SPACE, text),
+        offset(BlockStartScanner.atxClosingStart(line, start, true)));
+    assertEquals(
+        message,
+        findStart(ATX_TRAILING, text),
+        offset(BlockStartScanner.atxClosingStart(line, start, false)));
+    assertEquals(
+        message,
+        setextLevel(SETEXT_HEADING, text),
+        BlockStartScanner.setextHeadingLevel(line, start, 0));
+    assertEquals(
+        message,
+        setextLevel(SETEXT_HEADING, text),
+        BlockStartScanner.setextHeadingLevel(line, start, 1));
+    assertEquals(
+        message,
+        setextLevel(SETEXT_HEADING_3, text),
+        BlockStartScanner.setextHeadingLevel(line, start, 3));
+
+    if (findEnd(ATX_TRAILING, text) != -1) {
+      assertEquals(
+          message, findEnd(ATX_TRAILING, text), offset(BlockStartScanner.lineEnd(line, start)));
+    }
+  }
+
+  private static void forAllStrings(int maxLength, Consumer<String> consumer) {
+    char[] chars = new char[maxLength];
+    int[] digits = new int[maxLength];
+    for (int length = 0; length <= maxLength; length++) {
+      int count = (int) Math.pow(ALPHABET.length(), length);
+      for (int n = 0; n < count; n++) {
+        int value = n;
+        for (int i = 0; i < length; i++) {
+          digits[i] = value % ALPHABET.length();
+          value /= ALPHABET.length();
+          chars[i] = ALPHABET.charAt(digits[i]);
+        }
+        consumer.accept(new String(chars, 0, length));
+      }
+    }
+  }
+
+  @Test
+  public void test_allShortLines() {
+    forAllStrings(5, BlockStartScannerTest::assertSameAsPatterns);
+  }
+
+  @Test
+  public void test_randomLines() {
+    // runs of the same marker character are more likely to form constructs
+    Random random = new Random(15);
+    StringBuilder sb = new StringBuilder();
+    for (int n = 0; n < 100000; n++) {
+      sb.setLength(0);
+      int length = random.nextInt(16);
+      while (sb.length() < length) {
+        char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        int run = 1 + random.nextInt(8);
+        for (int i = 0; i < run; i++) sb.append(c);
+      }
+      assertSameAsPatterns(sb.toString());
+    }
+  }
+}
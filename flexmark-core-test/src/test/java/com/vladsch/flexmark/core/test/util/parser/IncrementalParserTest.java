@@ -0,0 +1,249 @@
+package com.vladsch.flexmark.core.test.util.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.test.util.AstCollectingVisitor;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+import org.junit.Test;
+
+public class IncrementalParserTest {
+  private static final String TEXT =
+      ""
+          + "# Heading\n"
+          + "\n"
+          + "Paragraph with *emphasis*, `code` and a [link][ref].\n"
+          + "Second line <span>html</span>\n"
+          + "\n"
+          + "Setext\n"
+          + "======\n"
+          + "\n"
+          + "```java\n"
+          + "code\n"
+          + "\n"
+          + "more code\n"
+          + "```\n"
+          + "\n"
+          + "- item 1\n"
+          + "- item 2\n"
+          + "\n"
+          + "  continued\n"
+          + "\n"
+          + "1. ordered\n"
+          + "2. list\n"
+          + "\n"
+          + "> quote\n"
+          + "lazy\n"
+          + "\n"
+          + "    indented code\n"
+          + "\n"
+          + "    more\n"
+          + "\n"
+          + "***\n"
+          + "\n"
+          + "<div>\n"
+          + "block\n"
+          + "</div>\n"
+          + "\n"
+          + "Last **paragraph**\n"
+          + "\n"
+          + "[ref]: /url \"title\"\n";
+
+  private static final String[] INSERTS = {
+    "\n",
+    "\n\n",
+    " ",
+    "    ",
+    "# ",
+    "```",
+    "~~~\n",
+    "- ",
+    "1. ",
+    "> ",
+    "text",
+    "*",
+    "_",
+    "[ref]",
+    "===",
+    "---\n",
+    "<div>",
+    "<!--",
+    "-->",
+    "\r\n",
+    "]: /other",
+  };
+
+  private static final DataHolder BLANK_LINES =
+      new MutableDataSet().set(Parser.BLANK_LINES_IN_AST, true);
+
+  private static class CustomNode extends Node {
+    BasedSequence marker;
+
+    CustomNode(BasedSequence chars) {
+      super(chars);
+      marker = chars.subSequence(0, 1);
+    }
+
+    @Override
+    public BasedSequence[] getSegments() {
+      return new BasedSequence[] {marker};
+    }
+  }
+
+  private static class MappedCustomNode extends CustomNode {
+    MappedCustomNode(BasedSequence chars) {
+      super(chars);
+    }
+
+    @Override
+    public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+      super.mapSequences(mapper);
+      marker = mapper.apply(marker);
+    }
+  }
+
+  private static String ast(Document document) {
+    return new AstCollectingVisitor().collectAndGetAstText(document);
+  }
+
+  private static void fuzzEdits(DataHolder options, long seed) {
+    Parser parser = Parser.builder(options).build();
+    HtmlRenderer renderer = HtmlRenderer.builder(options).build();
+    Random random = new Random(seed);
+
+    int incremental = 0;
+    Document document = parser.parse(TEXT);
+    for (int n = 0; n < 2000; n++) {
+      String text = document.getChars().toString();
+      if (text.length() > 4 * TEXT.length()) {
+        document = parser.parse(TEXT);
+        text = TEXT;
+      }
+
+      int offset = random.nextInt(text.length() + 1);
+      int removedLength = random.nextInt(Math.min(8, text.length() - offset) + 1);
+      String inserted = random.nextInt(4) == 0 ? "" : INSERTS[random.nextInt(INSERTS.length)];
+      String edited = text.substring(0, offset) + inserted + text.substring(offset + removedLength);
+
+      Document updated = parser.parseIncremental(document, offset, removedLength, inserted);
+      Document expected = parser.parse(edited);
+      String message = "edit " + n + " at " + offset + " removing " + removedLength + "\n" + edited;
+
+      if (updated == document) incremental++;
+      assertEquals(message, edited, updated.getChars().toString());
+      assertEquals(message, ast(expected), ast(updated));
+      assertEquals(message, renderer.render(expected), renderer.render(updated));
+      document = updated;
+    }
+
+    // most edits do not touch reference definitions
+    assertTrue("incremental re-parses: " + incremental, incremental > 1000);
+  }
+
+  @Test
+  public void test_randomEdits() {
+    fuzzEdits(new MutableDataSet(), 18);
+  }
+
+  @Test
+  public void test_randomEditsBlankLinesInAst() {
+    fuzzEdits(BLANK_LINES, 1018);
+  }
+
+  @Test
+  public void test_updatesDocument() {
+    Parser parser = Parser.builder().build();
+    Document document = parser.parse("# Heading\n\nparagraph\n\n***\n");
+
+    Document updated = parser.parseIncremental(document, 11, 9, "edited");
+    assertSame(document, updated);
+    assertEquals(
+        ""
+            + "Document[0, 23]\n"
+            + "  Heading[0, 9] textOpen:[0, 1, \"#\"] text:[2, 9, \"Heading\"]\n"
+            + "    Text[2, 9] chars:[2, 9, \"Heading\"]\n"
+            + "  Paragraph[11, 18] isTrailingBlankLine\n"
+            + "    Text[11, 17] chars:[11, 17, \"edited\"]\n"
+            + "  ThematicBreak[19, 22]\n",
+        ast(updated));
+  }
+
+  @Test
+  public void test_referenceNeedsFullParse() {
+    Parser parser = Parser.builder().build();
+    Document document = parser.parse("[link]\n\ntext\n");
+
+    Document updated = parser.parseIncremental(document, 8, 4, "[link]: /url");
+    assertNotSame(document, updated);
+    assertEquals(ast(parser.parse("[link]\n\n[link]: /url\n")), ast(updated));
+  }
+
+  @Test
+  public void test_referenceRemovedNeedsFullParse() {
+    Parser parser = Parser.builder().build();
+    Document document = parser.parse("[link]\n\n[link]: /url\n");
+
+    Document updated = parser.parseIncremental(document, 8, 12, "text");
+    assertNotSame(document, updated);
+    assertEquals(ast(parser.parse("[link]\n\ntext\n")), ast(updated));
+  }
+
+  @Test
+  public void test_referenceAddedKeepsRepository() {
+    Parser parser = Parser.builder().build();
+    Document document = parser.parse("[link]\n\ntext\n");
+
+    parser.parseIncremental(document, 8, 4, "[link]: /url");
+    assertTrue(Parser.REFERENCES.get(document).isEmpty());
+  }
+
+  @Test
+  public void test_referenceTextWithoutDefinition() {
+    Parser parser = Parser.builder().build();
+    Document document = parser.parse("[link]\n\ntext\n\n[ref]: /url\n");
+
+    Document updated = parser.parseIncremental(document, 8, 4, "text]: /url");
+    assertSame(document, updated);
+    assertEquals(ast(parser.parse("[link]\n\ntext]: /url\n\n[ref]: /url\n")), ast(updated));
+  }
+
+  @Test
+  public void test_unmappedSegmentNeedsFullParse() {
+    Parser parser = Parser.builder().build();
+    Document document = parser.parse("# Heading\n\nparagraph\n\n***\n");
+    Node heading = document.getFirstChild();
+    CustomNode custom = new CustomNode(heading.getChars().subSequence(0, 1));
+    heading.appendChild(custom);
+
+    Document updated = parser.parseIncremental(document, 13, 2, "xx");
+    assertNotSame(document, updated);
+    assertEquals(ast(parser.parse("# Heading\n\npaxxgraph\n\n***\n")), ast(updated));
+    assertSame(document.getChars().getBaseSequence(), custom.marker.getBaseSequence());
+    assertSame(document.getChars().getBaseSequence(), heading.getChars().getBaseSequence());
+  }
+
+  @Test
+  public void test_mappedSegmentIsRebased() {
+    Parser parser = Parser.builder().build();
+    Document document = parser.parse("# Heading\n\nparagraph\n\n***\n");
+    Node thematicBreak = document.getLastChild();
+    CustomNode custom = new MappedCustomNode(thematicBreak.getChars());
+    thematicBreak.appendChild(custom);
+
+    Document updated = parser.parseIncremental(document, 13, 0, "xx");
+    assertSame(document, updated);
+    assertSame(updated.getChars().getBaseSequence(), custom.marker.getBaseSequence());
+    assertEquals(24, custom.getStartOffset());
+    assertEquals(24, custom.marker.getStartOffset());
+  }
+}
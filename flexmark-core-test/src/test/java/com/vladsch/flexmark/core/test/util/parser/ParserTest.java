@@ -5,6 +5,7 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import com.vladsch.flexmark.ast.BlockQuote;
@@ -14,7 +15,10 @@ import com.vladsch.flexmark.ast.Paragraph;
 import com.vladsch.flexmark.ast.SoftLineBreak;
 import com.vladsch.flexmark.ast.Text;
 import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.ParseMetrics;
 import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.parser.PostProcessor;
+import com.vladsch.flexmark.parser.PostProcessorFactory;
 import com.vladsch.flexmark.parser.block.AbstractBlockParser;
 import com.vladsch.flexmark.parser.block.AbstractBlockParserFactory;
 import com.vladsch.flexmark.parser.block.BlockContinue;
@@ -22,17 +26,24 @@ import com.vladsch.flexmark.parser.block.BlockParserFactory;
 import com.vladsch.flexmark.parser.block.BlockStart;
 import com.vladsch.flexmark.parser.block.CustomBlockParserFactory;
 import com.vladsch.flexmark.parser.block.MatchedBlockParser;
+import com.vladsch.flexmark.parser.block.ParserPhase;
 import com.vladsch.flexmark.parser.block.ParserState;
+import com.vladsch.flexmark.parser.core.HeadingParser;
 import com.vladsch.flexmark.test.specs.TestSpecLocator;
+import com.vladsch.flexmark.test.util.AstCollectingVisitor;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.Document;
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeTracker;
 import com.vladsch.flexmark.util.collection.iteration.ReversiblePeekingIterator;
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.data.MutableDataHolder;
 import com.vladsch.flexmark.util.data.MutableDataSet;
 import com.vladsch.flexmark.util.data.SharedDataKeys;
+import com.vladsch.flexmark.util.misc.CharPredicate;
+import com.vladsch.flexmark.util.misc.StageMetrics;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.Utf8FileCharSequence;
 import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInHandler;
 import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInStartsWithCharsHandler;
 import java.io.IOException;
@@ -40,8 +51,20 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 
 public class ParserTest {
@@ -68,6 +91,214 @@ public class ParserTest {
     assertEquals(renderer.render(document2), renderer.render(document1));
   }
 
+  @Test
+  public void streamingReaderTest() throws IOException {
+    Parser parser = Parser.builder().build();
+    String spec = TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText();
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < 100_000) {
+      sb.append(spec);
+    }
+
+    // CR LF and CR line breaks split across reads, lines split across store chunks and NUL chars
+    String[] sources = {
+      spec, sb.toString(), spec.replace("\n", "\r\n"), spec.replace("\n", "\r"), "a\0b\r\n\r\n- c"
+    };
+
+    for (String source : sources) {
+      String expected = new AstCollectingVisitor().collectAndGetAstText(parser.parse(source));
+      for (int maxRead : new int[] {1, 3, 4096}) {
+        Document document = parser.parseReader(new ChoppedReader(source, maxRead));
+        assertEquals(source.length(), document.getTextLength());
+        assertEquals(expected, new AstCollectingVisitor().collectAndGetAstText(document));
+      }
+    }
+  }
+
+  @Test
+  public void parseFileTest() throws IOException {
+    Parser parser = Parser.builder().build();
+    String source =
+        TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText()
+            + "\n# \u00e9\ud83d\ude00 a\0b\n";
+    Path path = Files.createTempFile("parseFileTest", ".md");
+    try {
+      Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+      Document document = parser.parseFile(path);
+
+      assertEquals(
+          new AstCollectingVisitor().collectAndGetAstText(parser.parse(source)),
+          new AstCollectingVisitor().collectAndGetAstText(document));
+
+      Utf8FileCharSequence fileChars = (Utf8FileCharSequence) document.getChars().getBase();
+      Node heading = document.getLastChild();
+      assertEquals(
+          source.substring(0, heading.getStartOffset()).getBytes(StandardCharsets.UTF_8).length,
+          fileChars.getByteOffset(heading.getStartOffset()));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void parallelInlineParsingTest() {
+    String spec = TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      sb.append("Paragraph *").append(i).append("* with [link][ref-").append(i % 50).append("]");
+      sb.append(" and `code` &amp; <span>html</span>\n\n");
+      if (i % 40 == 0) sb.append("[ref-").append(i / 40).append("]: /url").append(i).append("\n\n");
+    }
+
+    Parser parser = Parser.builder().build();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Parser parallelParser =
+          Parser.builder(
+                  new MutableDataSet()
+                      .set(Parser.PARALLEL_INLINE_PARSING, true)
+                      .set(Parser.INLINE_PARSING_EXECUTOR, pool))
+              .build();
+
+      for (String source : new String[] {spec, sb.toString(), "a *b*"}) {
+        String expected = new AstCollectingVisitor().collectAndGetAstText(parser.parse(source));
+        // second parse reuses the task inline parsers
+        for (int i = 0; i < 2; i++) {
+          assertEquals(
+              expected,
+              new AstCollectingVisitor().collectAndGetAstText(parallelParser.parse(source)));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void parallelInlineParsingFailureTest() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append("Paragraph *").append(i).append("*\n\n");
+    }
+    String source = sb.toString();
+
+    // rejects the second task of the first parse, the other tasks run
+    AtomicInteger executed = new AtomicInteger();
+    ForkJoinPool pool =
+        new ForkJoinPool(4) {
+          @Override
+          public void execute(Runnable task) {
+            if (executed.incrementAndGet() == 2) throw new RejectedExecutionException("rejected");
+            super.execute(task);
+          }
+        };
+    try {
+      Parser parallelParser =
+          Parser.builder(
+                  new MutableDataSet()
+                      .set(Parser.PARALLEL_INLINE_PARSING, true)
+                      .set(Parser.INLINE_PARSING_EXECUTOR, pool))
+              .build();
+
+      RejectedExecutionException e =
+          assertThrows(RejectedExecutionException.class, () -> parallelParser.parse(source));
+      assertEquals("rejected", e.getMessage());
+
+      // task inline parsers were finalized and are reused by the next parse
+      assertEquals(
+          new AstCollectingVisitor().collectAndGetAstText(Parser.builder().build().parse(source)),
+          new AstCollectingVisitor().collectAndGetAstText(parallelParser.parse(source)));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** Reader returning at most the given number of characters per read */
+  private static class ChoppedReader extends StringReader {
+    private final int maxRead;
+
+    ChoppedReader(String s, int maxRead) {
+      super(s);
+      this.maxRead = maxRead;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      return super.read(cbuf, off, Math.min(len, maxRead));
+    }
+  }
+
+  @Test
+  public void reusedParserStateTest() {
+    Parser parser = Parser.builder().build();
+    HtmlRenderer renderer = HtmlRenderer.builder().build();
+
+    Document document1 = parser.parse("[ref]\n\n[ref]: /url\n");
+    Document document2 = parser.parse("[ref]\n");
+
+    // reference definitions must not leak from one document into the next
+    assertEquals("<p><a href=\"/url\">ref</a></p>\n", renderer.render(document1));
+    assertEquals("<p>[ref]</p>\n", renderer.render(document2));
+    assertEquals(1, Parser.REFERENCES.get(document1).size());
+    assertEquals(0, Parser.REFERENCES.get(document2).size());
+  }
+
+  @Test
+  public void reentrantParseTest() {
+    Parser[] parser = new Parser[1];
+    Document[] nested = new Document[1];
+    parser[0] =
+        Parser.builder()
+            .customBlockParserFactory(
+                new DashBlockParserFactory() {
+                  @Override
+                  public BlockParserFactory apply(DataHolder options) {
+                    BlockParserFactory dashFactory = super.apply(options);
+                    return new AbstractBlockParserFactory() {
+                      @Override
+                      public BlockStart tryStart(
+                          ParserState state, MatchedBlockParser matchedBlockParser) {
+                        if (nested[0] == null && state.getLine().equals("---")) {
+                          // parse another document while this one is being parsed
+                          nested[0] = parser[0].parse("*nested*\n");
+                        }
+                        return dashFactory.tryStart(state, matchedBlockParser);
+                      }
+                    };
+                  }
+                })
+            .build();
+
+    Document document = parser[0].parse("outer\n\n---\n");
+    HtmlRenderer renderer = HtmlRenderer.builder().build();
+    assertEquals("<p><em>nested</em></p>\n", renderer.render(nested[0]));
+    assertThat(document.getFirstChild(), instanceOf(Paragraph.class));
+    assertThat(document.getLastChild(), instanceOf(DashBlock.class));
+  }
+
+  @Test
+  public void concurrentParseTest() throws Exception {
+    Parser parser =
+        Parser.builder(new MutableDataSet().set(Parser.REUSE_PARSER_STATE, false)).build();
+    HtmlRenderer renderer = HtmlRenderer.builder().build();
+    String spec = TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText();
+    String expected = renderer.render(parser.parse(spec));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> renderer.render(parser.parse(spec))));
+      }
+
+      for (Future<String> result : results) {
+        assertEquals(expected, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void customBlockParserFactory() {
     Parser parser = Parser.builder().customBlockParserFactory(new DashBlockParserFactory()).build();
@@ -80,6 +311,25 @@ public class ParserTest {
     assertThat(document.getLastChild(), instanceOf(DashBlock.class));
   }
 
+  @Test
+  public void blockStartCharactersTest() {
+    List<String> anyLines = new ArrayList<>();
+    List<String> equalsLines = new ArrayList<>();
+    // second factory is a subclass, dependents must be of distinct classes
+    Parser parser =
+        Parser.builder()
+            .customBlockParserFactory(new LineRecordingBlockParserFactory(null, anyLines))
+            .customBlockParserFactory(
+                new LineRecordingBlockParserFactory(CharPredicate.anyOf('='), equalsLines) {})
+            .build();
+
+    parser.parse("% one\n\n=-= two\n\n  =-= three\n");
+
+    // factories declaring their start characters are only offered lines starting with them
+    assertEquals(Arrays.asList("% one", "=-= two", "  =-= three"), anyLines);
+    assertEquals(Arrays.asList("=-= two", "  =-= three"), equalsLines);
+  }
+
   @Test
   public void indentation() {
     String given = " - 1 space\n   - 3 spaces\n     - 5 spaces\n\t - tab + space";
@@ -733,6 +983,93 @@ public class ParserTest {
     assertEquals("2\\)abc", unEscape("2\\)abc", parser));
   }
 
+  @Test
+  public void parseListenerReceivesMetrics() {
+    List<ParseMetrics> reported = new ArrayList<>();
+    Parser parser =
+        Parser.builder(
+                new MutableDataSet()
+                    .set(Parser.PARSE_LISTENER, (document, metrics) -> reported.add(metrics)))
+            .postProcessorFactory(new DocumentPostProcessorFactory())
+            .build();
+
+    parser.parse("# Heading\n\n*emph* [link][ref] __strong__\n\n- item\n\n[ref]: /url\n");
+    assertEquals(1, reported.size());
+
+    ParseMetrics metrics = reported.get(0);
+    assertEquals(
+        EnumSet.of(
+            ParserPhase.PARSE_BLOCKS,
+            ParserPhase.PRE_PROCESS_PARAGRAPHS,
+            ParserPhase.PRE_PROCESS_BLOCKS,
+            ParserPhase.PARSE_INLINES),
+        metrics.getPhases().keySet());
+    assertEquals(1, metrics.getTotal().getCount());
+    assertTrue(metrics.getTotal().getNanos() > 0);
+    for (Map.Entry<Class<?>, StageMetrics> entry : metrics.getBlockParserFactories().entrySet()) {
+      if (entry.getKey().getEnclosingClass() == HeadingParser.class) {
+        assertTrue(entry.getValue().getCount() > 0);
+      }
+    }
+    assertEquals(
+        1, metrics.getPostProcessors().get(DocumentPostProcessorFactory.class).getCount());
+    assertEquals(7, metrics.getLineCount());
+    // heading, paragraph, list, item, item paragraph and reference
+    assertEquals(6, metrics.getBlockCount());
+    assertEquals(10, metrics.getInlineNodeCount());
+    assertEquals(4, metrics.getDelimiterRunCount());
+    assertEquals(1, metrics.getLinkRefCount());
+  }
+
+  @Test
+  public void parseListenerNotCalledForIncrementalParse() {
+    List<ParseMetrics> reported = new ArrayList<>();
+    Parser parser =
+        Parser.builder(
+                new MutableDataSet()
+                    .set(Parser.PARSE_LISTENER, (document, metrics) -> reported.add(metrics)))
+            .build();
+
+    Document document = parser.parse("first\n\nsecond\n");
+    parser.parseIncremental(document, 0, 5, "1st");
+    assertEquals(1, reported.size());
+  }
+
+  private static class DocumentPostProcessorFactory implements PostProcessorFactory {
+    @Override
+    public Map<Class<?>, Set<Class<?>>> getNodeTypes() {
+      return null;
+    }
+
+    @Override
+    public Set<Class<?>> getAfterDependents() {
+      return null;
+    }
+
+    @Override
+    public Set<Class<?>> getBeforeDependents() {
+      return null;
+    }
+
+    @Override
+    public boolean affectsGlobalScope() {
+      return true;
+    }
+
+    @Override
+    public PostProcessor apply(Document document) {
+      return new PostProcessor() {
+        @Override
+        public Document processDocument(Document document) {
+          return document;
+        }
+
+        @Override
+        public void process(NodeTracker state, Node node) {}
+      };
+    }
+  }
+
   private static String firstText(Node n) {
     while (!(n instanceof Text)) {
       assertThat(n, notNullValue());
@@ -810,4 +1147,45 @@ public class ParserTest {
       return BlockStart.none();
     }
   }
+
+  private static class LineRecordingBlockParserFactory implements CustomBlockParserFactory {
+    private final CharPredicate blockStartCharacters;
+    private final List<String> lines;
+
+    LineRecordingBlockParserFactory(CharPredicate blockStartCharacters, List<String> lines) {
+      this.blockStartCharacters = blockStartCharacters;
+      this.lines = lines;
+    }
+
+    @Override
+    public Set<Class<?>> getAfterDependents() {
+      return null;
+    }
+
+    @Override
+    public Set<Class<?>> getBeforeDependents() {
+      return null;
+    }
+
+    @Override
+    public boolean affectsGlobalScope() {
+      return false;
+    }
+
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return blockStartCharacters;
+    }
+
+    @Override
+    public BlockParserFactory apply(DataHolder options) {
+      return new AbstractBlockParserFactory() {
+        @Override
+        public BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser) {
+          lines.add(state.getLine().toString());
+          return BlockStart.none();
+        }
+      };
+    }
+  }
 }
@@ -0,0 +1,43 @@
+package com.vladsch.flexmark.core.test.util.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import com.vladsch.flexmark.ast.util.Parsing;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class ParsingCharClassTest {
+  private static void assertSameAsPattern(Pattern pattern, CharClass charClass) {
+    for (int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
+      char c = (char) i;
+      assertEquals(
+          "char 0x" + Integer.toHexString(i),
+          pattern.matcher(String.valueOf(c)).matches(),
+          charClass.test(c));
+    }
+  }
+
+  private interface CharClass {
+    boolean test(char c);
+  }
+
+  @Test
+  public void test_unicodeWhitespace() {
+    assertSameAsPattern(Parsing.UNICODE_WHITESPACE_CHAR, Parsing::isUnicodeWhitespace);
+  }
+
+  @Test
+  public void test_punctuation() {
+    assertSameAsPattern(Parsing.PUNCTUATION, Parsing::isPunctuation);
+  }
+
+  @Test
+  public void test_punctuationOpen() {
+    assertSameAsPattern(Parsing.PUNCTUATION_OPEN, Parsing::isPunctuationOpen);
+  }
+
+  @Test
+  public void test_punctuationClose() {
+    assertSameAsPattern(Parsing.PUNCTUATION_CLOSE, Parsing::isPunctuationClose);
+  }
+}
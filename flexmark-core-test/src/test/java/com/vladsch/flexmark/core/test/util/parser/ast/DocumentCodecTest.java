@@ -0,0 +1,164 @@
+package com.vladsch.flexmark.core.test.util.parser.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.LinkRef;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.test.specs.TestSpecLocator;
+import com.vladsch.flexmark.test.util.AstCollectingVisitor;
+import com.vladsch.flexmark.test.util.spec.SpecExample;
+import com.vladsch.flexmark.test.util.spec.SpecReader;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.DocumentCodec;
+import com.vladsch.flexmark.util.ast.FrozenDocument;
+import com.vladsch.flexmark.util.ast.FrozenNodeType;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class DocumentCodecTest {
+  private static final Parser PARSER = Parser.builder().build();
+  private static final HtmlRenderer RENDERER =
+      HtmlRenderer.builder(new MutableDataSet().set(HtmlRenderer.RENDER_HEADER_ID, true)).build();
+
+  private static Document roundTrip(String source) throws IOException {
+    byte[] data = DocumentCodec.encode(PARSER.parse(source));
+    return DocumentCodec.decode(data, source, PARSER.getOptions());
+  }
+
+  @Test
+  public void specExamplesRenderSame() throws IOException {
+    for (SpecExample example :
+        SpecReader.createAndReadExamples(TestSpecLocator.DEFAULT_RESOURCE_LOCATION, false)
+            .getExamples()) {
+      String source = example.getSource();
+      assertEquals(
+          example.getSection() + ": " + example.getExampleNumber(),
+          RENDERER.render(PARSER.parse(source)),
+          RENDERER.render(roundTrip(source)));
+    }
+  }
+
+  @Test
+  public void specSameAst() throws IOException {
+    String spec = TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText();
+    AstCollectingVisitor visitor = new AstCollectingVisitor();
+
+    assertEquals(
+        visitor.collectAndGetAstText(PARSER.parse(spec)),
+        new AstCollectingVisitor().collectAndGetAstText(roundTrip(spec)));
+  }
+
+  @Test
+  public void referencesDecoded() throws IOException {
+    Document document = roundTrip("[link][ref] and [ref]\n\n[ref]: /url \"title\"\n");
+    Node paragraph = document.getFirstChild();
+
+    LinkRef linkRef = (LinkRef) paragraph.getFirstChild();
+    assertEquals("/url", linkRef.getReferenceNode(document).getUrl().toString());
+    assertEquals(
+        "<p><a href=\"/url\" title=\"title\">link</a>"
+            + " and <a href=\"/url\" title=\"title\">ref</a></p>\n",
+        RENDERER.render(document));
+  }
+
+  @Test
+  public void streamReadsOneDocument() throws IOException {
+    String first = "# first\n";
+    String second = "[second](/url)\n";
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DocumentCodec.encode(PARSER.parse(first), out);
+    DocumentCodec.encode(PARSER.parse(second), out);
+
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    assertEquals(
+        RENDERER.render(PARSER.parse(first)),
+        RENDERER.render(DocumentCodec.decode(in, first, PARSER.getOptions())));
+
+    Document document = DocumentCodec.decode(in, second, PARSER.getOptions());
+    assertNotNull(document.getFirstChild().getFirstChild());
+    assertEquals(Link.class, document.getFirstChild().getFirstChild().getClass());
+  }
+
+  @Test
+  public void otherSourceRejected() {
+    byte[] data = DocumentCodec.encode(PARSER.parse("text\n"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> DocumentCodec.decode(data, "test\n", PARSER.getOptions()));
+  }
+
+  @Test
+  public void changedNodeTypeRejected() {
+    byte[] data = DocumentCodec.encode(PARSER.parse("*text*\n"));
+    Map<Class<? extends Node>, FrozenNodeType<?>> nodeTypes =
+        new HashMap<>(FrozenDocument.NODE_TYPES.get(PARSER.getOptions()));
+    nodeTypes.put(Text.class, new FrozenNodeType<>(Text.class, 2, Text::new));
+
+    assertThrows(
+        IOException.class,
+        () ->
+            DocumentCodec.decode(
+                data,
+                "*text*\n",
+                new MutableDataSet(PARSER.getOptions()).set(FrozenDocument.NODE_TYPES, nodeTypes)));
+    assertThrows(
+        IOException.class,
+        () ->
+            DocumentCodec.decode(
+                data,
+                "*text*\n",
+                new MutableDataSet(PARSER.getOptions())
+                    .set(FrozenDocument.NODE_TYPES, Collections.emptyMap())));
+  }
+
+  @Test
+  public void malformedDataRejected() {
+    byte[] data = DocumentCodec.encode(PARSER.parse("*text*\n"));
+    for (byte[] bad :
+        new byte[][] {
+          Arrays.copyOf(data, data.length - 1), Arrays.copyOf(data, 4), "text".getBytes()
+        }) {
+      assertThrows(
+          IOException.class, () -> DocumentCodec.decode(bad, "*text*\n", PARSER.getOptions()));
+    }
+  }
+
+  @Test
+  public void lengthLargerThanDataRejected() {
+    byte[] data = DocumentCodec.encode(PARSER.parse("*text*\n"));
+    byte[] bad = Arrays.copyOf(data, data.length);
+    bad[8] = 0x7f;
+    assertThrows(
+        IOException.class, () -> DocumentCodec.decode(bad, "*text*\n", PARSER.getOptions()));
+  }
+
+  @Test
+  public void corruptedDataFailsWithIOException() {
+    String source = "# Heading\n\n*text* [link][ref]\n\n- item\n\n[ref]: /url \"title\"\n";
+    byte[] data = DocumentCodec.encode(PARSER.parse(source));
+    for (int i = 12; i < data.length; i++) {
+      for (int value : new int[] {0, 1, 0x7f, 0xff}) {
+        byte[] bad = Arrays.copyOf(data, data.length);
+        bad[i] = (byte) value;
+        try {
+          DocumentCodec.decode(bad, source, PARSER.getOptions());
+        } catch (IOException | IllegalArgumentException e) {
+          // malformed data or the source check changed, any other exception fails the test
+        }
+      }
+    }
+  }
+}
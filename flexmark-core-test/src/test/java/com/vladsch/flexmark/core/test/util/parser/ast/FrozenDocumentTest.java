@@ -0,0 +1,209 @@
+package com.vladsch.flexmark.core.test.util.parser.ast;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.LinkRef;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.Reference;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.test.specs.TestSpecLocator;
+import com.vladsch.flexmark.test.util.AstCollectingVisitor;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.FrozenDocument;
+import com.vladsch.flexmark.util.ast.FrozenNodeType;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
+import com.vladsch.flexmark.util.ast.NodeTypeRegistry;
+import com.vladsch.flexmark.util.ast.NodeVisitor;
+import com.vladsch.flexmark.util.ast.VisitHandler;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class FrozenDocumentTest {
+  private static final String TEXT =
+      "# Heading\n\nParagraph with *emphasis* and a [link][ref].\n\n- item\n\n[ref]: /url\n";
+
+  private static final Parser PARSER = Parser.builder().build();
+
+  private static class CustomNode extends Node {
+    int value;
+    BasedSequence marker = BasedSequence.NULL;
+
+    @Override
+    public BasedSequence[] getSegments() {
+      return new BasedSequence[] {marker};
+    }
+
+    @Override
+    protected void freezeFields(NodeFieldWriter out) {
+      super.freezeFields(out);
+      out.writeInt(value);
+      out.writeSequence(marker);
+    }
+
+    @Override
+    protected void thawFields(NodeFieldReader in) {
+      super.thawFields(in);
+      value = in.readInt();
+      marker = in.readSequence();
+    }
+  }
+
+  private static Document withCustomNode(Parser parser) {
+    Document document = parser.parse(TEXT);
+    CustomNode custom = new CustomNode();
+    custom.setChars(document.getFirstChild().getChars());
+    custom.value = 42;
+    custom.marker = custom.getChars().subSequence(0, 1);
+    document.getFirstChild().appendChild(custom);
+    return document;
+  }
+
+  private static List<Node> nodesInOrder(Node node, List<Node> nodes) {
+    nodes.add(node);
+    for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+      nodesInOrder(child, nodes);
+    }
+    return nodes;
+  }
+
+  private static int indexOf(FrozenDocument frozen, Class<?> nodeType) {
+    for (int i = 0; i < frozen.getNodeCount(); i++) {
+      if (frozen.getNodeType(i) == nodeType) return i;
+    }
+    return -1;
+  }
+
+  @Test
+  public void specSameAfterThaw() {
+    String spec = TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText();
+    HtmlRenderer renderer =
+        HtmlRenderer.builder(new MutableDataSet().set(HtmlRenderer.RENDER_HEADER_ID, true))
+            .build();
+
+    Document document = PARSER.parse(spec);
+    String ast = new AstCollectingVisitor().collectAndGetAstText(document);
+    String html = renderer.render(document);
+
+    FrozenDocument frozen = FrozenDocument.of(document);
+    assertEquals(ast, new AstCollectingVisitor().collectAndGetAstText(frozen.toDocument()));
+    assertEquals(html, renderer.render(frozen));
+  }
+
+  @Test
+  public void navigationMatchesNodes() {
+    Document document = PARSER.parse(TEXT);
+    List<Node> nodes = nodesInOrder(document, new ArrayList<>());
+    FrozenDocument frozen = FrozenDocument.of(document);
+
+    assertEquals(nodes.size(), frozen.getNodeCount());
+    for (int i = 0; i < nodes.size(); i++) {
+      Node node = nodes.get(i);
+      assertSame(node.getClass(), frozen.getNodeType(i));
+      assertEquals(NodeTypeRegistry.getTypeId(node.getClass()), frozen.getNodeTypeId(i));
+      assertEquals(nodes.indexOf(node.getParent()), frozen.getParent(i));
+      assertEquals(nodes.indexOf(node.getFirstChild()), frozen.getFirstChild(i));
+      assertEquals(nodes.indexOf(node.getLastChild()), frozen.getLastChild(i));
+      assertEquals(nodes.indexOf(node.getNext()), frozen.getNext(i));
+      assertEquals(nodes.indexOf(node.getPrevious()), frozen.getPrevious(i));
+      assertEquals(node.getStartOffset(), frozen.getStartOffset(i));
+      assertEquals(node.getEndOffset(), frozen.getEndOffset(i));
+      assertEquals(node.getChars().toString(), frozen.getNodeChars(i).toString());
+    }
+  }
+
+  @Test
+  public void nodeCreatedWithAncestors() {
+    FrozenDocument frozen = FrozenDocument.of(PARSER.parse(TEXT));
+    Node emphasis = frozen.getNode(indexOf(frozen, Emphasis.class));
+
+    assertTrue(emphasis instanceof Emphasis);
+    assertEquals("*emphasis*", emphasis.getChars().toString());
+    assertEquals("emphasis", emphasis.getFirstChild().getChars().toString());
+    assertTrue(emphasis.getParent() instanceof Paragraph);
+    assertSame(emphasis, emphasis.getParent().getFirstChild());
+    assertNull(emphasis.getNext());
+    assertNotNull(emphasis.getDocument());
+  }
+
+  @Test
+  public void mutableFieldsNotShared() {
+    Document document = PARSER.parse("Paragraph with\n  two lines\n");
+    int[] lineIndents = ((Paragraph) document.getFirstChild()).getLineIndents().clone();
+    FrozenDocument frozen = FrozenDocument.of(document);
+    ((Paragraph) document.getFirstChild()).getLineIndents()[0] = -1;
+
+    Paragraph first = (Paragraph) frozen.toDocument().getFirstChild();
+    Paragraph second = (Paragraph) frozen.toDocument().getFirstChild();
+    assertArrayEquals(lineIndents, first.getLineIndents());
+    assertNotSame(first.getLineIndents(), second.getLineIndents());
+
+    first.getLineIndents()[0] = -1;
+    assertArrayEquals(lineIndents, second.getLineIndents());
+    assertArrayEquals(
+        lineIndents, ((Paragraph) frozen.toDocument().getFirstChild()).getLineIndents());
+  }
+
+  @Test
+  public void visitCreatesHandledNodes() {
+    Document document = PARSER.parse(TEXT);
+    List<String> expected = new ArrayList<>();
+    List<String> visited = new ArrayList<>();
+
+    new NodeVisitor(new VisitHandler<>(Text.class, text -> expected.add(text.toString())))
+        .visit(document);
+
+    FrozenDocument frozen = FrozenDocument.of(document);
+    new NodeVisitor(new VisitHandler<>(Text.class, text -> visited.add(text.toString())))
+        .visit(frozen);
+    assertEquals(expected, visited);
+
+    List<Reference> references = new ArrayList<>();
+    new NodeVisitor(
+            new VisitHandler<>(
+                LinkRef.class,
+                node -> references.add(node.getReferenceNode(node.getDocument()))))
+        .visit(frozen);
+    assertEquals(1, references.size());
+    assertEquals("/url", references.get(0).getUrl().toString());
+  }
+
+  @Test
+  public void nodeWithoutFrozenTypeRejected() {
+    Document document = withCustomNode(PARSER);
+    assertThrows(IllegalArgumentException.class, () -> FrozenDocument.of(document));
+  }
+
+  @Test
+  public void frozenTypeFromOptions() {
+    Parser parser =
+        Parser.builder(
+                new MutableDataSet()
+                    .set(
+                        FrozenDocument.NODE_TYPES,
+                        FrozenNodeType.mapOf(
+                            new FrozenNodeType<>(CustomNode.class, 1, CustomNode::new))))
+            .build();
+
+    FrozenDocument frozen = FrozenDocument.of(withCustomNode(parser));
+    CustomNode custom = (CustomNode) frozen.getNode(indexOf(frozen, CustomNode.class));
+    assertEquals(42, custom.value);
+    assertEquals("#", custom.marker.toString());
+    assertEquals(0, custom.marker.getStartOffset());
+    assertTrue(frozen.getNode(indexOf(frozen, Emphasis.class)) instanceof Emphasis);
+  }
+}
@@ -0,0 +1,62 @@
+package com.vladsch.flexmark.core.test.util.parser.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.vladsch.flexmark.ast.Code;
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeTypeMap;
+import com.vladsch.flexmark.util.ast.NodeTypeRegistry;
+import com.vladsch.flexmark.util.ast.NodeVisitor;
+import com.vladsch.flexmark.util.ast.VisitHandler;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class NodeTypeMapTest {
+  @Test
+  public void typeIdsAreStableAndDistinct() {
+    int textId = NodeTypeRegistry.getTypeId(Text.class);
+    assertEquals(textId, NodeTypeRegistry.getTypeId(Text.class));
+    assertNotEquals(textId, NodeTypeRegistry.getTypeId(Code.class));
+    assertTrue(textId < NodeTypeRegistry.getTypeCount());
+  }
+
+  @Test
+  public void lookupIsByExactClass() {
+    NodeTypeMap<String> map = new NodeTypeMap<>();
+    assertTrue(map.isEmpty());
+
+    map.put(Node.class, "node");
+    map.put(Text.class, "text");
+    assertEquals(2, map.size());
+    assertEquals("text", map.get(new Text("a")));
+    assertEquals("node", map.get(Node.class));
+    assertNull(map.get(new Paragraph()));
+
+    assertEquals("text", map.put(Text.class, null));
+    assertEquals(1, map.size());
+    assertNull(map.get(Text.class));
+  }
+
+  @Test
+  public void visitorDispatchesByType() {
+    List<String> visited = new ArrayList<>();
+    NodeVisitor visitor =
+        new NodeVisitor(
+            new VisitHandler<>(Text.class, node -> visited.add("text:" + node.getChars())),
+            new VisitHandler<>(Emphasis.class, node -> visited.add("emphasis")));
+
+    visitor.visit(Parser.builder().build().parse("a *b* `c`"));
+
+    assertEquals(List.of("text:a ", "emphasis", "text: ", "text:c"), visited);
+    assertSame(2, visitor.getNodeClasses().size());
+  }
+}
@@ -3,8 +3,11 @@ package com.vladsch.flexmark.core.test.util.parser.ast;
 import static org.junit.Assert.assertEquals;
 
 import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.test.specs.TestSpecLocator;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.TextCollectingVisitor;
+import com.vladsch.flexmark.util.ast.TextContainer;
+import java.io.IOException;
 import org.junit.Test;
 
 public class TextCollectingVisitorTest {
@@ -99,4 +102,18 @@ public class TextCollectingVisitorTest {
     final String text = collectingVisitor.collectAndGetText(document);
     assertEquals("" + "before\n" + "\n" + "indented code block\n" + "\n" + "after" + "", text);
   }
+
+  @Test
+  public void test_append_to() throws IOException {
+    Parser parser = Parser.builder().build();
+    Node document = parser.parse(TestSpecLocator.DEFAULT_RESOURCE_LOCATION.getResourceText());
+    TextCollectingVisitor collectingVisitor = new TextCollectingVisitor();
+    for (Node node : document.getDescendants()) {
+      for (int flags : new int[] {0, TextContainer.F_FOR_HEADING_ID, TextContainer.F_NODE_TEXT}) {
+        StringBuilder out = new StringBuilder();
+        collectingVisitor.collectAndAppendTo(node, flags, out);
+        assertEquals(collectingVisitor.collectAndGetText(node, flags), out.toString());
+      }
+    }
+  }
 }
@@ -227,6 +227,13 @@ public class DefinitionItemBlockParser extends AbstractBlockParser {
               : tilde ? DefinitionLeadInHandler.HANDLER_TILDE : null;
     }
 
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return CharPredicate.anyOf(
+          (DefinitionExtension.COLON_MARKER.get(options) ? ":" : "")
+              + (DefinitionExtension.TILDE_MARKER.get(options) ? "~" : ""));
+    }
+
     @Override
     public boolean affectsGlobalScope() {
       return false;
@@ -4,29 +4,18 @@ import com.vladsch.flexmark.ext.gfm.strikethrough.Strikethrough;
 import com.vladsch.flexmark.ext.gfm.strikethrough.StrikethroughSubscriptExtension;
 import com.vladsch.flexmark.ext.gfm.strikethrough.Subscript;
 import com.vladsch.flexmark.html.HtmlWriter;
+import com.vladsch.flexmark.html.renderer.CacheableNodeRenderer;
 import com.vladsch.flexmark.html.renderer.NodeRenderer;
 import com.vladsch.flexmark.html.renderer.NodeRendererContext;
 import com.vladsch.flexmark.html.renderer.NodeRendererFactory;
 import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
+import com.vladsch.flexmark.html.renderer.SharedNodeRenderer;
 import com.vladsch.flexmark.util.data.DataHolder;
 import java.util.HashSet;
 import java.util.Set;
 
-public class StrikethroughNodeRenderer implements NodeRenderer {
-  private final String strikethroughStyleHtmlOpen;
-  private final String strikethroughStyleHtmlClose;
-  private final String subscriptStyleHtmlOpen;
-  private final String subscriptStyleHtmlClose;
-
-  private StrikethroughNodeRenderer(DataHolder options) {
-    strikethroughStyleHtmlOpen =
-        StrikethroughSubscriptExtension.STRIKETHROUGH_STYLE_HTML_OPEN.get(options);
-    strikethroughStyleHtmlClose =
-        StrikethroughSubscriptExtension.STRIKETHROUGH_STYLE_HTML_CLOSE.get(options);
-    subscriptStyleHtmlOpen = StrikethroughSubscriptExtension.SUBSCRIPT_STYLE_HTML_OPEN.get(options);
-    subscriptStyleHtmlClose =
-        StrikethroughSubscriptExtension.SUBSCRIPT_STYLE_HTML_CLOSE.get(options);
-  }
+public class StrikethroughNodeRenderer implements SharedNodeRenderer, CacheableNodeRenderer {
+  private StrikethroughNodeRenderer() {}
 
   @Override
   public Set<NodeRenderingHandler<?>> getNodeRenderingHandlers() {
@@ -37,6 +26,11 @@ public class StrikethroughNodeRenderer implements NodeRenderer {
   }
 
   private void render(Strikethrough node, NodeRendererContext context, HtmlWriter html) {
+    // options are read for each node, they can be set on the document of a shared renderer
+    String strikethroughStyleHtmlOpen =
+        StrikethroughSubscriptExtension.STRIKETHROUGH_STYLE_HTML_OPEN.get(context.getOptions());
+    String strikethroughStyleHtmlClose =
+        StrikethroughSubscriptExtension.STRIKETHROUGH_STYLE_HTML_CLOSE.get(context.getOptions());
     if (strikethroughStyleHtmlOpen == null || strikethroughStyleHtmlClose == null) {
       if (context.getHtmlOptions().sourcePositionParagraphLines) {
         html.withAttr().tag("del");
@@ -53,6 +47,10 @@ public class StrikethroughNodeRenderer implements NodeRenderer {
   }
 
   private void render(Subscript node, NodeRendererContext context, HtmlWriter html) {
+    String subscriptStyleHtmlOpen =
+        StrikethroughSubscriptExtension.SUBSCRIPT_STYLE_HTML_OPEN.get(context.getOptions());
+    String subscriptStyleHtmlClose =
+        StrikethroughSubscriptExtension.SUBSCRIPT_STYLE_HTML_CLOSE.get(context.getOptions());
     if (subscriptStyleHtmlOpen == null || subscriptStyleHtmlClose == null) {
       if (context.getHtmlOptions().sourcePositionParagraphLines) {
         html.withAttr().tag("sub");
@@ -72,7 +70,7 @@ public class StrikethroughNodeRenderer implements NodeRenderer {
 
     @Override
     public NodeRenderer apply(DataHolder options) {
-      return new StrikethroughNodeRenderer(options);
+      return new StrikethroughNodeRenderer();
     }
   }
 }
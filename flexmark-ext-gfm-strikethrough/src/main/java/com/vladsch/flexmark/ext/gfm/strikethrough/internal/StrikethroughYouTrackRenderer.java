@@ -7,11 +7,12 @@ import com.vladsch.flexmark.html.renderer.NodeRenderer;
 import com.vladsch.flexmark.html.renderer.NodeRendererContext;
 import com.vladsch.flexmark.html.renderer.NodeRendererFactory;
 import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
+import com.vladsch.flexmark.html.renderer.SharedNodeRenderer;
 import com.vladsch.flexmark.util.data.DataHolder;
 import java.util.HashSet;
 import java.util.Set;
 
-public class StrikethroughYouTrackRenderer implements NodeRenderer {
+public class StrikethroughYouTrackRenderer implements SharedNodeRenderer {
   public StrikethroughYouTrackRenderer() {}
 
   @Override
@@ -2,6 +2,7 @@ package com.vladsch.flexmark.ext.gfm.strikethrough;
 
 import static org.junit.Assert.assertEquals;
 
+import com.vladsch.flexmark.html.BlockRenderCache;
 import com.vladsch.flexmark.html.HtmlRenderer;
 import com.vladsch.flexmark.parser.Parser;
 import com.vladsch.flexmark.test.util.FlexmarkSpecExampleRenderer;
@@ -99,4 +100,39 @@ public class StrikethroughTest extends RenderingTestCase {
     assertEquals("~~", strikethrough.getOpeningMarker().toString());
     assertEquals("~~", strikethrough.getClosingMarker().toString());
   }
+
+  @Test
+  public void styleFromParserOptions() {
+    Node document =
+        Parser.builder(
+                new MutableDataSet(OPTIONS)
+                    .set(StrikethroughSubscriptExtension.STRIKETHROUGH_STYLE_HTML_OPEN, "<s>")
+                    .set(StrikethroughSubscriptExtension.STRIKETHROUGH_STYLE_HTML_CLOSE, "</s>"))
+            .build()
+            .parse("~~foo~~");
+    assertEquals("<p><s>foo</s></p>\n", RENDERER.render(document));
+    assertEquals("<p><del>foo</del></p>\n", RENDERER.render(PARSER.parse("~~foo~~")));
+  }
+
+  @Test
+  public void blockRenderCacheKeyedOnParser() {
+    BlockRenderCache cache = new BlockRenderCache(100);
+    HtmlRenderer renderer =
+        HtmlRenderer.builder(
+                new MutableDataSet(OPTIONS).set(HtmlRenderer.BLOCK_RENDER_CACHE, cache))
+            .build();
+
+    assertEquals(
+        "<p>para <del>gone</del> here</p>\n", renderer.render(PARSER.parse("para ~~gone~~ here")));
+    assertEquals(
+        "<p>para ~~gone~~ here</p>\n",
+        renderer.render(Parser.builder().build().parse("para ~~gone~~ here")));
+    assertEquals(0, cache.getHitCount());
+
+    // parsers built from equal options share cached blocks
+    assertEquals(
+        "<p>para <del>gone</del> here</p>\n",
+        renderer.render(Parser.builder(OPTIONS).build().parse("para ~~gone~~ here")));
+    assertEquals(1, cache.getHitCount());
+  }
 }
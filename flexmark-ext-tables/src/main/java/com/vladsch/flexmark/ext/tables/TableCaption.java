@@ -11,6 +11,8 @@ public class TableCaption extends Node implements DelimitedNode, LineBreakNode {
   private BasedSequence text = BasedSequence.NULL;
   private BasedSequence closingMarker = BasedSequence.NULL;
 
+  public TableCaption() {}
+
   public TableCaption(
       BasedSequence openingMarker, BasedSequence text, BasedSequence closingMarker) {
     this.openingMarker = openingMarker;
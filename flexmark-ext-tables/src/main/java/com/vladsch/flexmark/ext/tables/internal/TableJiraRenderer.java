@@ -12,13 +12,14 @@ import com.vladsch.flexmark.html.renderer.NodeRenderer;
 import com.vladsch.flexmark.html.renderer.NodeRendererContext;
 import com.vladsch.flexmark.html.renderer.NodeRendererFactory;
 import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
+import com.vladsch.flexmark.html.renderer.SharedNodeRenderer;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.data.DataHolder;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
-public class TableJiraRenderer implements NodeRenderer {
+public class TableJiraRenderer implements SharedNodeRenderer {
   public TableJiraRenderer() {}
 
   @Override
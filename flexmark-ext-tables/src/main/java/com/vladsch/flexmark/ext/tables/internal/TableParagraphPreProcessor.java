@@ -22,6 +22,7 @@ import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.NodeIterator;
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.format.TableFormatOptions;
+import com.vladsch.flexmark.util.misc.PatternRegistry;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import java.util.ArrayList;
 import java.util.BitSet;
@@ -171,9 +172,24 @@ public class TableParagraphPreProcessor implements ParagraphPreProcessor {
     return Pattern.compile(withIntelliJ);
   }
 
+  /**
+   * @param options parser options
+   * @return shared header separator pattern used by pre-processors created for the options
+   */
+  public static Pattern getTableHeaderSeparator(DataHolder options) {
+    return getTableHeaderSeparator(new TableParserOptions(options));
+  }
+
+  private static Pattern getTableHeaderSeparator(TableParserOptions options) {
+    return PatternRegistry.getPattern(
+        "TABLE_HEADER_SEPARATOR",
+        options.minSeparatorDashes,
+        minSeparatorDashes -> getTableHeaderSeparator(minSeparatorDashes, ""));
+  }
+
   private TableParagraphPreProcessor(DataHolder options) {
     this.options = new TableParserOptions(options);
-    this.tableHeaderSeparator = getTableHeaderSeparator(this.options.minSeparatorDashes, "");
+    this.tableHeaderSeparator = getTableHeaderSeparator(this.options);
   }
 
   private static class TableSeparatorRow extends TableRow implements DoNotDecorate {
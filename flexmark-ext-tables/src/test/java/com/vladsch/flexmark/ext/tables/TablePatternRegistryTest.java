@@ -0,0 +1,58 @@
+package com.vladsch.flexmark.ext.tables;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.vladsch.flexmark.ext.tables.internal.TableParagraphPreProcessor;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class TablePatternRegistryTest {
+  private static final String MARKDOWN =
+      ""
+          + "# Heading\n"
+          + "\n"
+          + "Setext\n"
+          + "===\n"
+          + "\n"
+          + "<div>\n"
+          + "html\n"
+          + "</div>\n"
+          + "\n"
+          + "<custom-tag attr=\"a\">\n"
+          + "\n"
+          + "| Left | Right |\n"
+          + "| :--- | ----: |\n"
+          + "| [link](/url) | `code` |\n"
+          + "";
+
+  private static DataHolder options(int minSeparatorDashes) {
+    return new MutableDataSet()
+        .set(Parser.EXTENSIONS, Arrays.asList(TablesExtension.create()))
+        .set(Parser.HEADING_SETEXT_MARKER_LENGTH, 3)
+        .set(TablesExtension.MIN_SEPARATOR_DASHES, minSeparatorDashes)
+        .toImmutable();
+  }
+
+  private static Pattern separatorPattern(Document document) {
+    return TableParagraphPreProcessor.getTableHeaderSeparator(document);
+  }
+
+  @Test
+  public void test_samePatternForEqualOptions() {
+    // separate option instances with equal values, parsers share the registered pattern
+    Document document = Parser.builder(options(4)).build().parse(MARKDOWN);
+    Document other = Parser.builder(options(4)).build().parse(MARKDOWN);
+    Pattern pattern = separatorPattern(document);
+
+    assertSame(pattern, separatorPattern(other));
+    assertNotNull(document.getChildOfType(TableBlock.class));
+    assertNotSame(pattern, separatorPattern(Parser.builder(options(3)).build().parse(MARKDOWN)));
+  }
+}
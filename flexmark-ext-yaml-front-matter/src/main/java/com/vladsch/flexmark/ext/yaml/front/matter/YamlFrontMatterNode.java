@@ -13,6 +13,8 @@ public class YamlFrontMatterNode extends Node {
     return new BasedSequence[] {key};
   }
 
+  public YamlFrontMatterNode() {}
+
   public YamlFrontMatterNode(BasedSequence key, List<BasedSequence> values) {
     this.key = key;
     for (BasedSequence value : values) {
@@ -16,6 +16,7 @@ import com.vladsch.flexmark.parser.core.DocumentBlockParser;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.BlockContent;
 import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.misc.CharPredicate;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.PrefixedSubSequence;
 import com.vladsch.flexmark.util.sequence.SegmentedSequence;
@@ -152,6 +153,11 @@ public class YamlFrontMatterBlockParser extends AbstractBlockParser {
       return null;
     }
 
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return CharPredicate.anyOf('-');
+    }
+
     @Override
     public boolean affectsGlobalScope() {
       return false;
@@ -33,4 +33,16 @@ public class BlankLine extends Block {
   public BasedSequence[] getSegments() {
     return EMPTY_SEGMENTS;
   }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeNode(claimedBlankLine);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    claimedBlankLine = in.readNode(Block.class);
+  }
 }
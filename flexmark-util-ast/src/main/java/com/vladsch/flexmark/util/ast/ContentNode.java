@@ -2,7 +2,9 @@ package com.vladsch.flexmark.util.ast;
 
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.SegmentedSequence;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 public abstract class ContentNode extends Node implements Content {
   List<BasedSequence> lineSegments = BasedSequence.EMPTY_LIST;
@@ -89,4 +91,28 @@ public abstract class ContentNode extends Node implements Content {
   public void setContentLines(List<BasedSequence> contentLines) {
     this.lineSegments = contentLines;
   }
+
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    if (lineSegments.isEmpty()) return;
+
+    List<BasedSequence> mapped = new ArrayList<>(lineSegments.size());
+    for (BasedSequence lineSegment : lineSegments) {
+      mapped.add(mapper.apply(lineSegment));
+    }
+    lineSegments = mapped;
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequences(lineSegments);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    lineSegments = in.readSequences();
+  }
 }
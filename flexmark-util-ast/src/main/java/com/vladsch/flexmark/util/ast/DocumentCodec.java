@@ -0,0 +1,648 @@
+package com.vladsch.flexmark.util.ast;
+
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.DataKeyBase;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.builder.SequenceBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.EOFException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of a parsed document, for caches of parsed documents which outlive the JVM or are
+ * shared between JVMs. Decoding creates the document's nodes without parsing the text.
+ *
+ * <p>The binary form holds the nodes of the document as stored by {@link FrozenDocument}, with
+ * their fields, and the entries of the document's node repositories, like references. It does not
+ * hold the document text or options. The text given to decode must be the text the document was
+ * parsed from and the decoded document gets the options given to decode, which should be the
+ * options of the parser.
+ *
+ * <p>Node classes are written by name with the version of their {@link FrozenNodeType}, the fields
+ * of each node are the ones written by {@link Node#freezeFields(NodeFieldWriter)}. Node classes are
+ * not loaded by name, decoding looks them up in the {@link FrozenDocument#NODE_TYPES} of the
+ * options and data written with another version of a node type cannot be decoded.
+ *
+ * <p>Decoded lengths, indices and value types are checked against the data and the node types
+ * before the document is returned, malformed data fails with an {@link IOException}.
+ */
+public final class DocumentCodec {
+  private static final int MAGIC = 0x464d4b44;
+  private static final int VERSION = 2;
+
+  // value tags
+  private static final int T_NULL = 0;
+  private static final int T_STRING = 1;
+  private static final int T_INTEGER = 2;
+  private static final int T_LONG = 3;
+  private static final int T_BOOLEAN = 4;
+  private static final int T_CHARACTER = 5;
+  private static final int T_SHORT = 6;
+  private static final int T_BYTE = 7;
+  private static final int T_FLOAT = 8;
+  private static final int T_DOUBLE = 9;
+  private static final int T_ENUM = 10;
+  private static final int T_INT_ARRAY = 11;
+  private static final int T_SEQUENCE = 12;
+  private static final int T_TEXT_SEQUENCE = 13;
+  private static final int T_NULL_SEQUENCE = 14;
+  private static final int T_LIST = 15;
+  private static final int T_EMPTY_LIST = 16;
+
+  private DocumentCodec() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * @param document document to encode
+   * @return binary form of the document
+   * @throws IllegalArgumentException if the document cannot be frozen, see {@link
+   *     FrozenDocument#of(Document)}
+   */
+  public static byte[] encode(Document document) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      encode(FrozenDocument.of(document), out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * @param document document to encode
+   * @param out stream to write to, not closed
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if the document cannot be frozen, see {@link
+   *     FrozenDocument#of(Document)}
+   */
+  public static void encode(Document document, OutputStream out) throws IOException {
+    encode(FrozenDocument.of(document), out);
+  }
+
+  /**
+   * @param document frozen document to encode
+   * @param out stream to write to, not closed
+   * @throws IOException if writing fails
+   * @throws IllegalArgumentException if a node repository does not allow adding nodes
+   */
+  public static void encode(FrozenDocument document, OutputStream out) throws IOException {
+    // length of the data is written first so decode reads no more than the encoded document
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    new Writer(new DataOutputStream(data), document).writeDocument();
+
+    DataOutputStream header = new DataOutputStream(out);
+    header.writeInt(MAGIC);
+    header.writeInt(VERSION);
+    header.writeInt(data.size());
+    data.writeTo(header);
+    header.flush();
+  }
+
+  /**
+   * @param data binary form of a document
+   * @param source text the document was parsed from
+   * @param options options of the parser which parsed the document
+   * @return document
+   * @throws IOException if data is not a binary form of a document or a node class changed
+   * @throws IllegalArgumentException if source is not the text of the encoded document
+   */
+  public static Document decode(byte[] data, CharSequence source, DataHolder options)
+      throws IOException {
+    return toDocument(decodeFrozen(new ByteArrayInputStream(data), source, options));
+  }
+
+  /**
+   * @param in stream to read the binary form of a document from, not closed
+   * @param source text the document was parsed from
+   * @param options options of the parser which parsed the document
+   * @return document
+   * @throws IOException if reading fails, the data is not a binary form of a document or a node
+   *     class changed
+   * @throws IllegalArgumentException if source is not the text of the encoded document
+   */
+  public static Document decode(InputStream in, CharSequence source, DataHolder options)
+      throws IOException {
+    return toDocument(decodeFrozen(in, source, options));
+  }
+
+  private static Document toDocument(FrozenDocument document) throws IOException {
+    try {
+      return document.toDocument();
+    } catch (RuntimeException e) {
+      throw new IOException("Cannot create nodes of encoded document", e);
+    }
+  }
+
+  /**
+   * Decode to a frozen document, for caches which keep documents in their frozen form
+   *
+   * @param in stream to read the binary form of a document from, not closed
+   * @param source text the document was parsed from
+   * @param options options of the parser which parsed the document
+   * @return frozen document
+   * @throws IOException if reading fails, the data is not a binary form of a document or a node
+   *     class changed
+   * @throws IllegalArgumentException if source is not the text of the encoded document
+   */
+  public static FrozenDocument decodeFrozen(
+      InputStream in, CharSequence source, DataHolder options) throws IOException {
+    DataInputStream header = new DataInputStream(in);
+    if (header.readInt() != MAGIC) {
+      throw new IOException("Not an encoded document");
+    }
+    int version = header.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported encoded document version " + version);
+    }
+
+    // the length is not trusted for the size of the buffer, only the bytes read are allocated
+    int length = header.readInt();
+    if (length < 0) {
+      throw new IOException("Malformed encoded document, negative length");
+    }
+    byte[] data = header.readNBytes(length);
+    if (data.length != length) {
+      throw new EOFException("Encoded document ends after " + data.length + " of " + length);
+    }
+
+    Reader reader =
+        new Reader(ByteBuffer.wrap(data), BasedSequence.of(source).getBaseSequence(), options);
+    boolean sameSource;
+    FrozenDocument document = null;
+    try {
+      sameSource = reader.readSource();
+      if (sameSource) {
+        document = reader.readDocument();
+        document.checkStructure();
+      }
+    } catch (RuntimeException e) {
+      throw new IOException("Malformed encoded document", e);
+    }
+
+    if (!sameSource) {
+      throw new IllegalArgumentException("Source is not the text of the encoded document");
+    }
+    return document;
+  }
+
+  private static int textHash(CharSequence text) {
+    int hash = 0;
+    int length = text.length();
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+    return hash;
+  }
+
+  private static ClassLoader classLoader() {
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    return loader != null ? loader : DocumentCodec.class.getClassLoader();
+  }
+
+  private static final class Writer {
+    final DataOutputStream out;
+    final FrozenDocument document;
+    final BasedSequence base;
+
+    Writer(DataOutputStream out, FrozenDocument document) {
+      this.out = out;
+      this.document = document;
+      this.base = document.baseSequence;
+    }
+
+    void writeDocument() throws IOException {
+      for (Map.Entry<? extends DataKeyBase<?>, Object> entry :
+          document.data.getAll().entrySet()) {
+        if (entry.getValue() instanceof NodeRepository) {
+          throw new IllegalArgumentException(
+              "Node repository " + entry.getKey() + " does not allow adding nodes");
+        }
+      }
+
+      BasedSequence chars = document.chars;
+      if (chars.getEndOffset() - chars.getStartOffset() != chars.length()) {
+        throw new IllegalArgumentException("Document text is not a part of its base sequence");
+      }
+
+      writeVarInt(base.length());
+      out.writeInt(textHash(base));
+      writeVarInt(chars.getStartOffset());
+      writeVarInt(chars.getEndOffset());
+
+      writeVarInt(document.nodeTypes.length);
+      for (int i = 0; i < document.nodeTypes.length; i++) {
+        FrozenNodeType<?> frozenType = document.frozenTypes[i];
+        writeString(document.nodeTypes[i].getName());
+        out.writeInt(frozenType == null ? 0 : frozenType.getVersion());
+      }
+
+      writeInts(document.types);
+      writeInts(document.parents);
+      writeInts(document.subtreeEnds);
+      writeInts(document.startOffsets);
+      writeInts(document.endOffsets);
+      writeInts(document.fieldStarts);
+      writeInts(document.fieldData);
+
+      writeVarInt(document.objects.length);
+      for (Object value : document.objects) {
+        writeValue(value);
+      }
+
+      writeVarInt(document.repositories.length);
+      for (FrozenDocument.Repository repository : document.repositories) {
+        writeString(repository.type.getName());
+        writeVarInt(repository.keys.length);
+        for (int i = 0; i < repository.keys.length; i++) {
+          writeString(repository.keys[i]);
+          Object value = repository.values[i];
+          if (value instanceof Integer) {
+            writeVarInt((Integer) value + 1);
+          } else {
+            writeVarInt(0);
+            writeValue(value);
+          }
+        }
+      }
+    }
+
+    void writeVarInt(int value) throws IOException {
+      while ((value & ~0x7f) != 0) {
+        out.write((value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      out.write(value);
+    }
+
+    void writeInts(int[] values) throws IOException {
+      // differences to the previous value are small for node arrays in document order
+      writeVarInt(values.length);
+      int previous = 0;
+      for (int value : values) {
+        int delta = value - previous;
+        writeVarInt((delta << 1) ^ (delta >> 31));
+        previous = value;
+      }
+    }
+
+    void writeString(String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length);
+      out.write(bytes);
+    }
+
+    void writeValue(Object value) throws IOException {
+      if (value == null) {
+        writeVarInt(T_NULL);
+      } else if (value instanceof String) {
+        writeVarInt(T_STRING);
+        writeString((String) value);
+      } else if (value instanceof Integer) {
+        writeVarInt(T_INTEGER);
+        out.writeInt((Integer) value);
+      } else if (value instanceof Long) {
+        writeVarInt(T_LONG);
+        out.writeLong((Long) value);
+      } else if (value instanceof Boolean) {
+        writeVarInt(T_BOOLEAN);
+        out.writeBoolean((Boolean) value);
+      } else if (value instanceof Character) {
+        writeVarInt(T_CHARACTER);
+        out.writeChar((Character) value);
+      } else if (value instanceof Short) {
+        writeVarInt(T_SHORT);
+        out.writeShort((Short) value);
+      } else if (value instanceof Byte) {
+        writeVarInt(T_BYTE);
+        out.writeByte((Byte) value);
+      } else if (value instanceof Float) {
+        writeVarInt(T_FLOAT);
+        out.writeFloat((Float) value);
+      } else if (value instanceof Double) {
+        writeVarInt(T_DOUBLE);
+        out.writeDouble((Double) value);
+      } else if (value instanceof Enum) {
+        writeVarInt(T_ENUM);
+        writeString(((Enum<?>) value).getDeclaringClass().getName());
+        writeString(((Enum<?>) value).name());
+      } else if (value instanceof int[]) {
+        writeVarInt(T_INT_ARRAY);
+        writeInts((int[]) value);
+      } else if (value == BasedSequence.NULL) {
+        writeVarInt(T_NULL_SEQUENCE);
+      } else if (value instanceof BasedSequence) {
+        writeSequence((BasedSequence) value);
+      } else if (value == BasedSequence.EMPTY_LIST) {
+        writeVarInt(T_EMPTY_LIST);
+      } else if (value instanceof List) {
+        List<?> list = (List<?>) value;
+        writeVarInt(T_LIST);
+        writeVarInt(list.size());
+        for (Object item : list) {
+          writeValue(item);
+        }
+      } else {
+        throw new IllegalArgumentException("Cannot encode node field value of " + value.getClass());
+      }
+    }
+
+    void writeSequence(BasedSequence sequence) throws IOException {
+      if (sequence.getBaseSequence() != base) {
+        writeVarInt(T_TEXT_SEQUENCE);
+        writeString(sequence.toString());
+        return;
+      }
+
+      // runs of characters from the base sequence as offsets, other characters as text
+      List<Object> runs = new ArrayList<>();
+      int length = sequence.length();
+      int i = 0;
+      while (i < length) {
+        int start = i;
+        int offset = sequence.getIndexOffset(i);
+        if (offset >= 0) {
+          do {
+            i++;
+          } while (i < length && sequence.getIndexOffset(i) == offset + i - start);
+          runs.add(new int[] {offset, offset + i - start});
+        } else {
+          do {
+            i++;
+          } while (i < length && sequence.getIndexOffset(i) < 0);
+          runs.add(sequence.subSequence(start, i).toString());
+        }
+      }
+
+      writeVarInt(T_SEQUENCE);
+      writeVarInt(sequence.getStartOffset());
+      writeVarInt(runs.size());
+      for (Object run : runs) {
+        if (run instanceof String) {
+          writeVarInt(0);
+          writeString((String) run);
+        } else {
+          writeVarInt(((int[]) run)[0] + 1);
+          writeVarInt(((int[]) run)[1] - ((int[]) run)[0]);
+        }
+      }
+    }
+  }
+
+  private static final class Reader {
+    final ByteBuffer in;
+    final BasedSequence base;
+    final DataHolder options;
+
+    Reader(ByteBuffer in, BasedSequence base, DataHolder options) {
+      this.in = in;
+      this.base = base;
+      this.options = options;
+    }
+
+    /**
+     * @return true if the encoded document was parsed from the source text
+     */
+    boolean readSource() throws IOException {
+      int length = readVarInt();
+      int hash = in.getInt();
+      return length == base.length() && hash == textHash(base);
+    }
+
+    @SuppressWarnings("unchecked")
+    FrozenDocument readDocument() throws IOException {
+      int startOffset = readVarInt();
+      int endOffset = readVarInt();
+      if (startOffset < 0 || endOffset < startOffset || endOffset > base.length()) {
+        throw new IOException("Malformed encoded document, document text out of range");
+      }
+      BasedSequence chars = base.subSequence(startOffset, endOffset);
+
+      Map<String, FrozenNodeType<?>> frozenNodeTypes = new HashMap<>();
+      for (FrozenNodeType<?> frozenType : FrozenDocument.NODE_TYPES.get(options).values()) {
+        frozenNodeTypes.put(frozenType.getType().getName(), frozenType);
+      }
+
+      Class<? extends Node>[] nodeTypes = new Class[readLength()];
+      FrozenNodeType<?>[] frozenTypes = new FrozenNodeType<?>[nodeTypes.length];
+      for (int i = 0; i < nodeTypes.length; i++) {
+        String name = readString();
+        int version = in.getInt();
+        if (name.equals(Document.class.getName())) {
+          nodeTypes[i] = Document.class;
+          continue;
+        }
+
+        frozenTypes[i] = frozenNodeTypes.get(name);
+        if (frozenTypes[i] == null) {
+          throw new IOException("Node " + name + " has no FrozenNodeType in the options");
+        }
+        if (frozenTypes[i].getVersion() != version) {
+          throw new IOException("Fields of " + name + " changed since it was encoded");
+        }
+        nodeTypes[i] = frozenTypes[i].getType();
+      }
+
+      int[] types = readInts();
+      int[] parents = readInts();
+      int[] subtreeEnds = readInts();
+      int[] startOffsets = readInts();
+      int[] endOffsets = readInts();
+      int[] fieldStarts = readInts();
+      int[] fieldData = readInts();
+
+      Object[] objects = new Object[readLength()];
+      for (int i = 0; i < objects.length; i++) {
+        objects[i] = readValue();
+      }
+
+      DataKeyBase<?>[] repositoryKeys = new DataKeyBase<?>[readLength()];
+      FrozenDocument.Repository[] repositories =
+          new FrozenDocument.Repository[repositoryKeys.length];
+      for (int r = 0; r < repositories.length; r++) {
+        Class<?> type = loadClass(readString(), NodeRepository.class);
+        try {
+          repositoryKeys[r] =
+              ((NodeRepository<?>) type.getConstructor(DataHolder.class).newInstance(options))
+                  .getDataKey();
+        } catch (NoSuchMethodException
+            | InstantiationException
+            | IllegalAccessException
+            | InvocationTargetException e) {
+          throw new IOException("Cannot create node repository " + type.getName(), e);
+        }
+
+        String[] keys = new String[readLength()];
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+          keys[i] = readString();
+          int index = readVarInt();
+          values[i] = index != 0 ? (Object) (index - 1) : readValue();
+          if (index == 0 && values[i] instanceof Integer) {
+            // integers are node indices, other values are never written as integers
+            throw new IOException("Malformed encoded document, repository value of " + keys[i]);
+          }
+        }
+        repositories[r] = new FrozenDocument.Repository(type, keys, values);
+      }
+
+      return new FrozenDocument(
+          chars,
+          options,
+          repositoryKeys,
+          repositories,
+          nodeTypes,
+          frozenTypes,
+          types,
+          parents,
+          subtreeEnds,
+          startOffsets,
+          endOffsets,
+          fieldStarts,
+          fieldData,
+          objects);
+    }
+
+    Class<?> loadClass(String name, Class<?> superClass) throws IOException {
+      Class<?> type;
+      try {
+        type = Class.forName(name, false, classLoader());
+      } catch (ClassNotFoundException e) {
+        throw new IOException("Encoded class " + name + " not found", e);
+      }
+
+      // never load classes which are not of the expected kind from the data
+      if (!superClass.isAssignableFrom(type)) {
+        throw new IOException("Encoded class " + name + " is not a " + superClass.getName());
+      }
+      return type;
+    }
+
+    int readVarInt() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = in.get() & 0xff;
+        value |= (b & 0x7f) << shift;
+        if ((b & 0x80) == 0) return value;
+      }
+      throw new IOException("Malformed encoded document");
+    }
+
+    /**
+     * Read a count of items, each item takes at least one byte of the remaining data
+     *
+     * @return count
+     * @throws IOException if the count is negative or more than the remaining bytes
+     */
+    int readLength() throws IOException {
+      int length = readVarInt();
+      if (length < 0 || length > in.remaining()) {
+        throw new IOException(
+            "Malformed encoded document, length " + length + " exceeds remaining data");
+      }
+      return length;
+    }
+
+    int[] readInts() throws IOException {
+      int[] values = new int[readLength()];
+      int previous = 0;
+      for (int i = 0; i < values.length; i++) {
+        int zigzag = readVarInt();
+        previous += (zigzag >>> 1) ^ -(zigzag & 1);
+        values[i] = previous;
+      }
+      return values;
+    }
+
+    String readString() throws IOException {
+      byte[] bytes = new byte[readLength()];
+      in.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Object readValue() throws IOException {
+      int tag = readVarInt();
+      switch (tag) {
+        case T_NULL:
+          return null;
+        case T_STRING:
+          return readString();
+        case T_INTEGER:
+          return in.getInt();
+        case T_LONG:
+          return in.getLong();
+        case T_BOOLEAN:
+          return in.get() != 0;
+        case T_CHARACTER:
+          return in.getChar();
+        case T_SHORT:
+          return in.getShort();
+        case T_BYTE:
+          return in.get();
+        case T_FLOAT:
+          return in.getFloat();
+        case T_DOUBLE:
+          return in.getDouble();
+        case T_ENUM:
+          return Enum.valueOf((Class) loadClass(readString(), Enum.class), readString());
+        case T_INT_ARRAY:
+          return readInts();
+        case T_SEQUENCE:
+          return readSequence();
+        case T_TEXT_SEQUENCE:
+          return BasedSequence.of(readString());
+        case T_NULL_SEQUENCE:
+          return BasedSequence.NULL;
+        case T_LIST:
+          {
+            int size = readLength();
+            List<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+              list.add(readValue());
+            }
+            return list;
+          }
+        case T_EMPTY_LIST:
+          return BasedSequence.EMPTY_LIST;
+        default:
+          throw new IOException("Malformed encoded document, unknown value tag " + tag);
+      }
+    }
+
+    BasedSequence readSequence() throws IOException {
+      int startOffset = readVarInt();
+      int runCount = readLength();
+      if (runCount == 0) {
+        return base.subSequence(startOffset, startOffset);
+      }
+
+      SequenceBuilder builder = base.getBuilder();
+      BasedSequence single = null;
+      for (int r = 0; r < runCount; r++) {
+        int start = readVarInt() - 1;
+        if (start < 0) {
+          builder.append(readString());
+        } else {
+          BasedSequence run = base.subSequence(start, start + readVarInt());
+          single = runCount == 1 ? run : null;
+          builder.append(run);
+        }
+      }
+      return single != null ? single : builder.toSequence();
+    }
+  }
+}
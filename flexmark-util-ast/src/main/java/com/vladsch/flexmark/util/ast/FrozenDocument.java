@@ -0,0 +1,856 @@
+package com.vladsch.flexmark.util.ast;
+
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.DataKey;
+import com.vladsch.flexmark.util.data.DataKeyBase;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Compact, immutable form of a parsed document for documents which are kept in memory, for example
+ * in a cache of parsed documents.
+ *
+ * <p>Nodes are stored in document order in parallel int arrays: node type, parent index, end of
+ * the node's descendants and start/end offsets of the node's characters in the document's base
+ * sequence. Node fields are written by {@link Node#freezeFields(NodeFieldWriter)} to a shared int
+ * array as primitive values, offsets of sequences and indices of referenced nodes, with strings,
+ * int arrays and sequences which are not part of the base sequence in a shared object array. Arrays
+ * and lists are created again for each node materialized from the frozen document.
+ *
+ * <p>Node indices go from 0 for the document to {@link #getNodeCount()} - 1, -1 is used for no
+ * node. Node objects are only created when requested, with {@link #getNode(int)} for a node and
+ * its descendants or {@link #toDocument()} for the whole document. {@link
+ * NodeVisitor#visit(FrozenDocument)} only creates the nodes it has handlers for.
+ *
+ * <p>Only nodes of classes with a {@link FrozenNodeType} in the document's {@link #NODE_TYPES} can
+ * be frozen, the parser sets it to the types of core nodes. The document should not be modified
+ * while it is frozen and is not used after it is frozen, the frozen document can be shared by any
+ * number of threads.
+ */
+public final class FrozenDocument {
+  // node classes which can be frozen, by class, Document is always frozen without fields
+  public static final DataKey<Map<Class<? extends Node>, FrozenNodeType<?>>> NODE_TYPES =
+      new DataKey<>("FROZEN_NODE_TYPES", Collections.emptyMap());
+
+  // start offset values for sequences which are not part of the base sequence
+  private static final int S_NULL_SEQUENCE = -1;
+  private static final int S_OBJECT = -2;
+  private static final int S_NULL = -3;
+
+  // arrays are read by DocumentCodec
+  final BasedSequence chars;
+  final BasedSequence baseSequence;
+  final DataHolder data;
+  final DataKeyBase<?>[] repositoryKeys;
+  final Repository[] repositories;
+  final Class<? extends Node>[] nodeTypes;
+  final FrozenNodeType<?>[] frozenTypes;
+  final int[] types;
+  final int[] parents;
+  final int[] subtreeEnds;
+  final int[] startOffsets;
+  final int[] endOffsets;
+  final int[] fieldStarts;
+  final int[] fieldData;
+  final Object[] objects;
+
+  /** Entries of a node repository, values are node indices or values which are not nodes */
+  static final class Repository {
+    final Class<?> type;
+    final String[] keys;
+    final Object[] values;
+
+    Repository(Class<?> type, String[] keys, Object[] values) {
+      this.type = type;
+      this.keys = keys;
+      this.values = values;
+    }
+  }
+
+  private static final class IntBuffer {
+    int[] values = new int[64];
+    int size;
+
+    void add(int value) {
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size++] = value;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private FrozenDocument(Document document) {
+    this.chars = document.getChars();
+    this.baseSequence = chars.getBaseSequence();
+
+    // nodes in document order
+    List<Node> nodes = new ArrayList<>();
+    Node node = document;
+    while (node != null) {
+      nodes.add(node);
+      if (node.getFirstChild() != null) {
+        node = node.getFirstChild();
+      } else {
+        while (node != document && node.getNext() == null) node = node.getParent();
+        node = node == document ? null : node.getNext();
+      }
+    }
+
+    int nodeCount = nodes.size();
+    Map<Node, Integer> indices = new IdentityHashMap<>(nodeCount);
+    for (int i = 0; i < nodeCount; i++) {
+      indices.put(nodes.get(i), i);
+    }
+
+    Map<Class<? extends Node>, FrozenNodeType<?>> frozenNodeTypes = NODE_TYPES.get(document);
+    Map<Class<? extends Node>, Integer> typeIndices = new HashMap<>();
+    List<Class<? extends Node>> typeList = new ArrayList<>();
+    List<FrozenNodeType<?>> frozenTypeList = new ArrayList<>();
+    List<Object> objects = new ArrayList<>();
+    IntBuffer fieldData = new IntBuffer();
+    FieldWriter writer = new FieldWriter(indices, objects, fieldData);
+
+    types = new int[nodeCount];
+    parents = new int[nodeCount];
+    subtreeEnds = new int[nodeCount];
+    startOffsets = new int[nodeCount];
+    endOffsets = new int[nodeCount];
+    fieldStarts = new int[nodeCount + 1];
+
+    int[] sequence = new int[2];
+    for (int i = 0; i < nodeCount; i++) {
+      node = nodes.get(i);
+      Class<? extends Node> type = node.getClass();
+      Integer typeIndex = typeIndices.get(type);
+      if (typeIndex == null) {
+        FrozenNodeType<?> frozenType = i == 0 ? null : frozenNodeTypes.get(type);
+        if (i == 0 ? type != Document.class : frozenType == null) {
+          throw new IllegalArgumentException(
+              "Node " + type + " cannot be frozen, it has no FrozenNodeType in NODE_TYPES");
+        }
+        typeIndex = typeList.size();
+        typeIndices.put(type, typeIndex);
+        typeList.add(type);
+        frozenTypeList.add(frozenType);
+      }
+
+      types[i] = typeIndex;
+      parents[i] = i == 0 ? -1 : indices.get(node.getParent());
+      subtreeEnds[i] = i + 1;
+
+      encodeSequence(node.getChars(), objects, sequence);
+      startOffsets[i] = sequence[0];
+      endOffsets[i] = sequence[1];
+
+      fieldStarts[i] = fieldData.size;
+      node.freezeFields(writer);
+    }
+    fieldStarts[nodeCount] = fieldData.size;
+
+    // descendants of a node end where the descendants of its last child end
+    for (int i = nodeCount; i-- > 1; ) {
+      int parent = parents[i];
+      if (subtreeEnds[parent] < subtreeEnds[i]) subtreeEnds[parent] = subtreeEnds[i];
+    }
+
+    // repositories hold nodes of the document, they are created again for each thawed document
+    MutableDataSet data = new MutableDataSet(document);
+    List<DataKeyBase<?>> repositoryKeys = new ArrayList<>();
+    List<Repository> repositories = new ArrayList<>();
+    for (Map.Entry<? extends DataKeyBase<?>, Object> entry : document.getAll().entrySet()) {
+      if (entry.getValue() instanceof NodeRepository) {
+        data.remove(entry.getKey());
+      }
+    }
+
+    for (Map.Entry<? extends DataKeyBase<?>, Object> entry : document.getAll().entrySet()) {
+      if (entry.getValue() instanceof NodeRepository) {
+        NodeRepository<?> repository = (NodeRepository<?>) entry.getValue();
+        if (!isRestorable(entry.getKey(), repository, data)) {
+          // repository which does not allow adding nodes, shared as is
+          data.getOrCompute(entry.getKey(), holder -> repository);
+          continue;
+        }
+
+        String[] keys = repository.keySet().toArray(new String[0]);
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+          Object value = repository.get(keys[i]);
+          Integer index = value instanceof Node ? indices.get(value) : null;
+          values[i] = index != null ? index : value;
+        }
+
+        repositoryKeys.add(entry.getKey());
+        repositories.add(new Repository(repository.getClass(), keys, values));
+      }
+    }
+
+    this.data = data.toImmutable();
+    this.repositoryKeys = repositoryKeys.toArray(new DataKeyBase<?>[0]);
+    this.repositories = repositories.toArray(new Repository[0]);
+    this.nodeTypes = typeList.toArray(new Class[0]);
+    this.frozenTypes = frozenTypeList.toArray(new FrozenNodeType<?>[0]);
+    this.fieldData = fieldData.toArray();
+    this.objects = objects.toArray();
+  }
+
+  FrozenDocument(
+      BasedSequence chars,
+      DataHolder data,
+      DataKeyBase<?>[] repositoryKeys,
+      Repository[] repositories,
+      Class<? extends Node>[] nodeTypes,
+      FrozenNodeType<?>[] frozenTypes,
+      int[] types,
+      int[] parents,
+      int[] subtreeEnds,
+      int[] startOffsets,
+      int[] endOffsets,
+      int[] fieldStarts,
+      int[] fieldData,
+      Object[] objects) {
+    this.chars = chars;
+    this.baseSequence = chars.getBaseSequence();
+    this.data = data;
+    this.repositoryKeys = repositoryKeys;
+    this.repositories = repositories;
+    this.nodeTypes = nodeTypes;
+    this.frozenTypes = frozenTypes;
+    this.types = types;
+    this.parents = parents;
+    this.subtreeEnds = subtreeEnds;
+    this.startOffsets = startOffsets;
+    this.endOffsets = endOffsets;
+    this.fieldStarts = fieldStarts;
+    this.fieldData = fieldData;
+    this.objects = objects;
+  }
+
+  /**
+   * Check the arrays of a frozen document created from decoded data, so creating its nodes only
+   * fails when a node class throws. Each node is created once without its links to read its fields.
+   *
+   * @throws IllegalArgumentException if the arrays do not describe a document
+   */
+  void checkStructure() {
+    int nodeCount = types.length;
+    if (frozenTypes.length != nodeTypes.length) throw malformed("node types differ in length");
+    if (nodeCount == 0
+        || parents.length != nodeCount
+        || subtreeEnds.length != nodeCount
+        || startOffsets.length != nodeCount
+        || endOffsets.length != nodeCount
+        || fieldStarts.length != nodeCount + 1) {
+      throw malformed("node arrays differ in length");
+    }
+
+    for (int i = 0; i < nodeCount; i++) {
+      if (types[i] < 0 || types[i] >= nodeTypes.length) throw malformed("node type of " + i);
+      if ((nodeTypes[types[i]] == Document.class) != (i == 0)
+          || (frozenTypes[types[i]] == null) != (i == 0)) {
+        throw malformed("document node at " + i);
+      }
+    }
+
+    // parents have to be the previous node or one of its ancestors for nodes in document order
+    int[] ancestors = new int[nodeCount];
+    int depth = 0;
+    if (parents[0] != -1) throw malformed("parent of document");
+    for (int i = 1; i < nodeCount; i++) {
+      ancestors[depth++] = i - 1;
+      while (depth > 0 && ancestors[depth - 1] != parents[i]) depth--;
+      if (depth == 0) throw malformed("parent of " + i);
+    }
+
+    int[] ends = new int[nodeCount];
+    for (int i = 0; i < nodeCount; i++) ends[i] = i + 1;
+    for (int i = nodeCount; i-- > 1; ) {
+      if (ends[parents[i]] < ends[i]) ends[parents[i]] = ends[i];
+    }
+    if (!Arrays.equals(ends, subtreeEnds)) throw malformed("descendants end");
+
+    if (fieldStarts[0] != 0 || fieldStarts[nodeCount] != fieldData.length) {
+      throw malformed("field data length");
+    }
+
+    for (int i = 0; i < nodeCount; i++) {
+      if (fieldStarts[i] > fieldStarts[i + 1]) throw malformed("field data of " + i);
+    }
+
+    for (int i = 0; i < nodeCount; i++) {
+      checkSequence(startOffsets[i], endOffsets[i], "characters of " + i);
+    }
+
+    for (int i = 0; i < nodeCount; i++) {
+      Node node =
+          i == 0 ? new Document(data, chars) : frozenTypes[types[i]].create(getNodeChars(i));
+      new FieldReader(null, i).readFields(node);
+    }
+
+    for (Repository repository : repositories) {
+      for (Object value : repository.values) {
+        if (value instanceof Integer && ((Integer) value < 0 || (Integer) value >= nodeCount)) {
+          throw malformed("repository node " + value);
+        }
+      }
+    }
+  }
+
+  private static IllegalArgumentException malformed(String message) {
+    return new IllegalArgumentException("Malformed frozen document, " + message);
+  }
+
+  private void checkSequence(int start, int end, String description) {
+    switch (start) {
+      case S_NULL:
+      case S_NULL_SEQUENCE:
+        return;
+      case S_OBJECT:
+        if (end < 0 || end >= objects.length || !(objects[end] instanceof BasedSequence)) {
+          throw malformed(description);
+        }
+        return;
+      default:
+        if (start < 0 || end < start || end > baseSequence.length()) throw malformed(description);
+    }
+  }
+
+  /**
+   * @param document document to freeze
+   * @return frozen document
+   * @throws IllegalArgumentException if a node class has no {@link FrozenNodeType} in the
+   *     document's {@link #NODE_TYPES} or a node field refers to a node of another document
+   */
+  public static FrozenDocument of(Document document) {
+    return new FrozenDocument(document);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static boolean isRestorable(
+      DataKeyBase<?> key, NodeRepository<?> repository, DataHolder data) {
+    Object created = key.get(new MutableDataSet(data));
+    if (!(created instanceof NodeRepository) || !((NodeRepository<?>) created).isEmpty()) {
+      return false;
+    }
+
+    if (!repository.isEmpty()) {
+      try {
+        Map.Entry<String, ?> entry = repository.entrySet().iterator().next();
+        ((NodeRepository<Object>) created).put(entry.getKey(), entry.getValue());
+      } catch (IllegalStateException | ClassCastException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void encodeSequence(BasedSequence sequence, List<Object> objects, int[] offsets) {
+    if (sequence == null) {
+      offsets[0] = S_NULL;
+      offsets[1] = 0;
+    } else if (sequence == BasedSequence.NULL) {
+      offsets[0] = S_NULL_SEQUENCE;
+      offsets[1] = 0;
+    } else if (sequence.getClass() == baseSequence.getClass()
+        && sequence.getBaseSequence() == baseSequence
+        && sequence.getEndOffset() - sequence.getStartOffset() == sequence.length()) {
+      offsets[0] = sequence.getStartOffset();
+      offsets[1] = sequence.getEndOffset();
+    } else {
+      offsets[0] = S_OBJECT;
+      offsets[1] = objects.size();
+      objects.add(sequence);
+    }
+  }
+
+  /** Writes node fields to the frozen document's field data */
+  private final class FieldWriter implements NodeFieldWriter {
+    final Map<Node, Integer> indices;
+    final List<Object> objects;
+    final IntBuffer fieldData;
+    final int[] sequence = new int[2];
+
+    FieldWriter(Map<Node, Integer> indices, List<Object> objects, IntBuffer fieldData) {
+      this.indices = indices;
+      this.objects = objects;
+      this.fieldData = fieldData;
+    }
+
+    @Override
+    public void writeInt(int value) {
+      fieldData.add(value);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+      fieldData.add(value ? 1 : 0);
+    }
+
+    @Override
+    public void writeChar(char value) {
+      fieldData.add(value);
+    }
+
+    @Override
+    public void writeString(String value) {
+      writeObject(value);
+    }
+
+    @Override
+    public void writeInts(int[] value) {
+      writeObject(value == null ? null : value.clone());
+    }
+
+    private void writeObject(Object value) {
+      if (value == null) {
+        fieldData.add(-1);
+      } else {
+        fieldData.add(objects.size());
+        objects.add(value);
+      }
+    }
+
+    @Override
+    public void writeSequence(BasedSequence value) {
+      encodeSequence(value, objects, sequence);
+      fieldData.add(sequence[0]);
+      fieldData.add(sequence[1]);
+    }
+
+    @Override
+    public void writeSequences(List<BasedSequence> value) {
+      // BasedSequence.EMPTY_LIST is kept to preserve its identity
+      if (value == null) {
+        fieldData.add(-1);
+      } else if (value == BasedSequence.EMPTY_LIST) {
+        fieldData.add(-2);
+      } else {
+        fieldData.add(value.size());
+        for (BasedSequence item : value) {
+          writeSequence(item);
+        }
+      }
+    }
+
+    @Override
+    public void writeNode(Node value) {
+      if (value == null) {
+        fieldData.add(-1);
+        return;
+      }
+
+      Integer index = indices.get(value);
+      if (index == null) {
+        throw new IllegalArgumentException(
+            "Node field refers to a " + value.getClass() + " which is not part of the document");
+      }
+      fieldData.add(index);
+    }
+  }
+
+  /** Reads the fields of one node, checking each value against the frozen document's arrays */
+  private final class FieldReader implements NodeFieldReader {
+    final Thaw thaw;
+    final int index;
+    final int end;
+    int pos;
+
+    /**
+     * @param thaw creates nodes referred to by fields, null to only check referred nodes
+     * @param index node index
+     */
+    FieldReader(Thaw thaw, int index) {
+      this.thaw = thaw;
+      this.index = index;
+      this.pos = fieldStarts[index];
+      this.end = fieldStarts[index + 1];
+    }
+
+    void readFields(Node node) {
+      node.thawFields(this);
+      if (pos != end) throw malformed("field data of " + index);
+    }
+
+    private int next() {
+      if (pos >= end) throw malformed("field data of " + index);
+      return fieldData[pos++];
+    }
+
+    private <T> T object(Class<T> type) {
+      int value = next();
+      if (value == -1) return null;
+      if (value < 0 || value >= objects.length || !type.isInstance(objects[value])) {
+        throw malformed("field object of " + index);
+      }
+      return type.cast(objects[value]);
+    }
+
+    @Override
+    public int readInt() {
+      return next();
+    }
+
+    @Override
+    public boolean readBoolean() {
+      return next() != 0;
+    }
+
+    @Override
+    public char readChar() {
+      return (char) next();
+    }
+
+    @Override
+    public String readString() {
+      return object(String.class);
+    }
+
+    @Override
+    public int[] readInts() {
+      int[] value = object(int[].class);
+      return value == null ? null : value.clone();
+    }
+
+    @Override
+    public BasedSequence readSequence() {
+      int start = next();
+      int sequenceEnd = next();
+      checkSequence(start, sequenceEnd, "field sequence of " + index);
+      return decodeSequence(start, sequenceEnd);
+    }
+
+    @Override
+    public List<BasedSequence> readSequences() {
+      int size = next();
+      if (size == -1) return null;
+      if (size == -2) return BasedSequence.EMPTY_LIST;
+      if (size < 0 || size > (end - pos) / 2) throw malformed("field sequences of " + index);
+
+      List<BasedSequence> list = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        list.add(readSequence());
+      }
+      return list;
+    }
+
+    @Override
+    public <T extends Node> T readNode(Class<T> type) {
+      int value = next();
+      if (value == -1) return null;
+      if (value < 0 || value >= types.length || !type.isAssignableFrom(nodeTypes[types[value]])) {
+        throw malformed("field node of " + index);
+      }
+      return thaw == null ? null : type.cast(thaw.get(value));
+    }
+  }
+
+  private BasedSequence decodeSequence(int start, int end) {
+    switch (start) {
+      case S_NULL:
+        return null;
+      case S_NULL_SEQUENCE:
+        return BasedSequence.NULL;
+      case S_OBJECT:
+        return (BasedSequence) objects[end];
+      default:
+        return baseSequence.subSequence(start, end);
+    }
+  }
+
+  public BasedSequence getChars() {
+    return chars;
+  }
+
+  /**
+   * @return options and data of the document, without node repositories
+   */
+  public DataHolder getData() {
+    return data;
+  }
+
+  public int getNodeCount() {
+    return types.length;
+  }
+
+  /**
+   * @param index node index
+   * @return class of the node
+   */
+  public Class<? extends Node> getNodeType(int index) {
+    return nodeTypes[types[index]];
+  }
+
+  /**
+   * @param index node index
+   * @return id of the node's class, see {@link NodeTypeRegistry#getTypeId(Class)}
+   */
+  public int getNodeTypeId(int index) {
+    return NodeTypeRegistry.getTypeId(nodeTypes[types[index]]);
+  }
+
+  /**
+   * @param index node index
+   * @return index of the parent node, -1 for the document
+   */
+  public int getParent(int index) {
+    return parents[index];
+  }
+
+  /**
+   * @param index node index
+   * @return index of the first child, -1 if the node has no children
+   */
+  public int getFirstChild(int index) {
+    return subtreeEnds[index] > index + 1 ? index + 1 : -1;
+  }
+
+  /**
+   * @param index node index
+   * @return index of the next sibling, -1 if the node is the last child of its parent
+   */
+  public int getNext(int index) {
+    int parent = parents[index];
+    int next = subtreeEnds[index];
+    return parent >= 0 && next < subtreeEnds[parent] ? next : -1;
+  }
+
+  /**
+   * Needs to step over the node's other children, use {@link #getFirstChild(int)} and {@link
+   * #getNext(int)} to walk all children
+   *
+   * @param index node index
+   * @return index of the last child, -1 if the node has no children
+   */
+  public int getLastChild(int index) {
+    int child = getFirstChild(index);
+    int lastChild = child;
+    while (child != -1) {
+      lastChild = child;
+      child = getNext(child);
+    }
+    return lastChild;
+  }
+
+  /**
+   * Needs to step over the children of the node's parent before the node
+   *
+   * @param index node index
+   * @return index of the previous sibling, -1 if the node is the first child of its parent
+   */
+  public int getPrevious(int index) {
+    int parent = parents[index];
+    if (parent < 0) return -1;
+
+    int child = parent + 1;
+    int previous = -1;
+    while (child != index) {
+      previous = child;
+      child = subtreeEnds[child];
+    }
+    return previous;
+  }
+
+  /**
+   * @param index node index
+   * @return index after the node's last descendant, nodes from index + 1 up to this index are the
+   *     node's descendants
+   */
+  public int getDescendantsEnd(int index) {
+    return subtreeEnds[index];
+  }
+
+  /**
+   * @param index node index
+   * @return start offset of the node's characters in the base sequence, -1 if the node's characters
+   *     are not a part of the base sequence
+   */
+  public int getStartOffset(int index) {
+    return startOffsets[index] >= 0 ? startOffsets[index] : -1;
+  }
+
+  /**
+   * @param index node index
+   * @return end offset of the node's characters in the base sequence, -1 if the node's characters
+   *     are not a part of the base sequence
+   */
+  public int getEndOffset(int index) {
+    return startOffsets[index] >= 0 ? endOffsets[index] : -1;
+  }
+
+  /**
+   * @param index node index
+   * @return characters of the node
+   */
+  public BasedSequence getNodeChars(int index) {
+    return decodeSequence(startOffsets[index], endOffsets[index]);
+  }
+
+  /**
+   * Create a node with its descendants.
+   *
+   * <p>The node's ancestors up to the document are created without their other children, so the
+   * node has no siblings. Each call creates new nodes.
+   *
+   * @param index node index
+   * @return node at index
+   */
+  public Node getNode(int index) {
+    if (index == 0) return toDocument();
+
+    Thaw thaw = new Thaw();
+    thaw.restoreRepositories();
+    return thaw.attach(index);
+  }
+
+  /**
+   * @return new document with all nodes of the frozen document
+   */
+  public Document toDocument() {
+    Thaw thaw = new Thaw();
+    thaw.thawDescendants(0);
+    thaw.restoreRepositories();
+    return thaw.document;
+  }
+
+  /**
+   * Walk the frozen document and pass each node of the given types to the consumer. The node is
+   * created with its descendants and ancestors, nodes of the given types inside it are not passed
+   * to the consumer.
+   *
+   * @param nodeTypes classes of nodes to create
+   * @param consumer consumer of created nodes
+   */
+  void visit(Set<? extends Class<?>> nodeTypes, Consumer<Node> consumer) {
+    boolean[] visited = new boolean[this.nodeTypes.length];
+    for (int i = 0; i < visited.length; i++) {
+      visited[i] = nodeTypes.contains(this.nodeTypes[i]);
+    }
+
+    if (visited[types[0]]) {
+      consumer.accept(toDocument());
+      return;
+    }
+
+    // nodes created for one walk share their document and ancestors
+    Thaw thaw = null;
+    int index = 1;
+    int nodeCount = types.length;
+    while (index < nodeCount) {
+      if (visited[types[index]]) {
+        if (thaw == null) {
+          thaw = new Thaw();
+          thaw.restoreRepositories();
+        }
+        consumer.accept(thaw.attach(index));
+        index = subtreeEnds[index];
+      } else {
+        index++;
+      }
+    }
+  }
+
+  /** Creates nodes of the frozen document, each node index is created once */
+  private final class Thaw {
+    final Node[] nodes = new Node[types.length];
+    final Document document;
+
+    Thaw() {
+      document = new Document(data, chars);
+      nodes[0] = document;
+      setFields(0);
+    }
+
+    Node get(int index) {
+      Node node = nodes[index];
+      if (node == null) {
+        thawDescendants(index);
+        node = nodes[index];
+      }
+      return node;
+    }
+
+    /**
+     * Create the node at index and its descendants, attaching it to its parent and ancestors up to
+     * the document
+     *
+     * @param index node index
+     * @return node
+     */
+    Node attach(int index) {
+      Node node = get(index);
+      int child = index;
+      int parent = parents[index];
+      while (parent >= 0) {
+        Node parentNode = nodes[parent];
+        if (parentNode == null) {
+          parentNode = newNode(parent);
+          nodes[parent] = parentNode;
+          setFields(parent);
+        }
+
+        if (nodes[child].getParent() != parentNode) {
+          parentNode.appendChild(nodes[child]);
+        }
+
+        child = parent;
+        parent = parents[parent];
+      }
+      return node;
+    }
+
+    void thawDescendants(int index) {
+      int end = subtreeEnds[index];
+      boolean[] created = new boolean[end - index];
+
+      // create all nodes first so node fields can refer to nodes which follow them
+      for (int i = index; i < end; i++) {
+        if (nodes[i] == null) {
+          nodes[i] = newNode(i);
+          created[i - index] = true;
+        }
+      }
+
+      for (int i = index; i < end; i++) {
+        if (created[i - index]) setFields(i);
+        if (i > index && nodes[i].getParent() == null) {
+          nodes[parents[i]].appendChild(nodes[i]);
+        }
+      }
+    }
+
+    private Node newNode(int index) {
+      return frozenTypes[types[index]].create(getNodeChars(index));
+    }
+
+    private void setFields(int index) {
+      new FieldReader(this, index).readFields(nodes[index]);
+    }
+
+    @SuppressWarnings("unchecked")
+    void restoreRepositories() {
+      for (int r = 0; r < repositoryKeys.length; r++) {
+        DataKeyBase<?> key = repositoryKeys[r];
+        String[] keys = repositories[r].keys;
+        Object[] values = repositories[r].values;
+
+        NodeRepository<Object> nodeRepository = (NodeRepository<Object>) key.get(document);
+        for (int i = 0; i < keys.length; i++) {
+          Object node = values[i];
+          nodeRepository.put(keys[i], node instanceof Integer ? get((Integer) node) : node);
+        }
+      }
+    }
+  }
+}
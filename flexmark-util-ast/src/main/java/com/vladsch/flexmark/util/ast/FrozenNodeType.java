@@ -0,0 +1,64 @@
+package com.vladsch.flexmark.util.ast;
+
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Node class which can be stored in a {@link FrozenDocument}, its fields are written and read by
+ * {@link Node#freezeFields(NodeFieldWriter)} and {@link Node#thawFields(NodeFieldReader)}.
+ *
+ * <p>The version is written by {@link DocumentCodec} and must be incremented when the fields
+ * written for the class or any of its super classes change, encoded documents with another version
+ * are not decoded.
+ *
+ * @param <T> type of node
+ */
+public final class FrozenNodeType<T extends Node> {
+  private final Class<T> type;
+  private final int version;
+  private final Supplier<T> factory;
+
+  /**
+   * @param type node class, nodes of its subclasses need their own frozen node type
+   * @param version version of the fields written for nodes of the class
+   * @param factory creates nodes of the class
+   */
+  public FrozenNodeType(Class<T> type, int version, Supplier<T> factory) {
+    this.type = type;
+    this.version = version;
+    this.factory = factory;
+  }
+
+  public Class<T> getType() {
+    return type;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * @param chars characters of the node
+   * @return new node, its fields are set by {@link Node#thawFields(NodeFieldReader)}
+   */
+  public T create(BasedSequence chars) {
+    T node = factory.get();
+    node.setChars(chars);
+    return node;
+  }
+
+  /**
+   * @param types frozen node types
+   * @return map of node class to frozen node type, for {@link FrozenDocument#NODE_TYPES}
+   */
+  public static Map<Class<? extends Node>, FrozenNodeType<?>> mapOf(FrozenNodeType<?>... types) {
+    Map<Class<? extends Node>, FrozenNodeType<?>> map = new LinkedHashMap<>();
+    for (FrozenNodeType<?> type : types) {
+      map.put(type.type, type);
+    }
+    return Collections.unmodifiableMap(map);
+  }
+}
@@ -10,6 +10,7 @@ import com.vladsch.flexmark.util.sequence.SegmentedSequence;
 import com.vladsch.flexmark.util.sequence.builder.SequenceBuilder;
 import com.vladsch.flexmark.util.visitor.AstNode;
 import java.util.Arrays;
+import java.util.function.UnaryOperator;
 
 public abstract class Node {
   protected static final BasedSequence[] EMPTY_SEGMENTS = BasedSequence.EMPTY_ARRAY;
@@ -26,6 +27,11 @@ public abstract class Node {
         public Node getNext(Node node) {
           return node.next;
         }
+
+        @Override
+        public int getNodeTypeId(Class<?> nodeType) {
+          return NodeTypeRegistry.getTypeId(nodeType);
+        }
       };
 
   private Node parent = null;
@@ -216,6 +222,38 @@ public abstract class Node {
     this.chars = chars;
   }
 
+  /**
+   * Replace the sequences held by this node, not its children, with the ones returned by mapper.
+   *
+   * <p>Used to re-base a node on edited document text. Node classes which hold sequences other than
+   * their chars, including ones returned by {@link #getSegments()}, must override this method, call
+   * super and map each of their sequences.
+   *
+   * @param mapper function returning the sequence to use in place of the given one
+   */
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    chars = mapper.apply(chars);
+  }
+
+  /**
+   * Write the fields of this node to a {@link FrozenDocument}, other than its characters, parent,
+   * children and siblings.
+   *
+   * <p>Node classes with fields override this and {@link #thawFields(NodeFieldReader)}, call super
+   * first and write each of their fields. Only classes with a {@link FrozenNodeType} can be frozen.
+   *
+   * @param out writer of the fields
+   */
+  protected void freezeFields(NodeFieldWriter out) {}
+
+  /**
+   * Read the fields written by {@link #freezeFields(NodeFieldWriter)} to a node created for a
+   * {@link FrozenDocument}
+   *
+   * @param in reader of the fields
+   */
+  protected void thawFields(NodeFieldReader in) {}
+
   public Node getNext() {
     return next;
   }
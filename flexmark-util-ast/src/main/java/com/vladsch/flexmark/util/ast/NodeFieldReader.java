@@ -0,0 +1,34 @@
+package com.vladsch.flexmark.util.ast;
+
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.List;
+
+/**
+ * Reads the fields of a node from a {@link FrozenDocument} in the order they were written by
+ * {@link NodeFieldWriter}, see {@link Node#thawFields(NodeFieldReader)}.
+ *
+ * <p>Methods throw {@link IllegalArgumentException} when the stored value is not of the requested
+ * kind, which only happens for frozen documents decoded from malformed data.
+ */
+public interface NodeFieldReader {
+  int readInt();
+
+  boolean readBoolean();
+
+  char readChar();
+
+  String readString();
+
+  int[] readInts();
+
+  BasedSequence readSequence();
+
+  List<BasedSequence> readSequences();
+
+  /**
+   * @param type class the node is expected to be an instance of
+   * @param <T> type of node
+   * @return node of the document or null
+   */
+  <T extends Node> T readNode(Class<T> type);
+}
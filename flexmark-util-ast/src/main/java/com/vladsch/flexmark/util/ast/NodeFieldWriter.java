@@ -0,0 +1,44 @@
+package com.vladsch.flexmark.util.ast;
+
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.List;
+
+/**
+ * Stores the fields of a node in a {@link FrozenDocument}, see {@link
+ * Node#freezeFields(NodeFieldWriter)}. Values are read back by {@link NodeFieldReader} in the order
+ * they were written.
+ */
+public interface NodeFieldWriter {
+  void writeInt(int value);
+
+  void writeBoolean(boolean value);
+
+  void writeChar(char value);
+
+  /**
+   * @param value string or null
+   */
+  void writeString(String value);
+
+  /**
+   * @param value array or null, copied for each node created from the frozen document
+   */
+  void writeInts(int[] value);
+
+  /**
+   * @param value sequence or null
+   */
+  void writeSequence(BasedSequence value);
+
+  /**
+   * @param value list of sequences or null, created as a new list for each node created from the
+   *     frozen document
+   */
+  void writeSequences(List<BasedSequence> value);
+
+  /**
+   * @param value node of the frozen document or null
+   * @throws IllegalArgumentException if the node is not part of the frozen document
+   */
+  void writeNode(Node value);
+}
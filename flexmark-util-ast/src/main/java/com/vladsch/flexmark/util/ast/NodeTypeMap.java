@@ -0,0 +1,57 @@
+package com.vladsch.flexmark.util.ast;
+
+import java.util.Arrays;
+
+/**
+ * Map from exact node class to value, stored in an array indexed by {@link NodeTypeRegistry} id.
+ *
+ * <p>Lookup is by exact class, node subclasses do not inherit the value of their superclass. Not
+ * thread safe for modification, instances which are filled once and then only read may be shared.
+ *
+ * @param <V> type of value
+ */
+public class NodeTypeMap<V> {
+  private static final Object[] EMPTY = new Object[0];
+
+  private Object[] values = EMPTY;
+  private int size;
+
+  public V put(Class<?> nodeType, V value) {
+    int id = NodeTypeRegistry.getTypeId(nodeType);
+    if (id >= values.length) {
+      if (value == null) return null;
+      values = Arrays.copyOf(values, Math.max(id + 1, NodeTypeRegistry.getTypeCount()));
+    }
+
+    V oldValue = get(id);
+    values[id] = value;
+    if (oldValue == null) {
+      if (value != null) size++;
+    } else if (value == null) {
+      size--;
+    }
+    return oldValue;
+  }
+
+  public V get(Class<?> nodeType) {
+    return get(NodeTypeRegistry.getTypeId(nodeType));
+  }
+
+  public V get(Node node) {
+    return get(NodeTypeRegistry.getTypeId(node.getClass()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private V get(int id) {
+    Object[] values = this.values;
+    return id < values.length ? (V) values[id] : null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+}
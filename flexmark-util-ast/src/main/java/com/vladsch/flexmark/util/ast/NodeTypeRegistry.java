@@ -0,0 +1,42 @@
+package com.vladsch.flexmark.util.ast;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns each node class a small integer id, dense from 0, so that per node type dispatch can
+ * index an array instead of hashing the node's class for every node visited.
+ *
+ * <p>Ids are assigned on first request, never reused and only meaningful within the running JVM.
+ * They must not be persisted.
+ */
+public final class NodeTypeRegistry {
+  private static final AtomicInteger nextId = new AtomicInteger();
+
+  private static final ClassValue<Integer> typeIds =
+      new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+          return nextId.getAndIncrement();
+        }
+      };
+
+  private NodeTypeRegistry() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * @param nodeType node class
+   * @return id of the node class, assigned on first call for the class
+   */
+  public static int getTypeId(Class<?> nodeType) {
+    return typeIds.get(nodeType);
+  }
+
+  /**
+   * @return upper bound of ids assigned so far, any id returned by {@link #getTypeId(Class)} is
+   *     less than this value
+   */
+  public static int getTypeCount() {
+    return nextId.get();
+  }
+}
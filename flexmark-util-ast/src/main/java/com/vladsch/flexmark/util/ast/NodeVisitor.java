@@ -2,6 +2,7 @@ package com.vladsch.flexmark.util.ast;
 
 import com.vladsch.flexmark.util.visitor.AstActionHandler;
 import java.util.Collection;
+import java.util.function.BiConsumer;
 
 // @formatter:off
 
@@ -32,7 +33,7 @@ import java.util.Collection;
  *
  * @Override
  * public void visit(Node node) {
- *    processNode(node, true, this::visit);
+ *    processNode(node, true, visitProcessor);
  *
  *    VisitHandler&lt;?&gt; handler = getHandler(node);
  *    if (handler != null) {
@@ -65,6 +66,8 @@ public class NodeVisitor
     implements NodeVisitHandler {
   private static final VisitHandler[] EMPTY_HANDLERS = new VisitHandler[0];
 
+  private final BiConsumer<Node, Visitor<Node>> visitProcessor = this::visit;
+
   public NodeVisitor() {
     super(Node.AST_ADAPTER);
   }
@@ -84,17 +87,30 @@ public class NodeVisitor
 
   @Override
   public final void visit(Node node) {
-    processNode(node, true, this::visit);
+    processNode(node, true, visitProcessor);
+  }
+
+  /**
+   * Visit a frozen document, only nodes with a handler are created.
+   *
+   * <p>Nodes without a handler are stepped over in the frozen document. Each node with a handler is
+   * created with its descendants and ancestors, see {@link FrozenDocument#getNode(int)}, and
+   * visited as any other node. Nodes created for one visit share the document and ancestor nodes.
+   *
+   * @param document frozen document to visit
+   */
+  public final void visit(FrozenDocument document) {
+    document.visit(getNodeClasses(), this::visit);
   }
 
   @Override
   public final void visitNodeOnly(Node node) {
-    processNode(node, false, this::visit);
+    processNode(node, false, visitProcessor);
   }
 
   @Override
   public final void visitChildren(Node parent) {
-    processChildren(parent, this::visit);
+    processChildren(parent, visitProcessor);
   }
 
   private void visit(Node node, Visitor<Node> handler) {
@@ -6,6 +6,7 @@ import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.Range;
 import com.vladsch.flexmark.util.sequence.builder.ISequenceBuilder;
 import com.vladsch.flexmark.util.sequence.builder.SequenceBuilder;
+import java.io.IOException;
 
 class SpaceInsertingSequenceBuilder
     implements ISequenceBuilder<SpaceInsertingSequenceBuilder, BasedSequence> {
@@ -185,6 +186,10 @@ class SpaceInsertingSequenceBuilder
     return out.toString();
   }
 
+  void appendTo(Appendable appendable) throws IOException {
+    out.appendTo(appendable);
+  }
+
   @Override
   public SpaceInsertingSequenceBuilder addAll(Iterable<? extends CharSequence> sequences) {
     return append(sequences);
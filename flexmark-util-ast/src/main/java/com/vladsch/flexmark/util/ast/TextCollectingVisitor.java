@@ -1,6 +1,7 @@
 package com.vladsch.flexmark.util.ast;
 
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.io.IOException;
 import java.util.function.BiConsumer;
 
 public class TextCollectingVisitor {
@@ -61,4 +62,18 @@ public class TextCollectingVisitor {
     collect(node, flags);
     return out.toString();
   }
+
+  /**
+   * Collect the text of a node and append it to the appendable, the same text as {@link
+   * #collectAndGetText(Node, int)} without creating a string for it
+   *
+   * @param node node whose text to collect
+   * @param flags flags defined by {@link TextContainer}
+   * @param appendable appendable for the text
+   * @throws IOException when the appendable throws an exception
+   */
+  public void collectAndAppendTo(Node node, int flags, Appendable appendable) throws IOException {
+    collect(node, flags);
+    out.appendTo(appendable);
+  }
 }
@@ -0,0 +1,68 @@
+package com.vladsch.flexmark.util.data;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Value of a parser or renderer configuration, for keys of caches shared by parsers and renderers
+ * which produce the same output.
+ *
+ * <p>Configurations with the same factories and equal options have equal scopes, without the
+ * scope holding on to parser or renderer instances. Factories without instance fields are compared
+ * by class, other factories by identity because their fields may configure them. Option values are
+ * compared with equals.
+ */
+public final class ConfigurationScope {
+  private final List<Object> factories;
+  private final Map<DataKeyBase<?>, Object> options;
+  private final int hash;
+
+  /**
+   * @param factories factories, extensions and processors which affect the output
+   * @param options configuration options
+   * @param ignoredKeys keys of options which do not affect the output or whose values are part of
+   *     the factories
+   */
+  public ConfigurationScope(
+      List<?> factories, DataHolder options, DataKeyBase<?>... ignoredKeys) {
+    this.factories = new ArrayList<>(factories.size());
+    for (Object factory : factories) {
+      this.factories.add(
+          factory == null || hasInstanceFields(factory) ? factory : factory.getClass());
+    }
+
+    this.options = new HashMap<>(options.getAll());
+    for (DataKeyBase<?> key : ignoredKeys) {
+      this.options.remove(key);
+    }
+
+    this.hash = 31 * this.factories.hashCode() + this.options.hashCode();
+  }
+
+  private static boolean hasInstanceFields(Object factory) {
+    for (Class<?> type = factory.getClass(); type != null; type = type.getSuperclass()) {
+      for (Field field : type.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers())) return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) return true;
+    if (!(object instanceof ConfigurationScope)) return false;
+
+    ConfigurationScope other = (ConfigurationScope) object;
+    return hash == other.hash && factories.equals(other.factories) && options.equals(other.options);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
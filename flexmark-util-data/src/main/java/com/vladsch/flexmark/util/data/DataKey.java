@@ -60,11 +60,11 @@ public class DataKey<T> extends DataKeyBase<T> {
    * @param defaultKey The NullableDataKey to take the default value from at time of construction.
    */
   public DataKey(String name, DataKey<T> defaultKey) {
-    this(name, defaultKey.getDefaultValue(), defaultKey::get);
+    super(name, defaultKey.getDefaultValue(), defaultKey::get, false, defaultKey);
   }
 
   public DataKey(String name, T defaultValue) {
-    this(name, defaultValue, options -> defaultValue);
+    super(name, defaultValue, options -> defaultValue, true, null);
   }
 
   @Override
@@ -1,9 +1,20 @@
 package com.vladsch.flexmark.util.data;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public abstract class DataKeyBase<T> implements MutableDataValueSetter<T> {
+  // next free slot, keys themselves are not held so they can be collected with their class loader
+  private static final AtomicInteger nextSlot = new AtomicInteger();
+
   private final String name;
   private final DataValueFactory<T> factory;
   private final T defaultValue;
+  // unique index of this key, see FrozenDataSet
+  final int slot;
+  // true if factory always returns defaultValue regardless of data holder
+  final boolean constantDefault;
+  // key whose value is the default for this key, null if none
+  final DataKeyBase<T> defaultKey;
 
   /**
    * Creates a NullableDataKey with a computed default value and a provided default value when data
@@ -17,9 +28,28 @@ public abstract class DataKeyBase<T> implements MutableDataValueSetter<T> {
    *     data holder
    */
   DataKeyBase(String name, T defaultValue, DataValueFactory<T> factory) {
+    this(name, defaultValue, factory, false, null);
+  }
+
+  /**
+   * @param name See {@link #getName()}.
+   * @param defaultValue default to use when data holder is null
+   * @param factory data value factory for creating a new default value for the key
+   * @param constantDefault true if factory always returns defaultValue
+   * @param defaultKey key whose value factory delegates to, or null
+   */
+  DataKeyBase(
+      String name,
+      T defaultValue,
+      DataValueFactory<T> factory,
+      boolean constantDefault,
+      DataKeyBase<T> defaultKey) {
     this.name = name;
     this.defaultValue = defaultValue;
     this.factory = factory;
+    this.constantDefault = constantDefault;
+    this.defaultKey = defaultKey;
+    this.slot = nextSlot.getAndIncrement();
   }
 
   public String getName() {
@@ -39,6 +69,9 @@ public abstract class DataKeyBase<T> implements MutableDataValueSetter<T> {
   }
 
   public T get(DataHolder holder) {
+    if (holder instanceof FrozenDataSet) {
+      return (T) ((FrozenDataSet) holder).get(this);
+    }
     return holder == null ? defaultValue : (T) holder.getOrCompute(this, this::getDefaultValue);
   }
 
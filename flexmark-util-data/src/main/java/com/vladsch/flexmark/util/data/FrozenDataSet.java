@@ -0,0 +1,108 @@
+package com.vladsch.flexmark.util.data;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable data set with values held in a small table indexed by the key's slot, used for options
+ * of parsers and renderers which are read on every parse or render.
+ *
+ * <p>The table only holds the keys set in the data holder it was created from. Defaults of other
+ * keys are resolved when requested: keys with a constant default return it, keys whose default is
+ * another key's value look up that key and the rest compute their default on every request, same as
+ * {@link DataSet}. The set is never modified after construction so it can be read by any number of
+ * threads without synchronization.
+ */
+public final class FrozenDataSet extends DataSet {
+  // slots of set keys, open addressing with linear probing, -1 for empty entries
+  private final int[] slots;
+  private final Object[] values;
+  private final int mask;
+
+  private FrozenDataSet(DataHolder other) {
+    super(other);
+
+    int capacity = Integer.highestOneBit(Math.max(dataSet.size(), 1) * 2 - 1) * 2;
+    int[] slots = new int[capacity];
+    Object[] values = new Object[capacity];
+    Arrays.fill(slots, -1);
+
+    int mask = capacity - 1;
+    for (Map.Entry<DataKeyBase<?>, Object> entry : dataSet.entrySet()) {
+      int index = entry.getKey().slot & mask;
+      while (slots[index] != -1) {
+        index = (index + 1) & mask;
+      }
+      slots[index] = entry.getKey().slot;
+      values[index] = entry.getValue();
+    }
+
+    this.slots = slots;
+    this.values = values;
+    this.mask = mask;
+  }
+
+  /**
+   * @param other data holder to copy
+   * @return frozen copy of the data holder or the data holder if it is already frozen
+   */
+  public static FrozenDataSet of(DataHolder other) {
+    return other instanceof FrozenDataSet ? (FrozenDataSet) other : new FrozenDataSet(other);
+  }
+
+  /**
+   * @param slot slot of the key
+   * @return index of the key in the table or -1 if the key is not set
+   */
+  private int indexOf(int slot) {
+    int index = slot & mask;
+    while (true) {
+      int entry = slots[index];
+      if (entry == slot) {
+        return index;
+      } else if (entry == -1) {
+        return -1;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  /**
+   * Value of key, same as {@link DataKeyBase#get(DataHolder)} without a map lookup
+   *
+   * @param key data key
+   * @return value for the key
+   */
+  Object get(DataKeyBase<?> key) {
+    int index = indexOf(key.slot);
+    if (index != -1) {
+      return values[index];
+    } else if (key.constantDefault) {
+      return key.getDefaultValue();
+    } else if (key.defaultKey != null) {
+      return get(key.defaultKey);
+    }
+    return key.getDefaultValue(this);
+  }
+
+  @Override
+  public boolean contains(DataKeyBase<?> key) {
+    return indexOf(key.slot) != -1;
+  }
+
+  @Override
+  public Object getOrCompute(DataKeyBase<?> key, DataValueFactory<?> factory) {
+    int index = indexOf(key.slot);
+    return index != -1 ? values[index] : factory.apply(this);
+  }
+
+  @Override
+  public FrozenDataSet toImmutable() {
+    return this;
+  }
+
+  @Override
+  public FrozenDataSet toDataSet() {
+    return this;
+  }
+}
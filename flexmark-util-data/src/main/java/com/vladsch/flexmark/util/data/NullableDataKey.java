@@ -1,22 +1,8 @@
 package com.vladsch.flexmark.util.data;
 
 public class NullableDataKey<T> extends DataKeyBase<T> {
-  /**
-   * Creates a DataKey with nullable data value and factory with non-nullable dataHolder
-   *
-   * <p>Use this constructor to ensure that factory is never called with null data holder value
-   *
-   * @param name See {@link #getName()}.
-   * @param defaultValue default to use when data holder is null
-   * @param factory data value factory for creating a new default value for the key for a non-null
-   *     data holder
-   */
-  private NullableDataKey(String name, T defaultValue, DataValueFactory<T> factory) {
-    super(name, defaultValue, factory);
-  }
-
   public NullableDataKey(String name, T defaultValue) {
-    this(name, defaultValue, options -> defaultValue);
+    super(name, defaultValue, options -> defaultValue, true, null);
   }
 
   /**
@@ -25,7 +11,7 @@ public class NullableDataKey<T> extends DataKeyBase<T> {
    * @param name key name
    */
   public NullableDataKey(String name) {
-    this(name, null, options -> null);
+    super(name, null, options -> null, true, null);
   }
 
   @Override
@@ -94,6 +94,12 @@ public abstract class MarkdownWriterBase<
     appendable.setLine(lineIndex, prefix, text);
   }
 
+  @Override
+  public T appendLinesInfo(Iterable<LineInfo> linesInfo) {
+    appendable.appendLinesInfo(linesInfo);
+    return (T) this;
+  }
+
   @Override
   public <T extends Appendable> T appendTo(
       T out,
@@ -121,7 +121,7 @@ public class HtmlAppendableBase<T extends HtmlAppendableBase<T>> implements Html
 
   @Override
   public T text(CharSequence s) {
-    appendable.append(Escaping.escapeHtml(s, false));
+    Escaping.escapeHtml(s, false, appendable);
     return (T) this;
   }
 
@@ -277,9 +277,9 @@ public class HtmlAppendableBase<T extends HtmlAppendableBase<T>> implements Html
         }
 
         appendable.append(" ");
-        appendable.append(Escaping.escapeHtml(attribute.getName(), true));
+        Escaping.escapeHtml(attribute.getName(), true, appendable);
         appendable.append("=\"");
-        appendable.append(Escaping.escapeHtml(attributeValue, true));
+        Escaping.escapeHtml(attributeValue, true, appendable);
         appendable.append("\"");
       }
     }
@@ -430,6 +430,12 @@ public class HtmlAppendableBase<T extends HtmlAppendableBase<T>> implements Html
     appendable.setLine(lineIndex, prefix, text);
   }
 
+  @Override
+  public T appendLinesInfo(Iterable<LineInfo> linesInfo) {
+    appendable.appendLinesInfo(linesInfo);
+    return (T) this;
+  }
+
   @Override
   public <T extends Appendable> T appendTo(
       T out,
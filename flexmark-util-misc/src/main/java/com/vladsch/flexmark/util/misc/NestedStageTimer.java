@@ -0,0 +1,57 @@
+package com.vladsch.flexmark.util.misc;
+
+import java.util.Arrays;
+
+/**
+ * Measures stages which can be nested in each other, like node renderers rendering child nodes.
+ * Each stage is given its own time and allocated bytes, excluding those of stages nested in it.
+ *
+ * <p>Not thread safe, each thread needs its own timer.
+ */
+public final class NestedStageTimer {
+  private long[] startNanos = new long[16];
+  private long[] startAllocatedBytes = new long[16];
+  private long[] nestedNanos = new long[16];
+  private long[] nestedAllocatedBytes = new long[16];
+  private int depth;
+
+  /** Start a stage, nested in the current stage if there is one */
+  public void start() {
+    if (depth == startNanos.length) {
+      int length = depth * 2;
+      startNanos = Arrays.copyOf(startNanos, length);
+      startAllocatedBytes = Arrays.copyOf(startAllocatedBytes, length);
+      nestedNanos = Arrays.copyOf(nestedNanos, length);
+      nestedAllocatedBytes = Arrays.copyOf(nestedAllocatedBytes, length);
+    }
+
+    nestedNanos[depth] = 0;
+    nestedAllocatedBytes[depth] = 0;
+    startAllocatedBytes[depth] = StageMetrics.threadAllocatedBytes();
+    startNanos[depth] = System.nanoTime();
+    depth++;
+  }
+
+  /**
+   * Stop the last started stage and add its own time and allocated bytes to metrics
+   *
+   * @param metrics metrics of the stage
+   */
+  public void stop(StageMetrics metrics) {
+    long nanos = System.nanoTime() - startNanos[--depth];
+    long allocatedBytes = StageMetrics.threadAllocatedBytes() - startAllocatedBytes[depth];
+    metrics.add(1, nanos - nestedNanos[depth], allocatedBytes - nestedAllocatedBytes[depth]);
+
+    if (depth > 0) {
+      nestedNanos[depth - 1] += nanos;
+      nestedAllocatedBytes[depth - 1] += allocatedBytes;
+    }
+  }
+
+  /**
+   * @return number of started stages which were not stopped
+   */
+  public int getDepth() {
+    return depth;
+  }
+}
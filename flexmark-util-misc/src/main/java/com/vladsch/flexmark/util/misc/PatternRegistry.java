@@ -0,0 +1,72 @@
+package com.vladsch.flexmark.util.misc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Shared registry of compiled patterns whose regex depends on options, so that parsers and
+ * processors created for each document reuse patterns compiled for earlier documents.
+ *
+ * <p>Patterns are registered under a name and a key holding the option values used to build the
+ * regex, the key must implement equals and hashCode. Lookups and compilation are thread safe and
+ * lookups of registered patterns do not lock.
+ */
+public final class PatternRegistry {
+  // concurrent maps so parsers created on different threads do not serialize on a shared lock
+  private static final Map<String, Map<Object, Pattern>> patterns = new ConcurrentHashMap<>();
+  private static final LongAdder compileCount = new LongAdder();
+
+  private PatternRegistry() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * Get pattern registered under name for key, compiling it on first request
+   *
+   * @param name name of the pattern
+   * @param key option values used by compiler to build the regex
+   * @param compiler function compiling the pattern for the key
+   * @param <K> type of key
+   * @return compiled pattern
+   */
+  public static <K> Pattern getPattern(String name, K key, Function<? super K, Pattern> compiler) {
+    Map<Object, Pattern> patternMap = patterns.get(name);
+    if (patternMap == null) {
+      patternMap = patterns.computeIfAbsent(name, k -> new ConcurrentHashMap<>());
+    }
+
+    Pattern pattern = patternMap.get(key);
+    if (pattern != null) {
+      return pattern;
+    }
+
+    return patternMap.computeIfAbsent(
+        key,
+        k -> {
+          compileCount.increment();
+          return compiler.apply((K) k);
+        });
+  }
+
+  /**
+   * Get pattern for regex and flags, for patterns whose regex text is its own key
+   *
+   * @param regex regular expression
+   * @param flags {@link Pattern} flags
+   * @return compiled pattern
+   */
+  public static Pattern getPattern(String regex, int flags) {
+    return getPattern(
+        flags == 0 ? "" : Integer.toString(flags), regex, k -> Pattern.compile(k, flags));
+  }
+
+  /**
+   * @return number of patterns compiled by the registry
+   */
+  public static long getCompileCount() {
+    return compileCount.sum();
+  }
+}
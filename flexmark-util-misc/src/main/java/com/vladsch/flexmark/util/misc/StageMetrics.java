@@ -0,0 +1,95 @@
+package com.vladsch.flexmark.util.misc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Invocation count, wall time and bytes allocated by the measuring thread, accumulated for a stage
+ * of processing
+ *
+ * <p>Allocated bytes are only available on JVMs which support thread allocation measurement,
+ * otherwise they are always 0. Thread allocation measurement is enabled for the JVM on the first
+ * call to {@link #threadAllocatedBytes()}, which is only made when metrics are collected.
+ */
+public final class StageMetrics {
+  private long count;
+  private long nanos;
+  private long allocatedBytes;
+
+  /** Holder of the thread bean, initialized by the first request for allocated bytes */
+  private static final class AllocationCounter {
+    static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+      try {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+          com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+          if (bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+          }
+        }
+      } catch (RuntimeException | LinkageError ignored) {
+        // not available, allocated bytes are reported as 0
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Bytes allocated by the current thread, enables thread allocation measurement on first call
+   *
+   * @return bytes allocated by the current thread so far, 0 if not supported
+   */
+  public static long threadAllocatedBytes() {
+    com.sun.management.ThreadMXBean threadMXBean = AllocationCounter.THREAD_MX_BEAN;
+    return threadMXBean == null
+        ? 0
+        : threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Add one invocation which started at the given time and thread allocated bytes
+   *
+   * @param startNanos {@link System#nanoTime()} at start of invocation
+   * @param startAllocatedBytes {@link #threadAllocatedBytes()} at start of invocation
+   */
+  public void add(long startNanos, long startAllocatedBytes) {
+    add(1, System.nanoTime() - startNanos, threadAllocatedBytes() - startAllocatedBytes);
+  }
+
+  public void add(long count, long nanos, long allocatedBytes) {
+    this.count += count;
+    this.nanos += nanos;
+    this.allocatedBytes += allocatedBytes;
+  }
+
+  public void add(StageMetrics other) {
+    add(other.count, other.nanos, other.allocatedBytes);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getNanos() {
+    return nanos;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "StageMetrics{"
+        + "count="
+        + count
+        + ", nanos="
+        + nanos
+        + ", allocatedBytes="
+        + allocatedBytes
+        + '}';
+  }
+}
@@ -0,0 +1,169 @@
+package com.vladsch.flexmark.util.sequence;
+
+import com.vladsch.flexmark.util.misc.CharPredicate;
+
+/**
+ * Character scans of {@link SubSequence} and {@link CharSubSequence} done directly on their base
+ * {@code char[]} or {@code CharSequence}, without per character index validation and dispatch
+ * through {@link BasedSequence#charAt(int)}.
+ *
+ * <p>Indices are relative to the sequence and must already be limited to its length. Characters are
+ * tested after mapping {@link SequenceUtils#NUL} to {@link SequenceUtils#ENC_NUL}, the same as
+ * returned by {@code charAt()}.
+ */
+final class BulkCharScanner {
+  private BulkCharScanner() {
+    throw new IllegalStateException();
+  }
+
+  static boolean isScannable(CharSequence chars) {
+    return chars instanceof SubSequence || chars instanceof CharSubSequence;
+  }
+
+  private static char mapNul(char c) {
+    return c == SequenceUtils.NUL ? SequenceUtils.ENC_NUL : c;
+  }
+
+  /**
+   * @param chars scannable sequence
+   * @param c character to find, other than NUL or its encoded replacement
+   * @param fromIndex start index
+   * @param endIndex end index
+   * @return index of first occurrence or -1
+   */
+  static int indexOf(CharSequence chars, char c, int fromIndex, int endIndex) {
+    BasedSequence sequence = (BasedSequence) chars;
+    int offset = sequence.getStartOffset();
+    Object base = sequence.getBase();
+    int index =
+        base instanceof char[]
+            ? scanIndexOf((char[]) base, c, offset + fromIndex, offset + endIndex)
+            : scanIndexOf((CharSequence) base, c, offset + fromIndex, offset + endIndex);
+    return index == -1 ? -1 : index - offset;
+  }
+
+  /**
+   * @param chars scannable sequence
+   * @param c character to find, other than NUL or its encoded replacement
+   * @param startIndex lowest index to check
+   * @param fromIndex index to start from going back, inclusive
+   * @return index of last occurrence or -1
+   */
+  static int lastIndexOf(CharSequence chars, char c, int startIndex, int fromIndex) {
+    BasedSequence sequence = (BasedSequence) chars;
+    int offset = sequence.getStartOffset();
+    Object base = sequence.getBase();
+    int index =
+        base instanceof char[]
+            ? scanLastIndexOf((char[]) base, c, offset + startIndex, offset + fromIndex)
+            : scanLastIndexOf((CharSequence) base, c, offset + startIndex, offset + fromIndex);
+    return index == -1 ? -1 : index - offset;
+  }
+
+  static int indexOfAny(CharSequence chars, CharPredicate s, int fromIndex, int endIndex) {
+    BasedSequence sequence = (BasedSequence) chars;
+    int offset = sequence.getStartOffset();
+    Object base = sequence.getBase();
+    int index;
+    if (s == CharPredicate.ANY_EOL) {
+      // line splitting, test without calling the predicate
+      index =
+          base instanceof char[]
+              ? scanIndexOfEol((char[]) base, offset + fromIndex, offset + endIndex)
+              : scanIndexOfEol((CharSequence) base, offset + fromIndex, offset + endIndex);
+    } else {
+      index =
+          base instanceof char[]
+              ? scanIndexOfAny((char[]) base, s, offset + fromIndex, offset + endIndex)
+              : scanIndexOfAny((CharSequence) base, s, offset + fromIndex, offset + endIndex);
+    }
+    return index == -1 ? -1 : index - offset;
+  }
+
+  static int lastIndexOfAny(CharSequence chars, CharPredicate s, int startIndex, int fromIndex) {
+    BasedSequence sequence = (BasedSequence) chars;
+    int offset = sequence.getStartOffset();
+    Object base = sequence.getBase();
+    int index =
+        base instanceof char[]
+            ? scanLastIndexOfAny((char[]) base, s, offset + startIndex, offset + fromIndex)
+            : scanLastIndexOfAny((CharSequence) base, s, offset + startIndex, offset + fromIndex);
+    return index == -1 ? -1 : index - offset;
+  }
+
+  private static int scanIndexOf(char[] base, char c, int fromIndex, int endIndex) {
+    for (int i = fromIndex; i < endIndex; i++) {
+      if (base[i] == c) return i;
+    }
+    return -1;
+  }
+
+  private static int scanIndexOf(CharSequence base, char c, int fromIndex, int endIndex) {
+    for (int i = fromIndex; i < endIndex; i++) {
+      if (base.charAt(i) == c) return i;
+    }
+    return -1;
+  }
+
+  private static int scanLastIndexOf(char[] base, char c, int startIndex, int fromIndex) {
+    for (int i = fromIndex; i >= startIndex; i--) {
+      if (base[i] == c) return i;
+    }
+    return -1;
+  }
+
+  private static int scanLastIndexOf(CharSequence base, char c, int startIndex, int fromIndex) {
+    for (int i = fromIndex; i >= startIndex; i--) {
+      if (base.charAt(i) == c) return i;
+    }
+    return -1;
+  }
+
+  private static int scanIndexOfEol(char[] base, int fromIndex, int endIndex) {
+    for (int i = fromIndex; i < endIndex; i++) {
+      // one compare for all characters above CR
+      char c = base[i];
+      if (c <= '\r' && (c == '\n' || c == '\r')) return i;
+    }
+    return -1;
+  }
+
+  private static int scanIndexOfEol(CharSequence base, int fromIndex, int endIndex) {
+    for (int i = fromIndex; i < endIndex; i++) {
+      char c = base.charAt(i);
+      if (c <= '\r' && (c == '\n' || c == '\r')) return i;
+    }
+    return -1;
+  }
+
+  private static int scanIndexOfAny(char[] base, CharPredicate s, int fromIndex, int endIndex) {
+    for (int i = fromIndex; i < endIndex; i++) {
+      if (s.test(mapNul(base[i]))) return i;
+    }
+    return -1;
+  }
+
+  private static int scanIndexOfAny(
+      CharSequence base, CharPredicate s, int fromIndex, int endIndex) {
+    for (int i = fromIndex; i < endIndex; i++) {
+      if (s.test(mapNul(base.charAt(i)))) return i;
+    }
+    return -1;
+  }
+
+  private static int scanLastIndexOfAny(
+      char[] base, CharPredicate s, int startIndex, int fromIndex) {
+    for (int i = fromIndex; i >= startIndex; i--) {
+      if (s.test(mapNul(base[i]))) return i;
+    }
+    return -1;
+  }
+
+  private static int scanLastIndexOfAny(
+      CharSequence base, CharPredicate s, int startIndex, int fromIndex) {
+    for (int i = fromIndex; i >= startIndex; i--) {
+      if (s.test(mapNul(base.charAt(i)))) return i;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,91 @@
+package com.vladsch.flexmark.util.sequence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Append only character store which keeps its text in fixed size chunks, so growing it never copies
+ * text already stored.
+ *
+ * <p>Used as the base of {@link ChunkedSequence} for input read incrementally from a {@link
+ * Reader}. Characters already appended never change, so sub-sequences taken while more text is
+ * being read remain valid.
+ */
+public final class ChunkedCharStore implements CharSequence {
+  private static final int CHUNK_SHIFT = 15;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private char[][] chunks = new char[8][];
+  private int length;
+
+  /**
+   * Read the next block of characters from the reader into the store
+   *
+   * @param reader reader to read
+   * @return number of characters read or -1 at end of input
+   * @throws IOException if the reader throws
+   */
+  public int read(Reader reader) throws IOException {
+    int chunkIndex = length >>> CHUNK_SHIFT;
+    int chunkOffset = length & CHUNK_MASK;
+
+    if (chunkIndex == chunks.length) {
+      chunks = Arrays.copyOf(chunks, chunks.length * 2);
+    }
+
+    char[] chunk = chunks[chunkIndex];
+    if (chunk == null) {
+      chunk = new char[CHUNK_SIZE];
+      chunks[chunkIndex] = chunk;
+    }
+
+    int charsRead = reader.read(chunk, chunkOffset, CHUNK_SIZE - chunkOffset);
+    if (charsRead > 0) {
+      length += charsRead;
+    }
+    return charsRead;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    SequenceUtils.validateIndex(index, length);
+    return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+  }
+
+  /**
+   * Append characters to a string builder
+   *
+   * @param out string builder
+   * @param startIndex start index in this store
+   * @param endIndex end index in this store
+   */
+  public void appendTo(StringBuilder out, int startIndex, int endIndex) {
+    SequenceUtils.validateStartEnd(startIndex, endIndex, length);
+    int index = startIndex;
+    while (index < endIndex) {
+      int chunkOffset = index & CHUNK_MASK;
+      int count = Math.min(CHUNK_SIZE - chunkOffset, endIndex - index);
+      out.append(chunks[index >>> CHUNK_SHIFT], chunkOffset, count);
+      index += count;
+    }
+  }
+
+  @Override
+  public CharSequence subSequence(int startIndex, int endIndex) {
+    StringBuilder sb = new StringBuilder(endIndex - startIndex);
+    appendTo(sb, startIndex, endIndex);
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return subSequence(0, length).toString();
+  }
+}
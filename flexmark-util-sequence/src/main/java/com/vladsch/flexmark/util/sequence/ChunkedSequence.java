@@ -0,0 +1,146 @@
+package com.vladsch.flexmark.util.sequence;
+
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.DataKeyBase;
+import com.vladsch.flexmark.util.sequence.builder.IBasedSegmentBuilder;
+
+/**
+ * A BasedSequence over a {@link ChunkedCharStore}, a subSequence() returns a ChunkedSequence from
+ * the same base sequence.
+ *
+ * <p>The base sequence always spans all text in the store, its length grows as text is appended to
+ * the store. This allows input to be parsed while it is still being read, with all nodes sharing
+ * one base sequence. Sub-sequences have fixed offsets.
+ */
+public final class ChunkedSequence extends BasedSequenceImpl {
+  private final ChunkedCharStore store;
+  private final ChunkedSequence baseSeq;
+  private final int startOffset;
+  private final int endOffset;
+
+  private ChunkedSequence(ChunkedCharStore store) {
+    super(0);
+    baseSeq = this;
+    this.store = store;
+    startOffset = 0;
+    endOffset = -1;
+  }
+
+  // NOTE: called only from baseSubSequence
+  private ChunkedSequence(ChunkedSequence baseSeq, int startIndex, int endIndex) {
+    super(0);
+    this.baseSeq = baseSeq;
+    store = baseSeq.store;
+    startOffset = startIndex;
+    endOffset = endIndex;
+  }
+
+  /**
+   * @param store character store
+   * @return base sequence spanning all text in the store
+   */
+  public static ChunkedSequence of(ChunkedCharStore store) {
+    return new ChunkedSequence(store);
+  }
+
+  @Override
+  public ChunkedSequence getBaseSequence() {
+    return baseSeq;
+  }
+
+  @Override
+  public int getOptionFlags() {
+    return 0;
+  }
+
+  @Override
+  public boolean allOptions(int options) {
+    return false;
+  }
+
+  @Override
+  public boolean anyOptions(int options) {
+    return false;
+  }
+
+  @Override
+  public <T> T getOption(DataKeyBase<T> dataKey) {
+    return dataKey.get(null);
+  }
+
+  @Override
+  public DataHolder getOptions() {
+    return null;
+  }
+
+  @Override
+  public ChunkedCharStore getBase() {
+    return store;
+  }
+
+  @Override
+  public int getStartOffset() {
+    return startOffset;
+  }
+
+  @Override
+  public int getEndOffset() {
+    return baseSeq == this ? store.length() : endOffset;
+  }
+
+  @Override
+  public void addSegments(IBasedSegmentBuilder<?> builder) {
+    builder.append(startOffset, getEndOffset());
+  }
+
+  @Override
+  public int length() {
+    return getEndOffset() - startOffset;
+  }
+
+  @Override
+  public Range getSourceRange() {
+    return Range.of(startOffset, getEndOffset());
+  }
+
+  @Override
+  public int getIndexOffset(int index) {
+    SequenceUtils.validateIndexInclusiveEnd(index, length());
+    return startOffset + index;
+  }
+
+  @Override
+  public char charAt(int index) {
+    SequenceUtils.validateIndex(index, length());
+
+    char c = store.charAt(index + startOffset);
+    return c == SequenceUtils.NUL ? SequenceUtils.ENC_NUL : c;
+  }
+
+  @Override
+  public ChunkedSequence subSequence(int startIndex, int endIndex) {
+    SequenceUtils.validateStartEnd(startIndex, endIndex, length());
+    return baseSubSequence(startOffset + startIndex, startOffset + endIndex);
+  }
+
+  @Override
+  public ChunkedSequence baseSubSequence(int startIndex, int endIndex) {
+    SequenceUtils.validateStartEnd(startIndex, endIndex, store.length());
+    // base sequence length grows with the store, so it never stands in for a fixed range
+    return baseSeq != this
+        ? startIndex == startOffset && endIndex == endOffset
+            ? this
+            : baseSeq.baseSubSequence(startIndex, endIndex)
+        : new ChunkedSequence(this, startIndex, endIndex);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(length());
+    store.appendTo(sb, startOffset, getEndOffset());
+    for (int i = 0; i < sb.length(); i++) {
+      if (sb.charAt(i) == SequenceUtils.NUL) sb.setCharAt(i, SequenceUtils.ENC_NUL);
+    }
+    return sb.toString();
+  }
+}
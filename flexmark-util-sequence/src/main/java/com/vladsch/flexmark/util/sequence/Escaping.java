@@ -2,6 +2,7 @@ package com.vladsch.flexmark.util.sequence;
 
 import com.vladsch.flexmark.util.misc.CharPredicate;
 import com.vladsch.flexmark.util.misc.Utils;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Random;
@@ -27,12 +28,15 @@ public class Escaping {
   private static final Pattern ENTITY_OR_ESCAPED_CHAR =
       Pattern.compile("\\\\" + ESCAPABLE + '|' + ENTITY, Pattern.CASE_INSENSITIVE);
 
-  private static final String XML_SPECIAL = "[&<>\"]";
+  // chars replaced by escapeHtml, indexed by char
+  private static final boolean[] HTML_ESCAPE_CHARS = new boolean['>' + 1];
 
-  private static final Pattern XML_SPECIAL_RE = Pattern.compile(XML_SPECIAL);
-
-  private static final Pattern XML_SPECIAL_OR_ENTITY =
-      Pattern.compile(ENTITY + '|' + XML_SPECIAL, Pattern.CASE_INSENSITIVE);
+  static {
+    HTML_ESCAPE_CHARS['&'] = true;
+    HTML_ESCAPE_CHARS['<'] = true;
+    HTML_ESCAPE_CHARS['>'] = true;
+    HTML_ESCAPE_CHARS['"'] = true;
+  }
 
   // From RFC 3986 (see "reserved", "unreserved") except don't escape '[' or ']' to be compatible
   // with JS encodeURI
@@ -44,57 +48,6 @@ public class Escaping {
   private static final char[] HEX_DIGITS =
       new char[] {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
 
-  private static final Replacer UNSAFE_CHAR_REPLACER =
-      new Replacer() {
-        @Override
-        public void replace(String s, StringBuilder sb) {
-          switch (s) {
-            case "&":
-              sb.append("&amp;");
-              break;
-            case "<":
-              sb.append("&lt;");
-              break;
-            case ">":
-              sb.append("&gt;");
-              break;
-            case "\"":
-              sb.append("&quot;");
-              break;
-            default:
-              sb.append(s);
-              break;
-          }
-        }
-
-        @Override
-        public void replace(
-            BasedSequence original, int startIndex, int endIndex, ReplacedTextMapper textMapper) {
-          String s1 = original.subSequence(startIndex, endIndex).toString();
-          switch (s1) {
-            case "&":
-              textMapper.addReplacedText(
-                  startIndex, endIndex, PrefixedSubSequence.prefixOf("&amp;", BasedSequence.NULL));
-              break;
-            case "<":
-              textMapper.addReplacedText(
-                  startIndex, endIndex, PrefixedSubSequence.prefixOf("&lt;", BasedSequence.NULL));
-              break;
-            case ">":
-              textMapper.addReplacedText(
-                  startIndex, endIndex, PrefixedSubSequence.prefixOf("&gt;", BasedSequence.NULL));
-              break;
-            case "\"":
-              textMapper.addReplacedText(
-                  startIndex, endIndex, PrefixedSubSequence.prefixOf("&quot;", BasedSequence.NULL));
-              break;
-            default:
-              textMapper.addOriginalText(startIndex, endIndex);
-              break;
-          }
-        }
-      };
-
   private static final Replacer UNESCAPE_REPLACER =
       new Replacer() {
         @Override
@@ -198,8 +151,162 @@ public class Escaping {
   private static final CharPredicate AMP_BACKSLASH_SET = CharPredicate.anyOf('\\', '&');
 
   public static String escapeHtml(CharSequence s, boolean preserveEntities) {
-    Pattern p = preserveEntities ? XML_SPECIAL_OR_ENTITY : XML_SPECIAL_RE;
-    return replaceAll(p, s, UNSAFE_CHAR_REPLACER);
+    int index = indexOfHtmlEscape(s, 0, s.length(), preserveEntities);
+    if (index == s.length()) {
+      return String.valueOf(s);
+    }
+
+    StringBuilder sb = new StringBuilder(s.length() + 16);
+    sb.append(s, 0, index);
+    try {
+      appendHtmlEscaped(s, index, preserveEntities, sb);
+    } catch (IOException ignored) {
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Append text with HTML special characters replaced by entities, unescaped runs are appended
+   * directly from the source without intermediate strings
+   *
+   * @param s text to escape
+   * @param preserveEntities true if entities in the text are not escaped
+   * @param out appendable to receive escaped text
+   * @return out
+   */
+  public static LineAppendable escapeHtml(
+      CharSequence s, boolean preserveEntities, LineAppendable out) {
+    try {
+      escapeHtml(s, preserveEntities, (Appendable) out);
+    } catch (IOException ignored) {
+    }
+    return out;
+  }
+
+  /**
+   * Append text with HTML special characters replaced by entities, unescaped runs are appended
+   * directly from the source without intermediate strings
+   *
+   * @param s text to escape
+   * @param preserveEntities true if entities in the text are not escaped
+   * @param out appendable to receive escaped text
+   * @param <T> type of appendable
+   * @return out
+   * @throws IOException if thrown by out
+   */
+  public static <T extends Appendable> T escapeHtml(CharSequence s, boolean preserveEntities, T out)
+      throws IOException {
+    int index = indexOfHtmlEscape(s, 0, s.length(), preserveEntities);
+    if (index > 0) {
+      out.append(s, 0, index);
+    }
+    if (index < s.length()) {
+      appendHtmlEscaped(s, index, preserveEntities, out);
+    }
+    return out;
+  }
+
+  private static void appendHtmlEscaped(
+      CharSequence s, int index, boolean preserveEntities, Appendable out) throws IOException {
+    int length = s.length();
+    while (index < length) {
+      // s.charAt(index) is a char to escape
+      char c = s.charAt(index++);
+      switch (c) {
+        case '&':
+          out.append("&amp;");
+          break;
+        case '<':
+          out.append("&lt;");
+          break;
+        case '>':
+          out.append("&gt;");
+          break;
+        default:
+          out.append("&quot;");
+          break;
+      }
+
+      int next = indexOfHtmlEscape(s, index, length, preserveEntities);
+      if (next > index) {
+        out.append(s, index, next);
+      }
+      index = next;
+    }
+  }
+
+  /**
+   * @return index of first char needing escape at or after start, or end if none, an {@code &}
+   *     starting an entity does not need escape when preserving entities
+   */
+  private static int indexOfHtmlEscape(
+      CharSequence s, int start, int end, boolean preserveEntities) {
+    for (int i = start; i < end; i++) {
+      char c = s.charAt(i);
+      if (c < HTML_ESCAPE_CHARS.length && HTML_ESCAPE_CHARS[c]) {
+        if (c == '&' && preserveEntities) {
+          int entityEnd = entityEnd(s, i, end);
+          if (entityEnd > 0) {
+            i = entityEnd - 1;
+            continue;
+          }
+        }
+        return i;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Match {@link #ENTITY} case insensitively at index
+   *
+   * @param s text
+   * @param index index of {@code &}
+   * @param end end of text
+   * @return end of entity or -1 if no entity at index
+   */
+  private static int entityEnd(CharSequence s, int index, int end) {
+    int i = index + 1;
+    int maxLength;
+    boolean hex = false;
+    boolean decimal = false;
+
+    if (i < end && s.charAt(i) == '#') {
+      i++;
+      if (i < end && (s.charAt(i) == 'x' || s.charAt(i) == 'X')) {
+        i++;
+        hex = true;
+      } else {
+        decimal = true;
+      }
+      maxLength = 8;
+    } else {
+      if (i >= end || !isAsciiLetter(s.charAt(i))) return -1;
+      i++;
+      maxLength = 31;
+    }
+
+    int start = i;
+    while (i < end && i - start <= maxLength) {
+      char c = s.charAt(i);
+      boolean matches =
+          hex
+              ? isHexDigit(c)
+              : decimal ? c >= '0' && c <= '9' : isAsciiLetter(c) || c >= '0' && c <= '9';
+      if (!matches) break;
+      i++;
+    }
+
+    int length = i - start;
+    return length > 0 && length <= maxLength && i < end && s.charAt(i) == ';' ? i + 1 : -1;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+  }
+
+  private static boolean isHexDigit(char c) {
+    return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
   }
 
   /**
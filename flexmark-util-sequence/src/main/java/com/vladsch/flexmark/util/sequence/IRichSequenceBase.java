@@ -1643,6 +1643,10 @@ abstract class IRichSequenceBase<T extends IRichSequence<T>> implements IRichSeq
     int iMax = length();
     StringBuilder sb = new StringBuilder(iMax);
 
+    if (SequenceCursor.isSegmented(this)) {
+      return SequenceCursor.of(this).appendTo(sb, iMax).toString();
+    }
+
     for (int i = 0; i < iMax; i++) {
       sb.append(charAt(i));
     }
@@ -1793,6 +1797,11 @@ abstract class IRichSequenceBase<T extends IRichSequence<T>> implements IRichSeq
 
   @Override
   public final T appendTo(StringBuilder out, CharMapper charMapper, int startIndex, int endIndex) {
+    if (charMapper == null && SequenceCursor.isSegmented(this)) {
+      SequenceCursor.of(this, startIndex).appendTo(out, endIndex);
+      return (T) this;
+    }
+
     CharSequence useSequence = charMapper == null ? this : toMapped(charMapper);
     out.append(useSequence, startIndex, endIndex);
     return (T) this;
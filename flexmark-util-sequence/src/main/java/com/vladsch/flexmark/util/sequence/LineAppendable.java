@@ -611,6 +611,29 @@ public interface LineAppendable extends Appendable, Iterable<LineInfo> {
    */
   void insertLine(int lineIndex, CharSequence prefix, CharSequence text);
 
+  /**
+   * Append lines as they are, including prefixes and pre-formatted state, without applying
+   * formatting options or the current prefix.
+   *
+   * <p>If there is an accumulating line, it will be terminated by an EOL before appending lines
+   *
+   * <p>The default implementation inserts each line after the last line with its prefix and text,
+   * the pre-formatted state of the lines is not kept.
+   *
+   * @param linesInfo line info of lines to append, from this or another line appendable
+   * @return this
+   */
+  default LineAppendable appendLinesInfo(Iterable<LineInfo> linesInfo) {
+    if (getLineCountWithPending() > getLineCount()) {
+      line();
+    }
+
+    for (LineInfo info : linesInfo) {
+      insertLine(getLineCount(), info.getPrefix(), info.getText());
+    }
+    return this;
+  }
+
   LineAppendable removeLines(int startLine, int endLine);
 
   /**
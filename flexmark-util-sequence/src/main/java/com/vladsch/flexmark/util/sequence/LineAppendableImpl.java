@@ -946,6 +946,11 @@ public class LineAppendableImpl implements LineAppendable {
       lines.subList(useStartLine, useEndLine).clear();
       modificationCount++;
 
+      // pre-formatted line indices refer to lines after the removed ones
+      preFormattedFirstLine =
+          lineIndexAfterRemoval(preFormattedFirstLine, useStartLine, useEndLine);
+      preFormattedLastLine = lineIndexAfterRemoval(preFormattedLastLine, useStartLine, useEndLine);
+
       // recompute lineInfo for lines at or after the deleted lines
       return useStartLine;
     }
@@ -958,6 +963,12 @@ public class LineAppendableImpl implements LineAppendable {
     return lines.size();
   }
 
+  private static int lineIndexAfterRemoval(int lineIndex, int startLine, int endLine) {
+    return lineIndex < startLine
+        ? lineIndex
+        : lineIndex >= endLine ? lineIndex - (endLine - startLine) : -1;
+  }
+
   private void recomputeLineInfo(int startLine) {
     // recompute lineInfo for lines at or after the deleted lines
     int iMax = lines.size();
@@ -1102,6 +1113,19 @@ public class LineAppendableImpl implements LineAppendable {
     this.recomputeLineInfo(lineIndex + 1);
   }
 
+  @Override
+  public LineAppendable appendLinesInfo(Iterable<LineInfo> linesInfo) {
+    if (appendable.length() > 0) {
+      line();
+    }
+
+    for (LineInfo info : linesInfo) {
+      lines.add(LineInfo.create(getLastLineInfo(), info));
+    }
+    modificationCount++;
+    return this;
+  }
+
   private int tailBlankLinesToRemove(int endLine, int maxTrailingBlankLines) {
     return Utils.max(0, getTrailingBlankLines(endLine) - Utils.max(0, maxTrailingBlankLines));
   }
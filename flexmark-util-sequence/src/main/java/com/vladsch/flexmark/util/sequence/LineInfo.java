@@ -151,6 +151,27 @@ public final class LineInfo {
     return prefixLength + textLength;
   }
 
+  /**
+   * @return line info with the line copied to a string so it does not keep the sequences used to
+   *     build the line, this instance if line is already a string
+   */
+  public LineInfo toDetached() {
+    if (lineSeq instanceof String) return this;
+
+    return new LineInfo(
+        lineSeq.toString(),
+        index,
+        prefixLength,
+        textLength,
+        length,
+        sumPrefixLength - prefixLength,
+        sumTextLength - textLength,
+        sumLength - length,
+        isBlankPrefix(),
+        isBlankText(),
+        getPreformatted());
+  }
+
   public BasedSequence getLine() {
     return lineSeq instanceof BasedSequence ? (BasedSequence) lineSeq : BasedSequence.of(lineSeq);
   }
@@ -20,17 +20,28 @@ final class SegmentedSequenceTree extends SegmentedSequence {
       startIndex; // start index of this sub-sequence in the segment tree, 0 for original
   private final int startPos; // start position for segments of this sequence in the tree
   private final int endPos; // end position for segments of this sequence in the tree
-  private final ThreadLocal<Cache> cache = new ThreadLocal<>();
+  // last accessed segment, replaced by any thread which accesses another segment. The hint is
+  // immutable so a thread sees either null or a complete hint without synchronization.
+  private SegmentHint hint;
 
-  private static class Cache {
+  /** Immutable segment of the sequence with its character range in this sequence */
+  static final class SegmentHint {
     final Segment segment;
     final CharSequence chars;
     final int indexDelta;
+    final int startIndex; // start index of segment in this sequence, limited to sequence start
+    final int endIndex; // end index of segment in this sequence, limited to sequence end
 
-    Cache(Segment segment, CharSequence chars, int startIndex) {
+    SegmentHint(Segment segment, int sequenceStartIndex, int sequenceLength) {
       this.segment = segment;
-      this.chars = chars;
-      indexDelta = startIndex - segment.getStartIndex();
+      this.chars = segment.getCharSequence();
+      this.indexDelta = sequenceStartIndex - segment.getStartIndex();
+      this.startIndex = Math.max(0, segment.getStartIndex() - sequenceStartIndex);
+      this.endIndex = Math.min(sequenceLength, segment.getEndIndex() - sequenceStartIndex);
+    }
+
+    boolean contains(int index) {
+      return index >= startIndex && index < endIndex;
     }
 
     char charAt(int index) {
@@ -61,32 +72,40 @@ final class SegmentedSequenceTree extends SegmentedSequence {
     endPos = subSequenceRange.endPos;
   }
 
-  private Cache getCache(int index) {
-    Cache cache = this.cache.get();
+  /**
+   * @param index index in this sequence
+   * @param hint segment to search from, null to search from the sequence start or end
+   * @return segment containing the index
+   */
+  SegmentHint findSegment(int index, SegmentHint hint) {
+    Segment segment =
+        segmentTree.findSegment(
+            index + startIndex, startPos, endPos, baseSeq, hint == null ? null : hint.segment);
+    return new SegmentHint(segment, startIndex, length);
+  }
 
-    if (cache == null || cache.segment.notInSegment(index + startIndex)) {
-      Segment segment =
-          segmentTree.findSegment(
-              index + startIndex, startPos, endPos, baseSeq, cache == null ? null : cache.segment);
+  private SegmentHint getSegment(int index) {
+    SegmentHint hint = this.hint;
 
-      cache = new Cache(segment, segment.getCharSequence(), startIndex);
-      this.cache.set(cache);
+    if (hint == null || !hint.contains(index)) {
+      hint = findSegment(index, hint);
+      this.hint = hint;
     }
-    return cache;
+    return hint;
   }
 
-  private Segment getCachedSegment() {
-    Cache cache = this.cache.get();
-    return cache == null ? null : cache.segment;
+  private Segment getHintSegment() {
+    SegmentHint hint = this.hint;
+    return hint == null ? null : hint.segment;
   }
 
   @Override
   public int getIndexOffset(int index) {
     if (index == length) {
-      Cache cache = getCache(index - 1);
-      CharSequence charSequence = cache.chars;
+      SegmentHint hint = getSegment(index - 1);
+      CharSequence charSequence = hint.chars;
       if (charSequence instanceof BasedSequence) {
-        return ((BasedSequence) charSequence).getIndexOffset(cache.charIndex(index));
+        return ((BasedSequence) charSequence).getIndexOffset(hint.charIndex(index));
       }
 
       return -1;
@@ -94,10 +113,10 @@ final class SegmentedSequenceTree extends SegmentedSequence {
 
     SequenceUtils.validateIndexInclusiveEnd(index, length());
 
-    Cache cache = getCache(index);
-    CharSequence charSequence = cache.chars;
+    SegmentHint hint = getSegment(index);
+    CharSequence charSequence = hint.chars;
     if (charSequence instanceof BasedSequence) {
-      return ((BasedSequence) charSequence).getIndexOffset(cache.charIndex(index));
+      return ((BasedSequence) charSequence).getIndexOffset(hint.charIndex(index));
     }
 
     return -1;
@@ -117,7 +136,7 @@ final class SegmentedSequenceTree extends SegmentedSequence {
   @Override
   public char charAt(int index) {
     SequenceUtils.validateIndex(index, length());
-    return getCache(index).charAt(index);
+    return getSegment(index).charAt(index);
   }
 
   @Override
@@ -134,7 +153,7 @@ final class SegmentedSequenceTree extends SegmentedSequence {
             startPos,
             endPos,
             baseSeq,
-            getCachedSegment());
+            getHintSegment());
     return new SegmentedSequenceTree(baseSeq, segmentTree, subSequenceRange);
   }
 
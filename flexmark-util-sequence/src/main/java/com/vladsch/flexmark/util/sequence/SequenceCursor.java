@@ -0,0 +1,139 @@
+package com.vladsch.flexmark.util.sequence;
+
+/**
+ * Cursor for sequential and nearby reads of a character sequence.
+ *
+ * <p>For segmented sequences the cursor keeps the segment of the last read character, so reading
+ * forward or backward only looks up a segment when crossing into the next one. Other sequences are
+ * read with {@link CharSequence#charAt(int)}.
+ *
+ * <p>Not thread safe, each thread needs its own cursor. A cursor does not change the sequence it
+ * reads, any number of cursors can read the same sequence.
+ */
+public final class SequenceCursor {
+  private final CharSequence chars;
+  private final SegmentedSequenceTree segmented;
+  private final int length;
+  private SegmentedSequenceTree.SegmentHint segment;
+  private int index;
+
+  private SequenceCursor(CharSequence chars, int index) {
+    this.chars = chars;
+    this.segmented = chars instanceof SegmentedSequenceTree ? (SegmentedSequenceTree) chars : null;
+    this.length = chars.length();
+    setIndex(index);
+  }
+
+  /**
+   * @param chars sequence to read
+   * @return cursor at the start of the sequence
+   */
+  public static SequenceCursor of(CharSequence chars) {
+    return new SequenceCursor(chars, 0);
+  }
+
+  /**
+   * @param chars sequence to read
+   * @param index index of the next character to read, 0 to length of sequence
+   * @return cursor at index
+   */
+  public static SequenceCursor of(CharSequence chars, int index) {
+    return new SequenceCursor(chars, index);
+  }
+
+  /**
+   * @param chars sequence
+   * @return true if reading the sequence with a cursor is faster than reading it with charAt()
+   */
+  public static boolean isSegmented(CharSequence chars) {
+    return chars instanceof SegmentedSequenceTree;
+  }
+
+  public CharSequence getChars() {
+    return chars;
+  }
+
+  /**
+   * @return index of the character returned by the next call to {@link #next()}
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * @param index index of the next character to read, 0 to length of sequence
+   */
+  public void setIndex(int index) {
+    SequenceUtils.validateIndexInclusiveEnd(index, length);
+    this.index = index;
+  }
+
+  public boolean hasNext() {
+    return index < length;
+  }
+
+  public boolean hasPrevious() {
+    return index > 0;
+  }
+
+  /**
+   * @return character at the cursor index, the index is moved to the following character
+   */
+  public char next() {
+    return charAt(index++);
+  }
+
+  /**
+   * @return character before the cursor index, the index is moved to this character
+   */
+  public char previous() {
+    return charAt(--index);
+  }
+
+  /**
+   * Read a character without moving the cursor index, reading near the last read character is
+   * faster than reading a random index
+   *
+   * @param index index of character
+   * @return character at index
+   */
+  public char charAt(int index) {
+    if (segmented == null) {
+      return chars.charAt(index);
+    }
+
+    SegmentedSequenceTree.SegmentHint segment = this.segment;
+    if (segment == null || !segment.contains(index)) {
+      SequenceUtils.validateIndex(index, length);
+      segment = segmented.findSegment(index, segment);
+      this.segment = segment;
+    }
+    return segment.charAt(index);
+  }
+
+  /**
+   * Append characters from the cursor index up to end index, the index is moved to end index
+   *
+   * @param out string builder to append to
+   * @param endIndex end index of characters to append
+   * @return string builder
+   */
+  public StringBuilder appendTo(StringBuilder out, int endIndex) {
+    SequenceUtils.validateStartEnd(index, endIndex, length);
+
+    if (segmented == null) {
+      out.append(chars, index, endIndex);
+    } else {
+      // append the part of each segment in range in one call
+      while (index < endIndex) {
+        charAt(index);
+        int segmentEnd = Math.min(segment.endIndex, endIndex);
+        out.append(segment.chars, segment.charIndex(index), segment.charIndex(segmentEnd));
+        index = segmentEnd;
+      }
+    }
+
+    index = endIndex;
+    return out;
+  }
+}
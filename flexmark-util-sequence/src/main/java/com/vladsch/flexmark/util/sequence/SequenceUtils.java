@@ -155,6 +155,20 @@ public interface SequenceUtils {
     fromIndex = Math.max(fromIndex, 0);
     endIndex = Math.min(thizz.length(), endIndex);
 
+    if (c != NUL && c != ENC_NUL && BulkCharScanner.isScannable(thizz)) {
+      return BulkCharScanner.indexOf(thizz, c, fromIndex, endIndex);
+    }
+
+    if (SequenceCursor.isSegmented(thizz)) {
+      SequenceCursor cursor = SequenceCursor.of(thizz);
+      for (int i = fromIndex; i < endIndex; i++) {
+        if (c == cursor.charAt(i)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
     for (int i = fromIndex; i < endIndex; i++) {
       if (c == thizz.charAt(i)) {
         return i;
@@ -193,9 +207,23 @@ public interface SequenceUtils {
 
   static int lastIndexOf(CharSequence thizz, char c, int startIndex, int fromIndex) {
     fromIndex = Math.min(fromIndex, thizz.length() - 1);
+    startIndex = Math.max(startIndex, 0);
+
+    if (c != NUL && c != ENC_NUL && BulkCharScanner.isScannable(thizz)) {
+      return BulkCharScanner.lastIndexOf(thizz, c, startIndex, fromIndex);
+    }
+
     fromIndex++;
 
-    startIndex = Math.max(startIndex, 0);
+    if (SequenceCursor.isSegmented(thizz)) {
+      SequenceCursor cursor = SequenceCursor.of(thizz);
+      for (int i = fromIndex; i-- > startIndex; ) {
+        if (c == cursor.charAt(i)) {
+          return i;
+        }
+      }
+      return -1;
+    }
 
     for (int i = fromIndex; i-- > startIndex; ) {
       if (c == thizz.charAt(i)) {
@@ -209,6 +237,16 @@ public interface SequenceUtils {
     fromIndex = Math.max(fromIndex, 0);
     endIndex = Math.min(endIndex, thizz.length());
 
+    if (SequenceCursor.isSegmented(thizz)) {
+      SequenceCursor cursor = SequenceCursor.of(thizz);
+      for (int i = fromIndex; i < endIndex; i++) {
+        if (cursor.charAt(i) != c) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
     for (int i = fromIndex; i < endIndex; i++) {
       if (thizz.charAt(i) != c) {
         return i;
@@ -221,6 +259,20 @@ public interface SequenceUtils {
     fromIndex = Math.max(fromIndex, 0);
     endIndex = Math.min(endIndex, thizz.length());
 
+    if (BulkCharScanner.isScannable(thizz)) {
+      return BulkCharScanner.indexOfAny(thizz, s, fromIndex, endIndex);
+    }
+
+    if (SequenceCursor.isSegmented(thizz)) {
+      SequenceCursor cursor = SequenceCursor.of(thizz);
+      for (int i = fromIndex; i < endIndex; i++) {
+        if (s.test(cursor.charAt(i))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
     for (int i = fromIndex; i < endIndex; i++) {
       char c = thizz.charAt(i);
       if (s.test(c)) {
@@ -267,6 +319,16 @@ public interface SequenceUtils {
 
     startIndex = Math.max(startIndex, 0);
 
+    if (SequenceCursor.isSegmented(thizz)) {
+      SequenceCursor cursor = SequenceCursor.of(thizz);
+      for (int i = fromIndex; i-- > startIndex; ) {
+        if (cursor.charAt(i) != c) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
     for (int i = fromIndex; i-- > startIndex; ) {
       if (thizz.charAt(i) != c) {
         return i;
@@ -278,9 +340,23 @@ public interface SequenceUtils {
   // TEST:
   static int lastIndexOfAny(CharSequence thizz, CharPredicate s, int startIndex, int fromIndex) {
     fromIndex = Math.min(fromIndex, thizz.length() - 1);
+    startIndex = Math.max(startIndex, 0);
+
+    if (BulkCharScanner.isScannable(thizz)) {
+      return BulkCharScanner.lastIndexOfAny(thizz, s, startIndex, fromIndex);
+    }
+
     fromIndex++;
 
-    startIndex = Math.max(startIndex, 0);
+    if (SequenceCursor.isSegmented(thizz)) {
+      SequenceCursor cursor = SequenceCursor.of(thizz);
+      for (int i = fromIndex; i-- > startIndex; ) {
+        if (s.test(cursor.charAt(i))) {
+          return i;
+        }
+      }
+      return -1;
+    }
 
     for (int i = fromIndex; i-- > startIndex; ) {
       char c = thizz.charAt(i);
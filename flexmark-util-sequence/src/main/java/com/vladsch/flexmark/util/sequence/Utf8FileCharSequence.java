@@ -0,0 +1,268 @@
+package com.vladsch.flexmark.util.sequence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * CharSequence of a UTF-8 encoded file mapped into memory, characters are decoded from the mapped
+ * bytes on access so the text of the file is never held on the heap.
+ *
+ * <p>Use {@link BasedSequence#of(CharSequence)} to get a based sequence for parsing, its offsets
+ * are char offsets into this sequence and {@link #getByteOffset(int)} maps them back to file
+ * positions.
+ *
+ * <p>A sparse index records the byte offset of every {@value #BLOCK_SIZE}th character, the most
+ * recently used blocks are kept decoded. Malformed UTF-8 bytes decode to U+FFFD, one per byte.
+ * Characters are returned as decoded, NUL mapping is left to the based sequence.
+ */
+public final class Utf8FileCharSequence implements CharSequence {
+  private static final int BLOCK_SHIFT = 12;
+  private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+  private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+  private static final int DECODED_BLOCK_CACHE_SIZE = 16;
+
+  private static final int REGION_SHIFT = 30;
+  private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+  private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+  private static final class DecodedBlock {
+    final int block;
+    final char[] chars;
+
+    DecodedBlock(int block, char[] chars) {
+      this.block = block;
+      this.chars = chars;
+    }
+  }
+
+  private final ByteBuffer[] regions;
+  private final long byteLength;
+  private final int length;
+
+  // byte offset of code point containing char index block * BLOCK_SIZE, times 2 plus 1 when the
+  // char is the low surrogate of that code point
+  private final long[] blockOffsets;
+  // recently decoded blocks by block index modulo cache size, blocks are immutable with final
+  // fields so they can be shared between threads without synchronization
+  private final DecodedBlock[] decodedBlocks = new DecodedBlock[DECODED_BLOCK_CACHE_SIZE];
+
+  private Utf8FileCharSequence(ByteBuffer[] regions, long byteLength) {
+    this.regions = regions;
+    this.byteLength = byteLength;
+
+    long[] blockOffsets = new long[16];
+    int blocks = 0;
+    long charCount = 0;
+    long offset = 0;
+
+    while (offset < byteLength) {
+      int sequenceLength = sequenceLength(offset);
+      int chars = sequenceLength == 4 ? 2 : 1;
+
+      long nextBlockStart = (long) blocks << BLOCK_SHIFT;
+      if (charCount + chars > nextBlockStart) {
+        if (blocks == blockOffsets.length) {
+          blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+        }
+        blockOffsets[blocks++] = offset << 1 | (charCount < nextBlockStart ? 1 : 0);
+      }
+
+      charCount += chars;
+      offset += sequenceLength;
+    }
+
+    if (charCount > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "File text of " + charCount + " characters exceeds maximum CharSequence length");
+    }
+
+    this.length = (int) charCount;
+    this.blockOffsets = Arrays.copyOf(blockOffsets, blocks);
+  }
+
+  /**
+   * Map the file into memory and index its characters, the file should not be modified while the
+   * returned sequence is in use
+   *
+   * @param path path of UTF-8 encoded file
+   * @return char sequence of the file text
+   * @throws IOException if the file cannot be mapped
+   */
+  public static Utf8FileCharSequence of(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      ByteBuffer[] regions = new ByteBuffer[(int) ((size + REGION_MASK) >>> REGION_SHIFT)];
+      for (int i = 0; i < regions.length; i++) {
+        long position = (long) i << REGION_SHIFT;
+        regions[i] =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                position,
+                Math.min(size - position, REGION_MASK + 1));
+      }
+      // mapping remains valid after the channel is closed
+      return new Utf8FileCharSequence(regions, size);
+    }
+  }
+
+  private int byteAt(long offset) {
+    return regions[(int) (offset >>> REGION_SHIFT)].get((int) (offset & REGION_MASK)) & 0xff;
+  }
+
+  private boolean isByteInRange(long offset, int min, int max) {
+    if (offset >= byteLength) return false;
+    int b = byteAt(offset);
+    return b >= min && b <= max;
+  }
+
+  private boolean isContinuation(long offset) {
+    return isByteInRange(offset, 0x80, 0xbf);
+  }
+
+  /**
+   * Length of the well-formed UTF-8 sequence at offset, rejecting overlong forms, surrogates and
+   * code points above U+10FFFF
+   *
+   * @param offset byte offset of a lead byte
+   * @return number of bytes decoded as one unit, 4 for code points needing a surrogate pair
+   */
+  private int sequenceLength(long offset) {
+    int b = byteAt(offset);
+    if (b < 0x80) {
+      return 1;
+    } else if (b >= 0xc2 && b <= 0xdf) {
+      return isContinuation(offset + 1) ? 2 : 1;
+    } else if (b >= 0xe0 && b <= 0xef) {
+      int min = b == 0xe0 ? 0xa0 : 0x80;
+      int max = b == 0xed ? 0x9f : 0xbf;
+      return isByteInRange(offset + 1, min, max) && isContinuation(offset + 2) ? 3 : 1;
+    } else if (b >= 0xf0 && b <= 0xf4) {
+      int min = b == 0xf0 ? 0x90 : 0x80;
+      int max = b == 0xf4 ? 0x8f : 0xbf;
+      return isByteInRange(offset + 1, min, max)
+              && isContinuation(offset + 2)
+              && isContinuation(offset + 3)
+          ? 4
+          : 1;
+    }
+    return 1;
+  }
+
+  private DecodedBlock decodeBlock(int block) {
+    int blockStart = block << BLOCK_SHIFT;
+    char[] chars = new char[Math.min(BLOCK_SIZE, length - blockStart)];
+    long offset = blockOffsets[block] >>> 1;
+    int i = 0;
+
+    if ((blockOffsets[block] & 1) != 0) {
+      // block starts with the low surrogate of a code point started in the previous block
+      chars[i++] = Character.lowSurrogate(decodeCodePoint(offset, 4));
+      offset += 4;
+    }
+
+    while (i < chars.length) {
+      int sequenceLength = sequenceLength(offset);
+      int codePoint = decodeCodePoint(offset, sequenceLength);
+
+      if (sequenceLength == 4) {
+        chars[i++] = Character.highSurrogate(codePoint);
+        if (i < chars.length) chars[i++] = Character.lowSurrogate(codePoint);
+      } else {
+        chars[i++] = (char) codePoint;
+      }
+      offset += sequenceLength;
+    }
+    return new DecodedBlock(block, chars);
+  }
+
+  private int decodeCodePoint(long offset, int sequenceLength) {
+    int b = byteAt(offset);
+    switch (sequenceLength) {
+      case 1:
+        return b < 0x80 ? b : REPLACEMENT_CHAR;
+      case 2:
+        return (b & 0x1f) << 6 | byteAt(offset + 1) & 0x3f;
+      case 3:
+        return (b & 0x0f) << 12 | (byteAt(offset + 1) & 0x3f) << 6 | byteAt(offset + 2) & 0x3f;
+      default:
+        return (b & 0x07) << 18
+            | (byteAt(offset + 1) & 0x3f) << 12
+            | (byteAt(offset + 2) & 0x3f) << 6
+            | byteAt(offset + 3) & 0x3f;
+    }
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    SequenceUtils.validateIndex(index, length);
+    int block = index >>> BLOCK_SHIFT;
+    int cacheIndex = block & (DECODED_BLOCK_CACHE_SIZE - 1);
+    DecodedBlock decoded = decodedBlocks[cacheIndex];
+    if (decoded == null || decoded.block != block) {
+      decoded = decodeBlock(block);
+      decodedBlocks[cacheIndex] = decoded;
+    }
+    return decoded.chars[index & BLOCK_MASK];
+  }
+
+  /**
+   * @param index char index, may be equal to length
+   * @return byte offset in the file of the code point containing the char, for the low surrogate of
+   *     a pair this is the offset of the pair's code point
+   */
+  public long getByteOffset(int index) {
+    SequenceUtils.validateIndexInclusiveEnd(index, length);
+    if (index == length) return byteLength;
+
+    int block = index >>> BLOCK_SHIFT;
+    int charIndex = block << BLOCK_SHIFT;
+    long offset = blockOffsets[block] >>> 1;
+
+    if ((blockOffsets[block] & 1) != 0) {
+      if (index == charIndex) return offset;
+      charIndex++;
+      offset += 4;
+    }
+
+    while (true) {
+      int sequenceLength = sequenceLength(offset);
+      int chars = sequenceLength == 4 ? 2 : 1;
+      if (index < charIndex + chars) return offset;
+      charIndex += chars;
+      offset += sequenceLength;
+    }
+  }
+
+  /**
+   * @return length of the file in bytes
+   */
+  public long getByteLength() {
+    return byteLength;
+  }
+
+  @Override
+  public CharSequence subSequence(int startIndex, int endIndex) {
+    SequenceUtils.validateStartEnd(startIndex, endIndex, length);
+    StringBuilder sb = new StringBuilder(endIndex - startIndex);
+    for (int i = startIndex; i < endIndex; i++) {
+      sb.append(charAt(i));
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return subSequence(0, length).toString();
+  }
+}
@@ -5,6 +5,7 @@ import com.vladsch.flexmark.util.sequence.BasedOptionsHolder;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.Range;
 import com.vladsch.flexmark.util.sequence.SegmentedSequence;
+import java.io.IOException;
 import java.util.HashMap;
 
 /** A Builder for Segmented BasedSequences */
@@ -271,6 +272,25 @@ public class SequenceBuilder implements ISequenceBuilder<SequenceBuilder, BasedS
     return segments.length();
   }
 
+  /**
+   * Append the text of the builder to the appendable, the same text as {@link #toString()}, with
+   * chars of base ranges appended from the base sequence
+   *
+   * @param out appendable for the text
+   * @throws IOException when the appendable throws an exception
+   */
+  public void appendTo(Appendable out) throws IOException {
+    for (Object part : segments) {
+      if (part instanceof Range) {
+        out.append(baseSeq, ((Range) part).getStart(), ((Range) part).getEnd());
+      } else if (part instanceof CharSequence) {
+        out.append((CharSequence) part);
+      } else if (part != null) {
+        throw new IllegalStateException("Invalid part type " + part.getClass());
+      }
+    }
+  }
+
   public String toStringWithRanges() {
     return segments.toStringWithRangesVisibleWhitespace(baseSeq);
   }
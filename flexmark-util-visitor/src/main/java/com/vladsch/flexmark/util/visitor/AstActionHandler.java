@@ -1,5 +1,6 @@
 package com.vladsch.flexmark.util.visitor;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -19,6 +20,8 @@ public abstract class AstActionHandler<
     C extends AstActionHandler<C, N, A, H>, N, A extends AstAction, H extends AstHandler<N, A>> {
   private final Map<Class<? extends N>, H> customHandlersMap = new HashMap<>();
   private final AstNode<N> astAdapter;
+  // handlers indexed by adapter node type id, when the adapter provides ids
+  private Object[] handlersById = new Object[0];
 
   protected AstActionHandler(AstNode<N> astAdapter) {
     this.astAdapter = astAdapter;
@@ -28,22 +31,41 @@ public abstract class AstActionHandler<
   protected final C addActionHandlers(H[]... handlers) {
     for (H[] moreHandlers : handlers) {
       for (H handler : moreHandlers) {
-        customHandlersMap.put(handler.getNodeType(), handler);
+        putHandler(handler);
       }
     }
     return (C) this;
   }
 
   protected C addActionHandler(H handler) {
-    customHandlersMap.put(handler.getNodeType(), handler);
+    putHandler(handler);
     return (C) this;
   }
 
+  private void putHandler(H handler) {
+    Class<? extends N> nodeType = handler.getNodeType();
+    customHandlersMap.put(nodeType, handler);
+
+    int id = astAdapter.getNodeTypeId(nodeType);
+    if (id >= 0) {
+      if (id >= handlersById.length) {
+        handlersById = Arrays.copyOf(handlersById, Math.max(id + 1, handlersById.length * 2));
+      }
+      handlersById[id] = handler;
+    }
+  }
+
   private A getAction(H handler) {
     return handler == null ? null : handler.getAdapter();
   }
 
+  @SuppressWarnings("unchecked")
   private A getAction(N node) {
+    int id = astAdapter.getNodeTypeId(node.getClass());
+    if (id >= 0) {
+      Object[] handlers = handlersById;
+      return id < handlers.length ? getAction((H) handlers[id]) : null;
+    }
     return getAction(customHandlersMap.get(node.getClass()));
   }
 
@@ -10,4 +10,15 @@ public interface AstNode<N> {
   N getFirstChild(N node);
 
   N getNext(N node);
+
+  /**
+   * Dense id of a node type, used by {@link AstActionHandler} to index its handlers by array
+   * instead of by hash map
+   *
+   * @param nodeType node class
+   * @return non-negative id unique to the node class or -1 if the adapter does not assign ids
+   */
+  default int getNodeTypeId(Class<?> nodeType) {
+    return -1;
+  }
 }
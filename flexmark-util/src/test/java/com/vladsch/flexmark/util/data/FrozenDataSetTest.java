@@ -0,0 +1,89 @@
+package com.vladsch.flexmark.util.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class FrozenDataSetTest {
+  private static final DataKey<Integer> INT = new DataKey<>("INT", 1);
+  private static final DataKey<Integer> DERIVED = new DataKey<>("DERIVED", INT);
+  private static final DataKey<List<String>> LIST = new DataKey<>("LIST", ArrayList::new);
+  private static final DataKey<String> COMPUTED =
+      new DataKey<>("COMPUTED", "", holder -> "int=" + INT.get(holder));
+  private static final NullableDataKey<String> NULLABLE = new NullableDataKey<>("NULLABLE", "a");
+
+  @Test
+  public void test_defaults() {
+    FrozenDataSet options = FrozenDataSet.of(new MutableDataSet());
+
+    assertEquals(1, (int) INT.get(options));
+    assertEquals(1, (int) DERIVED.get(options));
+    assertEquals("int=1", COMPUTED.get(options));
+    assertEquals("a", NULLABLE.get(options));
+    assertFalse(options.contains(INT));
+    assertTrue(options.getAll().isEmpty());
+  }
+
+  @Test
+  public void test_setValues() {
+    FrozenDataSet options = FrozenDataSet.of(new MutableDataSet().set(INT, 5).set(NULLABLE, null));
+
+    assertEquals(5, (int) INT.get(options));
+    assertEquals(5, (int) DERIVED.get(options));
+    assertEquals("int=5", COMPUTED.get(options));
+    assertNull(NULLABLE.get(options));
+    assertTrue(options.contains(NULLABLE));
+    assertEquals(new MutableDataSet().set(INT, 5).set(NULLABLE, null).toImmutable(), options);
+  }
+
+  @Test
+  public void test_computedDefaultsNotShared() {
+    FrozenDataSet options = FrozenDataSet.of(new MutableDataSet());
+
+    // factory values are computed on every request and never stored
+    assertNotSame(LIST.get(options), LIST.get(options));
+    assertFalse(options.contains(LIST));
+  }
+
+  @Test
+  public void test_keyCreatedAfterFreeze() {
+    FrozenDataSet options = FrozenDataSet.of(new MutableDataSet().set(INT, 7));
+    DataKey<Integer> later = new DataKey<>("LATER", INT);
+
+    assertEquals(7, (int) later.get(options));
+  }
+
+  @Test
+  public void test_manyKeys() {
+    List<DataKey<Integer>> keys = new ArrayList<>();
+    MutableDataSet source = new MutableDataSet();
+    for (int i = 0; i < 50; i++) {
+      DataKey<Integer> key = new DataKey<>("KEY" + i, -1);
+      keys.add(key);
+      if (i % 3 != 0) source.set(key, i);
+    }
+    FrozenDataSet options = FrozenDataSet.of(source);
+
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i % 3 != 0 ? i : -1, (int) keys.get(i).get(options));
+      assertEquals(i % 3 != 0, options.contains(keys.get(i)));
+    }
+  }
+
+  @Test
+  public void test_ofFrozen() {
+    FrozenDataSet options = FrozenDataSet.of(new MutableDataSet());
+
+    assertSame(options, FrozenDataSet.of(options));
+    assertSame(options, options.toImmutable());
+    assertEquals(3, (int) INT.get(options.toMutable().set(INT, 3)));
+    assertEquals(1, (int) INT.get(options));
+  }
+}
@@ -0,0 +1,99 @@
+package com.vladsch.flexmark.util.sequence;
+
+import static org.junit.Assert.assertEquals;
+
+import com.vladsch.flexmark.util.misc.CharPredicate;
+import java.util.Random;
+import org.junit.Test;
+
+public class BulkCharScannerTest {
+  private static final String CHARS = "ab \t\n\r\0\uFFFD#";
+  private static final CharPredicate[] PREDICATES = {
+    CharPredicate.ANY_EOL,
+    CharPredicate.WHITESPACE,
+    CharPredicate.SPACE_TAB,
+    CharPredicate.anyOf('#', '\uFFFD'),
+    CharPredicate.WHITESPACE.negate(),
+  };
+
+  private static int indexOf(BasedSequence sequence, char c, int fromIndex, int endIndex) {
+    for (int i = Math.max(fromIndex, 0); i < Math.min(endIndex, sequence.length()); i++) {
+      if (sequence.charAt(i) == c) return i;
+    }
+    return -1;
+  }
+
+  private static int lastIndexOf(BasedSequence sequence, char c, int startIndex, int fromIndex) {
+    for (int i = Math.min(fromIndex, sequence.length() - 1); i >= Math.max(startIndex, 0); i--) {
+      if (sequence.charAt(i) == c) return i;
+    }
+    return -1;
+  }
+
+  private static int indexOfAny(BasedSequence sequence, CharPredicate s, int from, int end) {
+    for (int i = Math.max(from, 0); i < Math.min(end, sequence.length()); i++) {
+      if (s.test(sequence.charAt(i))) return i;
+    }
+    return -1;
+  }
+
+  private static int lastIndexOfAny(BasedSequence sequence, CharPredicate s, int start, int from) {
+    for (int i = Math.min(from, sequence.length() - 1); i >= Math.max(start, 0); i--) {
+      if (s.test(sequence.charAt(i))) return i;
+    }
+    return -1;
+  }
+
+  private static void assertSameAsCharAt(BasedSequence sequence, Random random) {
+    String message = "sequence: " + sequence.toVisibleWhitespaceString();
+    int length = sequence.length();
+    for (int n = 0; n < 20; n++) {
+      int start = random.nextInt(length + 3) - 1;
+      int end = random.nextInt(length + 3) - 1;
+
+      for (int i = 0; i < CHARS.length(); i++) {
+        char c = CHARS.charAt(i);
+        assertEquals(message, indexOf(sequence, c, start, end), sequence.indexOf(c, start, end));
+        assertEquals(
+            message, lastIndexOf(sequence, c, start, end), sequence.lastIndexOf(c, start, end));
+      }
+
+      for (CharPredicate s : PREDICATES) {
+        assertEquals(
+            message, indexOfAny(sequence, s, start, end), sequence.indexOfAny(s, start, end));
+        assertEquals(
+            message,
+            lastIndexOfAny(sequence, s, start, end),
+            sequence.lastIndexOfAny(s, start, end));
+      }
+    }
+
+    int trimStart = indexOfAny(sequence, CharPredicate.WHITESPACE.negate(), 0, length);
+    int trimEnd = lastIndexOfAny(sequence, CharPredicate.WHITESPACE.negate(), 0, length - 1) + 1;
+    assertEquals(
+        message,
+        trimStart == -1 ? "" : sequence.subSequence(trimStart, trimEnd).toString(),
+        sequence.trim().toString());
+  }
+
+  @Test
+  public void test_scansSameAsCharAt() {
+    Random random = new Random(17);
+    StringBuilder sb = new StringBuilder();
+    for (int n = 0; n < 2000; n++) {
+      sb.setLength(0);
+      int length = random.nextInt(24);
+      for (int i = 0; i < length; i++) {
+        sb.append(CHARS.charAt(random.nextInt(CHARS.length())));
+      }
+
+      String text = sb.toString();
+      int start = random.nextInt(length + 1);
+      int end = start + random.nextInt(length - start + 1);
+
+      assertSameAsCharAt(BasedSequence.of(text).subSequence(start, end), random);
+      assertSameAsCharAt(CharSubSequence.of(text).subSequence(start, end), random);
+      assertSameAsCharAt(BasedSequence.of(new StringBuilder(text)).subSequence(start, end), random);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.vladsch.flexmark.util.sequence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class EscapingTest {
+  private static final Pattern XML_SPECIAL_OR_ENTITY =
+      Pattern.compile(
+          "&(?:#x[a-f0-9]{1,8}|#\\d{1,8}|[a-z][a-z0-9]{1,31});|[&<>\"]", Pattern.CASE_INSENSITIVE);
+  private static final Pattern XML_SPECIAL = Pattern.compile("[&<>\"]");
+
+  /** regex based escaping escapeHtml used to do */
+  private static String escapeHtmlRegex(String s, boolean preserveEntities) {
+    Matcher matcher = (preserveEntities ? XML_SPECIAL_OR_ENTITY : XML_SPECIAL).matcher(s);
+    StringBuilder sb = new StringBuilder();
+    int lastEnd = 0;
+    while (matcher.find()) {
+      sb.append(s, lastEnd, matcher.start());
+      String group = matcher.group();
+      switch (group) {
+        case "&":
+          sb.append("&amp;");
+          break;
+        case "<":
+          sb.append("&lt;");
+          break;
+        case ">":
+          sb.append("&gt;");
+          break;
+        case "\"":
+          sb.append("&quot;");
+          break;
+        default:
+          sb.append(group);
+          break;
+      }
+      lastEnd = matcher.end();
+    }
+    return sb.append(s, lastEnd, s.length()).toString();
+  }
+
+  private static void assertEscaped(String s) throws IOException {
+    for (boolean preserveEntities : new boolean[] {false, true}) {
+      String expected = escapeHtmlRegex(s, preserveEntities);
+      assertEquals(s, expected, Escaping.escapeHtml(s, preserveEntities));
+      assertEquals(
+          s,
+          expected,
+          Escaping.escapeHtml(BasedSequence.of(s), preserveEntities, new StringBuilder())
+              .toString());
+
+      LineAppendableImpl appendable = new LineAppendableImpl(LineAppendable.F_FORMAT_ALL);
+      Escaping.escapeHtml(s, preserveEntities, appendable);
+      LineAppendableImpl expectedAppendable = new LineAppendableImpl(LineAppendable.F_FORMAT_ALL);
+      expectedAppendable.append(expected);
+      assertEquals(s, expectedAppendable.toString(), appendable.toString());
+    }
+  }
+
+  @Test
+  public void test_escapeHtml() throws IOException {
+    String[] sources = {
+      "",
+      "plain text",
+      "a < b > c & d \"e\"",
+      "&amp; &AMP; &#123; &#x1F600; &#X1f; &#; &#x; &#123456789; &a; &a1; &1a; &amp",
+      "&abcdefghijklmnopqrstuvwxyz012345; &abcdefghijklmnopqrstuvwxyz0123456;",
+      "&&amp;&<&#12;>",
+      "&",
+      "\"",
+    };
+
+    for (String source : sources) {
+      assertEscaped(source);
+    }
+  }
+
+  @Test
+  public void test_escapeHtmlRandom() throws IOException {
+    Random random = new Random(1);
+    String chars = "&<>\"#xXaf09;zZ ";
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      sb.setLength(0);
+      int length = random.nextInt(20);
+      for (int j = 0; j < length; j++) {
+        sb.append(chars.charAt(random.nextInt(chars.length())));
+      }
+      assertEscaped(sb.toString());
+    }
+  }
+}
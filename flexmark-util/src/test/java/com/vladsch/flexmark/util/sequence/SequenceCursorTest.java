@@ -0,0 +1,144 @@
+package com.vladsch.flexmark.util.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.vladsch.flexmark.util.misc.CharPredicate;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class SequenceCursorTest {
+  private static BasedSequence segmentedSequence() {
+    BasedSequence base =
+        BasedSequence.of(
+            BasedOptionsSequence.of(
+                "0123456789abcdefghij\nklmnop qrstuv\n",
+                BasedOptionsHolder.F_TREE_SEGMENTED_SEQUENCES));
+    return base.getBuilder()
+        .append(base.subSequence(0, 5))
+        .append("<X>")
+        .append(base.subSequence(10, 20))
+        .append("  ")
+        .append(base.subSequence(21, 34))
+        .append("\n\n")
+        .toSequence();
+  }
+
+  @Test
+  public void test_segmented() {
+    assertTrue(SequenceCursor.isSegmented(segmentedSequence()));
+    assertFalse(SequenceCursor.isSegmented(BasedSequence.of("abc")));
+  }
+
+  @Test
+  public void test_nextAndPrevious() {
+    BasedSequence sequence = segmentedSequence();
+    String text = sequence.toString();
+    assertEquals("01234<X>abcdefghij  klmnop qrstuv\n\n", text);
+
+    SequenceCursor cursor = SequenceCursor.of(sequence);
+    StringBuilder forward = new StringBuilder();
+    while (cursor.hasNext()) {
+      forward.append(cursor.next());
+    }
+    assertEquals(text, forward.toString());
+    assertEquals(text.length(), cursor.getIndex());
+
+    StringBuilder backward = new StringBuilder();
+    while (cursor.hasPrevious()) {
+      backward.append(cursor.previous());
+    }
+    assertEquals(text, backward.reverse().toString());
+    assertEquals(0, cursor.getIndex());
+  }
+
+  @Test
+  public void test_charAt() {
+    BasedSequence sequence = segmentedSequence();
+    String text = sequence.toString();
+    SequenceCursor cursor = SequenceCursor.of(sequence, 3);
+
+    Random random = new Random(1);
+    for (int i = 0; i < 1000; i++) {
+      int index = random.nextInt(text.length());
+      assertEquals(text.charAt(index), cursor.charAt(index));
+    }
+    assertEquals(3, cursor.getIndex());
+  }
+
+  @Test
+  public void test_appendTo() {
+    BasedSequence sequence = segmentedSequence();
+    String text = sequence.toString();
+
+    for (int start = 0; start <= text.length(); start++) {
+      for (int end = start; end <= text.length(); end++) {
+        StringBuilder out = new StringBuilder();
+        SequenceCursor cursor = SequenceCursor.of(sequence, start);
+        cursor.appendTo(out, end);
+        assertEquals(text.substring(start, end), out.toString());
+        assertEquals(end, cursor.getIndex());
+      }
+    }
+  }
+
+  @Test
+  public void test_subSequenceScans() {
+    BasedSequence sequence = segmentedSequence();
+    String text = sequence.toString();
+
+    for (int start = 0; start <= text.length(); start++) {
+      for (int end = start; end <= text.length(); end++) {
+        BasedSequence subSequence = sequence.subSequence(start, end);
+        String subText = text.substring(start, end);
+        String message = "[" + start + ", " + end + ")";
+
+        assertEquals(message, subText, subSequence.toString());
+        StringBuilder out = new StringBuilder();
+        subSequence.appendTo(out);
+        assertEquals(message, subText, out.toString());
+
+        for (char c : "0a <X\n q".toCharArray()) {
+          assertEquals(message, subText.indexOf(c), subSequence.indexOf(c));
+          assertEquals(message, subText.lastIndexOf(c), subSequence.lastIndexOf(c));
+        }
+
+        int nonBlank = subText.length() - subText.replaceAll("^\\s+", "").length();
+        int trailing = subText.length() - subText.replaceAll("\\s+$", "").length();
+        assertEquals(message, nonBlank, subSequence.countLeading(CharPredicate.WHITESPACE));
+        assertEquals(message, trailing, subSequence.countTrailing(CharPredicate.WHITESPACE));
+      }
+    }
+  }
+
+  @Test
+  public void test_concurrentCharAt() throws InterruptedException {
+    BasedSequence sequence = segmentedSequence();
+    String text = sequence.toString();
+    AtomicInteger mismatches = new AtomicInteger();
+
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      int seed = t;
+      threads[t] =
+          new Thread(
+              () -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 100_000; i++) {
+                  int index = random.nextInt(text.length());
+                  if (sequence.charAt(index) != text.charAt(index)) {
+                    mismatches.incrementAndGet();
+                  }
+                }
+              });
+      threads[t].start();
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, mismatches.get());
+  }
+}
@@ -0,0 +1,89 @@
+package com.vladsch.flexmark.util.sequence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class Utf8FileCharSequenceTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private Utf8FileCharSequence sequenceOf(byte[] bytes) throws IOException {
+    Path path = folder.newFile().toPath();
+    Files.write(path, bytes);
+    return Utf8FileCharSequence.of(path);
+  }
+
+  private static String randomText(int length) {
+    String[] parts = {"a", "b ", "\n", "\u00e9", "\u4e2d", "\ud83d\ude00", "\0", "# "};
+    Random random = new Random(length);
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < length) {
+      sb.append(parts[random.nextInt(parts.length)]);
+    }
+    return sb.toString();
+  }
+
+  @Test
+  public void test_empty() throws IOException {
+    Utf8FileCharSequence sequence = sequenceOf(new byte[0]);
+    assertEquals(0, sequence.length());
+    assertEquals("", sequence.toString());
+    assertEquals(0, sequence.getByteOffset(0));
+  }
+
+  @Test
+  public void test_decode() throws IOException {
+    // surrogate pairs land on block boundaries for some of these lengths
+    for (int length : new int[] {1, 100, 4095, 4096, 4097, 20000}) {
+      String text = randomText(length);
+      byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+      Utf8FileCharSequence sequence = sequenceOf(bytes);
+
+      assertEquals(text.length(), sequence.length());
+      assertEquals(text, sequence.toString());
+
+      // random access
+      Random random = new Random(length);
+      for (int i = 0; i < 1000; i++) {
+        int index = random.nextInt(text.length());
+        assertEquals("index " + index, text.charAt(index), sequence.charAt(index));
+      }
+    }
+  }
+
+  @Test
+  public void test_byteOffset() throws IOException {
+    String text = randomText(10000);
+    Utf8FileCharSequence sequence = sequenceOf(text.getBytes(StandardCharsets.UTF_8));
+
+    for (int i = 0; i <= text.length(); i++) {
+      int codePointStart =
+          i < text.length() && Character.isLowSurrogate(text.charAt(i)) ? i - 1 : i;
+      long expected = text.substring(0, codePointStart).getBytes(StandardCharsets.UTF_8).length;
+      assertEquals("index " + i, expected, sequence.getByteOffset(i));
+    }
+    assertEquals(sequence.getByteLength(), sequence.getByteOffset(text.length()));
+  }
+
+  @Test
+  public void test_malformed() throws IOException {
+    byte[] bytes = {'a', (byte) 0xc3, 'b', (byte) 0xe0, (byte) 0x80, (byte) 0x80, (byte) 0xf0};
+    Utf8FileCharSequence sequence = sequenceOf(bytes);
+    assertEquals("a\uFFFDb\uFFFD\uFFFD\uFFFD\uFFFD", sequence.toString());
+    assertEquals(6, sequence.getByteOffset(6));
+  }
+
+  @Test
+  public void test_basedSequenceNul() throws IOException {
+    BasedSequence sequence = BasedSequence.of(sequenceOf("a\0b".getBytes(StandardCharsets.UTF_8)));
+    assertEquals("a" + SequenceUtils.ENC_NUL + "b", sequence.toString());
+    assertEquals("b", sequence.subSequence(2, 3).toString());
+  }
+}
@@ -1,8 +1,21 @@
 package com.vladsch.flexmark.ast;
 
+import java.io.IOException;
+
 public interface AnchorRefTarget {
   String getAnchorRefText();
 
+  /**
+   * Append the text of {@link #getAnchorRefText()} to the appendable, implementations may append
+   * it without creating a string for it
+   *
+   * @param out appendable for the text
+   * @throws IOException when the appendable throws an exception
+   */
+  default void appendAnchorRefText(Appendable out) throws IOException {
+    out.append(getAnchorRefText());
+  }
+
   String getAnchorRefId();
 
   void setAnchorRefId(String anchorRefId);
@@ -3,7 +3,10 @@ package com.vladsch.flexmark.ast;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.BlockQuoteLike;
 import com.vladsch.flexmark.util.ast.KeepTrailingBlankLineContainer;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.function.UnaryOperator;
 
 public class BlockQuote extends Block implements BlockQuoteLike, KeepTrailingBlankLineContainer {
   private BasedSequence openingMarker = BasedSequence.NULL;
@@ -18,6 +21,24 @@ public class BlockQuote extends Block implements BlockQuoteLike, KeepTrailingBla
     return new BasedSequence[] {openingMarker};
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    openingMarker = mapper.apply(openingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(openingMarker);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    openingMarker = in.readSequence();
+  }
+
   public BlockQuote() {}
 
   @Override
@@ -1,5 +1,7 @@
 package com.vladsch.flexmark.ast;
 
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 
 public class BulletList extends ListBlock {
@@ -10,6 +12,18 @@ public class BulletList extends ListBlock {
     return EMPTY_SEGMENTS;
   }
 
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeChar(openingMarker);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    openingMarker = in.readChar();
+  }
+
   public BulletList() {}
 
   public char getOpeningMarker() {
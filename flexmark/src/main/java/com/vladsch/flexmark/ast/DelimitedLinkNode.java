@@ -1,7 +1,10 @@
 package com.vladsch.flexmark.ast;
 
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.BasedSequenceImpl;
+import java.util.function.UnaryOperator;
 
 public class DelimitedLinkNode extends LinkNode {
   protected BasedSequence openingMarker = BasedSequence.NULL;
@@ -15,6 +18,30 @@ public class DelimitedLinkNode extends LinkNode {
     return new BasedSequence[] {openingMarker, text, closingMarker};
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    openingMarker = mapper.apply(openingMarker);
+    text = mapper.apply(text);
+    closingMarker = mapper.apply(closingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(openingMarker);
+    out.writeSequence(text);
+    out.writeSequence(closingMarker);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    openingMarker = in.readSequence();
+    text = in.readSequence();
+    closingMarker = in.readSequence();
+  }
+
   @Override
   public void getAstExtra(StringBuilder out) {
     delimitedSegmentSpanChars(out, openingMarker, text, closingMarker, "text");
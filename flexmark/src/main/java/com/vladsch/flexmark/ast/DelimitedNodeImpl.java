@@ -2,7 +2,10 @@ package com.vladsch.flexmark.ast;
 
 import com.vladsch.flexmark.util.ast.DelimitedNode;
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.function.UnaryOperator;
 
 public abstract class DelimitedNodeImpl extends Node implements DelimitedNode {
   BasedSequence openingMarker = BasedSequence.NULL;
@@ -19,6 +22,30 @@ public abstract class DelimitedNodeImpl extends Node implements DelimitedNode {
     return new BasedSequence[] {openingMarker, text, closingMarker};
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    openingMarker = mapper.apply(openingMarker);
+    text = mapper.apply(text);
+    closingMarker = mapper.apply(closingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(openingMarker);
+    out.writeSequence(text);
+    out.writeSequence(closingMarker);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    openingMarker = in.readSequence();
+    text = in.readSequence();
+    closingMarker = in.readSequence();
+  }
+
   DelimitedNodeImpl() {}
 
   DelimitedNodeImpl(BasedSequence chars) {
@@ -2,8 +2,11 @@ package com.vladsch.flexmark.ast;
 
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.DoNotDecorate;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.misc.CharPredicate;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.function.UnaryOperator;
 
 public class FencedCodeBlock extends Block implements DoNotDecorate {
   private int fenceIndent;
@@ -29,6 +32,35 @@ public class FencedCodeBlock extends Block implements DoNotDecorate {
     return new BasedSequence[] {openingMarker, info, attributes, getContentChars(), closingMarker};
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    openingMarker = mapper.apply(openingMarker);
+    info = mapper.apply(info);
+    attributes = mapper.apply(attributes);
+    closingMarker = mapper.apply(closingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(openingMarker);
+    out.writeSequence(info);
+    out.writeSequence(attributes);
+    out.writeSequence(closingMarker);
+    out.writeInt(fenceIndent);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    openingMarker = in.readSequence();
+    info = in.readSequence();
+    attributes = in.readSequence();
+    closingMarker = in.readSequence();
+    fenceIndent = in.readInt();
+  }
+
   public FencedCodeBlock() {}
 
   public BasedSequence getOpeningMarker() {
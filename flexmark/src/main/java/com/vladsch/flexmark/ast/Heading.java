@@ -2,9 +2,13 @@ package com.vladsch.flexmark.ast;
 
 import com.vladsch.flexmark.html.HtmlRenderer;
 import com.vladsch.flexmark.util.ast.Block;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.ast.TextCollectingVisitor;
 import com.vladsch.flexmark.util.ast.TextContainer;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.io.IOException;
+import java.util.function.UnaryOperator;
 
 public class Heading extends Block implements AnchorRefTarget {
   private int level;
@@ -25,18 +29,54 @@ public class Heading extends Block implements AnchorRefTarget {
   }
 
   @Override
-  public String getAnchorRefText() {
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    openingMarker = mapper.apply(openingMarker);
+    text = mapper.apply(text);
+    closingMarker = mapper.apply(closingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeInt(level);
+    out.writeSequence(openingMarker);
+    out.writeSequence(text);
+    out.writeSequence(closingMarker);
+    out.writeString(anchorRefId);
+    out.writeBoolean(explicitAnchorRefId);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    level = in.readInt();
+    openingMarker = in.readSequence();
+    text = in.readSequence();
+    closingMarker = in.readSequence();
+    anchorRefId = in.readString();
+    explicitAnchorRefId = in.readBoolean();
+  }
+
+  private int anchorRefTextFlags() {
     boolean trimLeadingSpaces =
         HtmlRenderer.HEADER_ID_REF_TEXT_TRIM_LEADING_SPACES.get(getDocument());
     boolean trimTrailingSpaces =
         HtmlRenderer.HEADER_ID_REF_TEXT_TRIM_TRAILING_SPACES.get(getDocument());
 
-    return new TextCollectingVisitor()
-        .collectAndGetText(
-            this,
-            TextContainer.F_FOR_HEADING_ID
-                + (trimLeadingSpaces ? 0 : TextContainer.F_NO_TRIM_REF_TEXT_START)
-                + (trimTrailingSpaces ? 0 : TextContainer.F_NO_TRIM_REF_TEXT_END));
+    return TextContainer.F_FOR_HEADING_ID
+        + (trimLeadingSpaces ? 0 : TextContainer.F_NO_TRIM_REF_TEXT_START)
+        + (trimTrailingSpaces ? 0 : TextContainer.F_NO_TRIM_REF_TEXT_END);
+  }
+
+  @Override
+  public String getAnchorRefText() {
+    return new TextCollectingVisitor().collectAndGetText(this, anchorRefTextFlags());
+  }
+
+  @Override
+  public void appendAnchorRefText(Appendable out) throws IOException {
+    new TextCollectingVisitor().collectAndAppendTo(this, anchorRefTextFlags(), out);
   }
 
   @Override
@@ -1,6 +1,9 @@
 package com.vladsch.flexmark.ast;
 
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.function.UnaryOperator;
 
 public class Image extends InlineLinkNode {
   private BasedSequence urlContent = BasedSequence.NULL;
@@ -27,6 +30,24 @@ public class Image extends InlineLinkNode {
     };
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    urlContent = mapper.apply(urlContent);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(urlContent);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    urlContent = in.readSequence();
+  }
+
   @Override
   public void getAstExtra(StringBuilder out) {
     delimitedSegmentSpanChars(out, textOpeningMarker, text, textClosingMarker, "text");
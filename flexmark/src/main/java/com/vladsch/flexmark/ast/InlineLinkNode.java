@@ -1,6 +1,9 @@
 package com.vladsch.flexmark.ast;
 
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.function.UnaryOperator;
 
 public abstract class InlineLinkNode extends LinkNode {
   protected BasedSequence textOpeningMarker = BasedSequence.NULL;
@@ -29,6 +32,36 @@ public abstract class InlineLinkNode extends LinkNode {
     };
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    textOpeningMarker = mapper.apply(textOpeningMarker);
+    text = mapper.apply(text);
+    textClosingMarker = mapper.apply(textClosingMarker);
+    linkOpeningMarker = mapper.apply(linkOpeningMarker);
+    linkClosingMarker = mapper.apply(linkClosingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(textOpeningMarker);
+    out.writeSequence(text);
+    out.writeSequence(textClosingMarker);
+    out.writeSequence(linkOpeningMarker);
+    out.writeSequence(linkClosingMarker);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    textOpeningMarker = in.readSequence();
+    text = in.readSequence();
+    textClosingMarker = in.readSequence();
+    linkOpeningMarker = in.readSequence();
+    linkClosingMarker = in.readSequence();
+  }
+
   @Override
   public BasedSequence[] getSegmentsForChars() {
     return new BasedSequence[] {
@@ -1,7 +1,10 @@
 package com.vladsch.flexmark.ast;
 
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.function.UnaryOperator;
 
 public abstract class LinkNodeBase extends Node {
   protected BasedSequence urlOpeningMarker = BasedSequence.NULL;
@@ -20,6 +23,48 @@ public abstract class LinkNodeBase extends Node {
     super(chars);
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    urlOpeningMarker = mapper.apply(urlOpeningMarker);
+    url = mapper.apply(url);
+    pageRef = mapper.apply(pageRef);
+    anchorMarker = mapper.apply(anchorMarker);
+    anchorRef = mapper.apply(anchorRef);
+    urlClosingMarker = mapper.apply(urlClosingMarker);
+    titleOpeningMarker = mapper.apply(titleOpeningMarker);
+    title = mapper.apply(title);
+    titleClosingMarker = mapper.apply(titleClosingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(urlOpeningMarker);
+    out.writeSequence(url);
+    out.writeSequence(pageRef);
+    out.writeSequence(anchorMarker);
+    out.writeSequence(anchorRef);
+    out.writeSequence(urlClosingMarker);
+    out.writeSequence(titleOpeningMarker);
+    out.writeSequence(title);
+    out.writeSequence(titleClosingMarker);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    urlOpeningMarker = in.readSequence();
+    url = in.readSequence();
+    pageRef = in.readSequence();
+    anchorMarker = in.readSequence();
+    anchorRef = in.readSequence();
+    urlClosingMarker = in.readSequence();
+    titleOpeningMarker = in.readSequence();
+    title = in.readSequence();
+    titleClosingMarker = in.readSequence();
+  }
+
   public void setTitleChars(BasedSequence titleChars) {
     if (titleChars != null && titleChars != BasedSequence.NULL) {
       int titleCharsLength = titleChars.length();
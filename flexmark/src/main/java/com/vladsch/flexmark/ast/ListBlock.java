@@ -3,12 +3,26 @@ package com.vladsch.flexmark.ast;
 import com.vladsch.flexmark.util.ast.BlankLineContainer;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 
 public abstract class ListBlock extends Block implements BlankLineContainer {
   private boolean tight;
 
   protected ListBlock() {}
 
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeBoolean(tight);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    tight = in.readBoolean();
+  }
+
   public boolean isTight() {
     return tight;
   }
@@ -4,8 +4,11 @@ import com.vladsch.flexmark.parser.ListOptions;
 import com.vladsch.flexmark.util.ast.BlankLineContainer;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.function.UnaryOperator;
 
 public abstract class ListItem extends Block
     implements ParagraphItemContainer, BlankLineContainer, ParagraphContainer {
@@ -56,6 +59,35 @@ public abstract class ListItem extends Block
     return new BasedSequence[] {openingMarker, markerSuffix};
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    openingMarker = mapper.apply(openingMarker);
+    markerSuffix = mapper.apply(markerSuffix);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(openingMarker);
+    out.writeSequence(markerSuffix);
+    out.writeBoolean(tight);
+    out.writeBoolean(hadBlankAfterItemParagraph);
+    out.writeBoolean(containsBlankLine);
+    out.writeInt(priority);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    openingMarker = in.readSequence();
+    markerSuffix = in.readSequence();
+    tight = in.readBoolean();
+    hadBlankAfterItemParagraph = in.readBoolean();
+    containsBlankLine = in.readBoolean();
+    priority = in.readInt();
+  }
+
   public boolean canChangeMarker() {
     return true;
   }
@@ -1,5 +1,7 @@
 package com.vladsch.flexmark.ast;
 
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 
 public class OrderedList extends ListBlock {
@@ -11,6 +13,20 @@ public class OrderedList extends ListBlock {
     return EMPTY_SEGMENTS;
   }
 
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeInt(startNumber);
+    out.writeChar(delimiter);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    startNumber = in.readInt();
+    delimiter = in.readChar();
+  }
+
   public OrderedList() {}
 
   @Override
@@ -2,6 +2,8 @@ package com.vladsch.flexmark.ast;
 
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.BlockContent;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.ast.NodeVisitor;
 import com.vladsch.flexmark.util.ast.TextContainer;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
@@ -19,6 +21,22 @@ public class Paragraph extends Block implements TextContainer {
     return EMPTY_SEGMENTS;
   }
 
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeInts(lineIndents);
+    out.writeBoolean(trailingBlankLine);
+    out.writeBoolean(hasTableSeparator);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    lineIndents = in.readInts();
+    trailingBlankLine = in.readBoolean();
+    hasTableSeparator = in.readBoolean();
+  }
+
   @Override
   public void getAstExtra(StringBuilder out) {
     super.getAstExtra(out);
@@ -5,6 +5,8 @@ import com.vladsch.flexmark.parser.Parser;
 import com.vladsch.flexmark.util.ast.DoNotLinkDecorate;
 import com.vladsch.flexmark.util.ast.Document;
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.ast.NodeVisitor;
 import com.vladsch.flexmark.util.ast.ReferencingNode;
 import com.vladsch.flexmark.util.ast.TextContainer;
@@ -13,6 +15,7 @@ import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.Escaping;
 import com.vladsch.flexmark.util.sequence.ReplacedTextMapper;
 import com.vladsch.flexmark.util.sequence.builder.ISequenceBuilder;
+import java.util.function.UnaryOperator;
 
 public abstract class RefNode extends Node
     implements LinkRefDerived,
@@ -50,6 +53,41 @@ public abstract class RefNode extends Node
     };
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    textOpeningMarker = mapper.apply(textOpeningMarker);
+    text = mapper.apply(text);
+    textClosingMarker = mapper.apply(textClosingMarker);
+    referenceOpeningMarker = mapper.apply(referenceOpeningMarker);
+    reference = mapper.apply(reference);
+    referenceClosingMarker = mapper.apply(referenceClosingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(textOpeningMarker);
+    out.writeSequence(text);
+    out.writeSequence(textClosingMarker);
+    out.writeSequence(referenceOpeningMarker);
+    out.writeSequence(reference);
+    out.writeSequence(referenceClosingMarker);
+    out.writeBoolean(isDefined);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    textOpeningMarker = in.readSequence();
+    text = in.readSequence();
+    textClosingMarker = in.readSequence();
+    referenceOpeningMarker = in.readSequence();
+    reference = in.readSequence();
+    referenceClosingMarker = in.readSequence();
+    isDefined = in.readBoolean();
+  }
+
   @Override
   public void getAstExtra(StringBuilder out) {
     if (isReferenceTextCombined()) {
@@ -1,10 +1,13 @@
 package com.vladsch.flexmark.ast;
 
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeFieldReader;
+import com.vladsch.flexmark.util.ast.NodeFieldWriter;
 import com.vladsch.flexmark.util.ast.ReferenceNode;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.PrefixedSubSequence;
 import com.vladsch.flexmark.util.sequence.SequenceUtils;
+import java.util.function.UnaryOperator;
 
 public class Reference extends LinkNodeBase implements ReferenceNode<Reference, RefNode> {
   private BasedSequence openingMarker = BasedSequence.NULL;
@@ -29,6 +32,30 @@ public class Reference extends LinkNodeBase implements ReferenceNode<Reference,
     };
   }
 
+  @Override
+  public void mapSequences(UnaryOperator<BasedSequence> mapper) {
+    super.mapSequences(mapper);
+    openingMarker = mapper.apply(openingMarker);
+    reference = mapper.apply(reference);
+    closingMarker = mapper.apply(closingMarker);
+  }
+
+  @Override
+  protected void freezeFields(NodeFieldWriter out) {
+    super.freezeFields(out);
+    out.writeSequence(openingMarker);
+    out.writeSequence(reference);
+    out.writeSequence(closingMarker);
+  }
+
+  @Override
+  protected void thawFields(NodeFieldReader in) {
+    super.thawFields(in);
+    openingMarker = in.readSequence();
+    reference = in.readSequence();
+    closingMarker = in.readSequence();
+  }
+
   @Override
   public BasedSequence[] getSegmentsForChars() {
     return new BasedSequence[] {
@@ -64,6 +91,8 @@ public class Reference extends LinkNodeBase implements ReferenceNode<Reference,
     delimitedSegmentSpanChars(out, titleOpeningMarker, title, titleClosingMarker, "title");
   }
 
+  public Reference() {}
+
   public Reference(BasedSequence label, BasedSequence url, BasedSequence title) {
     super(BasedSequence.NULL);
 
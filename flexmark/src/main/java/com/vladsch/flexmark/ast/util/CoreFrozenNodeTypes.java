@@ -0,0 +1,87 @@
+package com.vladsch.flexmark.ast.util;
+
+import com.vladsch.flexmark.ast.AutoLink;
+import com.vladsch.flexmark.ast.BlockQuote;
+import com.vladsch.flexmark.ast.BulletList;
+import com.vladsch.flexmark.ast.BulletListItem;
+import com.vladsch.flexmark.ast.Code;
+import com.vladsch.flexmark.ast.CodeBlock;
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.ast.HardLineBreak;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.HtmlBlock;
+import com.vladsch.flexmark.ast.HtmlCommentBlock;
+import com.vladsch.flexmark.ast.HtmlEntity;
+import com.vladsch.flexmark.ast.HtmlInline;
+import com.vladsch.flexmark.ast.HtmlInlineComment;
+import com.vladsch.flexmark.ast.HtmlInnerBlock;
+import com.vladsch.flexmark.ast.HtmlInnerBlockComment;
+import com.vladsch.flexmark.ast.Image;
+import com.vladsch.flexmark.ast.ImageRef;
+import com.vladsch.flexmark.ast.IndentedCodeBlock;
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.LinkRef;
+import com.vladsch.flexmark.ast.MailLink;
+import com.vladsch.flexmark.ast.OrderedList;
+import com.vladsch.flexmark.ast.OrderedListItem;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.Reference;
+import com.vladsch.flexmark.ast.SoftLineBreak;
+import com.vladsch.flexmark.ast.StrongEmphasis;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.ast.TextBase;
+import com.vladsch.flexmark.ast.ThematicBreak;
+import com.vladsch.flexmark.ast.WhiteSpace;
+import com.vladsch.flexmark.util.ast.BlankLine;
+import com.vladsch.flexmark.util.ast.FrozenNodeType;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.Map;
+
+/**
+ * Frozen node types of the nodes created by core parsers, set in the parser's options as {@link
+ * com.vladsch.flexmark.util.ast.FrozenDocument#NODE_TYPES}
+ */
+public final class CoreFrozenNodeTypes {
+  public static final Map<Class<? extends Node>, FrozenNodeType<?>> NODE_TYPES =
+      FrozenNodeType.mapOf(
+          new FrozenNodeType<>(AutoLink.class, 1, AutoLink::new),
+          new FrozenNodeType<>(BlankLine.class, 1, () -> new BlankLine(BasedSequence.NULL)),
+          new FrozenNodeType<>(BlockQuote.class, 1, BlockQuote::new),
+          new FrozenNodeType<>(BulletList.class, 1, BulletList::new),
+          new FrozenNodeType<>(BulletListItem.class, 1, BulletListItem::new),
+          new FrozenNodeType<>(Code.class, 1, Code::new),
+          new FrozenNodeType<>(CodeBlock.class, 1, CodeBlock::new),
+          new FrozenNodeType<>(Emphasis.class, 1, Emphasis::new),
+          new FrozenNodeType<>(FencedCodeBlock.class, 1, FencedCodeBlock::new),
+          new FrozenNodeType<>(HardLineBreak.class, 1, HardLineBreak::new),
+          new FrozenNodeType<>(Heading.class, 1, Heading::new),
+          new FrozenNodeType<>(HtmlBlock.class, 1, HtmlBlock::new),
+          new FrozenNodeType<>(HtmlCommentBlock.class, 1, HtmlCommentBlock::new),
+          new FrozenNodeType<>(HtmlEntity.class, 1, HtmlEntity::new),
+          new FrozenNodeType<>(HtmlInline.class, 1, HtmlInline::new),
+          new FrozenNodeType<>(HtmlInlineComment.class, 1, HtmlInlineComment::new),
+          new FrozenNodeType<>(HtmlInnerBlock.class, 1, HtmlInnerBlock::new),
+          new FrozenNodeType<>(HtmlInnerBlockComment.class, 1, HtmlInnerBlockComment::new),
+          new FrozenNodeType<>(Image.class, 1, Image::new),
+          new FrozenNodeType<>(ImageRef.class, 1, ImageRef::new),
+          new FrozenNodeType<>(IndentedCodeBlock.class, 1, IndentedCodeBlock::new),
+          new FrozenNodeType<>(Link.class, 1, Link::new),
+          new FrozenNodeType<>(LinkRef.class, 1, LinkRef::new),
+          new FrozenNodeType<>(MailLink.class, 1, MailLink::new),
+          new FrozenNodeType<>(OrderedList.class, 1, OrderedList::new),
+          new FrozenNodeType<>(OrderedListItem.class, 1, OrderedListItem::new),
+          new FrozenNodeType<>(Paragraph.class, 1, Paragraph::new),
+          new FrozenNodeType<>(Reference.class, 1, Reference::new),
+          new FrozenNodeType<>(SoftLineBreak.class, 1, SoftLineBreak::new),
+          new FrozenNodeType<>(StrongEmphasis.class, 1, StrongEmphasis::new),
+          new FrozenNodeType<>(Text.class, 1, Text::new),
+          new FrozenNodeType<>(TextBase.class, 1, TextBase::new),
+          new FrozenNodeType<>(ThematicBreak.class, 1, ThematicBreak::new),
+          new FrozenNodeType<>(WhiteSpace.class, 1, WhiteSpace::new));
+
+  private CoreFrozenNodeTypes() {
+    throw new IllegalStateException();
+  }
+}
@@ -3,10 +3,9 @@ package com.vladsch.flexmark.ast.util;
 import com.vladsch.flexmark.parser.Parser;
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.misc.CharPredicate;
+import com.vladsch.flexmark.util.misc.PatternRegistry;
 import com.vladsch.flexmark.util.sequence.Escaping;
 import com.vladsch.flexmark.util.sequence.SequenceUtils;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -84,6 +83,31 @@ public class Parsing {
   public static final Pattern PUNCTUATION_OPEN = ST_PUNCTUATION_OPEN;
   public static final Pattern PUNCTUATION_CLOSE = ST_PUNCTUATION_CLOSE;
 
+  // character classes of ASCII characters, matching UNICODE_WHITESPACE_CHAR and PUNCTUATION*
+  private static final byte CHAR_WHITESPACE = 1;
+  private static final byte CHAR_PUNCTUATION = 2;
+  private static final byte CHAR_PUNCTUATION_OPEN = 4;
+  private static final byte CHAR_PUNCTUATION_CLOSE = 8;
+  private static final byte[] ASCII_CHAR_CLASS = new byte[128];
+
+  static {
+    ASCII_CHAR_CLASS[' '] = CHAR_WHITESPACE;
+    ASCII_CHAR_CLASS['\t'] = CHAR_WHITESPACE;
+    ASCII_CHAR_CLASS['\r'] = CHAR_WHITESPACE;
+    ASCII_CHAR_CLASS['\n'] = CHAR_WHITESPACE;
+    ASCII_CHAR_CLASS['\f'] = CHAR_WHITESPACE;
+
+    for (char c : "'!\"#$%&*+,-./:;=?@\\^_`|~".toCharArray()) {
+      ASCII_CHAR_CLASS[c] = CHAR_PUNCTUATION | CHAR_PUNCTUATION_OPEN | CHAR_PUNCTUATION_CLOSE;
+    }
+    for (char c : "(<[{".toCharArray()) {
+      ASCII_CHAR_CLASS[c] = CHAR_PUNCTUATION | CHAR_PUNCTUATION_OPEN;
+    }
+    for (char c : ")>]}".toCharArray()) {
+      ASCII_CHAR_CLASS[c] = CHAR_PUNCTUATION | CHAR_PUNCTUATION_CLOSE;
+    }
+  }
+
   private static final Pattern ST_ESCAPABLE = Pattern.compile('^' + Escaping.ESCAPABLE);
   private static final Pattern ST_TICKS = Pattern.compile("`+");
   private static final Pattern ST_TICKS_HERE = Pattern.compile("^`+");
@@ -435,16 +459,11 @@ public class Parsing {
     }
   }
 
-  private static final Map<String, HashMap<PatternTypeFlags, Pattern>> cachedPatterns =
-      new HashMap<>();
-
   private static Pattern getCachedPattern(
       String patternName,
       PatternTypeFlags cachedTypeFlags,
       Function<PatternTypeFlags, Pattern> factory) {
-    Map<PatternTypeFlags, Pattern> patternMap =
-        cachedPatterns.computeIfAbsent(patternName, key -> new HashMap<>());
-    return patternMap.computeIfAbsent(cachedTypeFlags, factory);
+    return PatternRegistry.getPattern(patternName, cachedTypeFlags, factory);
   }
 
   public Parsing(DataHolder options) {
@@ -493,141 +512,139 @@ public class Parsing {
     this.entityHere = intellijDummyIdentifier ? ST_ENTITY_HERE_IDI : ST_ENTITY_HERE_NO_IDI;
 
     // init dynamic patterns
-    synchronized (cachedPatterns) {
-      this.linkDestination =
-          getCachedPattern(
-              "LINK_DESTINATION",
-              patternTypeFlags.withJekyllMacroSpaceInLinkUrl(),
-              entry ->
-                  Pattern.compile(
-                      "^(?:"
-                          + (parseJekyllMacroInLinkUrl ? inBracesWSp + "|" : "")
-                          + (spaceInLinkUrl ? "(?:" + regCharSp + ")|" : regChar + "|")
-                          + ESCAPED_CHAR
-                          + "|\\\\|"
-                          + (spaceInLinkUrl ? inParensWSp : inParensNosp)
-                          + ")*"));
-
-      this.linkDestinationMatchedParens =
-          getCachedPattern(
-              "LINK_DESTINATION_MATCHED_PARENS",
-              patternTypeFlags.withJekyllMacroSpaceInLinkUrl(),
-              entry ->
-                  Pattern.compile(
-                      "^(?:"
-                          + (parseJekyllMacroInLinkUrl ? inBracesWSp + "|" : "")
-                          + (spaceInLinkUrl ? "(?:" + regCharSp + ")|" : regChar + "|")
-                          + ESCAPED_CHAR
-                          + "|\\\\|\\(|\\))*"));
-
-      this.emailAutolink =
-          getCachedPattern(
-              "EMAIL_AUTOLINK",
-              patternTypeFlags.withHtmlTranslator(),
-              entry ->
-                  Pattern.compile(
-                      "^<("
-                          + "(?:[a-zA-Z0-9"
-                          + additionalChars
-                          + ".!#$%&'*+/=?^_`{|}~-]+@[a-zA-Z0-9"
-                          + additionalChars
-                          + "](?:[a-zA-Z0-9"
-                          + additionalChars
-                          + "-]{0,61}[a-zA-Z0-9"
-                          + additionalChars
-                          + "])?(?:\\.[a-zA-Z0-9"
-                          + additionalChars
-                          + "](?:[a-zA-Z0-9"
-                          + additionalChars
-                          + "-]{0,61}[a-zA-Z0-9"
-                          + additionalChars
-                          + "])?)*)"
-                          + (htmlForTranslator ? "|(?:" + translationAutolinkTagPattern + ")" : "")
-                          + ")>"));
-
-      this.autolink =
-          getCachedPattern(
-              "AUTOLINK",
-              patternTypeFlags.withHtmlTranslator(),
-              entry ->
-                  Pattern.compile(
-                      "^<("
-                          + "(?:[a-zA-Z][a-zA-Z0-9"
-                          + additionalChars
-                          + ".+-]{1,31}:[^<>"
-                          + excluded0ToSpace
-                          + "]*)"
-                          + (htmlForTranslator ? "|(?:" + translationAutolinkTagPattern + ")" : "")
-                          + ")>"));
-
-      this.wwwAutolink =
-          getCachedPattern(
-              "WWW_AUTOLINK",
-              patternTypeFlags.withHtmlTranslator(),
-              entry ->
-                  Pattern.compile(
-                      "^<("
-                          + "(?:w"
-                          + additionalChars
-                          + "?){3,3}\\.[^<>"
-                          + excluded0ToSpace
-                          + "]*"
-                          + (htmlForTranslator ? "|(?:" + translationAutolinkTagPattern + ")" : "")
-                          + ")>"));
-
-      this.htmlTag =
-          getCachedPattern(
-              "HTML_TAG",
-              patternTypeFlags.withHtmlTranslator(),
-              entry ->
-                  Pattern.compile(
-                      '^'
-                          + ("(?:"
-                              + opentag
-                              + "|"
-                              + closetag
-                              + "|"
-                              + HTMLCOMMENT
-                              + "|"
-                              + PROCESSINGINSTRUCTION
-                              + "|"
-                              + declaration
-                              + "|"
-                              + CDATA
-                              + (htmlForTranslator
-                                  ? "|<(?:"
-                                      + translationHtmlInlineTagPattern
-                                      + ")>|</(?:"
-                                      + translationHtmlInlineTagPattern
-                                      + ")>"
-                                  : "")
-                              + ")"),
-                      Pattern.CASE_INSENSITIVE));
-
-      this.listItemMarker =
-          getCachedPattern(
-              "LIST_ITEM_MARKER",
-              patternTypeFlags.withItemPrefixChars(),
-              entry -> {
-                if (listsItemMarkerSpace) {
-                  if (listsOrderedItemDotOnly) {
-                    return Pattern.compile(
-                        "^([\\Q" + itemPrefixChars + "\\E])(?=[ \t])|^(\\d{1,9})([.])(?=[ \t])");
-                  }
-
-                  return Pattern.compile(
-                      "^([\\Q" + itemPrefixChars + "\\E])(?=[ \t])|^(\\d{1,9})([.)])(?=[ \t])");
-                }
-
+    this.linkDestination =
+        getCachedPattern(
+            "LINK_DESTINATION",
+            patternTypeFlags.withJekyllMacroSpaceInLinkUrl(),
+            entry ->
+                Pattern.compile(
+                    "^(?:"
+                        + (parseJekyllMacroInLinkUrl ? inBracesWSp + "|" : "")
+                        + (spaceInLinkUrl ? "(?:" + regCharSp + ")|" : regChar + "|")
+                        + ESCAPED_CHAR
+                        + "|\\\\|"
+                        + (spaceInLinkUrl ? inParensWSp : inParensNosp)
+                        + ")*"));
+
+    this.linkDestinationMatchedParens =
+        getCachedPattern(
+            "LINK_DESTINATION_MATCHED_PARENS",
+            patternTypeFlags.withJekyllMacroSpaceInLinkUrl(),
+            entry ->
+                Pattern.compile(
+                    "^(?:"
+                        + (parseJekyllMacroInLinkUrl ? inBracesWSp + "|" : "")
+                        + (spaceInLinkUrl ? "(?:" + regCharSp + ")|" : regChar + "|")
+                        + ESCAPED_CHAR
+                        + "|\\\\|\\(|\\))*"));
+
+    this.emailAutolink =
+        getCachedPattern(
+            "EMAIL_AUTOLINK",
+            patternTypeFlags.withHtmlTranslator(),
+            entry ->
+                Pattern.compile(
+                    "^<("
+                        + "(?:[a-zA-Z0-9"
+                        + additionalChars
+                        + ".!#$%&'*+/=?^_`{|}~-]+@[a-zA-Z0-9"
+                        + additionalChars
+                        + "](?:[a-zA-Z0-9"
+                        + additionalChars
+                        + "-]{0,61}[a-zA-Z0-9"
+                        + additionalChars
+                        + "])?(?:\\.[a-zA-Z0-9"
+                        + additionalChars
+                        + "](?:[a-zA-Z0-9"
+                        + additionalChars
+                        + "-]{0,61}[a-zA-Z0-9"
+                        + additionalChars
+                        + "])?)*)"
+                        + (htmlForTranslator ? "|(?:" + translationAutolinkTagPattern + ")" : "")
+                        + ")>"));
+
+    this.autolink =
+        getCachedPattern(
+            "AUTOLINK",
+            patternTypeFlags.withHtmlTranslator(),
+            entry ->
+                Pattern.compile(
+                    "^<("
+                        + "(?:[a-zA-Z][a-zA-Z0-9"
+                        + additionalChars
+                        + ".+-]{1,31}:[^<>"
+                        + excluded0ToSpace
+                        + "]*)"
+                        + (htmlForTranslator ? "|(?:" + translationAutolinkTagPattern + ")" : "")
+                        + ")>"));
+
+    this.wwwAutolink =
+        getCachedPattern(
+            "WWW_AUTOLINK",
+            patternTypeFlags.withHtmlTranslator(),
+            entry ->
+                Pattern.compile(
+                    "^<("
+                        + "(?:w"
+                        + additionalChars
+                        + "?){3,3}\\.[^<>"
+                        + excluded0ToSpace
+                        + "]*"
+                        + (htmlForTranslator ? "|(?:" + translationAutolinkTagPattern + ")" : "")
+                        + ")>"));
+
+    this.htmlTag =
+        getCachedPattern(
+            "HTML_TAG",
+            patternTypeFlags.withHtmlTranslator(),
+            entry ->
+                Pattern.compile(
+                    '^'
+                        + ("(?:"
+                            + opentag
+                            + "|"
+                            + closetag
+                            + "|"
+                            + HTMLCOMMENT
+                            + "|"
+                            + PROCESSINGINSTRUCTION
+                            + "|"
+                            + declaration
+                            + "|"
+                            + CDATA
+                            + (htmlForTranslator
+                                ? "|<(?:"
+                                    + translationHtmlInlineTagPattern
+                                    + ")>|</(?:"
+                                    + translationHtmlInlineTagPattern
+                                    + ")>"
+                                : "")
+                            + ")"),
+                    Pattern.CASE_INSENSITIVE));
+
+    this.listItemMarker =
+        getCachedPattern(
+            "LIST_ITEM_MARKER",
+            patternTypeFlags.withItemPrefixChars(),
+            entry -> {
+              if (listsItemMarkerSpace) {
                 if (listsOrderedItemDotOnly) {
                   return Pattern.compile(
-                      "^([\\Q" + itemPrefixChars + "\\E])(?= |\t|$)|^(\\d{1,9})([.])(?= |\t|$)");
+                      "^([\\Q" + itemPrefixChars + "\\E])(?=[ \t])|^(\\d{1,9})([.])(?=[ \t])");
                 }
 
                 return Pattern.compile(
-                    "^([\\Q" + itemPrefixChars + "\\E])(?= |\t|$)|^(\\d{1,9})([.)])(?= |\t|$)");
-              });
-    }
+                    "^([\\Q" + itemPrefixChars + "\\E])(?=[ \t])|^(\\d{1,9})([.)])(?=[ \t])");
+              }
+
+              if (listsOrderedItemDotOnly) {
+                return Pattern.compile(
+                    "^([\\Q" + itemPrefixChars + "\\E])(?= |\t|$)|^(\\d{1,9})([.])(?= |\t|$)");
+              }
+
+              return Pattern.compile(
+                  "^([\\Q" + itemPrefixChars + "\\E])(?= |\t|$)|^(\\d{1,9})([.)])(?= |\t|$)");
+            });
   }
 
   public static int columnsToNextTabStop(int column) {
@@ -647,4 +664,68 @@ public class Parsing {
   public static boolean isSpaceOrTab(CharSequence s, int index) {
     return CharPredicate.SPACE_TAB.test(SequenceUtils.safeCharAt(s, index));
   }
+
+  /**
+   * Same result as {@link #UNICODE_WHITESPACE_CHAR} matching the character, without allocation
+   *
+   * @param c character
+   * @return true if tab, CR, LF, FF or a unicode space separator
+   */
+  public static boolean isUnicodeWhitespace(char c) {
+    if (c < 128) {
+      return (ASCII_CHAR_CLASS[c] & CHAR_WHITESPACE) != 0;
+    }
+    return Character.getType(c) == Character.SPACE_SEPARATOR;
+  }
+
+  /**
+   * Same result as {@link #PUNCTUATION} matching the character, without allocation
+   *
+   * @param c character
+   * @return true if ASCII punctuation or a unicode punctuation character
+   */
+  public static boolean isPunctuation(char c) {
+    if (c < 128) {
+      return (ASCII_CHAR_CLASS[c] & CHAR_PUNCTUATION) != 0;
+    }
+
+    switch (Character.getType(c)) {
+      case Character.CONNECTOR_PUNCTUATION:
+      case Character.DASH_PUNCTUATION:
+      case Character.END_PUNCTUATION:
+      case Character.FINAL_QUOTE_PUNCTUATION:
+      case Character.INITIAL_QUOTE_PUNCTUATION:
+      case Character.OTHER_PUNCTUATION:
+      case Character.START_PUNCTUATION:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Same result as {@link #PUNCTUATION_OPEN} matching the character, without allocation
+   *
+   * <p>NOTE: the pattern only matches ASCII punctuation other than closing brackets, and so does
+   * this method
+   *
+   * @param c character
+   * @return true if ASCII punctuation which is not a closing bracket
+   */
+  public static boolean isPunctuationOpen(char c) {
+    return c < 128 && (ASCII_CHAR_CLASS[c] & CHAR_PUNCTUATION_OPEN) != 0;
+  }
+
+  /**
+   * Same result as {@link #PUNCTUATION_CLOSE} matching the character, without allocation
+   *
+   * <p>NOTE: the pattern only matches ASCII punctuation other than opening brackets, and so does
+   * this method
+   *
+   * @param c character
+   * @return true if ASCII punctuation which is not an opening bracket
+   */
+  public static boolean isPunctuationClose(char c) {
+    return c < 128 && (ASCII_CHAR_CLASS[c] & CHAR_PUNCTUATION_CLOSE) != 0;
+  }
 }
@@ -24,10 +24,12 @@ import com.vladsch.flexmark.util.ast.Document;
 import com.vladsch.flexmark.util.ast.IRender;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.NodeCollectingVisitor;
+import com.vladsch.flexmark.util.ast.NodeTypeMap;
 import com.vladsch.flexmark.util.builder.BuilderBase;
 import com.vladsch.flexmark.util.collection.SubClassingBag;
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.data.DataKey;
+import com.vladsch.flexmark.util.data.FrozenDataSet;
 import com.vladsch.flexmark.util.data.MutableDataHolder;
 import com.vladsch.flexmark.util.data.MutableDataSet;
 import com.vladsch.flexmark.util.data.NullableDataKey;
@@ -237,7 +239,7 @@ public class Formatter implements IRender {
   private final HeaderIdGeneratorFactory idGeneratorFactory;
 
   private Formatter(Builder builder) {
-    this.options = builder.toImmutable();
+    this.options = FrozenDataSet.of(builder);
     this.idGeneratorFactory =
         builder.htmlIdGeneratorFactory == null
             ? new HeaderIdGenerator.Factory()
@@ -583,7 +585,7 @@ public class Formatter implements IRender {
 
   private class MainNodeFormatter extends NodeFormatterSubContext {
     private final Document document;
-    private final Map<Class<?>, List<NodeFormattingHandler<?>>> renderers;
+    private final NodeTypeMap<List<NodeFormattingHandler<?>>> renderers;
     private final SubClassingBag<Node> collectedNodes;
 
     private final List<PhasedNodeFormatter> phasedFormatters;
@@ -614,7 +616,7 @@ public class Formatter implements IRender {
       this.options = new ScopedDataSet(document, options);
       this.formatterOptions = new FormatterOptions(this.options);
       this.document = document;
-      this.renderers = new HashMap<>(32);
+      this.renderers = new NodeTypeMap<>();
       this.renderingPhases = new HashSet<>(FormattingPhase.values().length);
       Set<Class<?>> collectNodeTypes = new HashSet<>(100);
 
@@ -663,7 +665,11 @@ public class Formatter implements IRender {
         for (NodeFormattingHandler<?> formattingHandler : formattingHandlers) {
           // Overwrite existing renderer
           List<NodeFormattingHandler<?>> rendererList =
-              renderers.computeIfAbsent(formattingHandler.getNodeType(), key -> new ArrayList<>());
+              renderers.get(formattingHandler.getNodeType());
+          if (rendererList == null) {
+            rendererList = new ArrayList<>();
+            renderers.put(formattingHandler.getNodeType(), rendererList);
+          }
           rendererList.add(0, formattingHandler);
           //                    renderers.put(nodeType.getNodeType(), nodeType);
         }
@@ -1021,7 +1027,7 @@ public class Formatter implements IRender {
                 .setPrefix(DOCUMENT_FIRST_PREFIX.get((Document) node), false)
                 .setPrefix(DOCUMENT_PREFIX.get((Document) node), true);
 
-            List<NodeFormattingHandler<?>> nodeRendererList = renderers.get(node.getClass());
+            List<NodeFormattingHandler<?>> nodeRendererList = renderers.get(node);
             if (nodeRendererList != null) {
               subContext.rendererList = nodeRendererList;
               subContext.rendererIndex = 0;
@@ -1062,7 +1068,7 @@ public class Formatter implements IRender {
             subContext.markdown.append(node.getChars());
           }
         } else {
-          List<NodeFormattingHandler<?>> nodeRendererList = renderers.get(node.getClass());
+          List<NodeFormattingHandler<?>> nodeRendererList = renderers.get(node);
 
           if (nodeRendererList == null) {
             nodeRendererList = renderers.get(Node.class);
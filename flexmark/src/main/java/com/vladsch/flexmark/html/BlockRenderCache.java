@@ -0,0 +1,239 @@
+package com.vladsch.flexmark.html;
+
+import com.vladsch.flexmark.util.sequence.LineInfo;
+import com.vladsch.flexmark.util.data.ConfigurationScope;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size bounded cache of HTML rendered for top level blocks, shared by renders of any number of
+ * documents and threads, set with {@link HtmlRenderer#BLOCK_RENDER_CACHE}.
+ *
+ * <p>Only blocks whose nodes are all rendered by {@link
+ * com.vladsch.flexmark.html.renderer.CacheableNodeRenderer cacheable} node renderers are cached.
+ * Entries are keyed by the renderer's factories and options, the {@link
+ * com.vladsch.flexmark.parser.Parser#PARSER_SCOPE parser scope} of the document, block type, block
+ * source, the document inputs used by the block and the output state before the block. Document
+ * inputs are the definitions of references used in the block and ids generated for its nodes.
+ * Renderers with the same configuration share entries, as do documents of parsers with the same
+ * extensions and options.
+ *
+ * <p>Documents without a parser scope, which were not created by a parser, are not cached.
+ * Documents whose options make a cacheable node renderer's output differ between renders, such as
+ * random email obfuscation, are not cached.
+ *
+ * <p>The cache is split into segments, each evicting its least recently used entry when full.
+ * Blocks with source longer than the maximum block length are always rendered.
+ */
+public class BlockRenderCache {
+  private static final int SEGMENT_COUNT = 16;
+  private static final int DEFAULT_MAXIMUM_BLOCK_LENGTH = 16 * 1024;
+
+  static final class Key {
+    final ConfigurationScope scope;
+    final ConfigurationScope parserScope;
+    final Class<?> blockType;
+    final String source;
+    final String inputs;
+    final int outputState;
+    final int hash;
+
+    Key(
+        ConfigurationScope scope,
+        ConfigurationScope parserScope,
+        Class<?> blockType,
+        String source,
+        String inputs,
+        int outputState) {
+      this.scope = scope;
+      this.parserScope = parserScope;
+      this.blockType = blockType;
+      this.source = source;
+      this.inputs = inputs;
+      this.outputState = outputState;
+
+      int hash = scope.hashCode();
+      hash = 31 * hash + parserScope.hashCode();
+      hash = 31 * hash + blockType.hashCode();
+      hash = 31 * hash + source.hashCode();
+      hash = 31 * hash + inputs.hashCode();
+      this.hash = 31 * hash + outputState;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (this == object) return true;
+      if (!(object instanceof Key)) return false;
+
+      Key other = (Key) object;
+      return hash == other.hash
+          && scope.equals(other.scope)
+          && parserScope.equals(other.parserScope)
+          && blockType == other.blockType
+          && outputState == other.outputState
+          && source.equals(other.source)
+          && inputs.equals(other.inputs);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private final class Segment extends LinkedHashMap<Key, LineInfo[]> {
+    private final int maximumSize;
+
+    Segment(int maximumSize) {
+      super(16, 0.75f, true);
+      this.maximumSize = maximumSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, LineInfo[]> eldest) {
+      if (size() > maximumSize) {
+        evictionCount.increment();
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private final Segment[] segments;
+  private final int maximumSize;
+  private final int maximumBlockLength;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  /**
+   * @param maximumSize maximum number of cached blocks
+   */
+  public BlockRenderCache(int maximumSize) {
+    this(maximumSize, DEFAULT_MAXIMUM_BLOCK_LENGTH);
+  }
+
+  /**
+   * @param maximumSize maximum number of cached blocks
+   * @param maximumBlockLength maximum source length of a cached block
+   */
+  public BlockRenderCache(int maximumSize, int maximumBlockLength) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive, got " + maximumSize);
+    }
+    if (maximumBlockLength < 1) {
+      throw new IllegalArgumentException(
+          "maximumBlockLength must be positive, got " + maximumBlockLength);
+    }
+
+    this.maximumSize = maximumSize;
+    this.maximumBlockLength = maximumBlockLength;
+    int segmentCount = Math.min(SEGMENT_COUNT, maximumSize);
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      // distribute remainder so segment sizes add up to maximum size
+      segments[i] =
+          new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+    }
+  }
+
+  private Segment segment(Key key) {
+    // select by high bits of the mixed hash, segment maps index their buckets by the low bits
+    long mixed = Integer.toUnsignedLong(key.hash * 0x9E3779B9);
+    return segments[(int) ((mixed * segments.length) >>> 32)];
+  }
+
+  LineInfo[] get(Key key) {
+    Segment segment = segment(key);
+    LineInfo[] lines;
+    synchronized (segment) {
+      lines = segment.get(key);
+    }
+
+    if (lines == null) {
+      missCount.increment();
+    } else {
+      hitCount.increment();
+    }
+    return lines;
+  }
+
+  /**
+   * @param key block key
+   * @param lines rendered lines of the block, must not reference the document's sequences
+   */
+  void put(Key key, LineInfo[] lines) {
+    Segment segment = segment(key);
+    synchronized (segment) {
+      segment.put(key, lines);
+    }
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public int getMaximumBlockLength() {
+    return maximumBlockLength;
+  }
+
+  /**
+   * @return number of cached blocks
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /**
+   * @return fraction of cache lookups which found rendered output, 0 if there were no lookups
+   */
+  public double getHitRate() {
+    long hits = getHitCount();
+    long lookups = hits + getMissCount();
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  /** Remove all cached blocks, counters are not reset */
+  public void clear() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BlockRenderCache{"
+        + "size="
+        + size()
+        + ", maximumSize="
+        + maximumSize
+        + ", hits="
+        + getHitCount()
+        + ", misses="
+        + getMissCount()
+        + ", evictions="
+        + getEvictionCount()
+        + '}';
+  }
+}
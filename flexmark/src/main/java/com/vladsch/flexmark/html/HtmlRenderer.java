@@ -1,8 +1,12 @@
 package com.vladsch.flexmark.html;
 
+import com.vladsch.flexmark.ast.AnchorRefTarget;
 import com.vladsch.flexmark.ast.HtmlBlock;
 import com.vladsch.flexmark.ast.HtmlInline;
+import com.vladsch.flexmark.ast.RefNode;
+import com.vladsch.flexmark.ast.Reference;
 import com.vladsch.flexmark.html.renderer.AttributablePart;
+import com.vladsch.flexmark.html.renderer.CacheableNodeRenderer;
 import com.vladsch.flexmark.html.renderer.CoreNodeRenderer;
 import com.vladsch.flexmark.html.renderer.HeaderIdGenerator;
 import com.vladsch.flexmark.html.renderer.HeaderIdGeneratorFactory;
@@ -12,16 +16,21 @@ import com.vladsch.flexmark.html.renderer.LinkType;
 import com.vladsch.flexmark.html.renderer.NodeRenderer;
 import com.vladsch.flexmark.html.renderer.NodeRendererContext;
 import com.vladsch.flexmark.html.renderer.NodeRendererFactory;
-import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
 import com.vladsch.flexmark.html.renderer.PhasedNodeRenderer;
 import com.vladsch.flexmark.html.renderer.RenderingPhase;
 import com.vladsch.flexmark.html.renderer.ResolvedLink;
+import com.vladsch.flexmark.html.renderer.SharedNodeRenderer;
+import com.vladsch.flexmark.parser.Parser;
 import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.FrozenDocument;
 import com.vladsch.flexmark.util.ast.IRender;
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.NodeTypeMap;
 import com.vladsch.flexmark.util.builder.BuilderBase;
+import com.vladsch.flexmark.util.data.ConfigurationScope;
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.data.DataKey;
+import com.vladsch.flexmark.util.data.FrozenDataSet;
 import com.vladsch.flexmark.util.data.MutableDataHolder;
 import com.vladsch.flexmark.util.data.NullableDataKey;
 import com.vladsch.flexmark.util.data.ScopedDataSet;
@@ -32,14 +41,18 @@ import com.vladsch.flexmark.util.format.TrackedOffsetUtils;
 import com.vladsch.flexmark.util.html.Attributes;
 import com.vladsch.flexmark.util.html.MutableAttributes;
 import com.vladsch.flexmark.util.misc.Extension;
+import com.vladsch.flexmark.util.misc.NestedStageTimer;
 import com.vladsch.flexmark.util.misc.Pair;
+import com.vladsch.flexmark.util.misc.StageMetrics;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.Escaping;
 import com.vladsch.flexmark.util.sequence.LineAppendable;
+import com.vladsch.flexmark.util.sequence.LineInfo;
 import com.vladsch.flexmark.util.sequence.TagRange;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -152,6 +165,48 @@ public class HtmlRenderer implements IRender {
   public static final DataKey<String> SUPPRESSED_LINKS =
       new DataKey<>("SUPPRESSED_LINKS", "javascript:.*");
   public static final DataKey<Boolean> NO_P_TAGS_USE_BR = new DataKey<>("NO_P_TAGS_USE_BR", false);
+
+  /**
+   * Create {@link SharedNodeRenderer} instances and, when all node renderers are shared, the node
+   * type dispatch table once per renderer instead of for every render
+   */
+  public static final DataKey<Boolean> SHARE_NODE_RENDERERS =
+      new DataKey<>("SHARE_NODE_RENDERERS", true);
+
+  /**
+   * Write completed lines to the output appendable after each top level block of a document instead
+   * of once rendering is complete, output is the same as for buffered rendering.
+   *
+   * <p>Buffered rendering is used when the document has tracked offsets or a phased node renderer
+   * {@link PhasedNodeRenderer#requiresBufferedOutput() requires buffered output}.
+   */
+  public static final DataKey<Boolean> STREAM_OUTPUT = new DataKey<>("STREAM_OUTPUT", false);
+
+  /**
+   * Cache of resolved links shared between renders, used when all link resolvers of the renderer
+   * are {@link LinkResolver#isDocumentIndependent() document independent}
+   */
+  public static final NullableDataKey<LinkResolverCache> LINK_RESOLVER_CACHE =
+      new NullableDataKey<>("LINK_RESOLVER_CACHE");
+
+  /**
+   * Cache of HTML rendered for top level blocks shared between renders, used for blocks rendered
+   * only by {@link CacheableNodeRenderer cacheable} node renderers when all link resolvers of the
+   * renderer are {@link LinkResolver#isDocumentIndependent() document independent}.
+   *
+   * <p>Not used with source position attributes, attribute providers other than the embedded one or
+   * tracked offsets.
+   */
+  public static final NullableDataKey<BlockRenderCache> BLOCK_RENDER_CACHE =
+      new NullableDataKey<>("BLOCK_RENDER_CACHE");
+
+  /**
+   * Listener receiving per phase and node renderer metrics of each rendered document, metrics are
+   * not collected if null
+   */
+  public static final NullableDataKey<RenderListener> RENDER_LISTENER =
+      new NullableDataKey<>("RENDER_LISTENER");
+
   private static final DataKey<Boolean> EMBEDDED_ATTRIBUTE_PROVIDER =
       new DataKey<>("EMBEDDED_ATTRIBUTE_PROVIDER", true);
 
@@ -181,11 +236,22 @@ public class HtmlRenderer implements IRender {
   private final List<DelegatingNodeRendererFactoryWrapper> nodeRendererFactories;
   private final List<LinkResolverFactory> linkResolverFactories;
   private final HeaderIdGeneratorFactory htmlIdGeneratorFactory;
+  // shared node renderers by factory index, null for ones created for each render
+  private final NodeRenderer[] sharedNodeRenderers;
+  // non-null when all node renderers are shared
+  private final NodeRendererDispatch sharedDispatch;
+  // null when rendered blocks cannot be cached for any document
+  private final BlockRenderCache blockRenderCache;
+  // link resolver cache key part for this renderer, null when links are not cached
+  private final ConfigurationScope linkCacheScope;
+  // block render cache key part for this renderer, null when blocks are not cached
+  private final ConfigurationScope blockCacheScope;
+  private final RenderListener renderListener;
   private final HtmlRendererOptions htmlOptions;
   private final DataHolder options;
 
   private HtmlRenderer(Builder builder) {
-    this.options = builder.toImmutable();
+    this.options = FrozenDataSet.of(builder);
     this.htmlOptions = new HtmlRendererOptions(this.options);
 
     this.htmlIdGeneratorFactory = builder.htmlIdGeneratorFactory;
@@ -209,6 +275,20 @@ public class HtmlRenderer implements IRender {
         DependencyResolver.resolveFlatDependencies(
             nodeRenderers, null, dependent -> dependent.getFactory().getClass());
 
+    sharedNodeRenderers = new NodeRenderer[nodeRendererFactories.size()];
+    boolean allShared = SHARE_NODE_RENDERERS.get(options);
+    if (allShared) {
+      for (int i = 0; i < sharedNodeRenderers.length; i++) {
+        NodeRenderer nodeRenderer = nodeRendererFactories.get(i).apply(options);
+        if (nodeRenderer instanceof SharedNodeRenderer) {
+          sharedNodeRenderers[i] = nodeRenderer;
+        } else {
+          allShared = false;
+        }
+      }
+    }
+    sharedDispatch = allShared ? new NodeRendererDispatch(sharedNodeRenderers) : null;
+
     // HACK: but for now works
     boolean addEmbedded =
         !builder.attributeProviderFactories.containsKey(
@@ -224,6 +304,50 @@ public class HtmlRenderer implements IRender {
         DependencyResolver.resolveFlatDependencies(values, null, null);
     this.linkResolverFactories =
         DependencyResolver.resolveFlatDependencies(builder.linkResolverFactories, null, null);
+    this.linkCacheScope =
+        LINK_RESOLVER_CACHE.get(options) == null
+            ? null
+            : renderCacheScope(options, linkResolverFactories);
+
+    // attributes from other providers and source positions are not part of the cached block key
+    boolean cacheableAttributes =
+        htmlOptions.sourcePositionAttribute.isEmpty()
+            && (attributeProviderFactories.isEmpty()
+                || attributeProviderFactories.size() == 1
+                    && attributeProviderFactories.get(0) == EmbeddedAttributeProvider.Factory);
+    this.blockRenderCache = cacheableAttributes ? BLOCK_RENDER_CACHE.get(options) : null;
+    if (blockRenderCache != null) {
+      List<Object> factories = new ArrayList<>();
+      for (DelegatingNodeRendererFactoryWrapper factory : nodeRendererFactories) {
+        factories.add(factory.getFactory());
+      }
+      factories.addAll(linkResolverFactories);
+      factories.addAll(attributeProviderFactories);
+      factories.add(htmlIdGeneratorFactory);
+      this.blockCacheScope = renderCacheScope(options, factories);
+    } else {
+      this.blockCacheScope = null;
+    }
+    this.renderListener = RENDER_LISTENER.get(options);
+  }
+
+  /**
+   * @param options renderer options
+   * @param factories factories which affect the cached values
+   * @return scope of the renderer's configuration for keys of shared caches
+   */
+  private static ConfigurationScope renderCacheScope(DataHolder options, List<?> factories) {
+    List<Object> scopeFactories = new ArrayList<>(SharedDataKeys.EXTENSIONS.get(options));
+    scopeFactories.addAll(factories);
+    return new ConfigurationScope(
+        scopeFactories,
+        options,
+        SharedDataKeys.EXTENSIONS,
+        Parser.SPECIAL_LEAD_IN_HANDLERS,
+        Parser.PARSER_SCOPE,
+        LINK_RESOLVER_CACHE,
+        BLOCK_RENDER_CACHE,
+        RENDER_LISTENER);
   }
 
   /**
@@ -268,6 +392,15 @@ public class HtmlRenderer implements IRender {
    * @param output appendable to use for the output
    */
   private void render(Node node, Appendable output, int maxTrailingBlankLines) {
+    RenderMetrics metrics = null;
+    long startAllocatedBytes = 0;
+    long startNanos = 0;
+    if (renderListener != null && node instanceof Document) {
+      metrics = new RenderMetrics();
+      startAllocatedBytes = StageMetrics.threadAllocatedBytes();
+      startNanos = System.nanoTime();
+    }
+
     HtmlWriter htmlWriter =
         new HtmlWriter(
             output,
@@ -276,10 +409,23 @@ public class HtmlRenderer implements IRender {
             !htmlOptions.htmlBlockOpenTagEol,
             !htmlOptions.htmlBlockCloseTagEol);
     MainNodeRenderer renderer = new MainNodeRenderer(options, htmlWriter, node.getDocument());
+    renderer.renderMetrics = metrics;
     if (renderer.htmlIdGenerator != HtmlIdGenerator.NULL && !(node instanceof Document)) {
       renderer.htmlIdGenerator.generateIds(node.getDocument());
     }
 
+    if (node instanceof Document
+        && STREAM_OUTPUT.get(options)
+        && TRACKED_OFFSETS.get(renderer.getDocument()).isEmpty()) {
+      renderer.streamOutput = output;
+      for (PhasedNodeRenderer phasedRenderer : renderer.phasedRenderers) {
+        if (phasedRenderer.requiresBufferedOutput()) {
+          renderer.streamOutput = null;
+          break;
+        }
+      }
+    }
+
     renderer.render(node);
     htmlWriter.appendToSilently(output, htmlOptions.maxBlankLines, maxTrailingBlankLines);
 
@@ -291,6 +437,11 @@ public class HtmlRenderer implements IRender {
         maxTrailingBlankLines,
         SharedDataKeys.RUNNING_TESTS.get(options));
     renderer.dispose();
+
+    if (metrics != null) {
+      metrics.getTotal().add(startNanos, startAllocatedBytes);
+      renderListener.documentRendered((Document) node, metrics);
+    }
   }
 
   /**
@@ -306,6 +457,28 @@ public class HtmlRenderer implements IRender {
     return sb.toString();
   }
 
+  /**
+   * Render a frozen document to the appendable, the document's nodes are created for the render
+   *
+   * @param document frozen document to render
+   * @param output appendable to use for the output
+   */
+  public void render(FrozenDocument document, Appendable output) {
+    render(document.toDocument(), output);
+  }
+
+  /**
+   * Render a frozen document to HTML, the document's nodes are created for the render
+   *
+   * @param document frozen document to render
+   * @return the rendered HTML.
+   */
+  public String render(FrozenDocument document) {
+    StringBuilder sb = new StringBuilder();
+    render(document, sb);
+    return sb.toString();
+  }
+
   private static boolean isCompatibleRendererType(
       MutableDataHolder options, String rendererType, String supportedRendererType) {
     if (rendererType.equals(supportedRendererType)) {
@@ -543,7 +716,7 @@ public class HtmlRenderer implements IRender {
 
   private class MainNodeRenderer extends NodeRendererSubContext implements Disposable {
     private Document document;
-    private Map<Class<?>, NodeRenderingHandlerWrapper> renderers;
+    private NodeTypeMap<NodeRenderingHandlerWrapper> renderers;
     private List<PhasedNodeRenderer> phasedRenderers;
     private LinkResolver[] myLinkResolvers;
     private Set<RenderingPhase> renderingPhases;
@@ -551,7 +724,23 @@ public class HtmlRenderer implements IRender {
     private RenderingPhase phase;
     HtmlIdGenerator htmlIdGenerator;
     private Map<LinkType, HashMap<String, ResolvedLink>> resolvedLinkMap = new HashMap<>();
+    // values of getRenderData() for this render
+    private Map<DataKey<?>, Object> renderData;
+    // last key passed to getRenderData() and its value, renderers ask for the same key per node
+    private DataKey<?> lastRenderDataKey;
+    private Object lastRenderData;
+    // shared cache of links resolved for other documents, null if links are not shared
+    private final LinkResolverCache linkResolverCache;
+    // shared cache of top level blocks rendered for other documents, null if not cached
+    private final BlockRenderCache blockRenderCache;
+    // scope of the parser of the document, part of block cache keys
+    private final ConfigurationScope parserScope;
     private AttributeProvider[] attributeProviders;
+    // output to which completed top level blocks are written, null when buffering all output
+    Appendable streamOutput;
+    // metrics of the rendered document, null when not collected
+    RenderMetrics renderMetrics;
+    private NestedStageTimer nodeRendererTimer;
 
     @Override
     public void dispose() {
@@ -570,6 +759,9 @@ public class HtmlRenderer implements IRender {
       if (htmlIdGenerator instanceof Disposable) ((Disposable) htmlIdGenerator).dispose();
       htmlIdGenerator = null;
       resolvedLinkMap = null;
+      renderData = null;
+      lastRenderDataKey = null;
+      lastRenderData = null;
 
       for (AttributeProvider attributeProvider : attributeProviders) {
         if (attributeProvider instanceof Disposable) ((Disposable) attributeProvider).dispose();
@@ -581,9 +773,6 @@ public class HtmlRenderer implements IRender {
       super(htmlWriter);
       this.options = new ScopedDataSet(document, options);
       this.document = document;
-      this.renderers = new HashMap<>(32);
-      this.renderingPhases = new HashSet<>(RenderingPhase.values().length);
-      this.phasedRenderers = new ArrayList<>(nodeRendererFactories.size());
       this.myLinkResolvers = new LinkResolver[linkResolverFactories.size()];
       this.doNotRenderLinksNesting = htmlOptions.doNotRenderLinksInDocument ? 0 : 1;
       this.htmlIdGenerator =
@@ -595,30 +784,46 @@ public class HtmlRenderer implements IRender {
 
       htmlWriter.setContext(this);
 
-      for (int i = nodeRendererFactories.size() - 1; i >= 0; i--) {
-        NodeRendererFactory nodeRendererFactory = nodeRendererFactories.get(i);
-        NodeRenderer nodeRenderer = nodeRendererFactory.apply(this.getOptions());
-        Set<NodeRenderingHandler<?>> renderingHandlers = nodeRenderer.getNodeRenderingHandlers();
-
-        for (NodeRenderingHandler<?> nodeType : renderingHandlers) {
-          // Overwrite existing renderer
-          NodeRenderingHandlerWrapper handlerWrapper =
-              new NodeRenderingHandlerWrapper(nodeType, renderers.get(nodeType.getNodeType()));
-          renderers.put(nodeType.getNodeType(), handlerWrapper);
-        }
-
-        if (nodeRenderer instanceof PhasedNodeRenderer) {
-          Set<RenderingPhase> renderingPhases =
-              ((PhasedNodeRenderer) nodeRenderer).getRenderingPhases();
-
-          this.renderingPhases.addAll(renderingPhases);
-          this.phasedRenderers.add((PhasedNodeRenderer) nodeRenderer);
+      NodeRendererDispatch dispatch = sharedDispatch;
+      if (dispatch == null) {
+        NodeRenderer[] nodeRenderers = new NodeRenderer[nodeRendererFactories.size()];
+        for (int i = nodeRenderers.length - 1; i >= 0; i--) {
+          nodeRenderers[i] =
+              sharedNodeRenderers[i] != null
+                  ? sharedNodeRenderers[i]
+                  : nodeRendererFactories.get(i).apply(this.getOptions());
         }
+        dispatch = new NodeRendererDispatch(nodeRenderers);
       }
 
+      this.renderers = dispatch.renderers;
+      this.phasedRenderers = dispatch.phasedRenderers;
+      this.renderingPhases = dispatch.renderingPhases;
+
+      LinkResolverCache linkResolverCache = LINK_RESOLVER_CACHE.get(HtmlRenderer.this.options);
+      // documents with unknown parser configuration may parse the same source to other nodes
+      this.parserScope = Parser.PARSER_SCOPE.get(document);
+      BlockRenderCache blockRenderCache =
+          TRACKED_OFFSETS.get(document).isEmpty() && parserScope != null
+              ? HtmlRenderer.this.blockRenderCache
+              : null;
       for (int i = 0; i < linkResolverFactories.size(); i++) {
         myLinkResolvers[i] = linkResolverFactories.get(i).apply(this);
+        if (!myLinkResolvers[i].isDocumentIndependent()) {
+          linkResolverCache = null;
+          blockRenderCache = null;
+        }
+      }
+      if (blockRenderCache != null) {
+        for (CacheableNodeRenderer nodeRenderer : dispatch.cacheableRenderers) {
+          if (!nodeRenderer.isCacheable(this.options)) {
+            blockRenderCache = null;
+            break;
+          }
+        }
       }
+      this.linkResolverCache = linkResolverCache;
+      this.blockRenderCache = blockRenderCache;
 
       this.attributeProviders = new AttributeProvider[attributeProviderFactories.size()];
       for (int i = 0; i < attributeProviderFactories.size(); i++) {
@@ -631,6 +836,24 @@ public class HtmlRenderer implements IRender {
       return renderingNode;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getRenderData(DataKey<T> key) {
+      if (key == lastRenderDataKey) {
+        return (T) lastRenderData;
+      }
+
+      if (renderData == null) renderData = new HashMap<>();
+      Object value = renderData.get(key);
+      if (value == null && !renderData.containsKey(key)) {
+        value = key.get(options);
+        renderData.put(key, value);
+      }
+      lastRenderDataKey = key;
+      lastRenderData = value;
+      return (T) value;
+    }
+
     @Override
     public ResolvedLink resolveLink(
         LinkType linkType, CharSequence url, Attributes attributes, Boolean urlEncode) {
@@ -640,21 +863,34 @@ public class HtmlRenderer implements IRender {
       String urlSeq = String.valueOf(url);
       ResolvedLink resolvedLink = resolvedLinks.get(urlSeq);
       if (resolvedLink == null) {
-        resolvedLink = new ResolvedLink(linkType, urlSeq, attributes);
+        boolean encodeUrl = urlEncode == null ? htmlOptions.percentEncodeUrls : urlEncode;
+        // links with attributes are specific to the node
+        boolean shared = linkResolverCache != null && attributes == null && !urlSeq.isEmpty();
 
-        if (!urlSeq.isEmpty()) {
-          Node currentNode = getCurrentNode();
+        if (shared) {
+          resolvedLink = linkResolverCache.get(linkCacheScope, linkType, urlSeq, encodeUrl);
+        }
+
+        if (resolvedLink == null) {
+          resolvedLink = new ResolvedLink(linkType, urlSeq, attributes);
+
+          if (!urlSeq.isEmpty()) {
+            Node currentNode = getCurrentNode();
+
+            for (LinkResolver linkResolver : myLinkResolvers) {
+              resolvedLink = linkResolver.resolveLink(currentNode, this, resolvedLink);
+              if (resolvedLink.getStatus() != LinkStatus.UNKNOWN) {
+                break;
+              }
+            }
 
-          for (LinkResolver linkResolver : myLinkResolvers) {
-            resolvedLink = linkResolver.resolveLink(currentNode, this, resolvedLink);
-            if (resolvedLink.getStatus() != LinkStatus.UNKNOWN) {
-              break;
+            if (encodeUrl) {
+              resolvedLink = resolvedLink.withUrl(Escaping.percentEncodeUrl(resolvedLink.getUrl()));
             }
           }
 
-          if (urlEncode == null && htmlOptions.percentEncodeUrls
-              || urlEncode != null && urlEncode) {
-            resolvedLink = resolvedLink.withUrl(Escaping.percentEncodeUrl(resolvedLink.getUrl()));
+          if (shared) {
+            linkResolverCache.put(linkCacheScope, linkType, urlSeq, encodeUrl, resolvedLink);
           }
         }
 
@@ -750,7 +986,7 @@ public class HtmlRenderer implements IRender {
           NodeRenderingHandlerWrapper prevWrapper = subContext.renderingHandlerWrapper;
           try {
             subContext.renderingHandlerWrapper = nodeRenderer;
-            nodeRenderer.myRenderingHandler.render(oldNode, subContext, subContext.htmlWriter);
+            renderByHandler(nodeRenderer, oldNode, subContext);
           } finally {
             subContext.renderingNode = oldNode;
             subContext.doNotRenderLinksNesting = oldDoNotRenderLinksNesting;
@@ -790,28 +1026,44 @@ public class HtmlRenderer implements IRender {
           }
           this.phase = phase;
           // here we render multiple phases
+          long phaseStartAllocatedBytes = 0;
+          long phaseStartNanos = 0;
+          if (renderMetrics != null) {
+            phaseStartAllocatedBytes = StageMetrics.threadAllocatedBytes();
+            phaseStartNanos = System.nanoTime();
+          }
 
           // go through all renderers that want this phase
           for (PhasedNodeRenderer phasedRenderer : phasedRenderers) {
             if (Objects.requireNonNull(phasedRenderer.getRenderingPhases()).contains(phase)) {
               subContext.doNotRenderLinksNesting = documentDoNotRenderLinksNesting;
               subContext.renderingNode = node;
-              phasedRenderer.renderDocument(
-                  subContext, subContext.htmlWriter, (Document) node, phase);
+              if (renderMetrics == null) {
+                phasedRenderer.renderDocument(
+                    subContext, subContext.htmlWriter, (Document) node, phase);
+              } else {
+                nodeRendererTimer().start();
+                try {
+                  phasedRenderer.renderDocument(
+                      subContext, subContext.htmlWriter, (Document) node, phase);
+                } finally {
+                  nodeRendererTimer.stop(renderMetrics.nodeRenderer(phasedRenderer));
+                }
+              }
               subContext.renderingNode = null;
               subContext.doNotRenderLinksNesting = oldDoNotRenderLinksNesting;
             }
           }
 
           if (getRenderingPhase() == RenderingPhase.BODY) {
-            NodeRenderingHandlerWrapper nodeRenderer = renderers.get(node.getClass());
+            NodeRenderingHandlerWrapper nodeRenderer = renderers.get(node);
             if (nodeRenderer != null) {
               subContext.doNotRenderLinksNesting = documentDoNotRenderLinksNesting;
               NodeRenderingHandlerWrapper prevWrapper = subContext.renderingHandlerWrapper;
               try {
                 subContext.renderingNode = node;
                 subContext.renderingHandlerWrapper = nodeRenderer;
-                nodeRenderer.myRenderingHandler.render(node, subContext, subContext.htmlWriter);
+                renderByHandler(nodeRenderer, node, subContext);
               } finally {
                 subContext.renderingHandlerWrapper = prevWrapper;
                 subContext.renderingNode = null;
@@ -819,9 +1071,13 @@ public class HtmlRenderer implements IRender {
               }
             }
           }
+
+          if (renderMetrics != null) {
+            renderMetrics.phase(phase).add(phaseStartNanos, phaseStartAllocatedBytes);
+          }
         }
       } else {
-        NodeRenderingHandlerWrapper nodeRenderer = renderers.get(node.getClass());
+        NodeRenderingHandlerWrapper nodeRenderer = renderers.get(node);
         if (nodeRenderer != null) {
           Node oldNode = this.renderingNode;
           int oldDoNotRenderLinksNesting = subContext.doNotRenderLinksNesting;
@@ -829,7 +1085,7 @@ public class HtmlRenderer implements IRender {
           try {
             subContext.renderingNode = node;
             subContext.renderingHandlerWrapper = nodeRenderer;
-            nodeRenderer.myRenderingHandler.render(node, subContext, subContext.htmlWriter);
+            renderByHandler(nodeRenderer, node, subContext);
           } finally {
             subContext.renderingNode = oldNode;
             subContext.doNotRenderLinksNesting = oldDoNotRenderLinksNesting;
@@ -839,20 +1095,166 @@ public class HtmlRenderer implements IRender {
       }
     }
 
+    private void renderByHandler(
+        NodeRenderingHandlerWrapper nodeRenderer, Node node, NodeRendererSubContext subContext) {
+      if (renderMetrics == null) {
+        nodeRenderer.myRenderingHandler.render(node, subContext, subContext.htmlWriter);
+        return;
+      }
+
+      nodeRendererTimer().start();
+      try {
+        nodeRenderer.myRenderingHandler.render(node, subContext, subContext.htmlWriter);
+      } finally {
+        nodeRendererTimer.stop(renderMetrics.nodeRenderer(nodeRenderer.nodeRenderer));
+      }
+    }
+
+    private NestedStageTimer nodeRendererTimer() {
+      if (nodeRendererTimer == null) nodeRendererTimer = new NestedStageTimer();
+      return nodeRendererTimer;
+    }
+
     @Override
     public void renderChildren(Node parent) {
       renderChildrenNode(parent, this);
     }
 
     protected void renderChildrenNode(Node parent, NodeRendererSubContext subContext) {
+      boolean topLevelBlocks =
+          subContext == this && parent instanceof Document && phase == RenderingPhase.BODY;
+      boolean streamBlocks = streamOutput != null && topLevelBlocks;
+      boolean cacheBlocks = blockRenderCache != null && topLevelBlocks;
+
       Node node = parent.getFirstChild();
       while (node != null) {
         Node next = node.getNext();
-        renderNode(node, subContext);
+        if (cacheBlocks) {
+          renderCachedBlock(node);
+        } else {
+          renderNode(node, subContext);
+        }
+        if (streamBlocks) writeCompletedLines();
         node = next;
       }
     }
 
+    /**
+     * Render a top level block or append its lines from the block render cache if a block with the
+     * same key was rendered before
+     */
+    private void renderCachedBlock(Node node) {
+      BlockRenderCache.Key key = cachedBlockKey(node);
+      if (key == null) {
+        renderNode(node, this);
+        return;
+      }
+
+      LineInfo[] lines = blockRenderCache.get(key);
+      if (lines != null) {
+        htmlWriter.appendLinesInfo(Arrays.asList(lines));
+        return;
+      }
+
+      int startLine = htmlWriter.getLineCount();
+      renderNode(node, this);
+
+      // only a block which leaves no pending text can be appended as lines
+      if (isAtLineStart()) {
+        int endLine = htmlWriter.getLineCount();
+        lines = new LineInfo[endLine - startLine];
+        for (int i = startLine; i < endLine; i++) {
+          lines[i - startLine] = htmlWriter.getLineInfo(i).toDetached();
+        }
+        blockRenderCache.put(key, lines);
+      }
+    }
+
+    private boolean isAtLineStart() {
+      return !htmlWriter.isPreFormatted()
+          && htmlWriter.getLineCountWithPending() == htmlWriter.getLineCount()
+          && htmlWriter.getPrefix().isEmpty();
+    }
+
+    /**
+     * @return cache key for the block, null if the block cannot be cached
+     */
+    private BlockRenderCache.Key cachedBlockKey(Node node) {
+      if (!isAtLineStart() || node.getTextLength() > blockRenderCache.getMaximumBlockLength()) {
+        return null;
+      }
+
+      StringBuilder inputs = new StringBuilder();
+      if (!appendCachedBlockInputs(node, inputs)) return null;
+      for (Node descendant : node.getDescendants()) {
+        if (!appendCachedBlockInputs(descendant, inputs)) return null;
+      }
+
+      // blank lines added by the block depend on whether there is a preceding blank line
+      int lineCount = htmlWriter.getLineCount();
+      int outputState =
+          lineCount == 0 ? 0 : htmlWriter.getTrailingBlankLines(lineCount) > 0 ? 1 : 2;
+      // include indent before the block's first line, it is not part of the chars of some blocks
+      BasedSequence baseSequence = node.getChars().getBaseSequence();
+      int startOffset = baseSequence.startOfLineAnyEOL(node.getStartOffset());
+      String source = baseSequence.subSequence(startOffset, node.getEndOffset()).toString();
+      return new BlockRenderCache.Key(
+          blockCacheScope, parserScope, node.getClass(), source, inputs.toString(), outputState);
+    }
+
+    /**
+     * Append document data used to render the node to block inputs
+     *
+     * @param node node to check
+     * @param inputs block inputs
+     * @return false if the node is not rendered by a cacheable node renderer or has attributes not
+     *     in its source
+     */
+    private boolean appendCachedBlockInputs(Node node, StringBuilder inputs) {
+      NodeRenderingHandlerWrapper nodeRenderer = renderers.get(node);
+      if (nodeRenderer != null && !nodeRenderer.isCacheable
+          || node instanceof EmbeddedAttributeProvider.EmbeddedNodeAttributes) {
+        return false;
+      }
+
+      if (node instanceof RefNode) {
+        Reference reference = ((RefNode) node).getReferenceNode(document);
+        inputs.append('[');
+        if (reference != null) inputs.append(reference.getChars());
+        inputs.append('\0');
+      }
+
+      if (node instanceof AnchorRefTarget) {
+        String id = htmlIdGenerator.getId(node);
+        inputs.append('#');
+        if (id != null) inputs.append(id);
+        inputs.append('\0');
+      }
+      return true;
+    }
+
+    /**
+     * Write and remove completed lines from the html writer. The last non-blank line and blank
+     * lines around it are kept so that blank line limits and trailing blank lines are applied the
+     * same as when all output is written at once.
+     */
+    private void writeCompletedLines() {
+      if (htmlWriter.isPreFormatted()
+          || htmlWriter.getLineCountWithPending() != htmlWriter.getLineCount()) {
+        return;
+      }
+
+      int lineCount = htmlWriter.getLineCount();
+      int lastNonBlankLine = lineCount - htmlWriter.getTrailingBlankLines(lineCount) - 1;
+      if (lastNonBlankLine <= 0) return;
+
+      int endLine = lastNonBlankLine - htmlWriter.getTrailingBlankLines(lastNonBlankLine);
+      if (endLine <= 0) return;
+
+      htmlWriter.appendToSilently(streamOutput, htmlOptions.maxBlankLines, 0, 0, endLine);
+      htmlWriter.removeLines(0, endLine);
+    }
+
     private class SubNodeRenderer extends NodeRendererSubContext {
       private final MainNodeRenderer myMainNodeRenderer;
 
@@ -878,6 +1280,11 @@ public class HtmlRenderer implements IRender {
         return myMainNodeRenderer.getOptions();
       }
 
+      @Override
+      public <T> T getRenderData(DataKey<T> key) {
+        return myMainNodeRenderer.getRenderData(key);
+      }
+
       @Override
       public HtmlRendererOptions getHtmlOptions() {
         return myMainNodeRenderer.getHtmlOptions();
@@ -7,4 +7,15 @@ import com.vladsch.flexmark.util.ast.Node;
 public interface LinkResolver {
 
   ResolvedLink resolveLink(Node node, LinkResolverBasicContext context, ResolvedLink link);
+
+  /**
+   * A document independent resolver returns the same result for a link type and url regardless of
+   * the node, document or render, which allows results to be shared between documents through a
+   * {@link LinkResolverCache}
+   *
+   * @return true if resolved links depend only on link type and url
+   */
+  default boolean isDocumentIndependent() {
+    return false;
+  }
 }
@@ -0,0 +1,192 @@
+package com.vladsch.flexmark.html;
+
+import com.vladsch.flexmark.html.renderer.LinkType;
+import com.vladsch.flexmark.html.renderer.ResolvedLink;
+import com.vladsch.flexmark.util.data.ConfigurationScope;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size bounded cache of resolved links shared by renders of any number of documents and threads,
+ * set with {@link HtmlRenderer#LINK_RESOLVER_CACHE}.
+ *
+ * <p>Only links resolved by renderers whose link resolvers are all {@link
+ * LinkResolver#isDocumentIndependent() document independent} are cached. Entries are keyed by
+ * the renderer's link resolver factories and options, link type, url and url encoding, so one
+ * cache can be used by renderers with different link resolvers and renderers with the same
+ * configuration share entries. The cache is split into segments, each evicting its least recently
+ * used entry when full. Cached links are shared and must not be modified.
+ */
+public class LinkResolverCache {
+  private static final int SEGMENT_COUNT = 16;
+
+  private static final class Key {
+    final ConfigurationScope scope;
+    final LinkType linkType;
+    final String url;
+    final boolean urlEncode;
+    final int hash;
+
+    Key(ConfigurationScope scope, LinkType linkType, String url, boolean urlEncode) {
+      this.scope = scope;
+      this.linkType = linkType;
+      this.url = url;
+      this.urlEncode = urlEncode;
+
+      int hash = scope.hashCode();
+      hash = 31 * hash + linkType.hashCode();
+      hash = 31 * hash + url.hashCode();
+      this.hash = 31 * hash + (urlEncode ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (this == object) return true;
+      if (!(object instanceof Key)) return false;
+
+      Key other = (Key) object;
+      return hash == other.hash
+          && scope.equals(other.scope)
+          && urlEncode == other.urlEncode
+          && linkType.equals(other.linkType)
+          && url.equals(other.url);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private final class Segment extends LinkedHashMap<Key, ResolvedLink> {
+    private final int maximumSize;
+
+    Segment(int maximumSize) {
+      super(16, 0.75f, true);
+      this.maximumSize = maximumSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, ResolvedLink> eldest) {
+      if (size() > maximumSize) {
+        evictionCount.increment();
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private final Segment[] segments;
+  private final int maximumSize;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  /**
+   * @param maximumSize maximum number of cached links
+   */
+  public LinkResolverCache(int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive, got " + maximumSize);
+    }
+
+    this.maximumSize = maximumSize;
+    int segmentCount = Math.min(SEGMENT_COUNT, maximumSize);
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      // distribute remainder so segment sizes add up to maximum size
+      segments[i] =
+          new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+    }
+  }
+
+  private Segment segment(Key key) {
+    // select by high bits of the mixed hash, segment maps index their buckets by the low bits
+    long mixed = Integer.toUnsignedLong(key.hash * 0x9E3779B9);
+    return segments[(int) ((mixed * segments.length) >>> 32)];
+  }
+
+  ResolvedLink get(ConfigurationScope scope, LinkType linkType, String url, boolean urlEncode) {
+    Key key = new Key(scope, linkType, url, urlEncode);
+    Segment segment = segment(key);
+    ResolvedLink resolvedLink;
+    synchronized (segment) {
+      resolvedLink = segment.get(key);
+    }
+
+    if (resolvedLink == null) {
+      missCount.increment();
+    } else {
+      hitCount.increment();
+    }
+    return resolvedLink;
+  }
+
+  void put(
+      ConfigurationScope scope,
+      LinkType linkType,
+      String url,
+      boolean urlEncode,
+      ResolvedLink resolvedLink) {
+    Key key = new Key(scope, linkType, url, urlEncode);
+    Segment segment = segment(key);
+    synchronized (segment) {
+      segment.put(key, resolvedLink);
+    }
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * @return number of cached links
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /** Remove all cached links, counters are not reset */
+  public void clear() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "LinkResolverCache{"
+        + "size="
+        + size()
+        + ", maximumSize="
+        + maximumSize
+        + ", hits="
+        + getHitCount()
+        + ", misses="
+        + getMissCount()
+        + ", evictions="
+        + getEvictionCount()
+        + '}';
+  }
+}
@@ -0,0 +1,471 @@
+package com.vladsch.flexmark.html;
+
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.Utf8FileCharSequence;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+/**
+ * Parses and renders a stream of markdown sources to HTML on a work-stealing pool of worker
+ * threads owned by the batch.
+ *
+ * <p>Sources are read from the stream and handed to the workers by the thread calling {@link
+ * #process(Stream, Sink, boolean)}, which also passes every result to the sink, so the sink does
+ * not need to be thread-safe. At most the maximum in flight number of sources are read ahead of
+ * the sink, reading more waits for results to be passed to the sink, so the memory used by a batch
+ * does not depend on the number of sources.
+ *
+ * <p>Each worker keeps its own state warm between documents: the parser's per thread document
+ * parser when {@link Parser#REUSE_PARSER_STATE} is set and the output buffer of the renderer. Node
+ * renderers are shared by all workers when all are {@link
+ * com.vladsch.flexmark.html.renderer.SharedNodeRenderer shared}, the rest of the renderer state
+ * belongs to a document and is created for every render.
+ */
+public class MarkdownBatch implements AutoCloseable {
+  private static final int MAXIMUM_RETAINED_OUTPUT = 256 * 1024;
+
+  private final Parser parser;
+  private final HtmlRenderer renderer;
+  private final int maxInFlight;
+  private final ForkJoinPool pool;
+  private final ThreadLocal<StringBuilder> outputs = ThreadLocal.withInitial(StringBuilder::new);
+
+  /**
+   * Batch with a worker for each available processor and four sources in flight for each worker
+   *
+   * @param parser parser of the sources
+   * @param renderer renderer of the parsed documents
+   */
+  public MarkdownBatch(Parser parser, HtmlRenderer renderer) {
+    this(parser, renderer, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Batch with four sources in flight for each worker
+   *
+   * @param parser parser of the sources
+   * @param renderer renderer of the parsed documents
+   * @param parallelism number of worker threads
+   */
+  public MarkdownBatch(Parser parser, HtmlRenderer renderer, int parallelism) {
+    this(parser, renderer, parallelism, 4 * parallelism);
+  }
+
+  /**
+   * @param parser parser of the sources
+   * @param renderer renderer of the parsed documents
+   * @param parallelism number of worker threads
+   * @param maxInFlight maximum number of sources read from the stream and not yet passed to the
+   *     sink, at least parallelism to keep all workers busy
+   */
+  public MarkdownBatch(Parser parser, HtmlRenderer renderer, int parallelism, int maxInFlight) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+    }
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+    }
+
+    this.parser = parser;
+    this.renderer = renderer;
+    this.maxInFlight = maxInFlight;
+    this.pool =
+        new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+  }
+
+  public int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Process sources, passing results to the sink in completion order
+   *
+   * @param sources sources to process
+   * @param sink sink of the results
+   * @return counts and times of the processed sources
+   * @throws IOException when the sink throws an exception
+   * @throws InterruptedException if interrupted while waiting for a result
+   */
+  public Report process(Stream<? extends Source> sources, Sink sink)
+      throws IOException, InterruptedException {
+    return process(sources, sink, false);
+  }
+
+  /**
+   * Process sources, passing results to the sink in completion order or in source order.
+   *
+   * <p>In source order, a slow source keeps the results of sources after it in memory until it is
+   * done and reading sources waits while the maximum in flight number are held.
+   *
+   * <p>When the sink or stream throws an exception no more sources are read or passed to the sink,
+   * sources already handed to workers and not yet started are skipped.
+   *
+   * @param sources sources to process
+   * @param sink sink of the results
+   * @param ordered true to pass results to the sink in the order of their sources
+   * @return counts and times of the processed sources
+   * @throws IOException when the sink throws an exception
+   * @throws InterruptedException if interrupted while waiting for a result
+   */
+  public Report process(Stream<? extends Source> sources, Sink sink, boolean ordered)
+      throws IOException, InterruptedException {
+    if (pool.isShutdown()) {
+      throw new IllegalStateException("MarkdownBatch is closed");
+    }
+
+    Run run = new Run(sink, ordered);
+    boolean done = false;
+    try {
+      Iterator<? extends Source> iterator = sources.iterator();
+      while (true) {
+        // wait before hasNext(), it may already read the next source from the stream
+        while (run.submitted - run.delivered == maxInFlight) {
+          run.awaitResult();
+        }
+        if (!iterator.hasNext()) break;
+        run.submit(iterator.next());
+      }
+
+      while (run.delivered < run.submitted) {
+        run.awaitResult();
+      }
+      done = true;
+    } finally {
+      if (!done) run.aborted = true;
+    }
+
+    return new Report(
+        getParallelism(),
+        run.documentCount,
+        run.failedCount,
+        run.sourceLength,
+        run.htmlLength,
+        System.nanoTime() - run.startNanos,
+        run.parseNanos,
+        run.renderNanos);
+  }
+
+  /** Shut down the worker threads, sources handed to workers are still processed */
+  @Override
+  public void close() {
+    pool.shutdown();
+  }
+
+  private Result convert(long index, Source source) {
+    Result result = new Result(index, source);
+    try {
+      CharSequence text = source.getText();
+      long startNanos = System.nanoTime();
+      Document document = parser.parse(BasedSequence.of(text));
+      long parsedNanos = System.nanoTime();
+
+      StringBuilder output = outputs.get();
+      output.setLength(0);
+      renderer.render(document, output);
+      result.html = output.toString();
+      if (output.capacity() > MAXIMUM_RETAINED_OUTPUT) {
+        outputs.remove();
+      } else {
+        output.setLength(0);
+      }
+
+      result.sourceLength = text.length();
+      result.parseNanos = parsedNanos - startNanos;
+      result.renderNanos = System.nanoTime() - parsedNanos;
+    } catch (Throwable e) {
+      result.error = e;
+    }
+    return result;
+  }
+
+  private static final class Result {
+    final long index;
+    final Source source;
+    String html;
+    Throwable error;
+    int sourceLength;
+    long parseNanos;
+    long renderNanos;
+
+    Result(long index, Source source) {
+      this.index = index;
+      this.source = source;
+    }
+  }
+
+  private final class Run {
+    final Sink sink;
+    final Result[] pending;
+    final BlockingQueue<Result> results = new LinkedBlockingQueue<>();
+    final long startNanos = System.nanoTime();
+    volatile boolean aborted;
+
+    long submitted;
+    long delivered;
+    long documentCount;
+    long failedCount;
+    long sourceLength;
+    long htmlLength;
+    long parseNanos;
+    long renderNanos;
+
+    Run(Sink sink, boolean ordered) {
+      this.sink = sink;
+      this.pending = ordered ? new Result[maxInFlight] : null;
+    }
+
+    void submit(Source source) {
+      long index = submitted++;
+      pool.execute(
+          () -> {
+            if (!aborted) {
+              results.add(convert(index, source));
+            }
+          });
+    }
+
+    void awaitResult() throws IOException, InterruptedException {
+      Result result = results.take();
+      if (pending == null) {
+        deliver(result);
+        return;
+      }
+
+      pending[(int) (result.index % maxInFlight)] = result;
+      for (int i = (int) (delivered % maxInFlight); pending[i] != null; ) {
+        Result next = pending[i];
+        pending[i] = null;
+        deliver(next);
+        if (++i == maxInFlight) i = 0;
+      }
+    }
+
+    void deliver(Result result) throws IOException {
+      delivered++;
+      if (result.error != null) {
+        failedCount++;
+        if (!(result.error instanceof Exception)) {
+          throw (Error) result.error;
+        }
+        sink.failed(result.source, (Exception) result.error);
+      } else {
+        documentCount++;
+        sourceLength += result.sourceLength;
+        htmlLength += result.html.length();
+        parseNanos += result.parseNanos;
+        renderNanos += result.renderNanos;
+        sink.accept(result.source, result.html);
+      }
+    }
+  }
+
+  /** Markdown source of a batch */
+  public interface Source {
+    /**
+     * @return name of the source, used in messages
+     */
+    String getName();
+
+    /**
+     * Get the source text, called on a worker thread
+     *
+     * @return markdown text
+     * @throws IOException when the text cannot be read
+     */
+    CharSequence getText() throws IOException;
+
+    /**
+     * @param name name of the source
+     * @param text markdown text
+     * @return source of the text
+     */
+    static Source of(String name, CharSequence text) {
+      return new Source() {
+        @Override
+        public String getName() {
+          return name;
+        }
+
+        @Override
+        public CharSequence getText() {
+          return text;
+        }
+      };
+    }
+
+    /**
+     * Source of a UTF-8 encoded file, mapped and decoded as it is parsed by a worker
+     *
+     * @param path path of the file
+     * @return source of the file
+     */
+    static Source of(Path path) {
+      return new Source() {
+        @Override
+        public String getName() {
+          return path.toString();
+        }
+
+        @Override
+        public CharSequence getText() throws IOException {
+          return Utf8FileCharSequence.of(path);
+        }
+      };
+    }
+  }
+
+  /** Receives the results of a batch, always on the thread processing the batch */
+  public interface Sink {
+    /**
+     * @param source processed source
+     * @param html rendered HTML of the source
+     * @throws IOException when the HTML cannot be written, stops the batch
+     */
+    void accept(Source source, String html) throws IOException;
+
+    /**
+     * Called when reading, parsing or rendering a source throws an exception, by default stops the
+     * batch by throwing an exception
+     *
+     * @param source failed source
+     * @param error exception thrown for the source
+     * @throws IOException to stop the batch
+     */
+    default void failed(Source source, Exception error) throws IOException {
+      throw new IOException("Processing " + source.getName() + " failed", error);
+    }
+  }
+
+  /** Counts and times of one {@link #process(Stream, Sink, boolean)} call */
+  public static final class Report {
+    private final int parallelism;
+    private final long documentCount;
+    private final long failedCount;
+    private final long sourceLength;
+    private final long htmlLength;
+    private final long elapsedNanos;
+    private final long parseNanos;
+    private final long renderNanos;
+
+    Report(
+        int parallelism,
+        long documentCount,
+        long failedCount,
+        long sourceLength,
+        long htmlLength,
+        long elapsedNanos,
+        long parseNanos,
+        long renderNanos) {
+      this.parallelism = parallelism;
+      this.documentCount = documentCount;
+      this.failedCount = failedCount;
+      this.sourceLength = sourceLength;
+      this.htmlLength = htmlLength;
+      this.elapsedNanos = elapsedNanos;
+      this.parseNanos = parseNanos;
+      this.renderNanos = renderNanos;
+    }
+
+    public int getParallelism() {
+      return parallelism;
+    }
+
+    /**
+     * @return number of sources passed to the sink with their HTML
+     */
+    public long getDocumentCount() {
+      return documentCount;
+    }
+
+    /**
+     * @return number of sources passed to the sink as failed
+     */
+    public long getFailedCount() {
+      return failedCount;
+    }
+
+    /**
+     * @return total chars of the processed sources
+     */
+    public long getSourceLength() {
+      return sourceLength;
+    }
+
+    /**
+     * @return total chars of the rendered HTML
+     */
+    public long getHtmlLength() {
+      return htmlLength;
+    }
+
+    /**
+     * @return wall time of the batch, including waiting for the stream and sink
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * @return parse time summed over all workers
+     */
+    public long getParseNanos() {
+      return parseNanos;
+    }
+
+    /**
+     * @return render time summed over all workers
+     */
+    public long getRenderNanos() {
+      return renderNanos;
+    }
+
+    /**
+     * @return processed documents per second of wall time
+     */
+    public double getDocumentsPerSecond() {
+      return elapsedNanos == 0 ? 0 : documentCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return source chars processed per second of wall time
+     */
+    public double getCharsPerSecond() {
+      return elapsedNanos == 0 ? 0 : sourceLength * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Report{"
+          + "parallelism="
+          + parallelism
+          + ", documentCount="
+          + documentCount
+          + ", failedCount="
+          + failedCount
+          + ", sourceLength="
+          + sourceLength
+          + ", htmlLength="
+          + htmlLength
+          + ", elapsedNanos="
+          + elapsedNanos
+          + ", parseNanos="
+          + parseNanos
+          + ", renderNanos="
+          + renderNanos
+          + ", documentsPerSecond="
+          + Math.round(getDocumentsPerSecond())
+          + '}';
+    }
+  }
+}
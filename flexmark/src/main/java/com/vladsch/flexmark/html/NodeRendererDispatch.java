@@ -0,0 +1,58 @@
+package com.vladsch.flexmark.html;
+
+import com.vladsch.flexmark.html.renderer.CacheableNodeRenderer;
+import com.vladsch.flexmark.html.renderer.NodeRenderer;
+import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
+import com.vladsch.flexmark.html.renderer.PhasedNodeRenderer;
+import com.vladsch.flexmark.html.renderer.RenderingPhase;
+import com.vladsch.flexmark.util.ast.NodeTypeMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/** Node type to rendering handler dispatch for a list of node renderers, read only once created */
+class NodeRendererDispatch {
+  final NodeTypeMap<NodeRenderingHandlerWrapper> renderers;
+  final List<PhasedNodeRenderer> phasedRenderers;
+  final Set<RenderingPhase> renderingPhases;
+  final List<CacheableNodeRenderer> cacheableRenderers;
+
+  /**
+   * @param nodeRenderers node renderers in factory order, handlers of earlier renderers override
+   *     handlers of later ones for the same node type
+   */
+  NodeRendererDispatch(NodeRenderer[] nodeRenderers) {
+    NodeTypeMap<NodeRenderingHandlerWrapper> renderers = new NodeTypeMap<>();
+    List<PhasedNodeRenderer> phasedRenderers = new ArrayList<>(nodeRenderers.length);
+    Set<RenderingPhase> renderingPhases = EnumSet.noneOf(RenderingPhase.class);
+    List<CacheableNodeRenderer> cacheableRenderers = new ArrayList<>(nodeRenderers.length);
+
+    for (int i = nodeRenderers.length - 1; i >= 0; i--) {
+      NodeRenderer nodeRenderer = nodeRenderers[i];
+
+      for (NodeRenderingHandler<?> nodeType : nodeRenderer.getNodeRenderingHandlers()) {
+        // Overwrite existing renderer
+        NodeRenderingHandlerWrapper handlerWrapper =
+            new NodeRenderingHandlerWrapper(
+                nodeType, renderers.get(nodeType.getNodeType()), nodeRenderer);
+        renderers.put(nodeType.getNodeType(), handlerWrapper);
+      }
+
+      if (nodeRenderer instanceof PhasedNodeRenderer) {
+        renderingPhases.addAll(((PhasedNodeRenderer) nodeRenderer).getRenderingPhases());
+        phasedRenderers.add((PhasedNodeRenderer) nodeRenderer);
+      }
+
+      if (nodeRenderer instanceof CacheableNodeRenderer) {
+        cacheableRenderers.add((CacheableNodeRenderer) nodeRenderer);
+      }
+    }
+
+    this.renderers = renderers;
+    this.phasedRenderers = Collections.unmodifiableList(phasedRenderers);
+    this.renderingPhases = Collections.unmodifiableSet(renderingPhases);
+    this.cacheableRenderers = Collections.unmodifiableList(cacheableRenderers);
+  }
+}
@@ -1,15 +1,26 @@
 package com.vladsch.flexmark.html;
 
+import com.vladsch.flexmark.html.renderer.CacheableNodeRenderer;
+import com.vladsch.flexmark.html.renderer.NodeRenderer;
 import com.vladsch.flexmark.html.renderer.NodeRenderingHandler;
 
 class NodeRenderingHandlerWrapper {
   public final NodeRenderingHandler<?> myRenderingHandler;
   public final NodeRenderingHandlerWrapper myPreviousRenderingHandler;
+  // node renderer providing the handler
+  final NodeRenderer nodeRenderer;
+  // true if this and all previous handlers come from cacheable node renderers
+  final boolean isCacheable;
 
   public NodeRenderingHandlerWrapper(
       NodeRenderingHandler<?> renderingHandler,
-      NodeRenderingHandlerWrapper previousRenderingHandler) {
+      NodeRenderingHandlerWrapper previousRenderingHandler,
+      NodeRenderer nodeRenderer) {
     myRenderingHandler = renderingHandler;
     myPreviousRenderingHandler = previousRenderingHandler;
+    this.nodeRenderer = nodeRenderer;
+    this.isCacheable =
+        nodeRenderer instanceof CacheableNodeRenderer
+            && (previousRenderingHandler == null || previousRenderingHandler.isCacheable);
   }
 }
@@ -0,0 +1,17 @@
+package com.vladsch.flexmark.html;
+
+import com.vladsch.flexmark.util.ast.Document;
+
+/**
+ * Receives metrics of each rendered document, set with {@link HtmlRenderer#RENDER_LISTENER}.
+ *
+ * <p>Called on the rendering thread once the output is written, so it must be thread safe when the
+ * renderer is used by several threads. Renders of nodes other than a document are not reported.
+ */
+public interface RenderListener {
+  /**
+   * @param document rendered document
+   * @param metrics metrics of rendering the document
+   */
+  void documentRendered(Document document, RenderMetrics metrics);
+}
@@ -0,0 +1,72 @@
+package com.vladsch.flexmark.html;
+
+import com.vladsch.flexmark.html.renderer.NodeRenderer;
+import com.vladsch.flexmark.html.renderer.RenderingPhase;
+import com.vladsch.flexmark.util.misc.StageMetrics;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wall time and allocated bytes of rendering one document, reported to the {@link RenderListener}
+ * set with {@link HtmlRenderer#RENDER_LISTENER}.
+ *
+ * <p>Node renderers are measured for each node they render and for each phase of a document they
+ * render, excluding the time of child nodes rendered by other handlers. Blocks appended from the
+ * {@link BlockRenderCache} are not measured for any node renderer.
+ */
+public class RenderMetrics {
+  private final StageMetrics total = new StageMetrics();
+  private final Map<RenderingPhase, StageMetrics> phases = new EnumMap<>(RenderingPhase.class);
+  private final Map<Class<?>, StageMetrics> nodeRenderers = new LinkedHashMap<>();
+
+  /**
+   * @return metrics of the whole render, including writing the output
+   */
+  public StageMetrics getTotal() {
+    return total;
+  }
+
+  /**
+   * @param phase rendering phase
+   * @return metrics of the phase, created if the phase has none
+   */
+  public StageMetrics phase(RenderingPhase phase) {
+    return phases.computeIfAbsent(phase, p -> new StageMetrics());
+  }
+
+  /**
+   * @param nodeRenderer node renderer
+   * @return metrics of the node renderer's class, created if it has none
+   */
+  public StageMetrics nodeRenderer(NodeRenderer nodeRenderer) {
+    return nodeRenderers.computeIfAbsent(nodeRenderer.getClass(), c -> new StageMetrics());
+  }
+
+  /**
+   * @return metrics of rendering phases which were run, in phase order
+   */
+  public Map<RenderingPhase, StageMetrics> getPhases() {
+    return Collections.unmodifiableMap(phases);
+  }
+
+  /**
+   * @return metrics by node renderer class, in order of first use
+   */
+  public Map<Class<?>, StageMetrics> getNodeRenderers() {
+    return Collections.unmodifiableMap(nodeRenderers);
+  }
+
+  @Override
+  public String toString() {
+    return "RenderMetrics{"
+        + "total="
+        + total
+        + ", phases="
+        + phases
+        + ", nodeRenderers="
+        + nodeRenderers
+        + '}';
+  }
+}
@@ -0,0 +1,24 @@
+package com.vladsch.flexmark.html.renderer;
+
+import com.vladsch.flexmark.util.data.DataHolder;
+
+/**
+ * A {@link NodeRenderer} whose output can be kept in a {@link
+ * com.vladsch.flexmark.html.BlockRenderCache} and reused for blocks with the same source.
+ *
+ * <p>Output for a node must depend only on the source of the top level block containing it, the
+ * renderer options, resolved links, generated node ids and the definitions of references used in
+ * the block. The renderer must not change document data or keep state used by later nodes or
+ * rendering phases.
+ */
+public interface CacheableNodeRenderer extends NodeRenderer {
+  /**
+   * Whether output for a document rendered with the given options can be cached
+   *
+   * @param options options of the document being rendered
+   * @return false if output is not the same for every render, for example because it is random
+   */
+  default boolean isCacheable(DataHolder options) {
+    return true;
+  }
+}
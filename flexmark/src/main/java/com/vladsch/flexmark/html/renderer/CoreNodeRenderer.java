@@ -50,6 +50,8 @@ import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.NonRenderingInline;
 import com.vladsch.flexmark.util.ast.TextCollectingVisitor;
 import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.data.DataKey;
+import com.vladsch.flexmark.util.data.MutableDataSet;
 import com.vladsch.flexmark.util.html.Attribute;
 import com.vladsch.flexmark.util.html.Attributes;
 import com.vladsch.flexmark.util.misc.CharPredicate;
@@ -66,37 +68,28 @@ import java.util.regex.Pattern;
 /**
  * The node renderer that renders all the core nodes (comes last in the order of node renderers).
  */
-public class CoreNodeRenderer implements NodeRenderer {
+public class CoreNodeRenderer implements SharedNodeRenderer, CacheableNodeRenderer {
   public static final AttributablePart LOOSE_LIST_ITEM = new AttributablePart("LOOSE_LIST_ITEM");
   public static final AttributablePart TIGHT_LIST_ITEM = new AttributablePart("TIGHT_LIST_ITEM");
   private static final AttributablePart PARAGRAPH_LINE = new AttributablePart("PARAGRAPH_LINE");
   public static final AttributablePart CODE_CONTENT = new AttributablePart("FENCED_CODE_CONTENT");
 
-  private final ListOptions listOptions;
-  private final boolean obfuscateEmail;
-  private final boolean obfuscateEmailRandom;
-  private final ReferenceRepository referenceRepository;
-  private final boolean recheckUndefinedReferences;
-  private final boolean codeContentBlock;
-  private final boolean codeSoftLineBreaks;
-
-  private List<Range> myLines;
-  private List<Integer> myEOLs;
-  private int myNextLine;
-  private int nextLineStartOffset;
-
-  private CoreNodeRenderer(DataHolder options) {
-    referenceRepository = Parser.REFERENCES.get(options);
-    recheckUndefinedReferences = HtmlRenderer.RECHECK_UNDEFINED_REFERENCES.get(options);
-    listOptions = ListOptions.get(options);
-    obfuscateEmail = HtmlRenderer.OBFUSCATE_EMAIL.get(options);
-    obfuscateEmailRandom = HtmlRenderer.OBFUSCATE_EMAIL_RANDOM.get(options);
-    codeContentBlock = Parser.FENCED_CODE_CONTENT_BLOCK.get(options);
-    codeSoftLineBreaks = Parser.CODE_SOFT_LINE_BREAKS.get(options);
-    myLines = null;
-    myEOLs = null;
-    myNextLine = 0;
-    nextLineStartOffset = 0;
+  // options and paragraph line tracking of the document being rendered
+  private static final DataKey<RenderState> RENDER_STATE =
+      new DataKey<>(
+          "CORE_NODE_RENDERER_STATE", new RenderState(new MutableDataSet()), RenderState::new);
+
+  private CoreNodeRenderer() {}
+
+  private static RenderState renderState(NodeRendererContext context) {
+    return context.getRenderData(RENDER_STATE);
+  }
+
+  @Override
+  public boolean isCacheable(DataHolder options) {
+    // randomly obfuscated email links differ for every render
+    return !HtmlRenderer.OBFUSCATE_EMAIL.get(options)
+        || !HtmlRenderer.OBFUSCATE_EMAIL_RANDOM.get(options);
   }
 
   @Override
@@ -192,7 +185,7 @@ public class CoreNodeRenderer implements NodeRenderer {
     }
 
     html.srcPosWithEOL(node.getContentChars()).withAttr(CODE_CONTENT).tag("code");
-    if (codeContentBlock) {
+    if (renderState(context).codeContentBlock) {
       context.renderChildren(node);
     } else {
       html.text(node.getContentChars().normalizeEOL());
@@ -216,7 +209,7 @@ public class CoreNodeRenderer implements NodeRenderer {
     }
 
     html.srcPosWithEOL(node.getContentChars()).withAttr(CODE_CONTENT).tag("code");
-    if (codeContentBlock) {
+    if (renderState(context).codeContentBlock) {
       context.renderChildren(node);
     } else {
       html.text(node.getContentChars().trimTailBlankLines().normalizeEndWithEOL());
@@ -240,7 +233,7 @@ public class CoreNodeRenderer implements NodeRenderer {
 
   private void render(OrderedList node, NodeRendererContext context, HtmlWriter html) {
     int start = node.getStartNumber();
-    if (listOptions.isOrderedListManualStart() && start != 1)
+    if (renderState(context).listOptions.isOrderedListManualStart() && start != 1)
       html.attr("start", String.valueOf(start));
     html.withAttr().tagIndent("ol", () -> context.renderChildren(node));
   }
@@ -254,7 +247,7 @@ public class CoreNodeRenderer implements NodeRenderer {
   }
 
   private void renderListItem(ListItem node, NodeRendererContext context, HtmlWriter html) {
-    if (listOptions.isTightListItem(node)) {
+    if (renderState(context).listOptions.isTightListItem(node)) {
       html.srcPosWithEOL(node.getChars())
           .withAttr(TIGHT_LIST_ITEM)
           .withCondIndent()
@@ -281,13 +274,14 @@ public class CoreNodeRenderer implements NodeRenderer {
       Paragraph node, NodeRendererContext context, HtmlWriter html, boolean wrapTextInSpan) {
     if (context.getHtmlOptions().sourcePositionParagraphLines) {
       if (node.hasChildren()) {
+        RenderState state = renderState(context);
         LineCollectingVisitor breakCollectingVisitor = new LineCollectingVisitor();
-        myLines = breakCollectingVisitor.collectAndGetRanges(node);
-        myEOLs = breakCollectingVisitor.getEOLs();
-        myNextLine = 0;
+        state.lines = breakCollectingVisitor.collectAndGetRanges(node);
+        state.eols = breakCollectingVisitor.getEOLs();
+        state.nextLine = 0;
 
         if (node.getFirstChild() != null) {
-          outputSourceLineSpan(node, node.getFirstChild(), node, html);
+          outputSourceLineSpan(state, node, node.getFirstChild(), node, html);
         }
         context.renderChildren(node);
         html.tag("/span");
@@ -302,11 +296,11 @@ public class CoreNodeRenderer implements NodeRenderer {
     }
   }
 
-  private void outputSourceLineSpan(
-      Node parentNode, Node startNode, Node endNode, HtmlWriter html) {
+  private static void outputSourceLineSpan(
+      RenderState state, Node parentNode, Node startNode, Node endNode, HtmlWriter html) {
     int startOffset = startNode.getStartOffset();
-    Range range = myLines.get(myNextLine);
-    int eolLength = myEOLs.get(myNextLine);
+    Range range = state.lines.get(state.nextLine);
+    int eolLength = state.eols.get(state.nextLine);
 
     // remove trailing spaces from text
     int endOffset = endNode.getEndOffset();
@@ -315,11 +309,11 @@ public class CoreNodeRenderer implements NodeRenderer {
       endOffset -= eolLength;
       endOffset -=
           parentNode.baseSubSequence(startOffset, endOffset).countTrailing(CharPredicate.SPACE_TAB);
-      myNextLine++;
-      nextLineStartOffset = range.getEnd();
-      nextLineStartOffset +=
+      state.nextLine++;
+      state.nextLineStartOffset = range.getEnd();
+      state.nextLineStartOffset +=
           parentNode
-              .baseSubSequence(nextLineStartOffset, parentNode.getEndOffset())
+              .baseSubSequence(state.nextLineStartOffset, parentNode.getEndOffset())
               .countLeading(CharPredicate.SPACE_TAB);
     }
 
@@ -330,28 +324,30 @@ public class CoreNodeRenderer implements NodeRenderer {
     html.srcPos(startOffset, endOffset).withAttr(PARAGRAPH_LINE).tag("span");
   }
 
-  private void outputNextLineBreakSpan(Node node, HtmlWriter html, boolean outputBreakText) {
-    Range range = myLines.get(myNextLine);
-    int eolLength = myEOLs.get(myNextLine);
-    myNextLine++;
+  private static void outputNextLineBreakSpan(
+      RenderState state, Node node, HtmlWriter html, boolean outputBreakText) {
+    Range range = state.lines.get(state.nextLine);
+    int eolLength = state.eols.get(state.nextLine);
+    state.nextLine++;
 
     // remove trailing spaces from text
     int countTrailing =
-        node.baseSubSequence(nextLineStartOffset, range.getEnd() - eolLength)
+        node.baseSubSequence(state.nextLineStartOffset, range.getEnd() - eolLength)
             .countTrailing(CharPredicate.SPACE_TAB);
     if (!outputBreakText && countTrailing > 0) {
       countTrailing--;
     }
     eolLength += countTrailing;
 
-    html.srcPos(nextLineStartOffset, range.getEnd() - eolLength)
+    html.srcPos(state.nextLineStartOffset, range.getEnd() - eolLength)
         .withAttr(PARAGRAPH_LINE)
         .tag("span");
-    nextLineStartOffset = range.getEnd();
+    state.nextLineStartOffset = range.getEnd();
 
     // remove leading spaces
-    nextLineStartOffset +=
-        node.baseSubSequence(nextLineStartOffset, node.getChars().getBaseSequence().length())
+    state.nextLineStartOffset +=
+        node.baseSubSequence(
+                state.nextLineStartOffset, node.getChars().getBaseSequence().length())
             .countLeading(CharPredicate.SPACE_TAB);
   }
 
@@ -370,7 +366,8 @@ public class CoreNodeRenderer implements NodeRenderer {
     if (node.getFirstChildAnyNot(NonRenderingInline.class) != null) {
       if (!(node.getParent() instanceof ParagraphItemContainer)
           || !((ParagraphItemContainer) node.getParent())
-              .isParagraphWrappingDisabled(node, listOptions, context.getOptions())) {
+              .isParagraphWrappingDisabled(
+                  node, renderState(context).listOptions, context.getOptions())) {
         renderLooseParagraph(node, context, html);
       } else {
         renderTextBlockParagraphLines(node, context, html, false);
@@ -384,7 +381,8 @@ public class CoreNodeRenderer implements NodeRenderer {
       Node node,
       NodeRendererContext context,
       HtmlWriter html) {
-    if (myLines != null && myNextLine < myLines.size()) {
+    RenderState state = renderState(context);
+    if (state.lines != null && state.nextLine < state.lines.size()) {
       // here we may need to close tags opened since the span tag
       List<String> openTags = html.getOpenTagsAfterLast("span");
       int iMax = openTags.size();
@@ -408,7 +406,7 @@ public class CoreNodeRenderer implements NodeRenderer {
         html.raw(breakText);
       }
 
-      outputNextLineBreakSpan(node, html, outputBreakText);
+      outputNextLineBreakSpan(state, node, html, outputBreakText);
 
       for (String tag : openTags) {
         if (!outputBreakText
@@ -503,7 +501,7 @@ public class CoreNodeRenderer implements NodeRenderer {
       } else {
         html.srcPos(node.getText()).withAttr().tag("code");
       }
-      if (codeSoftLineBreaks && !htmlOptions.isSoftBreakAllSpaces) {
+      if (renderState(context).codeSoftLineBreaks && !htmlOptions.isSoftBreakAllSpaces) {
         for (Node child : node.getChildren()) {
           if (child instanceof Text) {
             html.text(Escaping.collapseWhitespace(child.getChars(), true));
@@ -517,7 +515,7 @@ public class CoreNodeRenderer implements NodeRenderer {
       html.tag("/code");
     } else {
       html.raw(htmlOptions.codeStyleHtmlOpen);
-      if (codeSoftLineBreaks && !htmlOptions.isSoftBreakAllSpaces) {
+      if (renderState(context).codeSoftLineBreaks && !htmlOptions.isSoftBreakAllSpaces) {
         for (Node child : node.getChildren()) {
           if (child instanceof Text) {
             html.text(Escaping.collapseWhitespace(child.getChars(), true));
@@ -701,8 +699,10 @@ public class CoreNodeRenderer implements NodeRenderer {
       html.text(text);
     } else {
       ResolvedLink resolvedLink = context.resolveLink(LinkType.LINK, text, null);
-      if (obfuscateEmail) {
-        String url = Escaping.obfuscate("mailto:" + resolvedLink.getUrl(), obfuscateEmailRandom);
+      RenderState state = renderState(context);
+      if (state.obfuscateEmail) {
+        String url =
+            Escaping.obfuscate("mailto:" + resolvedLink.getUrl(), state.obfuscateEmailRandom);
         text = Escaping.obfuscate(text, true);
 
         html.srcPos(node.getText())
@@ -779,11 +779,12 @@ public class CoreNodeRenderer implements NodeRenderer {
     // if have SOFT BREAK or HARD BREAK as child then we open our own span
     if (context.getHtmlOptions().sourcePositionParagraphLines
         && nodeChildText.indexOfAny(CharPredicate.ANY_EOL) >= 0) {
-      if (myNextLine > 0) {
-        myNextLine--;
+      RenderState state = renderState(context);
+      if (state.nextLine > 0) {
+        state.nextLine--;
       }
 
-      outputSourceLineSpan(node, node, node, html);
+      outputSourceLineSpan(state, node, node, node, html);
       context.renderChildren(node);
       html.tag("/span");
     } else {
@@ -793,9 +794,11 @@ public class CoreNodeRenderer implements NodeRenderer {
 
   private void render(ImageRef node, NodeRendererContext context, HtmlWriter html) {
     ResolvedLink resolvedLink;
+    RenderState state = renderState(context);
+    ReferenceRepository referenceRepository = state.referenceRepository;
     boolean isSuppressed = false;
 
-    if (!node.isDefined() && recheckUndefinedReferences) {
+    if (!node.isDefined() && state.recheckUndefinedReferences) {
       if (node.getReferenceNode(referenceRepository) != null) {
         node.setDefined(true);
       }
@@ -846,9 +849,11 @@ public class CoreNodeRenderer implements NodeRenderer {
 
   private void render(LinkRef node, NodeRendererContext context, HtmlWriter html) {
     ResolvedLink resolvedLink;
+    RenderState state = renderState(context);
+    ReferenceRepository referenceRepository = state.referenceRepository;
     boolean isSuppressed = false;
 
-    if (!node.isDefined() && recheckUndefinedReferences) {
+    if (!node.isDefined() && state.recheckUndefinedReferences) {
       if (node.getReferenceNode(referenceRepository) != null) {
         node.setDefined(true);
       }
@@ -903,11 +908,36 @@ public class CoreNodeRenderer implements NodeRenderer {
     }
   }
 
+  private static class RenderState {
+    final ReferenceRepository referenceRepository;
+    final ListOptions listOptions;
+    final boolean codeContentBlock;
+    final boolean codeSoftLineBreaks;
+    final boolean obfuscateEmail;
+    final boolean obfuscateEmailRandom;
+    final boolean recheckUndefinedReferences;
+
+    List<Range> lines;
+    List<Integer> eols;
+    int nextLine;
+    int nextLineStartOffset;
+
+    RenderState(DataHolder options) {
+      referenceRepository = Parser.REFERENCES.get(options);
+      listOptions = ListOptions.get(options);
+      codeContentBlock = Parser.FENCED_CODE_CONTENT_BLOCK.get(options);
+      codeSoftLineBreaks = Parser.CODE_SOFT_LINE_BREAKS.get(options);
+      obfuscateEmail = HtmlRenderer.OBFUSCATE_EMAIL.get(options);
+      obfuscateEmailRandom = HtmlRenderer.OBFUSCATE_EMAIL_RANDOM.get(options);
+      recheckUndefinedReferences = HtmlRenderer.RECHECK_UNDEFINED_REFERENCES.get(options);
+    }
+  }
+
   public static class Factory implements NodeRendererFactory {
 
     @Override
     public NodeRenderer apply(DataHolder options) {
-      return new CoreNodeRenderer(options);
+      return new CoreNodeRenderer();
     }
   }
 }
@@ -8,10 +8,15 @@ import com.vladsch.flexmark.html.HtmlRenderer;
 import com.vladsch.flexmark.util.ast.Document;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.data.DataHolder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
 
 public class HeaderIdGenerator implements HtmlIdGenerator, Disposable {
+  private static final int MAXIMUM_RETAINED_ID = 4096;
+  private static final ThreadLocal<IdBuilder> ID_BUILDERS = ThreadLocal.withInitial(IdBuilder::new);
+
   private Map<String, Integer> headerBaseIds = new HashMap<>();
   private boolean resolveDupes;
   private String toDashChars;
@@ -100,10 +105,14 @@ public class HeaderIdGenerator implements HtmlIdGenerator, Disposable {
       @Override
       protected void visit(AnchorRefTarget node) {
         if (node.getAnchorRefId().isEmpty()) {
-          String text = node.getAnchorRefText();
-          String refId = null;
-
-          refId = generateId(text);
+          IdBuilder idBuilder = startId();
+          try {
+            node.appendAnchorRefText(idBuilder);
+          } catch (IOException e) {
+            // id builder does not throw
+            throw new UncheckedIOException(e);
+          }
+          String refId = finishId(idBuilder);
 
           if (refId != null) {
             node.setAnchorRefId(refId);
@@ -113,26 +122,34 @@ public class HeaderIdGenerator implements HtmlIdGenerator, Disposable {
     }.visit(document);
   }
 
-  private String generateId(String text) {
-    if (!text.isEmpty()) {
-      String baseRefId =
-          generateId(text, toDashChars, nonDashChars, noDupedDashes, nonAsciiToLowercase);
+  private IdBuilder startId() {
+    IdBuilder idBuilder = ID_BUILDERS.get();
+    idBuilder.start(toDashChars, nonDashChars, noDupedDashes, nonAsciiToLowercase);
+    return idBuilder;
+  }
 
-      if (resolveDupes) {
-        if (headerBaseIds.containsKey(baseRefId)) {
-          int index = headerBaseIds.get(baseRefId);
+  private String finishId(IdBuilder idBuilder) {
+    if (idBuilder.textLength == 0) {
+      return null;
+    }
 
-          index++;
-          headerBaseIds.put(baseRefId, index);
-          baseRefId += "-" + index;
-        } else {
-          headerBaseIds.put(baseRefId, 0);
-        }
+    StringBuilder id = idBuilder.id;
+    String baseRefId = id.toString();
+    if (resolveDupes) {
+      Integer index = headerBaseIds.get(baseRefId);
+      if (index != null) {
+        index++;
+        headerBaseIds.put(baseRefId, index);
+        baseRefId = id.append('-').append(index).toString();
+      } else {
+        headerBaseIds.put(baseRefId, 0);
       }
+    }
 
-      return baseRefId;
+    if (id.capacity() > MAXIMUM_RETAINED_ID) {
+      ID_BUILDERS.remove();
     }
-    return null;
+    return baseRefId;
   }
 
   @Override
@@ -142,40 +159,113 @@ public class HeaderIdGenerator implements HtmlIdGenerator, Disposable {
 
   @Override
   public String getId(CharSequence text) {
-    return generateId(text.toString());
-  }
-
-  private static String generateId(
-      CharSequence headerText,
-      String toDashChars,
-      String nonDashChars,
-      boolean noDupedDashes,
-      boolean nonAsciiToLowercase) {
-    int iMax = headerText.length();
-    StringBuilder baseRefId = new StringBuilder(iMax);
-    if (toDashChars == null) toDashChars = HtmlRenderer.HEADER_ID_GENERATOR_TO_DASH_CHARS.get(null);
-    if (nonDashChars == null)
-      nonDashChars = HtmlRenderer.HEADER_ID_GENERATOR_NON_DASH_CHARS.get(null);
-
-    for (int i = 0; i < iMax; i++) {
-      char c = headerText.charAt(i);
-      if (isAlphabetic(c)) {
-        if (!nonAsciiToLowercase && !(c >= 'A' && c <= 'Z')) {
-          baseRefId.append(c);
-        } else {
-          baseRefId.append(Character.toLowerCase(c));
+    IdBuilder idBuilder = startId();
+    idBuilder.append(text, 0, text.length());
+    return finishId(idBuilder);
+  }
+
+  /**
+   * Builds an id from text appended to it. Chars are classified with a table for ASCII chars, built
+   * when the to dash or non dash chars change, non-ASCII chars are classified as they are appended.
+   */
+  private static final class IdBuilder implements Appendable {
+    private static final byte SKIP = 0;
+    private static final byte KEEP = 1;
+    private static final byte LOWERCASE = 2;
+    private static final byte DASH = 3;
+
+    final StringBuilder id = new StringBuilder();
+    final byte[] asciiClasses = new byte[128];
+    String toDashChars;
+    String nonDashChars;
+    boolean noDupedDashes;
+    boolean nonAsciiToLowercase;
+    int textLength;
+
+    void start(
+        String toDashChars,
+        String nonDashChars,
+        boolean noDupedDashes,
+        boolean nonAsciiToLowercase) {
+      if (toDashChars == null)
+        toDashChars = HtmlRenderer.HEADER_ID_GENERATOR_TO_DASH_CHARS.get(null);
+      if (nonDashChars == null)
+        nonDashChars = HtmlRenderer.HEADER_ID_GENERATOR_NON_DASH_CHARS.get(null);
+
+      if (!toDashChars.equals(this.toDashChars) || !nonDashChars.equals(this.nonDashChars)) {
+        this.toDashChars = toDashChars;
+        this.nonDashChars = nonDashChars;
+        for (char c = 0; c < asciiClasses.length; c++) {
+          asciiClasses[c] = classify(c);
         }
-      } else if (Character.isDigit(c)) {
-        baseRefId.append(c);
+      }
+
+      this.noDupedDashes = noDupedDashes;
+      this.nonAsciiToLowercase = nonAsciiToLowercase;
+      id.setLength(0);
+      textLength = 0;
+    }
+
+    private byte classify(char c) {
+      if (c >= 'A' && c <= 'Z') {
+        return LOWERCASE;
+      } else if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+        return KEEP;
       } else if (nonDashChars.indexOf(c) != -1) {
-        baseRefId.append(c);
-      } else if (toDashChars.indexOf(c) != -1
-          && (!noDupedDashes
-              || ((c == '-' && baseRefId.length() == 0)
-                  || baseRefId.length() != 0 && baseRefId.charAt(baseRefId.length() - 1) != '-')))
-        baseRefId.append('-');
+        return KEEP;
+      } else if (toDashChars.indexOf(c) != -1) {
+        return DASH;
+      }
+      return SKIP;
+    }
+
+    private void appendDash(char c) {
+      int length = id.length();
+      if (!noDupedDashes
+          || ((c == '-' && length == 0) || length != 0 && id.charAt(length - 1) != '-')) {
+        id.append('-');
+      }
+    }
+
+    @Override
+    public IdBuilder append(char c) {
+      textLength++;
+      if (c < 128) {
+        switch (asciiClasses[c]) {
+          case KEEP:
+            id.append(c);
+            break;
+          case LOWERCASE:
+            id.append((char) (c + ('a' - 'A')));
+            break;
+          case DASH:
+            appendDash(c);
+            break;
+          default:
+            break;
+        }
+      } else if (isAlphabetic(c)) {
+        id.append(nonAsciiToLowercase ? Character.toLowerCase(c) : c);
+      } else if (Character.isDigit(c) || nonDashChars.indexOf(c) != -1) {
+        id.append(c);
+      } else if (toDashChars.indexOf(c) != -1) {
+        appendDash(c);
+      }
+      return this;
+    }
+
+    @Override
+    public IdBuilder append(CharSequence chars, int startIndex, int endIndex) {
+      for (int i = startIndex; i < endIndex; i++) {
+        append(chars.charAt(i));
+      }
+      return this;
+    }
+
+    @Override
+    public IdBuilder append(CharSequence chars) {
+      return chars == null ? append("null") : append(chars, 0, chars.length());
     }
-    return baseRefId.toString();
   }
 
   private static boolean isAlphabetic(char c) {
@@ -3,6 +3,7 @@ package com.vladsch.flexmark.html.renderer;
 import com.vladsch.flexmark.html.HtmlRendererOptions;
 import com.vladsch.flexmark.html.HtmlWriter;
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.data.DataKey;
 import com.vladsch.flexmark.util.html.Attributes;
 import com.vladsch.flexmark.util.html.MutableAttributes;
 
@@ -134,4 +135,19 @@ public interface NodeRendererContext extends LinkResolverContext {
    * @return the {@link HtmlRendererOptions} for the context.
    */
   HtmlRendererOptions getHtmlOptions();
+
+  /**
+   * Get a value kept for the duration of the current render and shared by its sub-contexts, used
+   * by a {@link SharedNodeRenderer} for per document options and state.
+   *
+   * <p>The value is created on first use in the render, by the key's value factory applied to
+   * {@link #getOptions()}. The default implementation creates a new value for every call.
+   *
+   * @param key key of the value
+   * @param <T> type of the value
+   * @return value for the current render
+   */
+  default <T> T getRenderData(DataKey<T> key) {
+    return key.get(getOptions());
+  }
 }
@@ -9,6 +9,14 @@ public interface PhasedNodeRenderer extends NodeRenderer {
 
   Set<RenderingPhase> getRenderingPhases();
 
+  /**
+   * @return true if this renderer modifies or depends on previously rendered output, disables
+   *     {@link com.vladsch.flexmark.html.HtmlRenderer#STREAM_OUTPUT} for documents it renders
+   */
+  default boolean requiresBufferedOutput() {
+    return false;
+  }
+
   /**
    * Render the specified node.
    *
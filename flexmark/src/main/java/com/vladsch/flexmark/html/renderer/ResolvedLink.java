@@ -19,10 +19,8 @@ public class ResolvedLink {
   }
 
   public Attributes getNonNullAttributes() {
-    if (myAttributes == null) {
-      myAttributes = new MutableAttributes();
-    }
-    return myAttributes.toImmutable();
+    // does not create attributes so links shared between threads are only read
+    return myAttributes == null ? new Attributes() : myAttributes.toImmutable();
   }
 
   public MutableAttributes getMutableAttributes() {
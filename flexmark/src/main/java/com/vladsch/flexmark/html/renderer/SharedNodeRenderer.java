@@ -0,0 +1,17 @@
+package com.vladsch.flexmark.html.renderer;
+
+/**
+ * A {@link NodeRenderer} which keeps no per document state and is safe to use for all documents
+ * rendered by an {@link com.vladsch.flexmark.html.HtmlRenderer}, including concurrently.
+ *
+ * <p>Shared renderers are created once per HtmlRenderer, by calling the factory with the renderer
+ * options instead of the document scoped options used for other renderers. The factory must not
+ * read these options, because values set on the parser or the document would then be ignored.
+ * All options, including renderer options, must be taken from {@link
+ * NodeRendererContext#getOptions()} during rendering. Values computed from them, and state kept
+ * while rendering a document, go in {@link NodeRendererContext#getRenderData}.
+ *
+ * <p>When all node renderers of an HtmlRenderer are shared, the node type dispatch table is also
+ * computed once instead of for every render.
+ */
+public interface SharedNodeRenderer extends NodeRenderer {}
@@ -0,0 +1,17 @@
+package com.vladsch.flexmark.parser;
+
+import com.vladsch.flexmark.util.ast.Document;
+
+/**
+ * Receives metrics of each parsed document, set with {@link Parser#PARSE_LISTENER}.
+ *
+ * <p>Called on the parsing thread once post processing is done, so it must be thread safe when the
+ * parser is used by several threads. Documents parsed incrementally are not reported.
+ */
+public interface ParseListener {
+  /**
+   * @param document parsed document
+   * @param metrics metrics of parsing the document
+   */
+  void documentParsed(Document document, ParseMetrics metrics);
+}
@@ -0,0 +1,167 @@
+package com.vladsch.flexmark.parser;
+
+import com.vladsch.flexmark.parser.block.BlockParserFactory;
+import com.vladsch.flexmark.parser.block.ParserPhase;
+import com.vladsch.flexmark.util.misc.StageMetrics;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wall time, allocated bytes and counts of parsing one document, reported to the {@link
+ * ParseListener} set with {@link Parser#PARSE_LISTENER}.
+ *
+ * <p>Times and allocated bytes are those of the parsing thread. With parallel inline parsing, work
+ * done by other threads is not included in the {@link ParserPhase#PARSE_INLINES} phase.
+ *
+ * <p>Block parser factories are measured for each block start they try, post processors for all
+ * their processing of the document. Node counts are taken after inline parsing, before post
+ * processing.
+ */
+public class ParseMetrics {
+  private final StageMetrics total = new StageMetrics();
+  private final StageMetrics postProcessing = new StageMetrics();
+  private final Map<ParserPhase, StageMetrics> phases = new EnumMap<>(ParserPhase.class);
+  private final Map<Class<?>, StageMetrics> blockParserFactories = new LinkedHashMap<>();
+  private final Map<Class<?>, StageMetrics> postProcessors = new LinkedHashMap<>();
+  private int lineCount;
+  private int blockCount;
+  private int inlineNodeCount;
+  private int delimiterRunCount;
+  private int linkRefCount;
+
+  /**
+   * @return metrics of the whole parse, including post processing
+   */
+  public StageMetrics getTotal() {
+    return total;
+  }
+
+  /**
+   * @return metrics of running all post processors, empty if the parser has none
+   */
+  public StageMetrics getPostProcessing() {
+    return postProcessing;
+  }
+
+  /**
+   * @param phase parser phase
+   * @return metrics of the phase, created if the phase has none
+   */
+  public StageMetrics phase(ParserPhase phase) {
+    return phases.computeIfAbsent(phase, p -> new StageMetrics());
+  }
+
+  /**
+   * @param factory block parser factory
+   * @return metrics of the factory's class, created if it has none
+   */
+  public StageMetrics blockParserFactory(BlockParserFactory factory) {
+    return blockParserFactories.computeIfAbsent(factory.getClass(), c -> new StageMetrics());
+  }
+
+  /**
+   * @param factory post processor factory
+   * @return metrics of the factory's class, created if it has none
+   */
+  public StageMetrics postProcessor(PostProcessorFactory factory) {
+    return postProcessors.computeIfAbsent(factory.getClass(), c -> new StageMetrics());
+  }
+
+  /**
+   * @return metrics of parser phases which were run, in phase order
+   */
+  public Map<ParserPhase, StageMetrics> getPhases() {
+    return Collections.unmodifiableMap(phases);
+  }
+
+  /**
+   * @return metrics by block parser factory class, in order of first use
+   */
+  public Map<Class<?>, StageMetrics> getBlockParserFactories() {
+    return Collections.unmodifiableMap(blockParserFactories);
+  }
+
+  /**
+   * @return metrics by post processor factory class, in order of processing
+   */
+  public Map<Class<?>, StageMetrics> getPostProcessors() {
+    return Collections.unmodifiableMap(postProcessors);
+  }
+
+  public int getLineCount() {
+    return lineCount;
+  }
+
+  public void setLineCount(int lineCount) {
+    this.lineCount = lineCount;
+  }
+
+  /**
+   * @return number of block nodes and reference definitions, not including the document
+   */
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+  public void setBlockCount(int blockCount) {
+    this.blockCount = blockCount;
+  }
+
+  /**
+   * @return number of nodes which are not blocks or reference definitions
+   */
+  public int getInlineNodeCount() {
+    return inlineNodeCount;
+  }
+
+  public void setInlineNodeCount(int inlineNodeCount) {
+    this.inlineNodeCount = inlineNodeCount;
+  }
+
+  public int getDelimiterRunCount() {
+    return delimiterRunCount;
+  }
+
+  public void setDelimiterRunCount(int delimiterRunCount) {
+    this.delimiterRunCount = delimiterRunCount;
+  }
+
+  /**
+   * @return number of links and images which refer to reference definitions
+   */
+  public int getLinkRefCount() {
+    return linkRefCount;
+  }
+
+  public void setLinkRefCount(int linkRefCount) {
+    this.linkRefCount = linkRefCount;
+  }
+
+  @Override
+  public String toString() {
+    return "ParseMetrics{"
+        + "total="
+        + total
+        + ", phases="
+        + phases
+        + ", postProcessing="
+        + postProcessing
+        + ", blockParserFactories="
+        + blockParserFactories
+        + ", postProcessors="
+        + postProcessors
+        + ", lines="
+        + lineCount
+        + ", blocks="
+        + blockCount
+        + ", inlineNodes="
+        + inlineNodeCount
+        + ", delimiterRuns="
+        + delimiterRunCount
+        + ", linkRefs="
+        + linkRefCount
+        + '}';
+  }
+}
@@ -1,5 +1,6 @@
 package com.vladsch.flexmark.parser;
 
+import com.vladsch.flexmark.ast.util.CoreFrozenNodeTypes;
 import com.vladsch.flexmark.ast.util.ReferenceRepository;
 import com.vladsch.flexmark.html.HtmlRenderer;
 import com.vladsch.flexmark.parser.block.BlockPreProcessorFactory;
@@ -7,33 +8,45 @@ import com.vladsch.flexmark.parser.block.CustomBlockParserFactory;
 import com.vladsch.flexmark.parser.block.ParagraphPreProcessorFactory;
 import com.vladsch.flexmark.parser.delimiter.DelimiterProcessor;
 import com.vladsch.flexmark.parser.internal.DocumentParser;
+import com.vladsch.flexmark.parser.internal.DocumentParserPlan;
+import com.vladsch.flexmark.parser.internal.IncrementalParser;
 import com.vladsch.flexmark.parser.internal.InlineParserImpl;
-import com.vladsch.flexmark.parser.internal.LinkRefProcessorData;
 import com.vladsch.flexmark.parser.internal.PostProcessorManager;
 import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.FrozenDocument;
+import com.vladsch.flexmark.util.ast.FrozenNodeType;
 import com.vladsch.flexmark.util.ast.IParse;
 import com.vladsch.flexmark.util.ast.KeepType;
+import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.ast.NodeRepository;
 import com.vladsch.flexmark.util.builder.BuilderBase;
+import com.vladsch.flexmark.util.data.ConfigurationScope;
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.data.DataKey;
 import com.vladsch.flexmark.util.data.DataSet;
+import com.vladsch.flexmark.util.data.FrozenDataSet;
 import com.vladsch.flexmark.util.data.MutableDataHolder;
 import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.data.NullableDataKey;
 import com.vladsch.flexmark.util.data.SharedDataKeys;
 import com.vladsch.flexmark.util.misc.Extension;
+import com.vladsch.flexmark.util.misc.StageMetrics;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.ReplacedBasedSequence;
+import com.vladsch.flexmark.util.sequence.Utf8FileCharSequence;
 import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInHandler;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Parses input text to a tree of nodes.
@@ -397,27 +410,52 @@ public class Parser implements IParse {
   public static final DataKey<Integer> CODE_BLOCK_INDENT =
       new DataKey<>("CODE_BLOCK_INDENT", LISTS_ITEM_INDENT);
 
-  private final List<CustomBlockParserFactory> blockParserFactories;
-  private final Map<Character, DelimiterProcessor> delimiterProcessors;
-  private final BitSet delimiterCharacters;
-  private final BitSet specialCharacters;
+  // when true, per thread document parser state is reused between parse calls instead of being
+  // created for every document
+  public static final DataKey<Boolean> REUSE_PARSER_STATE =
+      new DataKey<>("REUSE_PARSER_STATE", true);
+
+  // when true, parseReader() parses blocks line by line as input is read into a chunked store
+  // instead of reading the whole input into a string first
+  public static final DataKey<Boolean> STREAM_READER_INPUT =
+      new DataKey<>("STREAM_READER_INPUT", true);
+
+  // when true, inline parsing of blocks is split between tasks run on INLINE_PARSING_EXECUTOR, used
+  // only with core block parsers, the core inline parser and no inline parser extensions or link
+  // ref processors, which may keep per document state. The resulting AST is the same as for
+  // sequential parsing.
+  public static final DataKey<Boolean> PARALLEL_INLINE_PARSING =
+      new DataKey<>("PARALLEL_INLINE_PARSING", false);
+
+  // executor for parallel inline parsing tasks, ForkJoinPool.commonPool() if null
+  public static final NullableDataKey<Executor> INLINE_PARSING_EXECUTOR =
+      new NullableDataKey<>("INLINE_PARSING_EXECUTOR");
+
+  // listener receiving per phase, block parser factory and post processor metrics of each parsed
+  // document, metrics are not collected if null
+  public static final NullableDataKey<ParseListener> PARSE_LISTENER =
+      new NullableDataKey<>("PARSE_LISTENER");
+
+  // set by the parser, scope of the parser's factories and options which is part of the keys of
+  // caches of rendered output, documents without it are not cached
+  public static final NullableDataKey<ConfigurationScope> PARSER_SCOPE =
+      new NullableDataKey<>("PARSER_SCOPE");
+
   private final List<PostProcessorManager.PostProcessorDependencyStage> postProcessorDependencies;
-  private final List<List<ParagraphPreProcessorFactory>> paragraphPreProcessorFactories;
-  private final List<List<BlockPreProcessorFactory>> blockPreProcessorDependencies;
-  private final LinkRefProcessorData linkRefProcessors;
-  private final List<InlineParserExtensionFactory> inlineParserExtensionFactories;
-  private final InlineParserFactory inlineParserFactory;
+  private final DocumentParserPlan documentParserPlan;
+  private final ThreadLocal<DocumentParser> documentParsers;
+  private final ParseListener parseListener;
   private final DataHolder options;
 
   private Parser(Builder builder) {
     DataSet options = builder.toImmutable();
-    this.blockParserFactories =
+    List<CustomBlockParserFactory> blockParserFactories =
         DocumentParser.calculateBlockParserFactories(options, builder.blockParserFactories);
 
     List<SpecialLeadInHandler> specialLeadInHandlers =
         new ArrayList<>(builder.specialLeadInHandlers);
 
-    for (CustomBlockParserFactory factory : this.blockParserFactories) {
+    for (CustomBlockParserFactory factory : blockParserFactories) {
       SpecialLeadInHandler escaper = factory.getLeadInHandler(options);
       if (escaper != null) {
         specialLeadInHandlers.add(escaper);
@@ -426,27 +464,89 @@ public class Parser implements IParse {
 
     MutableDataSet optionsWithSpecialLeadInHandlers = new MutableDataSet(builder);
     optionsWithSpecialLeadInHandlers.set(SPECIAL_LEAD_IN_HANDLERS, specialLeadInHandlers);
+    optionsWithSpecialLeadInHandlers.set(PARSER_SCOPE, parserScope(builder, options));
+    optionsWithSpecialLeadInHandlers.set(FrozenDocument.NODE_TYPES, frozenNodeTypes(options));
 
-    this.options = optionsWithSpecialLeadInHandlers.toImmutable();
-    this.inlineParserFactory =
+    this.options = FrozenDataSet.of(optionsWithSpecialLeadInHandlers);
+    InlineParserFactory inlineParserFactory =
         builder.inlineParserFactory == null
             ? DocumentParser.INLINE_PARSER_FACTORY
             : builder.inlineParserFactory;
-    this.paragraphPreProcessorFactories =
-        DocumentParser.calculateParagraphPreProcessors(
-            options, builder.paragraphPreProcessorFactories, this.inlineParserFactory);
-    this.blockPreProcessorDependencies =
-        DocumentParser.calculateBlockPreProcessors(builder.blockPreProcessorFactories);
-    this.delimiterProcessors =
+    Map<Character, DelimiterProcessor> delimiterProcessors =
         InlineParserImpl.calculateDelimiterProcessors(options, builder.delimiterProcessors);
-    this.delimiterCharacters =
+    BitSet delimiterCharacters =
         InlineParserImpl.calculateDelimiterCharacters(delimiterProcessors.keySet());
-    this.linkRefProcessors =
-        InlineParserImpl.calculateLinkRefProcessors(options, builder.linkRefProcessors);
-    this.specialCharacters = InlineParserImpl.calculateSpecialCharacters(delimiterCharacters);
+
+    this.documentParserPlan =
+        new DocumentParserPlan(
+            this.options,
+            blockParserFactories,
+            DocumentParser.calculateParagraphPreProcessors(
+                options, builder.paragraphPreProcessorFactories, inlineParserFactory),
+            DocumentParser.calculateBlockPreProcessors(builder.blockPreProcessorFactories),
+            inlineParserFactory,
+            InlineParserImpl.calculateSpecialCharacters(delimiterCharacters),
+            delimiterCharacters,
+            delimiterProcessors,
+            InlineParserImpl.calculateLinkRefProcessors(options, builder.linkRefProcessors),
+            new ArrayList<>(builder.inlineParserExtensionFactories));
     this.postProcessorDependencies =
         PostProcessorManager.calculatePostProcessors(builder.postProcessorFactories);
-    this.inlineParserExtensionFactories = builder.inlineParserExtensionFactories;
+    this.documentParsers =
+        REUSE_PARSER_STATE.get(options) && documentParserPlan.isReusable()
+            ? ThreadLocal.withInitial(documentParserPlan::createDocumentParser)
+            : null;
+    this.parseListener = PARSE_LISTENER.get(options);
+  }
+
+  // core node types with the ones set in the options, for nodes of extensions
+  private static Map<Class<? extends Node>, FrozenNodeType<?>> frozenNodeTypes(
+      DataHolder options) {
+    Map<Class<? extends Node>, FrozenNodeType<?>> nodeTypes =
+        FrozenDocument.NODE_TYPES.get(options);
+    if (nodeTypes.isEmpty()) return CoreFrozenNodeTypes.NODE_TYPES;
+
+    Map<Class<? extends Node>, FrozenNodeType<?>> merged =
+        new LinkedHashMap<>(CoreFrozenNodeTypes.NODE_TYPES);
+    merged.putAll(nodeTypes);
+    return Collections.unmodifiableMap(merged);
+  }
+
+  private static ConfigurationScope parserScope(Builder builder, DataHolder options) {
+    List<Object> factories = new ArrayList<>(EXTENSIONS.get(options));
+    factories.addAll(builder.blockParserFactories);
+    factories.addAll(builder.blockPreProcessorFactories);
+    factories.addAll(builder.paragraphPreProcessorFactories);
+    factories.add(builder.inlineParserFactory);
+    factories.addAll(builder.inlineParserExtensionFactories);
+    factories.addAll(builder.delimiterProcessors);
+    factories.addAll(builder.linkRefProcessors);
+    factories.addAll(builder.postProcessorFactories);
+    factories.addAll(builder.specialLeadInHandlers);
+    return new ConfigurationScope(
+        factories,
+        options,
+        EXTENSIONS,
+        SPECIAL_LEAD_IN_HANDLERS,
+        PARSER_SCOPE,
+        PARSE_LISTENER,
+        INLINE_PARSING_EXECUTOR);
+  }
+
+  /**
+   * Get a document parser for the current thread. The thread's cached parser is used unless it is
+   * already parsing a document, which happens when parse is called re-entrantly from an extension.
+   *
+   * @return document parser ready to parse a document
+   */
+  private DocumentParser documentParser() {
+    if (documentParsers != null) {
+      DocumentParser documentParser = documentParsers.get();
+      if (!documentParser.isParsing()) {
+        return documentParser;
+      }
+    }
+    return documentParserPlan.createDocumentParser();
   }
 
   /**
@@ -465,7 +565,7 @@ public class Parser implements IParse {
   /**
    * Parse the specified input text into a tree of nodes.
    *
-   * <p>Note that this method is thread-safe (a new parser state is used for each invocation).
+   * <p>Note that this method is thread-safe (parser state is never shared between threads).
    *
    * @param input the text to parse
    * @return the root node
@@ -481,55 +581,27 @@ public class Parser implements IParse {
               + "");
     }
 
-    DocumentParser documentParser =
-        new DocumentParser(
-            options,
-            blockParserFactories,
-            paragraphPreProcessorFactories,
-            blockPreProcessorDependencies,
-            inlineParserFactory.inlineParser(
-                options,
-                specialCharacters,
-                delimiterCharacters,
-                delimiterProcessors,
-                linkRefProcessors,
-                inlineParserExtensionFactories));
-    Document document = documentParser.parse(input);
-    return postProcess(document);
+    return parseSource(input);
   }
 
   /**
    * Parse the specified input text into a tree of nodes.
    *
-   * <p>Note that this method is thread-safe (a new parser state is used for each invocation).
+   * <p>Note that this method is thread-safe (parser state is never shared between threads).
    *
    * @param input the text to parse
    * @return the root node
    */
   @Override
   public Document parse(String input) {
-    DocumentParser documentParser =
-        new DocumentParser(
-            options,
-            blockParserFactories,
-            paragraphPreProcessorFactories,
-            blockPreProcessorDependencies,
-            inlineParserFactory.inlineParser(
-                options,
-                specialCharacters,
-                delimiterCharacters,
-                delimiterProcessors,
-                linkRefProcessors,
-                inlineParserExtensionFactories));
-    Document document = documentParser.parse(BasedSequence.of(input));
-    return postProcess(document);
+    return parseSource(BasedSequence.of(input));
   }
 
   /**
    * Parse the specified reader into a tree of nodes. The caller is responsible for closing the
    * reader.
    *
-   * <p>Note that this method is thread-safe (a new parser state is used for each invocation).
+   * <p>Note that this method is thread-safe (parser state is never shared between threads).
    *
    * @param input the reader to parse
    * @return the root node
@@ -537,25 +609,114 @@ public class Parser implements IParse {
    */
   @Override
   public Document parseReader(Reader input) throws IOException {
-    DocumentParser documentParser =
-        new DocumentParser(
-            options,
-            blockParserFactories,
-            paragraphPreProcessorFactories,
-            blockPreProcessorDependencies,
-            inlineParserFactory.inlineParser(
-                options,
-                specialCharacters,
-                delimiterCharacters,
-                delimiterProcessors,
-                linkRefProcessors,
-                inlineParserExtensionFactories));
-    Document document = documentParser.parse(input);
-    return postProcess(document);
+    return parseDocument(documentParser -> documentParser.parse(input));
+  }
+
+  /**
+   * Parse a UTF-8 encoded file into a tree of nodes. The file is mapped into memory and decoded as
+   * it is parsed, so its text is not copied to the heap. The file should not be modified while the
+   * document is in use.
+   *
+   * <p>Node offsets are char offsets into the file text, {@link
+   * Utf8FileCharSequence#getByteOffset(int)} of the document chars base maps them to file
+   * positions.
+   *
+   * @param path path of the file to parse
+   * @return the root node
+   * @throws IOException when the file cannot be read
+   */
+  public Document parseFile(Path path) throws IOException {
+    return parseSource(BasedSequence.of(Utf8FileCharSequence.of(path)));
   }
 
-  private Document postProcess(Document document) {
-    document = PostProcessorManager.processDocument(document, postProcessorDependencies);
+  /**
+   * Parse the text of a previously parsed document after an edit. When possible only the top level
+   * blocks around the edit are parsed and the document is updated in place, otherwise the edited
+   * text is fully parsed. The resulting AST is the same as for a full parse of the edited text.
+   *
+   * <p>Only core block parsing and inline parsing without extensions is done incrementally, with no
+   * post processors. Nodes kept from the document are re-based on the edited text with {@link
+   * com.vladsch.flexmark.util.ast.Node#mapSequences}, a document with a node whose segments are not
+   * all re-based by it, for example of a class added after parsing which does not override it, is
+   * fully parsed. Edits which remove or add reference definitions always need a full parse.
+   *
+   * @param document document previously returned by this parser
+   * @param offset offset of the edit in the document text
+   * @param removedLength length of text removed at offset
+   * @param inserted text inserted at offset
+   * @return the updated document or a new document for the edited text
+   * @see IncrementalParser
+   */
+  public Document parseIncremental(
+      Document document, int offset, int removedLength, CharSequence inserted) {
+    BasedSequence chars = document.getChars();
+    if (offset < 0 || removedLength < 0 || offset + removedLength > chars.length()) {
+      throw new IllegalArgumentException(
+          "edit at "
+              + offset
+              + " removing "
+              + removedLength
+              + " is outside document text of length "
+              + chars.length());
+    }
+
+    String text =
+        new StringBuilder(chars.length() - removedLength + inserted.length())
+            .append(chars, 0, offset)
+            .append(inserted)
+            .append(chars, offset + removedLength, chars.length())
+            .toString();
+    BasedSequence edited = BasedSequence.of(text);
+
+    if (postProcessorDependencies.isEmpty() && documentParserPlan.isIncrementalParsingSupported()) {
+      Document updated =
+          IncrementalParser.reparse(
+              documentParser(), document, edited, offset, removedLength, inserted.length());
+      if (updated != null) {
+        return updated;
+      }
+    }
+    return parse(edited);
+  }
+
+  private Document parseSource(BasedSequence input) {
+    return parseDocument(documentParser -> documentParser.parse(input));
+  }
+
+  /** Block parsing of a document from one of the input types of the document parser */
+  private interface BlockParse<E extends Exception> {
+    Document parse(DocumentParser documentParser) throws E;
+  }
+
+  /**
+   * Parse and post process a document, with parse metrics reported to the parse listener if one is
+   * set
+   */
+  private <E extends Exception> Document parseDocument(BlockParse<E> blockParse) throws E {
+    if (parseListener == null) {
+      return postProcess(blockParse.parse(documentParser()), null);
+    }
+
+    ParseMetrics metrics = new ParseMetrics();
+    long startAllocatedBytes = StageMetrics.threadAllocatedBytes();
+    long startNanos = System.nanoTime();
+    DocumentParser documentParser = documentParser();
+    documentParser.setParseMetrics(metrics);
+    Document document = postProcess(blockParse.parse(documentParser), metrics);
+    metrics.getTotal().add(startNanos, startAllocatedBytes);
+    parseListener.documentParsed(document, metrics);
+    return document;
+  }
+
+  private Document postProcess(Document document, ParseMetrics metrics) {
+    if (metrics == null || postProcessorDependencies.isEmpty()) {
+      return PostProcessorManager.processDocument(document, postProcessorDependencies, null);
+    }
+
+    long startAllocatedBytes = StageMetrics.threadAllocatedBytes();
+    long startNanos = System.nanoTime();
+    document = PostProcessorManager.processDocument(document, postProcessorDependencies, metrics);
+    metrics.getPostProcessing().add(startNanos, startAllocatedBytes);
     return document;
   }
 
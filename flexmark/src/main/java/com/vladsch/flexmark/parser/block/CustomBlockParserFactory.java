@@ -2,6 +2,7 @@ package com.vladsch.flexmark.parser.block;
 
 import com.vladsch.flexmark.util.data.DataHolder;
 import com.vladsch.flexmark.util.dependency.Dependent;
+import com.vladsch.flexmark.util.misc.CharPredicate;
 import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInHandler;
 import java.util.function.Function;
 
@@ -18,4 +19,16 @@ public interface CustomBlockParserFactory
   default SpecialLeadInHandler getLeadInHandler(DataHolder options) {
     return null;
   }
+
+  /**
+   * Characters one of which must be the first non-space character of a line for the block parser to
+   * start on it. The factory is not tried for lines starting with other ASCII characters.
+   *
+   * @param options options for this parser session
+   * @return block start characters or null if the block parser can start on any character, for
+   *     example based on indentation
+   */
+  default CharPredicate getBlockStartCharacters(DataHolder options) {
+    return null;
+  }
 }
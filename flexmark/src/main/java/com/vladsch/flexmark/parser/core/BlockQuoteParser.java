@@ -15,6 +15,7 @@ import com.vladsch.flexmark.parser.block.MatchedBlockParser;
 import com.vladsch.flexmark.parser.block.ParserState;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.misc.CharPredicate;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInHandler;
 import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInStartsWithCharsHandler;
@@ -162,6 +163,11 @@ public class BlockQuoteParser extends AbstractBlockParser {
       return BlockQuoteLeadInHandler.HANDLER;
     }
 
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return CharPredicate.anyOf(MARKER_CHAR);
+    }
+
     @Override
     public boolean affectsGlobalScope() {
       return false;
@@ -0,0 +1,220 @@
+package com.vladsch.flexmark.parser.core;
+
+/**
+ * Single pass scanners for line start constructs of the core block parsers, used instead of regex
+ * matchers over sub-sequences of the line.
+ *
+ * <p>Each scanner gives the same result as the regex it replaces, including the handling of {@code
+ * $} and {@code .} for line terminators other than EOL, which can appear in a line. Scanners take
+ * the line and the index of its first non-space character, the end of the line is the end of the
+ * sequence.
+ */
+public final class BlockStartScanner {
+  private static final byte SPACE_TAB = 1;
+  private static final byte LINE_TERMINATOR = 2;
+  private static final byte[] ASCII_CHAR_CLASS = new byte[128];
+
+  static {
+    ASCII_CHAR_CLASS[' '] = SPACE_TAB;
+    ASCII_CHAR_CLASS['\t'] = SPACE_TAB;
+    ASCII_CHAR_CLASS['\n'] = LINE_TERMINATOR;
+    ASCII_CHAR_CLASS['\r'] = LINE_TERMINATOR;
+  }
+
+  private BlockStartScanner() {
+    throw new IllegalStateException();
+  }
+
+  private static boolean isSpaceOrTab(char c) {
+    return c < 128 && ASCII_CHAR_CLASS[c] == SPACE_TAB;
+  }
+
+  /**
+   * @param c character
+   * @return true if the character ends a line for regex {@code .}
+   */
+  private static boolean isLineTerminator(char c) {
+    return c < 128 ? ASCII_CHAR_CLASS[c] == LINE_TERMINATOR : c == '\u0085' || (c | 1) == '\u2029';
+  }
+
+  private static int skipSpaceTab(CharSequence line, int index, int end) {
+    while (index < end && isSpaceOrTab(line.charAt(index))) index++;
+    return index;
+  }
+
+  private static int skipChar(CharSequence line, int index, int end, char c) {
+    while (index < end && line.charAt(index) == c) index++;
+    return index;
+  }
+
+  /**
+   * Only index where regex {@code $} can match after characters which are not line terminators
+   *
+   * @param line line
+   * @param start start of the matched text
+   * @return end of line or index of the trailing line terminator
+   */
+  public static int lineEnd(CharSequence line, int start) {
+    int end = line.length();
+    if (end - start >= 2 && line.charAt(end - 2) == '\r' && line.charAt(end - 1) == '\n') {
+      return end - 2;
+    } else if (end > start && isLineTerminator(line.charAt(end - 1))) {
+      return end - 1;
+    }
+    return end;
+  }
+
+  /**
+   * Same as matching {@code ^(?:(?:\*[ \t]*){3,}|(?:_[ \t]*){3,}|(?:-[ \t]*){3,})[ \t]*$}
+   *
+   * @param line line
+   * @param start index of first non-space character
+   * @return true if rest of line is a thematic break
+   */
+  public static boolean isThematicBreak(CharSequence line, int start) {
+    int end = line.length();
+    if (start >= end) return false;
+
+    char c = line.charAt(start);
+    if (c != '*' && c != '_' && c != '-') return false;
+
+    int count = 0;
+    for (int i = start; i < end; i++) {
+      char ch = line.charAt(i);
+      if (ch == c) {
+        count++;
+      } else if (!isSpaceOrTab(ch)) {
+        return false;
+      }
+    }
+    return count >= 3;
+  }
+
+  /**
+   * Same as finding {@code ^`{3,}(?!.*`)|^~{3,}(?!.*~)}
+   *
+   * @param line line
+   * @param start index of first non-space character
+   * @return length of the opening fence or 0 if none
+   */
+  public static int openingFenceLength(CharSequence line, int start) {
+    int end = line.length();
+    if (start >= end) return 0;
+
+    char c = line.charAt(start);
+    if (c != '`' && c != '~') return 0;
+
+    int fenceEnd = skipChar(line, start, end, c);
+    if (fenceEnd - start < 3) return 0;
+
+    for (int i = fenceEnd; i < end; i++) {
+      char ch = line.charAt(i);
+      if (ch == c) return 0;
+      if (isLineTerminator(ch)) break;
+    }
+    return fenceEnd - start;
+  }
+
+  /**
+   * Same as finding {@code ^(?:`{3,}|~{3,})(?=[ \t]*$)}
+   *
+   * @param line line
+   * @param start index of first non-space character
+   * @return length of the closing fence or 0 if none
+   */
+  public static int closingFenceLength(CharSequence line, int start) {
+    int end = line.length();
+    if (start >= end) return 0;
+
+    char c = line.charAt(start);
+    if (c != '`' && c != '~') return 0;
+
+    int fenceEnd = skipChar(line, start, end, c);
+    if (fenceEnd - start < 3) return 0;
+
+    return skipSpaceTab(line, fenceEnd, end) == lineEnd(line, start) ? fenceEnd - start : 0;
+  }
+
+  /**
+   * Same as finding the ATX heading opening pattern selected by the options
+   *
+   * <ul>
+   *   <li>{@code ^#{1,6}(?:[ \t]*|$)} with no ATX space
+   *   <li>{@code ^#{1,6}(?:[ \t]*(?=[^ \t#])|[ \t]+$)} with no empty heading without space
+   *   <li>{@code ^#{1,6}(?:[ \t]+|$)} otherwise
+   * </ul>
+   *
+   * @param line line
+   * @param start index of first non-space character
+   * @param noAtxSpace space after opening marker not required
+   * @param noEmptyHeadingWithoutSpace space required only when the heading is empty
+   * @return end of opening marker and following spaces or -1 if not an ATX heading
+   */
+  public static int atxHeadingEnd(
+      CharSequence line, int start, boolean noAtxSpace, boolean noEmptyHeadingWithoutSpace) {
+    int end = line.length();
+    int markerEnd = skipChar(line, start, end, '#');
+    int level = markerEnd - start;
+    if (level == 0) return -1;
+
+    if (noAtxSpace) {
+      // longer markers match their first 6 characters
+      return level > 6 ? start + 6 : skipSpaceTab(line, markerEnd, end);
+    }
+
+    if (level > 6) return -1;
+
+    int textStart = skipSpaceTab(line, markerEnd, end);
+    if (noEmptyHeadingWithoutSpace) {
+      if (textStart < end && line.charAt(textStart) != '#') return textStart;
+      return textStart > markerEnd && textStart == lineEnd(line, start) ? textStart : -1;
+    }
+
+    return textStart > markerEnd || markerEnd == lineEnd(line, start) ? textStart : -1;
+  }
+
+  /**
+   * Same as finding {@code [ \t]*#+[ \t]*$} with no ATX space or {@code (^| |\t)[ \t]*#+[ \t]*$}
+   * otherwise, in heading text starting at the given index
+   *
+   * @param line line
+   * @param start start of heading text
+   * @param noAtxSpace space before closing marker not required
+   * @return start of closing marker and preceding spaces or -1 if none
+   */
+  public static int atxClosingStart(CharSequence line, int start, boolean noAtxSpace) {
+    int index = lineEnd(line, start);
+
+    while (index > start && isSpaceOrTab(line.charAt(index - 1))) index--;
+    int markerEnd = index;
+    while (index > start && line.charAt(index - 1) == '#') index--;
+    if (index == markerEnd) return -1;
+
+    int markerStart = index;
+    while (index > start && isSpaceOrTab(line.charAt(index - 1))) index--;
+
+    return noAtxSpace || index < markerStart || index == start ? index : -1;
+  }
+
+  /**
+   * Same as finding {@code ^(?:={n,}|-{n,})[ \t]*$} for minimum marker length n
+   *
+   * @param line line
+   * @param start index of first non-space character
+   * @param minMarkerLength minimum length of the marker
+   * @return 1 for {@code =} and 2 for {@code -} marker, 0 if not a setext heading marker
+   */
+  public static int setextHeadingLevel(CharSequence line, int start, int minMarkerLength) {
+    int end = line.length();
+    if (start >= end) return 0;
+
+    char c = line.charAt(start);
+    if (c != '=' && c != '-') return 0;
+
+    int markerEnd = skipChar(line, start, end, c);
+    if (markerEnd - start < Math.max(minMarkerLength, 1)) return 0;
+
+    if (skipSpaceTab(line, markerEnd, end) != lineEnd(line, start)) return 0;
+    return c == '=' ? 1 : 2;
+  }
+}
@@ -16,18 +16,15 @@ import com.vladsch.flexmark.parser.block.ParserState;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.BlockContent;
 import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.misc.CharPredicate;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.SegmentedSequence;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class FencedCodeBlockParser extends AbstractBlockParser {
-  private static final Pattern OPENING_FENCE = Pattern.compile("^`{3,}(?!.*`)|^~{3,}(?!.*~)");
-  private static final Pattern CLOSING_FENCE = Pattern.compile("^(?:`{3,}|~{3,})(?=[ \t]*$)");
 
   private final FencedCodeBlock block = new FencedCodeBlock();
   private BlockContent content = new BlockContent();
@@ -66,23 +63,18 @@ public class FencedCodeBlockParser extends AbstractBlockParser {
     int nextNonSpace = state.getNextNonSpaceIndex();
     int newIndex = state.getIndex();
     BasedSequence line = state.getLine();
-    Matcher matcher;
     boolean matches =
         (state.getIndent() <= 3
             && nextNonSpace < line.length()
             && (!matchingCloser || line.charAt(nextNonSpace) == fenceChar));
 
     if (matches) {
-      BasedSequence trySequence = line.subSequence(nextNonSpace, line.length());
-      matcher = CLOSING_FENCE.matcher(trySequence);
-      if (matcher.find()) {
-        int foundFenceLength = matcher.group(0).length();
-
-        if (foundFenceLength >= fenceLength) {
-          // closing fence - we're at end of line, so we can finalize now
-          block.setClosingMarker(trySequence.subSequence(0, foundFenceLength));
-          return BlockContinue.finished();
-        }
+      int foundFenceLength = BlockStartScanner.closingFenceLength(line, nextNonSpace);
+
+      if (foundFenceLength > 0 && foundFenceLength >= fenceLength) {
+        // closing fence - we're at end of line, so we can finalize now
+        block.setClosingMarker(line.subSequence(nextNonSpace, nextNonSpace + foundFenceLength));
+        return BlockContinue.finished();
       }
     }
     // skip optional spaces of fence indent
@@ -170,6 +162,11 @@ public class FencedCodeBlockParser extends AbstractBlockParser {
               IndentedCodeBlockParser.Factory.class));
     }
 
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return CharPredicate.anyOf('`', '~');
+    }
+
     @Override
     public boolean affectsGlobalScope() {
       return false;
@@ -190,16 +187,15 @@ public class FencedCodeBlockParser extends AbstractBlockParser {
     public BlockStart tryStart(ParserState state, MatchedBlockParser matchedBlockParser) {
       int nextNonSpace = state.getNextNonSpaceIndex();
       BasedSequence line = state.getLine();
-      Matcher matcher;
       if (state.getIndent() < 4) {
-        BasedSequence trySequence = line.subSequence(nextNonSpace, line.length());
-        if ((matcher = OPENING_FENCE.matcher(trySequence)).find()) {
-          int fenceLength = matcher.group(0).length();
-          char fenceChar = matcher.group(0).charAt(0);
+        int fenceLength = BlockStartScanner.openingFenceLength(line, nextNonSpace);
+        if (fenceLength > 0) {
+          char fenceChar = line.charAt(nextNonSpace);
           FencedCodeBlockParser blockParser =
               new FencedCodeBlockParser(
                   state.getProperties(), fenceChar, fenceLength, state.getIndent(), nextNonSpace);
-          blockParser.block.setOpeningMarker(trySequence.subSequence(0, fenceLength));
+          blockParser.block.setOpeningMarker(
+              line.subSequence(nextNonSpace, nextNonSpace + fenceLength));
           return BlockStart.of(blockParser).atIndex(nextNonSpace + fenceLength);
         }
       }
@@ -2,7 +2,6 @@ package com.vladsch.flexmark.parser.core;
 
 import com.vladsch.flexmark.ast.Heading;
 import com.vladsch.flexmark.ast.ListItem;
-import com.vladsch.flexmark.ast.util.Parsing;
 import com.vladsch.flexmark.parser.InlineParser;
 import com.vladsch.flexmark.parser.Parser;
 import com.vladsch.flexmark.parser.block.AbstractBlockParser;
@@ -17,6 +16,7 @@ import com.vladsch.flexmark.parser.block.ParserState;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.BlockContent;
 import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.misc.CharPredicate;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInCharsHandler;
 import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInHandler;
@@ -24,37 +24,8 @@ import com.vladsch.flexmark.util.sequence.mappers.SpecialLeadInStartsWithCharsHa
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class HeadingParser extends AbstractBlockParser {
-  private static class HeadingParsing extends Parsing {
-    private final Pattern atxHeading;
-    private final Pattern atxTrailing;
-    private final Pattern setextHeading;
-
-    private HeadingParsing(DataHolder options) {
-      super(options);
-
-      atxHeading =
-          Parser.HEADING_NO_ATX_SPACE.get(options)
-              ? Pattern.compile("^#{1,6}(?:[ \t]*|$)")
-              : Parser.HEADING_NO_EMPTY_HEADING_WITHOUT_SPACE.get(options)
-                  ? Pattern.compile("^#{1,6}(?:[ \t]*(?=[^ \t#])|[ \t]+$)")
-                  : Pattern.compile("^#{1,6}(?:[ \t]+|$)");
-      atxTrailing =
-          Parser.HEADING_NO_ATX_SPACE.get(options)
-              ? Pattern.compile("[ \t]*#+[ \t]*$")
-              : Pattern.compile("(^| |\t)[ \t]*#+[ \t]*$");
-
-      int minLength = Parser.HEADING_SETEXT_MARKER_LENGTH.get(options);
-      setextHeading =
-          minLength <= 1
-              ? Pattern.compile("^(?:=+|-+)[ \t]*$")
-              : Pattern.compile("^(?:={" + minLength + ",}|-{" + minLength + ",})[ \t]*$");
-    }
-  }
-
   private final Heading block = new Heading();
 
   private HeadingParser(int level) {
@@ -101,6 +72,11 @@ public class HeadingParser extends AbstractBlockParser {
               IndentedCodeBlockParser.Factory.class));
     }
 
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return CharPredicate.anyOf('#', '=', '-');
+    }
+
     @Override
     public boolean affectsGlobalScope() {
       return false;
@@ -130,12 +106,10 @@ public class HeadingParser extends AbstractBlockParser {
 
   private static class BlockFactory extends AbstractBlockParserFactory {
     private final HeadingOptions options;
-    private final HeadingParsing myParsing;
 
     BlockFactory(DataHolder options) {
       super();
       this.options = new HeadingOptions(options);
-      this.myParsing = new HeadingParsing(options);
     }
 
     @Override
@@ -164,29 +138,25 @@ public class HeadingParser extends AbstractBlockParser {
       BasedSequence line = state.getLine();
       int nextNonSpace = state.getNextNonSpaceIndex();
       BasedSequence paragraph = matchedBlockParser.getParagraphContent();
-      Matcher matcher;
-      BasedSequence trySequence = line.subSequence(nextNonSpace, line.length());
-      matcher = myParsing.atxHeading.matcher(trySequence);
-      if (matcher.find()) {
+      int newOffset =
+          BlockStartScanner.atxHeadingEnd(
+              line, nextNonSpace, options.noAtxSpace, options.noEmptyHeadingWithoutSpace);
+      if (newOffset != -1) {
         // ATX heading
-        int newOffset = nextNonSpace + matcher.group(0).length();
-        int openingStart = matcher.start();
-        int openingEnd = matcher.end();
-        BasedSequence openingMarker = trySequence.subSequence(openingStart, openingEnd).trim();
+        BasedSequence openingMarker = line.subSequence(nextNonSpace, newOffset).trim();
         int level = openingMarker.length(); // number of #s
 
         BlockContent content = new BlockContent();
         content.add(state.getLineWithEOL().subSequence(newOffset), state.getIndent());
 
-        BasedSequence headerText = trySequence.subSequence(openingEnd);
+        BasedSequence headerText = line.subSequence(newOffset);
         BasedSequence closingMarker = null;
-        matcher = myParsing.atxTrailing.matcher(headerText);
-        if (matcher.find()) {
+        int closingStart = BlockStartScanner.atxClosingStart(line, newOffset, options.noAtxSpace);
+        if (closingStart != -1) {
           // removeIndex trailing ###s:
-          int closingStart = matcher.start();
-          int closingEnd = matcher.end();
-          closingMarker = headerText.subSequence(closingStart, closingEnd).trim();
-          headerText = headerText.subSequence(0, closingStart);
+          int closingEnd = BlockStartScanner.lineEnd(line, newOffset);
+          closingMarker = line.subSequence(closingStart, closingEnd).trim();
+          headerText = line.subSequence(newOffset, closingStart);
         }
 
         HeadingParser headingParser = new HeadingParser(level);
@@ -198,10 +168,11 @@ public class HeadingParser extends AbstractBlockParser {
         return BlockStart.of(headingParser).atIndex(line.length());
       }
 
-      if ((matcher = myParsing.setextHeading.matcher(trySequence)).find()) {
+      int setextLevel =
+          BlockStartScanner.setextHeadingLevel(line, nextNonSpace, options.setextMarkerLength);
+      if (setextLevel != 0) {
         if (paragraph != null) {
           // setext heading line
-          int level = matcher.group(0).charAt(0) == '=' ? 1 : 2;
 
           BlockContent content = new BlockContent();
           content.addAll(
@@ -209,7 +180,7 @@ public class HeadingParser extends AbstractBlockParser {
           BasedSequence headingText = content.getContents().trim();
           BasedSequence closingMarker = line.trim();
 
-          HeadingParser headingParser = new HeadingParser(level);
+          HeadingParser headingParser = new HeadingParser(setextLevel);
           headingParser.block.setText(headingText);
           headingParser.block.setClosingMarker(closingMarker);
           headingParser.block.setCharsFromContent();
@@ -227,10 +198,16 @@ public class HeadingParser extends AbstractBlockParser {
   private static class HeadingOptions {
     private final boolean noLeadSpace;
     private final boolean canInterruptItemParagraph;
+    private final boolean noAtxSpace;
+    private final boolean noEmptyHeadingWithoutSpace;
+    private final int setextMarkerLength;
 
     HeadingOptions(DataHolder options) {
       this.noLeadSpace = Parser.HEADING_NO_LEAD_SPACE.get(options);
       this.canInterruptItemParagraph = Parser.HEADING_CAN_INTERRUPT_ITEM_PARAGRAPH.get(options);
+      this.noAtxSpace = Parser.HEADING_NO_ATX_SPACE.get(options);
+      this.noEmptyHeadingWithoutSpace = Parser.HEADING_NO_EMPTY_HEADING_WITHOUT_SPACE.get(options);
+      this.setextMarkerLength = Parser.HEADING_SETEXT_MARKER_LENGTH.get(options);
     }
   }
 }
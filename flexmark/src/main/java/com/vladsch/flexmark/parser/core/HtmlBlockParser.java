@@ -24,6 +24,8 @@ import com.vladsch.flexmark.parser.internal.HtmlDeepParser;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.BlockContent;
 import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.misc.CharPredicate;
+import com.vladsch.flexmark.util.misc.PatternRegistry;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -36,6 +38,19 @@ public class HtmlBlockParser extends AbstractBlockParser {
   private static final String HTML_COMMENT_CLOSE = "-->";
 
   private static class Patterns {
+    private static final Pattern SCRIPT_PRE_STYLE_OPEN =
+        Pattern.compile("^<(?:script|pre|style)(?:\\s|>|$)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SCRIPT_PRE_STYLE_CLOSE =
+        Pattern.compile("</(?:script|pre|style)>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COMMENT_OPEN = Pattern.compile("^" + HTML_COMMENT_OPEN);
+    private static final Pattern COMMENT_CLOSE = Pattern.compile(HTML_COMMENT_CLOSE);
+    private static final Pattern PROCESSING_INSTRUCTION_OPEN = Pattern.compile("^<[?]");
+    private static final Pattern PROCESSING_INSTRUCTION_CLOSE = Pattern.compile("\\?>");
+    private static final Pattern DECLARATION_OPEN = Pattern.compile("^<![A-Z]");
+    private static final Pattern DECLARATION_CLOSE = Pattern.compile(">");
+    private static final Pattern CDATA_OPEN = Pattern.compile("^<!\\[CDATA\\[");
+    private static final Pattern CDATA_CLOSE = Pattern.compile("\\]\\]>");
+
     public final int commentPatternIndex;
     public final Pattern[][] blockPatterns;
 
@@ -61,22 +76,19 @@ public class HtmlBlockParser extends AbstractBlockParser {
       this.blockPatterns =
           new Pattern[][] {
             {null, null}, // not used (no type 0)
+            {SCRIPT_PRE_STYLE_OPEN, SCRIPT_PRE_STYLE_CLOSE},
+            {COMMENT_OPEN, COMMENT_CLOSE},
+            {PROCESSING_INSTRUCTION_OPEN, PROCESSING_INSTRUCTION_CLOSE},
+            {DECLARATION_OPEN, DECLARATION_CLOSE},
+            {CDATA_OPEN, CDATA_CLOSE},
             {
-              Pattern.compile("^<(?:script|pre|style)(?:\\s|>|$)", Pattern.CASE_INSENSITIVE),
-              Pattern.compile("</(?:script|pre|style)>", Pattern.CASE_INSENSITIVE)
-            },
-            {Pattern.compile("^" + HTML_COMMENT_OPEN), Pattern.compile(HTML_COMMENT_CLOSE)},
-            {Pattern.compile("^<[?]"), Pattern.compile("\\?>")},
-            {Pattern.compile("^<![A-Z]"), Pattern.compile(">")},
-            {Pattern.compile("^<!\\[CDATA\\["), Pattern.compile("\\]\\]>")},
-            {
-              Pattern.compile(
+              PatternRegistry.getPattern(
                   "^</?(?:" + Parsing.XML_NAMESPACE + "(?:" + blockTags + "))(?:\\s|[/]?[>]|$)",
                   Pattern.CASE_INSENSITIVE),
               null // terminated by blank line
             },
             {
-              Pattern.compile(
+              PatternRegistry.getPattern(
                   "^(?:" + parsing.opentag + '|' + parsing.closetag + ")\\s*$",
                   Pattern.CASE_INSENSITIVE),
               null // terminated by blank line
@@ -269,6 +281,11 @@ public class HtmlBlockParser extends AbstractBlockParser {
               IndentedCodeBlockParser.Factory.class));
     }
 
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return CharPredicate.anyOf('<');
+    }
+
     @Override
     public boolean affectsGlobalScope() {
       return false;
@@ -435,6 +435,12 @@ public class ListBlockParser extends AbstractBlockParser {
       return set;
     }
 
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return CharPredicate.anyOf(Parser.LISTS_ITEM_PREFIX_CHARS.get(options))
+          .or(CharPredicate.DECIMAL_DIGITS);
+    }
+
     @Override
     public boolean affectsGlobalScope() {
       return false;
@@ -12,16 +12,13 @@ import com.vladsch.flexmark.parser.block.MatchedBlockParser;
 import com.vladsch.flexmark.parser.block.ParserState;
 import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.misc.CharPredicate;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 public class ThematicBreakParser extends AbstractBlockParser {
-  private static final Pattern PATTERN =
-      Pattern.compile("^(?:(?:\\*[ \t]*){3,}|(?:_[ \t]*){3,}|(?:-[ \t]*){3,})[ \t]*$");
-
   private final ThematicBreak block = new ThematicBreak();
 
   private ThematicBreakParser(BasedSequence line) {
@@ -72,6 +69,11 @@ public class ThematicBreakParser extends AbstractBlockParser {
               ListBlockParser.Factory.class, IndentedCodeBlockParser.Factory.class));
     }
 
+    @Override
+    public CharPredicate getBlockStartCharacters(DataHolder options) {
+      return CharPredicate.anyOf('*', '_', '-');
+    }
+
     @Override
     public boolean affectsGlobalScope() {
       return false;
@@ -98,8 +100,7 @@ public class ThematicBreakParser extends AbstractBlockParser {
         return BlockStart.none();
       }
       BasedSequence line = state.getLine();
-      final BasedSequence input = line.subSequence(state.getNextNonSpaceIndex(), line.length());
-      if (PATTERN.matcher(input).matches()) {
+      if (BlockStartScanner.isThematicBreak(line, state.getNextNonSpaceIndex())) {
         return BlockStart.of(new ThematicBreakParser(line.subSequence(state.getIndex())))
             .atIndex(line.length());
       }
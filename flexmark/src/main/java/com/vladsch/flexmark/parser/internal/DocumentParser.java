@@ -1,13 +1,18 @@
 package com.vladsch.flexmark.parser.internal;
 
 import static com.vladsch.flexmark.parser.Parser.BLANK_LINES_IN_AST;
+import static com.vladsch.flexmark.parser.Parser.INLINE_PARSING_EXECUTOR;
+import static com.vladsch.flexmark.parser.Parser.PARALLEL_INLINE_PARSING;
+import static com.vladsch.flexmark.parser.Parser.STREAM_READER_INPUT;
 import static com.vladsch.flexmark.parser.Parser.TRACK_DOCUMENT_LINES;
 
 import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.RefNode;
 import com.vladsch.flexmark.ast.util.ClassifyingBlockTracker;
 import com.vladsch.flexmark.ast.util.Parsing;
 import com.vladsch.flexmark.parser.InlineParser;
 import com.vladsch.flexmark.parser.InlineParserFactory;
+import com.vladsch.flexmark.parser.ParseMetrics;
 import com.vladsch.flexmark.parser.Parser;
 import com.vladsch.flexmark.parser.block.BlockContinue;
 import com.vladsch.flexmark.parser.block.BlockParser;
@@ -37,6 +42,7 @@ import com.vladsch.flexmark.util.ast.Block;
 import com.vladsch.flexmark.util.ast.Document;
 import com.vladsch.flexmark.util.ast.KeepTrailingBlankLineContainer;
 import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.ast.ReferenceNode;
 import com.vladsch.flexmark.util.collection.ItemFactoryMap;
 import com.vladsch.flexmark.util.collection.iteration.ReversibleIterable;
 import com.vladsch.flexmark.util.data.DataHolder;
@@ -44,7 +50,10 @@ import com.vladsch.flexmark.util.data.DataKey;
 import com.vladsch.flexmark.util.data.MutableDataHolder;
 import com.vladsch.flexmark.util.dependency.DependencyResolver;
 import com.vladsch.flexmark.util.misc.CharPredicate;
+import com.vladsch.flexmark.util.misc.StageMetrics;
 import com.vladsch.flexmark.util.sequence.BasedSequence;
+import com.vladsch.flexmark.util.sequence.ChunkedCharStore;
+import com.vladsch.flexmark.util.sequence.ChunkedSequence;
 import com.vladsch.flexmark.util.sequence.PrefixedSubSequence;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -56,10 +65,17 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class DocumentParser implements ParserState {
   public static final InlineParserFactory INLINE_PARSER_FACTORY = CommonmarkInlineParser::new;
 
+  // fewest blocks worth handing to a parallel inline parsing task
+  private static final int MIN_PARALLEL_INLINE_TASK_BLOCKS = 64;
+
   private static final Map<CustomBlockParserFactory, DataKey<Boolean>> CORE_FACTORIES_DATA_KEYS =
       new HashMap<>();
 
@@ -132,15 +148,24 @@ public class DocumentParser implements ParserState {
   private boolean isBlankLine;
 
   private final List<BlockParserFactory> blockParserFactories;
+  private final List<List<BlockParserFactory>> blockStartFactories;
   private final List<List<ParagraphPreProcessorFactory>> paragraphPreProcessorDependencies;
   private final List<List<BlockPreProcessorFactory>> blockPreProcessorDependencies;
   private final InlineParser inlineParser;
-  private final DocumentBlockParser documentBlockParser;
   private final boolean blankLinesInAst;
   private final boolean trackDocumentLines;
-  private final List<BasedSequence> lineSegments = new ArrayList<>();
+  private final boolean streamReaderInput;
+  // plan to create inline parsers for parallel inline parsing, null if not parsing in parallel
+  private final DocumentParserPlan plan;
+  private final Executor inlineParsingExecutor;
+  private final List<InlineParser> taskInlineParsers = new ArrayList<>();
   private final List<BlockParser> activeBlockParsers = new ArrayList<>();
-  private final ClassifyingBlockTracker blockTracker = new ClassifyingBlockTracker();
+
+  // per document state, replaced at the end of each parse so the parser can be reused
+  private DocumentBlockParser documentBlockParser;
+  private List<BasedSequence> lineSegments;
+  private ClassifyingBlockTracker blockTracker;
+  private boolean parsing;
 
   @Override
   public List<BasedSequence> getLineSegments() {
@@ -191,6 +216,13 @@ public class DocumentParser implements ParserState {
   private final DataHolder options;
   private ParserPhase currentPhase;
 
+  // metrics of the document being parsed, null when not collected
+  private ParseMetrics parseMetrics;
+  private long phaseStartNanos;
+  private long phaseStartAllocatedBytes;
+  // delimiter runs of inline parsers used for parallel inline parsing
+  private int taskDelimiterRunCount;
+
   @Override
   public ParserPhase getParserPhase() {
     return currentPhase;
@@ -204,25 +236,128 @@ public class DocumentParser implements ParserState {
       List<List<ParagraphPreProcessorFactory>> paragraphPreProcessorDependencies,
       List<List<BlockPreProcessorFactory>> blockPreProcessorDependencies,
       InlineParser inlineParser) {
-    this.options = options;
-    this.myParsing = inlineParser.getParsing();
+    this(
+        null,
+        inlineParser,
+        options,
+        DocumentParserPlan.applyBlockParserFactories(options, customBlockParserFactories),
+        customBlockParserFactories,
+        paragraphPreProcessorDependencies,
+        blockPreProcessorDependencies);
+  }
 
-    List<BlockParserFactory> blockParserFactories =
-        new ArrayList<>(customBlockParserFactories.size());
-    for (CustomBlockParserFactory factory : customBlockParserFactories) {
-      blockParserFactories.add(factory.apply(options));
-    }
+  /**
+   * Create a document parser from a precomputed parser plan
+   *
+   * @param plan parser plan with block parser factories already applied to the options
+   * @param inlineParser inline parser to use, owned by this document parser
+   */
+  public DocumentParser(DocumentParserPlan plan, InlineParser inlineParser) {
+    this(
+        plan,
+        inlineParser,
+        plan.options,
+        plan.blockParserFactories,
+        null,
+        plan.paragraphPreProcessorDependencies,
+        plan.blockPreProcessorDependencies);
+  }
 
+  private DocumentParser(
+      DocumentParserPlan plan,
+      InlineParser inlineParser,
+      DataHolder options,
+      List<BlockParserFactory> blockParserFactories,
+      List<CustomBlockParserFactory> customBlockParserFactories,
+      List<List<ParagraphPreProcessorFactory>> paragraphPreProcessorDependencies,
+      List<List<BlockPreProcessorFactory>> blockPreProcessorDependencies) {
+    this.options = options;
+    this.myParsing = inlineParser.getParsing();
     this.blockParserFactories = blockParserFactories;
+    this.blockStartFactories =
+        plan != null
+            ? plan.blockStartFactories
+            : DocumentParserPlan.blockStartFactories(
+                options, customBlockParserFactories, blockParserFactories);
     this.paragraphPreProcessorDependencies = paragraphPreProcessorDependencies;
     this.blockPreProcessorDependencies = blockPreProcessorDependencies;
     this.inlineParser = inlineParser;
-
-    this.documentBlockParser = new DocumentBlockParser();
-    activateBlockParser(this.documentBlockParser);
-    this.currentPhase = ParserPhase.STARTING;
     this.blankLinesInAst = BLANK_LINES_IN_AST.get(options);
     this.trackDocumentLines = TRACK_DOCUMENT_LINES.get(options);
+    this.streamReaderInput = STREAM_READER_INPUT.get(options);
+    this.plan =
+        plan != null
+                && PARALLEL_INLINE_PARSING.get(options)
+                && plan.isParallelInlineParsingSupported()
+            ? plan
+            : null;
+    this.inlineParsingExecutor = this.plan == null ? null : INLINE_PARSING_EXECUTOR.get(options);
+
+    resetDocumentState();
+  }
+
+  /**
+   * Reset all per document state so that this instance does not hold on to the last parsed document
+   * and can be used to parse the next one.
+   */
+  private void resetDocumentState() {
+    line = null;
+    lineWithEOL = null;
+    lineNumber = 0;
+    lineStart = 0;
+    lineEOLIndex = 0;
+    lineEndIndex = 0;
+    index = 0;
+    column = 0;
+    columnIsInTab = false;
+    nextNonSpace = 0;
+    nextNonSpaceColumn = 0;
+    indent = 0;
+    blank = false;
+    isBlankLine = false;
+
+    // line segments are kept by the document so they cannot be reused
+    lineSegments = new ArrayList<>();
+    activeBlockParsers.clear();
+    lastLineBlank.clear();
+    blockTracker = new ClassifyingBlockTracker();
+    documentBlockParser = new DocumentBlockParser();
+    activateBlockParser(documentBlockParser);
+    currentPhase = ParserPhase.STARTING;
+    parseMetrics = null;
+    taskDelimiterRunCount = 0;
+  }
+
+  /**
+   * Collect metrics of the next parsed document, cleared once it is parsed
+   *
+   * @param parseMetrics metrics to add to or null to not collect metrics
+   */
+  public void setParseMetrics(ParseMetrics parseMetrics) {
+    this.parseMetrics = parseMetrics;
+  }
+
+  /**
+   * Start a parser phase, adding metrics of the current phase if collecting metrics
+   *
+   * @param phase phase to start
+   */
+  private void startPhase(ParserPhase phase) {
+    if (parseMetrics != null) {
+      if (currentPhase != ParserPhase.STARTING) {
+        parseMetrics.phase(currentPhase).add(phaseStartNanos, phaseStartAllocatedBytes);
+      }
+      phaseStartAllocatedBytes = StageMetrics.threadAllocatedBytes();
+      phaseStartNanos = System.nanoTime();
+    }
+    currentPhase = phase;
+  }
+
+  /**
+   * @return true if this parser is in the middle of parsing a document
+   */
+  public boolean isParsing() {
+    return parsing;
   }
 
   @Override
@@ -235,6 +370,10 @@ public class DocumentParser implements ParserState {
     return documentBlockParser.getBlock();
   }
 
+  static boolean isCoreBlockParserFactory(CustomBlockParserFactory factory) {
+    return CORE_FACTORIES_DATA_KEYS.containsKey(factory);
+  }
+
   public static List<CustomBlockParserFactory> calculateBlockParserFactories(
       DataHolder options, List<CustomBlockParserFactory> customBlockParserFactories) {
     // By having the custom factories come first, extensions are able to change behavior of core
@@ -290,38 +429,133 @@ public class DocumentParser implements ParserState {
    * @return Document node of the resulting AST
    */
   public Document parse(CharSequence source) {
-    BasedSequence input = BasedSequence.of(source);
+    if (parsing) {
+      throw new IllegalStateException("DocumentParser.parse() is not re-entrant");
+    }
+
+    parsing = true;
+    try {
+      return parseDocument(BasedSequence.of(source), null);
+    } finally {
+      resetDocumentState();
+      parsing = false;
+    }
+  }
+
+  /**
+   * Parse with initial document state, used to parse part of a document with state it shares with
+   * the rest of the document, like its reference repository.
+   *
+   * @param source source sequence to parse
+   * @param documentState data set on the document before any parsing is done
+   * @return Document node of the resulting AST
+   */
+  public Document parse(CharSequence source, DataHolder documentState) {
+    if (parsing) {
+      throw new IllegalStateException("DocumentParser.parse() is not re-entrant");
+    }
+
+    parsing = true;
+    try {
+      return parseDocument(BasedSequence.of(source), documentState);
+    } finally {
+      resetDocumentState();
+      parsing = false;
+    }
+  }
+
+  private Document parseDocument(BasedSequence input, DataHolder documentState) {
     int lineStart = 0;
     int lineBreak;
-    int lineEOL;
-    int lineEnd;
     lineNumber = 0;
 
     documentBlockParser.initializeDocument(options, input);
+    if (documentState != null) {
+      documentBlockParser.getBlock().setAll(documentState);
+    }
     inlineParser.initializeDocument(documentBlockParser.getBlock());
 
-    currentPhase = ParserPhase.PARSE_BLOCKS;
+    startPhase(ParserPhase.PARSE_BLOCKS);
 
     while ((lineBreak = Parsing.findLineBreak(input, lineStart)) != -1) {
-      BasedSequence line = input.subSequence(lineStart, lineBreak);
-      lineEOL = lineBreak;
-      if (lineBreak + 1 < input.length()
-          && input.charAt(lineBreak) == '\r'
-          && input.charAt(lineBreak + 1) == '\n') {
-        lineEnd = lineBreak + 2;
-      } else {
-        lineEnd = lineBreak + 1;
+      lineStart = incorporateLine(input, lineStart, lineBreak);
+    }
+
+    incorporateLastLine(input, lineStart);
+    return finalizeAndProcess();
+  }
+
+  /**
+   * Parse blocks of the input as it is read, lines are incorporated as soon as their line break is
+   * read. Inline parsing still starts only after all input is read, since reference definitions
+   * anywhere in the document affect it.
+   *
+   * @param reader input reader
+   * @return parsed document
+   */
+  private Document parseDocument(Reader reader) throws IOException {
+    ChunkedCharStore store = new ChunkedCharStore();
+    BasedSequence input = ChunkedSequence.of(store);
+    int lineStart = 0;
+    int searchStart = 0;
+    int lineBreak;
+    lineNumber = 0;
+
+    documentBlockParser.initializeDocument(options, input);
+    inlineParser.initializeDocument(documentBlockParser.getBlock());
+
+    startPhase(ParserPhase.PARSE_BLOCKS);
+
+    boolean endOfInput = false;
+    while (!endOfInput) {
+      endOfInput = store.read(reader) < 0;
+      int available = store.length();
+
+      while ((lineBreak = Parsing.findLineBreak(input, searchStart)) != -1) {
+        if (!endOfInput && lineBreak + 1 == available && input.charAt(lineBreak) == '\r') {
+          // need the next character to know if this is a CR LF line break
+          break;
+        }
+        lineStart = incorporateLine(input, lineStart, lineBreak);
+        searchStart = lineStart;
       }
 
-      this.lineWithEOL = input.subSequence(lineStart, lineEnd);
-      this.lineStart = lineStart;
-      this.lineEOLIndex = lineEOL;
-      this.lineEndIndex = lineEnd;
-      incorporateLine(line);
-      lineNumber++;
-      lineStart = lineEnd;
+      if (lineBreak == -1) {
+        searchStart = available;
+      }
     }
 
+    incorporateLastLine(input, lineStart);
+    return finalizeAndProcess();
+  }
+
+  /**
+   * @param input document input
+   * @param lineStart start of line
+   * @param lineBreak index of line break character ending the line
+   * @return start of next line
+   */
+  private int incorporateLine(BasedSequence input, int lineStart, int lineBreak) {
+    BasedSequence line = input.subSequence(lineStart, lineBreak);
+    int lineEnd;
+    if (lineBreak + 1 < input.length()
+        && input.charAt(lineBreak) == '\r'
+        && input.charAt(lineBreak + 1) == '\n') {
+      lineEnd = lineBreak + 2;
+    } else {
+      lineEnd = lineBreak + 1;
+    }
+
+    this.lineWithEOL = input.subSequence(lineStart, lineEnd);
+    this.lineStart = lineStart;
+    this.lineEOLIndex = lineBreak;
+    this.lineEndIndex = lineEnd;
+    incorporateLine(line);
+    lineNumber++;
+    return lineEnd;
+  }
+
+  private void incorporateLastLine(BasedSequence input, int lineStart) {
     if (input.length() > 0 && (lineStart == 0 || lineStart < input.length())) {
       this.lineWithEOL = input.subSequence(lineStart, input.length());
       this.lineStart = lineStart;
@@ -330,11 +564,27 @@ public class DocumentParser implements ParserState {
       incorporateLine(lineWithEOL);
       lineNumber++;
     }
-
-    return finalizeAndProcess();
   }
 
   public Document parse(Reader input) throws IOException {
+    if (!streamReaderInput) {
+      return parse(readFully(input));
+    }
+
+    if (parsing) {
+      throw new IllegalStateException("DocumentParser.parse() is not re-entrant");
+    }
+
+    parsing = true;
+    try {
+      return parseDocument(input);
+    } finally {
+      resetDocumentState();
+      parsing = false;
+    }
+  }
+
+  private static CharSequence readFully(Reader input) throws IOException {
     BufferedReader bufferedReader;
     if (input instanceof BufferedReader) {
       bufferedReader = (BufferedReader) input;
@@ -354,8 +604,7 @@ public class DocumentParser implements ParserState {
       file.append(buffer, 0, charsRead);
     }
 
-    CharSequence source = BasedSequence.of(file.toString());
-    return parse(source);
+    return BasedSequence.of(file.toString());
   }
 
   @Override
@@ -722,9 +971,23 @@ public class DocumentParser implements ParserState {
 
   private BlockStartImpl findBlockStart(BlockParser blockParser) {
     MatchedBlockParser matchedBlockParser = new MatchedBlockParserImpl(blockParser);
-    for (BlockParserFactory blockParserFactory : blockParserFactories) {
+    char c = nextNonSpace < line.length() ? line.charAt(nextNonSpace) : '\uFFFF';
+    List<BlockParserFactory> factories =
+        c < DocumentParserPlan.BLOCK_START_CHARACTERS
+            ? blockStartFactories.get(c)
+            : blockParserFactories;
+    for (BlockParserFactory blockParserFactory : factories) {
       if (blockParser.canInterruptBy(blockParserFactory)) {
-        BlockStart result = blockParserFactory.tryStart(this, matchedBlockParser);
+        BlockStart result;
+        if (parseMetrics == null) {
+          result = blockParserFactory.tryStart(this, matchedBlockParser);
+        } else {
+          long startAllocatedBytes = StageMetrics.threadAllocatedBytes();
+          long startNanos = System.nanoTime();
+          result = blockParserFactory.tryStart(this, matchedBlockParser);
+          parseMetrics.blockParserFactory(blockParserFactory).add(startNanos, startAllocatedBytes);
+        }
+
         if (result instanceof BlockStartImpl) {
           return (BlockStartImpl) result;
         }
@@ -779,11 +1042,139 @@ public class DocumentParser implements ParserState {
    * appropriate.
    */
   private void processInlines() {
+    if (plan != null) {
+      List<BlockParser> blockParsers = new ArrayList<>(blockTracker.allBlockParsers());
+      Executor executor =
+          inlineParsingExecutor != null ? inlineParsingExecutor : ForkJoinPool.commonPool();
+      int parallelism =
+          executor instanceof ForkJoinPool
+              ? ((ForkJoinPool) executor).getParallelism()
+              : Runtime.getRuntime().availableProcessors();
+      // the calling thread parses one range
+      int tasks = Math.min(blockParsers.size() / MIN_PARALLEL_INLINE_TASK_BLOCKS, parallelism + 1);
+      if (tasks > 1) {
+        processInlinesParallel(blockParsers, tasks, executor);
+        return;
+      }
+    }
+
     for (BlockParser blockParser : blockTracker.allBlockParsers()) {
       blockParser.parseInlines(inlineParser);
     }
   }
 
+  /**
+   * Split inline parsing of blocks into consecutive ranges, each parsed by its own inline parser.
+   * The first range is parsed on the calling thread with the document's inline parser.
+   *
+   * @param blockParsers all block parsers of the document
+   * @param tasks number of ranges
+   * @param executor executor for all but the first range
+   */
+  private void processInlinesParallel(
+      List<BlockParser> blockParsers, int tasks, Executor executor) {
+    Document document = documentBlockParser.getBlock();
+
+    // initialize on this thread, initialization reads document data which is not thread safe
+    while (taskInlineParsers.size() < tasks - 1) {
+      taskInlineParsers.add(plan.createInlineParser());
+    }
+    for (int i = 0; i < tasks - 1; i++) {
+      taskInlineParsers.get(i).initializeDocument(document);
+    }
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks - 1];
+    int blockCount = blockParsers.size();
+    Throwable failure = null;
+
+    try {
+      for (int i = 1; i < tasks; i++) {
+        InlineParser taskInlineParser = taskInlineParsers.get(i - 1);
+        List<BlockParser> range =
+            blockParsers.subList(blockCount * i / tasks, blockCount * (i + 1) / tasks);
+        futures[i - 1] =
+            CompletableFuture.runAsync(() -> parseInlines(range, taskInlineParser), executor);
+      }
+
+      parseInlines(blockParsers.subList(0, blockCount / tasks), inlineParser);
+    } catch (RuntimeException | Error e) {
+      failure = e;
+    }
+
+    // wait for all tasks before finalizing their inline parsers, even if one of them failed
+    for (int i = 0; i < tasks - 1; i++) {
+      if (futures[i] != null) {
+        try {
+          futures[i].join();
+        } catch (RuntimeException e) {
+          failure =
+              addFailure(
+                  failure,
+                  e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        }
+      }
+    }
+
+    for (int i = 0; i < tasks - 1; i++) {
+      if (parseMetrics != null) {
+        taskDelimiterRunCount += delimiterRunCount(taskInlineParsers.get(i));
+      }
+      try {
+        taskInlineParsers.get(i).finalizeDocument(document);
+      } catch (RuntimeException | Error e) {
+        failure = addFailure(failure, e);
+      }
+    }
+
+    if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+    if (failure instanceof Error) throw (Error) failure;
+    if (failure != null) throw new CompletionException(failure);
+  }
+
+  private static Throwable addFailure(Throwable failure, Throwable e) {
+    if (failure == null) return e;
+    if (failure != e) failure.addSuppressed(e);
+    return failure;
+  }
+
+  private static int delimiterRunCount(InlineParser inlineParser) {
+    return inlineParser instanceof InlineParserImpl
+        ? ((InlineParserImpl) inlineParser).getDelimiterRunCount()
+        : 0;
+  }
+
+  /**
+   * Add line, node and delimiter run counts of the parsed document to parse metrics
+   *
+   * @param document parsed document
+   */
+  private void countNodes(Document document) {
+    int blockCount = 0;
+    int inlineNodeCount = 0;
+    int linkRefCount = 0;
+    for (Node node : document.getDescendants()) {
+      // reference definitions are not blocks but are parsed from paragraphs, not inline content
+      if (node instanceof Block || node instanceof ReferenceNode) {
+        blockCount++;
+      } else {
+        inlineNodeCount++;
+        if (node instanceof RefNode) linkRefCount++;
+      }
+    }
+
+    parseMetrics.setLineCount(lineNumber);
+    parseMetrics.setBlockCount(blockCount);
+    parseMetrics.setInlineNodeCount(inlineNodeCount);
+    parseMetrics.setLinkRefCount(linkRefCount);
+    parseMetrics.setDelimiterRunCount(delimiterRunCount(inlineParser) + taskDelimiterRunCount);
+  }
+
+  private static void parseInlines(List<BlockParser> blockParsers, InlineParser inlineParser) {
+    for (BlockParser blockParser : blockParsers) {
+      blockParser.parseInlines(inlineParser);
+    }
+  }
+
   @Override
   public boolean endsWithBlankLine(Node block) {
     while (block != null) {
@@ -1035,7 +1426,7 @@ public class DocumentParser implements ParserState {
     // }
 
     // need to run block pre-processors at this point, before inline processing
-    currentPhase = ParserPhase.PRE_PROCESS_PARAGRAPHS;
+    startPhase(ParserPhase.PRE_PROCESS_PARAGRAPHS);
     this.preProcessParagraphs();
 
     // if (LOG.isDebugEnabled()) {
@@ -1043,7 +1434,7 @@ public class DocumentParser implements ParserState {
     // AstCollectingVisitor().collectAndGetAstText(documentBlockParser.getBlock()));
     // }
 
-    currentPhase = ParserPhase.PRE_PROCESS_BLOCKS;
+    startPhase(ParserPhase.PRE_PROCESS_BLOCKS);
     this.preProcessBlocks();
 
     // if (LOG.isDebugEnabled()) {
@@ -1052,7 +1443,7 @@ public class DocumentParser implements ParserState {
     // }
 
     // can naw run inline processing
-    currentPhase = ParserPhase.PARSE_INLINES;
+    startPhase(ParserPhase.PARSE_INLINES);
     this.processInlines();
 
     // if (LOG.isDebugEnabled()) {
@@ -1060,8 +1451,11 @@ public class DocumentParser implements ParserState {
     // AstCollectingVisitor().collectAndGetAstText(documentBlockParser.getBlock()));
     // }
 
-    currentPhase = ParserPhase.DONE;
+    startPhase(ParserPhase.DONE);
     Document document = this.documentBlockParser.getBlock();
+    if (parseMetrics != null) {
+      countNodes(document);
+    }
     inlineParser.finalizeDocument(document);
 
     return document;
@@ -0,0 +1,213 @@
+package com.vladsch.flexmark.parser.internal;
+
+import com.vladsch.flexmark.parser.InlineParser;
+import com.vladsch.flexmark.parser.InlineParserExtensionFactory;
+import com.vladsch.flexmark.parser.InlineParserFactory;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.parser.block.BlockParserFactory;
+import com.vladsch.flexmark.parser.block.BlockPreProcessorFactory;
+import com.vladsch.flexmark.parser.block.CustomBlockParserFactory;
+import com.vladsch.flexmark.parser.block.ParagraphPreProcessorFactory;
+import com.vladsch.flexmark.parser.core.ReferencePreProcessorFactory;
+import com.vladsch.flexmark.parser.delimiter.DelimiterProcessor;
+import com.vladsch.flexmark.util.data.DataHolder;
+import com.vladsch.flexmark.util.misc.CharPredicate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable parse plan computed once per {@link com.vladsch.flexmark.parser.Parser} instance.
+ *
+ * <p>Holds the block parser factories already applied to the parser options, the resolved
+ * pre-processor dependency stages and everything needed by the inline parser factory, so that
+ * creating a {@link DocumentParser} for a document does not repeat any of the option dependent
+ * setup. The plan is shared by all threads using the parser, per document state lives in the {@link
+ * DocumentParser} and {@link InlineParser} instances it creates.
+ */
+public class DocumentParserPlan {
+  // block start dispatch by first non-space character is done for ASCII characters
+  static final int BLOCK_START_CHARACTERS = 128;
+
+  final DataHolder options;
+  final List<BlockParserFactory> blockParserFactories;
+  final List<List<BlockParserFactory>> blockStartFactories;
+  final List<List<ParagraphPreProcessorFactory>> paragraphPreProcessorDependencies;
+  final List<List<BlockPreProcessorFactory>> blockPreProcessorDependencies;
+  private final InlineParserFactory inlineParserFactory;
+  private final BitSet specialCharacters;
+  private final BitSet delimiterCharacters;
+  private final Map<Character, DelimiterProcessor> delimiterProcessors;
+  private final LinkRefProcessorData linkRefProcessors;
+  private final List<InlineParserExtensionFactory> inlineParserExtensionFactories;
+  private final boolean coreBlockParsers;
+  private final boolean coreBlockParsing;
+
+  public DocumentParserPlan(
+      DataHolder options,
+      List<CustomBlockParserFactory> customBlockParserFactories,
+      List<List<ParagraphPreProcessorFactory>> paragraphPreProcessorDependencies,
+      List<List<BlockPreProcessorFactory>> blockPreProcessorDependencies,
+      InlineParserFactory inlineParserFactory,
+      BitSet specialCharacters,
+      BitSet delimiterCharacters,
+      Map<Character, DelimiterProcessor> delimiterProcessors,
+      LinkRefProcessorData linkRefProcessors,
+      List<InlineParserExtensionFactory> inlineParserExtensionFactories) {
+    this.options = options;
+    this.blockParserFactories =
+        Collections.unmodifiableList(
+            applyBlockParserFactories(options, customBlockParserFactories));
+    this.blockStartFactories =
+        blockStartFactories(options, customBlockParserFactories, blockParserFactories);
+    this.paragraphPreProcessorDependencies = paragraphPreProcessorDependencies;
+    this.blockPreProcessorDependencies = blockPreProcessorDependencies;
+    this.inlineParserFactory = inlineParserFactory;
+    this.specialCharacters = specialCharacters;
+    this.delimiterCharacters = delimiterCharacters;
+    this.delimiterProcessors = delimiterProcessors;
+    this.linkRefProcessors = linkRefProcessors;
+    this.inlineParserExtensionFactories = inlineParserExtensionFactories;
+    this.coreBlockParsers = isCoreBlockParsers(customBlockParserFactories);
+    this.coreBlockParsing =
+        coreBlockParsers
+            && isCorePreProcessing(
+                paragraphPreProcessorDependencies, blockPreProcessorDependencies);
+  }
+
+  private static boolean isCoreBlockParsers(
+      List<CustomBlockParserFactory> customBlockParserFactories) {
+    for (CustomBlockParserFactory factory : customBlockParserFactories) {
+      if (!DocumentParser.isCoreBlockParserFactory(factory)) return false;
+    }
+    return true;
+  }
+
+  private static boolean isCorePreProcessing(
+      List<List<ParagraphPreProcessorFactory>> paragraphPreProcessorDependencies,
+      List<List<BlockPreProcessorFactory>> blockPreProcessorDependencies) {
+    for (List<ParagraphPreProcessorFactory> stage : paragraphPreProcessorDependencies) {
+      for (ParagraphPreProcessorFactory factory : stage) {
+        if (!(factory instanceof ReferencePreProcessorFactory)) return false;
+      }
+    }
+
+    for (List<BlockPreProcessorFactory> stage : blockPreProcessorDependencies) {
+      if (!stage.isEmpty()) return false;
+    }
+    return true;
+  }
+
+  static List<BlockParserFactory> applyBlockParserFactories(
+      DataHolder options, List<CustomBlockParserFactory> customBlockParserFactories) {
+    List<BlockParserFactory> blockParserFactories =
+        new ArrayList<>(customBlockParserFactories.size());
+    for (CustomBlockParserFactory factory : customBlockParserFactories) {
+      blockParserFactories.add(factory.apply(options));
+    }
+    return blockParserFactories;
+  }
+
+  /**
+   * Block parser factories to try for a line by the line's first non-space ASCII character, each
+   * list is in the same order as the full list and includes factories which do not declare their
+   * block start characters
+   *
+   * @param options parser options
+   * @param customBlockParserFactories custom block parser factories
+   * @param blockParserFactories block parser factories applied to the options, by the same index
+   * @return lists of block parser factories indexed by character
+   */
+  static List<List<BlockParserFactory>> blockStartFactories(
+      DataHolder options,
+      List<CustomBlockParserFactory> customBlockParserFactories,
+      List<BlockParserFactory> blockParserFactories) {
+    int iMax = customBlockParserFactories.size();
+    CharPredicate[] startCharacters = new CharPredicate[iMax];
+    boolean haveStartCharacters = false;
+    for (int i = 0; i < iMax; i++) {
+      startCharacters[i] = customBlockParserFactories.get(i).getBlockStartCharacters(options);
+      haveStartCharacters |= startCharacters[i] != null;
+    }
+
+    List<List<BlockParserFactory>> blockStartFactories = new ArrayList<>(BLOCK_START_CHARACTERS);
+    Map<List<BlockParserFactory>, List<BlockParserFactory>> distinctFactories = new HashMap<>();
+    for (char c = 0; c < BLOCK_START_CHARACTERS; c++) {
+      if (!haveStartCharacters) {
+        blockStartFactories.add(blockParserFactories);
+        continue;
+      }
+
+      List<BlockParserFactory> factories = new ArrayList<>();
+      for (int i = 0; i < iMax; i++) {
+        if (startCharacters[i] == null || startCharacters[i].test(c)) {
+          factories.add(blockParserFactories.get(i));
+        }
+      }
+      blockStartFactories.add(
+          distinctFactories.computeIfAbsent(factories, Collections::unmodifiableList));
+    }
+    return blockStartFactories;
+  }
+
+  public DataHolder getOptions() {
+    return options;
+  }
+
+  /**
+   * Per document parser state can only be reused between documents when the inline parser is known
+   * to fully re-initialize itself in {@link InlineParser#initializeDocument}, which is the case for
+   * the core inline parser.
+   *
+   * @return true if document parsers created by this plan can be reused for multiple documents
+   */
+  public boolean isReusable() {
+    return inlineParserFactory == DocumentParser.INLINE_PARSER_FACTORY;
+  }
+
+  /**
+   * Blocks can be inline parsed by separate inline parser instances in parallel only when inline
+   * parsing has no per document state other than the reference repository, which is complete once
+   * block pre-processing is done. Block parsers of extensions are not known to parse inlines
+   * without using shared state, so only core block parsers are allowed.
+   *
+   * @return true if inline parsing of blocks can be split between inline parsers
+   */
+  public boolean isParallelInlineParsingSupported() {
+    return isReusable()
+        && coreBlockParsers
+        && inlineParserExtensionFactories.isEmpty()
+        && linkRefProcessors.processors.isEmpty();
+  }
+
+  /**
+   * Part of a document can be re-parsed on its own only when block parsing is done by core block
+   * parsers, whose blocks do not depend on blocks before a blank line, and inline parsing of a
+   * block depends only on the reference repository.
+   *
+   * @return true if documents parsed with this plan can be incrementally re-parsed
+   * @see IncrementalParser
+   */
+  public boolean isIncrementalParsingSupported() {
+    return coreBlockParsing
+        && isParallelInlineParsingSupported()
+        && !Parser.TRACK_DOCUMENT_LINES.get(options);
+  }
+
+  public InlineParser createInlineParser() {
+    return inlineParserFactory.inlineParser(
+        options,
+        specialCharacters,
+        delimiterCharacters,
+        delimiterProcessors,
+        linkRefProcessors,
+        inlineParserExtensionFactories);
+  }
+
+  public DocumentParser createDocumentParser() {
+    return new DocumentParser(this, createInlineParser());
+  }
+}
@@ -0,0 +1,279 @@
+package com.vladsch.flexmark.parser.internal;
+
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.Reference;
+import com.vladsch.flexmark.ast.ThematicBreak;
+import com.vladsch.flexmark.ast.util.ReferenceRepository;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.BlankLine;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.misc.CharPredicate;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Re-parse of a document after an edit of its text, which parses only the top level blocks around
+ * the edit and keeps the nodes of all other blocks.
+ *
+ * <p>The re-parsed region starts and ends at safe boundaries: line starts after a blank line which
+ * follows a paragraph, heading, thematic break or closed fenced code block. None of these blocks
+ * continue past a blank line and core block parsers start blocks after it the same as at the start
+ * of the document, so the region parsed on its own gives the same nodes as a full parse. The region
+ * is extended until its end is a safe boundary in the edited text.
+ *
+ * <p>Nodes outside the region are re-based on the edited text, nodes after the edit have their
+ * offsets shifted by the change in text length. Reference definitions are global to the document, a
+ * full parse is needed when the removed or the re-parsed region holds a {@link Reference}.
+ *
+ * <p>Nodes are re-based with {@link Node#mapSequences(UnaryOperator)}. A document holding a node
+ * with a segment which is left on the old text, for example of a class which does not override the
+ * method, or which is not a plain sub-sequence of the document text, needs a full parse.
+ */
+public final class IncrementalParser {
+  private final BasedSequence base;
+  private final BasedSequence edited;
+  private boolean failed;
+
+  private IncrementalParser(BasedSequence base, BasedSequence edited) {
+    this.base = base;
+    this.edited = edited;
+  }
+
+  /**
+   * Re-parse the region of the document affected by an edit
+   *
+   * @param documentParser document parser to use for the region
+   * @param document document to update, not modified when null is returned
+   * @param edited edited document text
+   * @param offset offset of the edit in the document text
+   * @param removedLength length of document text removed by the edit
+   * @param insertedLength length of text inserted by the edit
+   * @return updated document or null if the document needs a full parse
+   */
+  public static Document reparse(
+      DocumentParser documentParser,
+      Document document,
+      BasedSequence edited,
+      int offset,
+      int removedLength,
+      int insertedLength) {
+    BasedSequence chars = document.getChars();
+    BasedSequence base = chars.getBaseSequence();
+    if (chars.getStartOffset() != 0 || chars.length() != base.length()) return null;
+
+    List<Node> blocks = new ArrayList<>();
+    for (Node node = document.getFirstChild(); node != null; node = node.getNext()) {
+      blocks.add(node);
+    }
+
+    int iMax = blocks.size();
+    if (iMax == 0) return null;
+
+    // boundaries before each block, leading blank lines belong to the first one
+    int[] lineStarts = new int[iMax + 1];
+    for (int i = 1; i < iMax; i++) {
+      lineStarts[i] =
+          chars.lastIndexOfAny(CharPredicate.ANY_EOL, blocks.get(i).getStartOffset() - 1) + 1;
+    }
+    lineStarts[iMax] = chars.length();
+
+    // an edit at a line start can join it to the previous line, so the region starts before it
+    int regionStart = 0;
+    while (regionStart < iMax - 1 && lineStarts[regionStart + 1] < offset) regionStart++;
+    while (regionStart > 0 && !isSafeBoundary(chars, blocks, lineStarts, regionStart)) {
+      regionStart--;
+    }
+
+    int regionEnd = regionStart;
+    while (regionEnd < iMax && lineStarts[regionEnd] <= offset + removedLength) regionEnd++;
+
+    // reference definitions change the repository used by the rest of the document, the region is
+    // parsed with a copy so the document's repository is kept when the region has one
+    ReferenceRepository references = new ReferenceRepository(null);
+    references.putAll(Parser.REFERENCES.get(document));
+    MutableDataSet documentState = new MutableDataSet().set(Parser.REFERENCES, references);
+
+    int delta = insertedLength - removedLength;
+    Document regionDocument;
+    int checkedEnd = regionStart;
+    int step = 1;
+    while (true) {
+      for (; checkedEnd < regionEnd; checkedEnd++) {
+        if (hasReference(blocks.get(checkedEnd))) return null;
+      }
+
+      BasedSequence region =
+          edited.subSequence(lineStarts[regionStart], lineStarts[regionEnd] + delta);
+      regionDocument = documentParser.parse(region, documentState);
+      if (hasReference(regionDocument)) return null;
+
+      if (regionEnd == iMax || isSafeEnd(edited, regionDocument, region.getEndOffset())) break;
+
+      regionEnd = Math.min(iMax, regionEnd + step);
+      step *= 2;
+    }
+
+    IncrementalParser parser = new IncrementalParser(base, edited);
+    if (!parser.rebaseBlocks(blocks, regionStart, regionEnd, delta)) return null;
+
+    for (int i = regionStart; i < regionEnd; i++) {
+      blocks.get(i).unlink();
+    }
+
+    Node next = regionEnd < iMax ? blocks.get(regionEnd) : null;
+    Node node = regionDocument.getFirstChild();
+    while (node != null) {
+      Node nextNode = node.getNext();
+      node.unlink();
+      if (next != null) {
+        next.insertBefore(node);
+      } else {
+        document.appendChild(node);
+      }
+      node = nextNode;
+    }
+
+    document.setChars(edited);
+    return document;
+  }
+
+  /**
+   * @param node top level block
+   * @return true if the block is known to be closed by the blank line following it
+   */
+  private static boolean isClosedByBlankLine(Node node) {
+    if (node instanceof FencedCodeBlock) {
+      return ((FencedCodeBlock) node).getClosingMarker().isNotNull();
+    }
+    return node instanceof Paragraph || node instanceof Heading || node instanceof ThematicBreak;
+  }
+
+  private static int nextLineStart(BasedSequence chars, Node node) {
+    int end = node.getEndOffset();
+    if (end > node.getStartOffset() && chars.charAt(end - 1) == '\n') return end;
+
+    int eol = chars.indexOfAny(CharPredicate.ANY_EOL, end == 0 ? 0 : end - 1);
+    if (eol == -1) return chars.length();
+    return chars.charAt(eol) == '\r' && eol + 1 < chars.length() && chars.charAt(eol + 1) == '\n'
+        ? eol + 2
+        : eol + 1;
+  }
+
+  /**
+   * @param chars document text
+   * @param node last block before the boundary, not a blank line
+   * @param boundary start of line of the boundary
+   * @return true if the block is closed and separated from the boundary by blank lines
+   */
+  private static boolean isBlankLineSeparated(BasedSequence chars, Node node, int boundary) {
+    if (!isClosedByBlankLine(node)) return false;
+
+    int blankStart = nextLineStart(chars, node);
+    return blankStart < boundary && chars.subSequence(blankStart, boundary).isBlank();
+  }
+
+  private static boolean isSafeBoundary(
+      BasedSequence chars, List<Node> blocks, int[] lineStarts, int index) {
+    int i = index - 1;
+    while (i >= 0 && blocks.get(i) instanceof BlankLine) i--;
+    return i < 0 || isBlankLineSeparated(chars, blocks.get(i), lineStarts[index]);
+  }
+
+  private static boolean isSafeEnd(BasedSequence chars, Document regionDocument, int regionEnd) {
+    Node node = regionDocument.getLastChild();
+    while (node instanceof BlankLine) node = node.getPrevious();
+
+    // only blank lines after the region start boundary
+    return node == null || isBlankLineSeparated(chars, node, regionEnd);
+  }
+
+  private static boolean hasReference(Node node) {
+    if (node instanceof Reference) return true;
+
+    for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+      if (hasReference(child)) return true;
+    }
+    return false;
+  }
+
+  private static void mapSequences(Node node, UnaryOperator<BasedSequence> mapper) {
+    node.mapSequences(mapper);
+    for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+      mapSequences(child, mapper);
+    }
+  }
+
+  /**
+   * Re-base the blocks outside the region on the edited text
+   *
+   * @param blocks top level blocks of the document
+   * @param regionStart index of the first re-parsed block
+   * @param regionEnd index after the last re-parsed block
+   * @param delta change in text length
+   * @return true if all nodes were re-based, otherwise the nodes are restored to the document text
+   */
+  private boolean rebaseBlocks(List<Node> blocks, int regionStart, int regionEnd, int delta) {
+    int iMax = blocks.size();
+    for (int i = 0; i < iMax; i++) {
+      if (i == regionStart) i = regionEnd;
+      if (i < iMax) {
+        int shift = i < regionStart ? 0 : delta;
+        mapSequences(blocks.get(i), sequence -> rebase(sequence, base, edited, shift));
+      }
+    }
+
+    for (int i = 0; i < iMax && !failed; i++) {
+      if (i == regionStart) i = regionEnd;
+      if (i < iMax && !isRebased(blocks.get(i))) failed = true;
+    }
+
+    if (!failed) return true;
+
+    for (int i = 0; i < iMax; i++) {
+      if (i == regionStart) i = regionEnd;
+      if (i < iMax) {
+        int shift = i < regionStart ? 0 : -delta;
+        mapSequences(blocks.get(i), sequence -> rebase(sequence, edited, base, shift));
+      }
+    }
+    return false;
+  }
+
+  private BasedSequence rebase(
+      BasedSequence sequence, BasedSequence from, BasedSequence to, int shift) {
+    if (sequence == null || sequence.isNull()) return sequence;
+
+    // only plain sub-sequences of the document text have offsets that can be shifted
+    BasedSequence fromBase = from.getBaseSequence();
+    if (sequence.getBaseSequence() != fromBase || sequence.getClass() != fromBase.getClass()) {
+      failed = true;
+      return sequence;
+    }
+    return to.baseSubSequence(sequence.getStartOffset() + shift, sequence.getEndOffset() + shift);
+  }
+
+  private boolean isRebased(BasedSequence sequence) {
+    return sequence == null
+        || sequence.isNull()
+        || sequence.getBaseSequence() == edited.getBaseSequence();
+  }
+
+  // segments of node classes which do not map all their sequences are left on the old text
+  private boolean isRebased(Node node) {
+    if (!isRebased(node.getChars())) return false;
+    for (BasedSequence segment : node.getSegments()) {
+      if (!isRebased(segment)) return false;
+    }
+
+    for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+      if (!isRebased(child)) return false;
+    }
+    return true;
+  }
+}
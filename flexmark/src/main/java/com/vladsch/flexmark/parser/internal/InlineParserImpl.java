@@ -90,6 +90,9 @@ public class InlineParserImpl extends LightInlineParserImpl
   /** Top opening bracket (<code>[</code> or <code>![)</code>). */
   private Bracket lastBracket;
 
+  /** Delimiter runs scanned since the document was initialized */
+  private int delimiterRunCount;
+
   InlineParserImpl(
       DataHolder options,
       BitSet specialCharacters,
@@ -101,8 +104,9 @@ public class InlineParserImpl extends LightInlineParserImpl
     this.delimiterProcessors = delimiterProcessors;
     this.linkRefProcessorsData = linkRefProcessorsData;
     this.delimiterCharacters = delimiterCharacters;
-    this.originalSpecialCharacters = specialCharacters;
-    this.specialCharacters = specialCharacters;
+    // inline parser extensions add their characters per document, keep the parser's set unchanged
+    this.originalSpecialCharacters = (BitSet) specialCharacters.clone();
+    this.specialCharacters = this.originalSpecialCharacters;
     this.inlineParserExtensionFactories =
         !inlineParserExtensionFactories.isEmpty() ? inlineParserExtensionFactories : null;
 
@@ -120,6 +124,7 @@ public class InlineParserImpl extends LightInlineParserImpl
   public void initializeDocument(Document document) {
     this.document = document;
     this.referenceRepository = Parser.REFERENCES.get(document);
+    this.delimiterRunCount = 0;
 
     linkRefProcessors = new ArrayList<>(linkRefProcessorsData.processors.size());
     for (LinkRefProcessorFactory factory : linkRefProcessorsData.processors) {
@@ -160,6 +165,22 @@ public class InlineParserImpl extends LightInlineParserImpl
         }
       }
     }
+
+    // release document references, the parser may be reused for another document
+    this.document = null;
+    this.referenceRepository = null;
+    this.linkRefProcessors = null;
+    this.inlineParserExtensions = null;
+    this.block = null;
+    this.input = null;
+    this.currentText = null;
+  }
+
+  /**
+   * @return number of delimiter runs scanned since the document was initialized
+   */
+  public int getDelimiterRunCount() {
+    return delimiterRunCount;
   }
 
   @Override
@@ -714,6 +735,7 @@ public class InlineParserImpl extends LightInlineParserImpl
     Text node = appendSeparateText(input.subSequence(startIndex, index));
 
     // Add entry to stack for this opener
+    delimiterRunCount++;
     this.lastDelimiter =
         new Delimiter(
             input, node, delimiterChar, res.canOpen, res.canClose, this.lastDelimiter, startIndex);
@@ -1513,31 +1535,30 @@ public class InlineParserImpl extends LightInlineParserImpl
       return null;
     }
 
-    String before =
-        startIndex == 0 ? SequenceUtils.EOL : String.valueOf(input.charAt(startIndex - 1));
-
+    char charBefore = startIndex == 0 ? '\n' : input.charAt(startIndex - 1);
     char charAfter = peek();
-    String after = charAfter == SequenceUtils.NUL ? SequenceUtils.EOL : String.valueOf(charAfter);
+    if (charAfter == SequenceUtils.NUL) {
+      charAfter = '\n';
+    }
 
-    // We could be more lazy here, in most cases we don't need to do every match case.
     boolean beforeIsPunctuation;
     boolean afterIsPunctuation;
     boolean leftFlanking;
     boolean rightFlanking;
-    boolean beforeIsWhitespace = Parsing.UNICODE_WHITESPACE_CHAR.matcher(before).matches();
-    boolean afterIsWhitespace = Parsing.UNICODE_WHITESPACE_CHAR.matcher(after).matches();
+    boolean beforeIsWhitespace = Parsing.isUnicodeWhitespace(charBefore);
+    boolean afterIsWhitespace = Parsing.isUnicodeWhitespace(charAfter);
 
     if (options.inlineDelimiterDirectionalPunctuations) {
-      beforeIsPunctuation = Parsing.PUNCTUATION_OPEN.matcher(before).matches();
-      afterIsPunctuation = Parsing.PUNCTUATION_CLOSE.matcher(after).matches();
+      beforeIsPunctuation = Parsing.isPunctuationOpen(charBefore);
+      afterIsPunctuation = Parsing.isPunctuationClose(charAfter);
 
       leftFlanking =
           !afterIsWhitespace && (!afterIsPunctuation || beforeIsWhitespace || beforeIsPunctuation);
       rightFlanking =
           !beforeIsWhitespace && (!beforeIsPunctuation || afterIsWhitespace || afterIsPunctuation);
     } else {
-      beforeIsPunctuation = Parsing.PUNCTUATION.matcher(before).matches();
-      afterIsPunctuation = Parsing.PUNCTUATION.matcher(after).matches();
+      beforeIsPunctuation = Parsing.isPunctuation(charBefore);
+      afterIsPunctuation = Parsing.isPunctuation(charAfter);
 
       leftFlanking =
           !afterIsWhitespace
@@ -1547,6 +1568,9 @@ public class InlineParserImpl extends LightInlineParserImpl
               && !(beforeIsPunctuation && !afterIsWhitespace && !afterIsPunctuation);
     }
 
+    String before = charString(charBefore);
+    String after = charString(charAfter);
+
     boolean canOpen;
     boolean canClose;
 
@@ -1582,6 +1606,18 @@ public class InlineParserImpl extends LightInlineParserImpl
     return null;
   }
 
+  private static final String[] ASCII_CHAR_STRINGS = new String[128];
+
+  static {
+    for (int i = 0; i < ASCII_CHAR_STRINGS.length; i++) {
+      ASCII_CHAR_STRINGS[i] = String.valueOf((char) i);
+    }
+  }
+
+  private static String charString(char c) {
+    return c < ASCII_CHAR_STRINGS.length ? ASCII_CHAR_STRINGS[c] : String.valueOf(c);
+  }
+
   @Override
   public void processDelimiters(Delimiter stackBottom) {
     Map<Character, Delimiter> openersBottom = new HashMap<>();
@@ -1,5 +1,6 @@
 package com.vladsch.flexmark.parser.internal;
 
+import com.vladsch.flexmark.parser.ParseMetrics;
 import com.vladsch.flexmark.parser.PostProcessor;
 import com.vladsch.flexmark.parser.PostProcessorFactory;
 import com.vladsch.flexmark.util.ast.ClassifyingNodeTracker;
@@ -10,6 +11,7 @@ import com.vladsch.flexmark.util.collection.iteration.ReversibleIterable;
 import com.vladsch.flexmark.util.dependency.DependencyResolver;
 import com.vladsch.flexmark.util.dependency.DependentItem;
 import com.vladsch.flexmark.util.dependency.DependentItemMap;
+import com.vladsch.flexmark.util.misc.StageMetrics;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
@@ -20,9 +22,12 @@ import java.util.Set;
 
 public class PostProcessorManager {
   private final List<PostProcessorDependencyStage> postProcessorDependencies;
+  private final ParseMetrics parseMetrics;
 
-  private PostProcessorManager(List<PostProcessorDependencyStage> postProcessorDependencies) {
+  private PostProcessorManager(
+      List<PostProcessorDependencyStage> postProcessorDependencies, ParseMetrics parseMetrics) {
     this.postProcessorDependencies = postProcessorDependencies;
+    this.parseMetrics = parseMetrics;
   }
 
   public static List<PostProcessorDependencyStage> calculatePostProcessors(
@@ -41,8 +46,21 @@ public class PostProcessorManager {
 
   public static Document processDocument(
       Document document, List<PostProcessorDependencyStage> processorDependencies) {
+    return processDocument(document, processorDependencies, null);
+  }
+
+  /**
+   * @param document document to post process
+   * @param processorDependencies post processor dependency stages
+   * @param parseMetrics metrics to add post processor times to, null to not collect metrics
+   * @return post processed document
+   */
+  public static Document processDocument(
+      Document document,
+      List<PostProcessorDependencyStage> processorDependencies,
+      ParseMetrics parseMetrics) {
     if (!processorDependencies.isEmpty()) {
-      PostProcessorManager manager = new PostProcessorManager(processorDependencies);
+      PostProcessorManager manager = new PostProcessorManager(processorDependencies, parseMetrics);
       document = manager.postProcess(document);
     }
     return document;
@@ -59,6 +77,13 @@ public class PostProcessorManager {
       // provided
       // new ClassifyingNodeTracker()
       for (PostProcessorFactory dependent : stage.dependents) {
+        long startAllocatedBytes = 0;
+        long startNanos = 0;
+        if (parseMetrics != null) {
+          startAllocatedBytes = StageMetrics.threadAllocatedBytes();
+          startNanos = System.nanoTime();
+        }
+
         if (dependent.affectsGlobalScope()) {
           document = dependent.apply(document).processDocument(document);
           // assume it no longer reflects reality;
@@ -108,6 +133,10 @@ public class PostProcessorManager {
             }
           }
         }
+
+        if (parseMetrics != null) {
+          parseMetrics.postProcessor(dependent).add(startNanos, startAllocatedBytes);
+        }
       }
     }
 